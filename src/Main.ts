@@ -48,6 +48,8 @@ import { IPosition } from "./compiler/common/range/Position.ts";
 import { IRange, Range } from "./compiler/common/range/Range.ts";
 import { JUnitTestrunner } from "./compiler/common/testrunner/JUnitTestrunner.ts";
 import { TestPrintManager } from "./testgui/TestPrintManager.ts";
+import { WorkerInterpreter } from "./compiler/common/interpreter/worker/WorkerInterpreter.ts";
+import { Button } from "./tools/Button.ts";
 
 export class Main implements IMain {
 
@@ -77,6 +79,7 @@ export class Main implements IMain {
   currentWorkspace: CompilerWorkspaceImpl;
 
   interpreter: Interpreter;
+  workerInterpreter: WorkerInterpreter;
 
   decorations?: monaco.editor.IEditorDecorationsCollection;
 
@@ -148,6 +151,11 @@ export class Main implements IMain {
       this.breakpointManager, _debugger, new ProgramPointerManager(this),
       inputManager, fileManager, new ExceptionMarker(this));
 
+    this.workerInterpreter = new WorkerInterpreter(this.interpreter.printManager, inputManager);
+    this.workerInterpreter.eventManager.on("compilationFailed", (message: string) => {
+      this.interpreter.printManager.print(message, true, 0xff0000);
+    });
+
     this.errorMarker = new ErrorMarker();
 
     this.initButtons();
@@ -248,6 +256,25 @@ export class Main implements IMain {
 
     this.programControlButtons = new ProgramControlButtons(jQuery(programControlButtonDiv), this.interpreter, this.actionManager);
 
+    new Button(firstRow, 'run in worker', '#30c030', () => { this.runInWorker(); }, 'myButton');
+
+  }
+
+  /**
+   * Headless programs run inside a web worker, programs using graphics need the main thread
+   * and are started as usual.
+   */
+  runInWorker() {
+    let executable = this.interpreter.executable;
+    if (!executable?.mainModule) return;
+
+    if (!WorkerInterpreter.isHeadless(executable)) {
+      this.interpreter.start();
+      return;
+    }
+
+    if (this.interpreter.isRunningOrPaused()) this.interpreter.stop(false);
+    this.workerInterpreter.run(this.currentWorkspace.getFiles(), executable.mainModule.file);
   }
 
   initReplGUI() {
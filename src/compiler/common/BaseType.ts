@@ -29,4 +29,7 @@ export interface BaseArrayType {
 
 export interface BaseListType {
     getElements(): any[];
+    // lists which would have to copy their elements in getElements offer access by index:
+    getElementCount?(): number;
+    getElementAt?(index: number): any;
 }
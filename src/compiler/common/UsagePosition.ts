@@ -22,6 +22,20 @@ export class UsageTracker {
 
     private dependsOnModules: Map<Module, boolean> = new Map();
 
+    /**
+     * Modules this module has to be recompiled with whenever they get recompiled, even if their
+     * signature didn't change: e.g. runtime classes of this module extend runtime classes
+     * of these modules or copy default methods from them.
+     */
+    private structurallyDependsOnModules: Map<Module, boolean> = new Map();
+
+    /**
+     * Modules whose types are referenced by the declarations of this module (extends/implements,
+     * fields, method parameters and return types, generic bounds). Type objects of this module
+     * hold references to type objects of these modules which get replaced when they are parsed again.
+     */
+    private declarationsDependOnModules: Map<Module, boolean> = new Map();
+
     constructor(public module: Module){
 
     }
@@ -30,6 +44,8 @@ export class UsageTracker {
         this.lineToUsagePositionListMap.clear();
         this.symbolToUsagePositionListMap.clear();
         this.dependsOnModules.clear();
+        this.structurallyDependsOnModules.clear();
+        this.declarationsDependOnModules.clear();
     }
 
     registerUsagePosition(symbol: BaseSymbol, file: CompilerFile, range: IRange){
@@ -63,6 +79,18 @@ export class UsageTracker {
         }
     }
 
+    registerStructuralDependency(symbol: BaseSymbol){
+        if(symbol.module.isLibraryModule || symbol.module == this.module) return;
+        this.dependsOnModules.set(symbol.module, true);
+        this.structurallyDependsOnModules.set(symbol.module, true);
+    }
+
+    registerDeclarationDependency(symbol: BaseSymbol){
+        if(symbol.module.isLibraryModule || symbol.module == this.module) return;
+        this.dependsOnModules.set(symbol.module, true);
+        this.declarationsDependOnModules.set(symbol.module, true);
+    }
+
     findSymbolAtPosition(position: Position): UsagePosition | undefined {
         let usagePositionsOnLine = this.lineToUsagePositionListMap.get(position.lineNumber);
         if(!usagePositionsOnLine) return undefined;
@@ -78,6 +106,10 @@ export class UsageTracker {
         return this.symbolToUsagePositionListMap.get(symbol);
     }
 
+    getUsedSymbols(): BaseSymbol[] {
+        return Array.from(this.symbolToUsagePositionListMap.keys());
+    }
+
     getModulesWhichThisModuleDependsOn():Module[] {
         let modules: Module[] =  [];
 
@@ -111,17 +143,34 @@ export class UsageTracker {
         // return str;
     }
 
-    existsDependencyToOtherDirtyModule(): boolean {
-        
-        for(let entry of this.dependsOnModules.entries()){
-            // TODO: analyze if used signatures are available
+    /**
+     * @param modulesWithChangedSignature modules whose signature (types, fields, method declarations) 
+     * differs from the one this module had been compiled against
+     * @param existingModules modules of current workspace 
+     * @returns true if this module uses a module with changed signature or a removed module or if it
+     * structurally depends on or references types in declarations of a module which gets recompiled
+     */
+    needsRecompilation(modulesWithChangedSignature: Set<Module>, existingModules: Module[]): boolean {
+        for(let module of this.dependsOnModules.keys()){
+            if(modulesWithChangedSignature.has(module) || existingModules.indexOf(module) < 0) return true;
+        }
 
-            if(entry[0].isDirty()){
-                return true;
-            }
+        for(let module of this.structurallyDependsOnModules.keys()){
+            if(module.isDirty()) return true;
+        }
+
+        for(let module of this.declarationsDependOnModules.keys()){
+            if(module.isDirty()) return true;
         }
 
         return false;
     }
 
+    structurallyDependsOnModuleOf(modules: Set<Module>): boolean {
+        for(let module of this.structurallyDependsOnModules.keys()){
+            if(modules.has(module)) return true;
+        }
+        return false;
+    }
+
 }
\ No newline at end of file
@@ -115,7 +115,7 @@ export class Debugger {
         let currentThread = scheduler.getCurrentThread();
         this.threadsTreeview.clear();
 
-        let threadList = scheduler.runningThreads;
+        let threadList = scheduler.getThreads();
         if(threadList.length == 0 && this.lastThread){
             threadList = [this.lastThread];
         }
@@ -224,7 +224,6 @@ export class Debugger {
 
         let remainingSymbolTableSections: SymbolTableSection[] = [];
 
-        this.showVariablesTreeview.detachAllNodes();
         let firstNonFittingFound = false;
         for(let i = 0; i < this.currentlyVisibleSymbolTableSections.length; i++){
             let sts = this.currentlyVisibleSymbolTableSections[i];
@@ -235,6 +234,13 @@ export class Debugger {
             }
         }
 
+        // detaching and reattaching all nodes is costly, so it's only done if sections have changed
+        let sectionsChanged = firstNonFittingFound || remainingSymbolTableSections.length < symbolTablesToShow.length;
+
+        if(sectionsChanged){
+            this.showVariablesTreeview.detachAllNodes();
+        }
+
         while(remainingSymbolTableSections.length < symbolTablesToShow.length){
             let index = remainingSymbolTableSections.length;
             remainingSymbolTableSections.push(new SymbolTableSection(this.showVariablesTreeview, symbolTablesToShow[index], this));
@@ -244,7 +250,7 @@ export class Debugger {
 
 
         for(let sts of this.currentlyVisibleSymbolTableSections){
-            sts.attachNodesToTreeview();
+            if(sectionsChanged) sts.attachNodesToTreeview();
             sts.renewValues(thread.s, programState.stackBase);
         }
 
@@ -5,6 +5,7 @@ import { BaseField, BaseSymbol, SymbolOnStackframe } from "../BaseSymbolTable";
 import { BaseArrayType, BaseListType, BaseType } from "../BaseType";
 import { SymbolTableSection } from "./SymbolTableSection";
 import { ValueRenderer } from "./ValueRenderer.ts";
+import { ArrayTools, JavaArray } from "../interpreter/ArrayTools.ts";
 
 export type RuntimeObject = {
     getType(): RuntimeObjectType & BaseType;
@@ -16,6 +17,9 @@ interface RuntimeObjectType {
     [index: string]: any;
 }
 
+// element of array or list with given index:
+type ElementGetter = (index: number) => any;
+
 
 export class DebuggerSymbolEntry {
 
@@ -25,7 +29,11 @@ export class DebuggerSymbolEntry {
     oldLength?: number; // old length if value is array
     isLocalVariable: boolean = true;
 
-    static MAXCHILDREN: number = 20;
+    // children of collapsed nodes aren't updated before they get expanded (see updateChildrenLazily)
+    private pendingChildrenUpdate?: () => void;
+    private lastCaption?: string;
+
+    // arrays and lists are shown in pages of at most this many elements (nested if necessary)
     static MAXARRAYSECTIONLENGTH: number = 100;
 
     static quickArrayOutputMaxLength = 100;
@@ -41,6 +49,10 @@ export class DebuggerSymbolEntry {
         
         this.treeViewNode.render();
 
+        this.treeViewNode.addExpandListener(() => {
+            this.runPendingChildrenUpdate();
+        })
+
         if(identifier == "this"){
             this.treeViewNode.expandCollapseComponent.setState("expanded");
         }
@@ -51,7 +63,7 @@ export class DebuggerSymbolEntry {
         if (value == null) {
             this.setCaption(" = ", "null", "jo_debugger_value");
             this.removeChildren();
-        } else if (Array.isArray(value)) {
+        } else if (ArrayTools.isArray(value)) {
             this.renderArray(value, DebuggerSymbolEntry.quickArrayOutputMaxLength);
         } else if (typeof value == "object") {
             this.renderObject(<RuntimeObject>value);
@@ -70,6 +82,25 @@ export class DebuggerSymbolEntry {
     removeChildren() {
         this.children.forEach(child => child.treeViewNode.destroy());
         this.children = [];
+        this.pendingChildrenUpdate = undefined;
+    }
+
+    /**
+     * Rendering children of big arrays, lists or deeply nested objects on every step would freeze
+     * the ui, so they are only updated as long as this node is expanded. Otherwise the update is
+     * deferred until the user expands it.
+     */
+    protected updateChildrenLazily(update: () => void) {
+        this.pendingChildrenUpdate = update;
+        if (this.treeViewNode.expandCollapseComponent.state == "expanded") {
+            this.runPendingChildrenUpdate();
+        }
+    }
+
+    private runPendingChildrenUpdate() {
+        let update = this.pendingChildrenUpdate;
+        this.pendingChildrenUpdate = undefined;
+        if (update) update();
     }
 
     setCaption(delimiter: string, value: string, valuecss: string) {
@@ -78,6 +109,10 @@ export class DebuggerSymbolEntry {
         value = value.replaceAll(">", "&gt;")
 
         let caption = `<span class="${this.isLocalVariable ? "jo_debugger_localVariableIdentifier" : "jo_debugger_fieldIdentifier"}">${this.identifier}</span>${delimiter}<span class="${valuecss}">${value}</span>`;
+
+        // only touch dom if value has changed
+        if (caption == this.lastCaption) return;
+        this.lastCaption = caption;
         this.treeViewNode.caption = caption;
     }
 
@@ -118,8 +153,8 @@ export class DebuggerSymbolEntry {
             this.type = type;
         }
 
-        if(o["isBaseListType"]){
-            this.renderList(<BaseListType><any>o);
+        if(typeof o["getElements"] == "function"){
+            this.renderList(<BaseListType><any>o, typesDiffer);
             return;
         }
 
@@ -135,99 +170,107 @@ export class DebuggerSymbolEntry {
         this.treeViewNode.iconClass = "img_debugger-object";
         this.setCaption(": " +  this.type.toString(), " " + caption, "jo_debugger_value");
 
-        if (typesDiffer || this.children.length == 0) {
+        let fields: BaseField[] = type.getOwnAndInheritedFields();
+
+        if (typesDiffer || this.oldLength != fields.length) {
             this.removeChildren();
-            let fields: BaseField[] = type.getOwnAndInheritedFields();
+            this.oldLength = fields.length;
             this.treeViewNode.isFolder = fields.length > 0;
-            
-            this.treeViewNode.removeAllExpandListeners();
-            this.treeViewNode.addExpandListener((state) => {
-                if(state == "collapsed") return;
+            this.treeViewNode.expandCollapseComponent.setState(this.identifier == 'this' ? "expanded" : "collapsed", false);
+        }
+
+        this.updateChildrenLazily(() => {
+            if (this.children.length == 0) {
                 for (let field of fields) {
-                    let fde = new ObjectFieldDebuggerEntry(this.symbolTableSection, this, field);
-                    this.children.push(fde);
+                    this.children.push(new ObjectFieldDebuggerEntry(this.symbolTableSection, this, field));
                 }
-                this.children.forEach(c => (<ObjectFieldDebuggerEntry>c).fetchValueFromObjectAndRender(o));
-            }, true)
-            
-            this.treeViewNode.expandCollapseComponent.setState(this.identifier == 'this' ? "expanded" : "collapsed");
-        }
-        
-        this.children.forEach(c => (<ObjectFieldDebuggerEntry>c).fetchValueFromObjectAndRender(o));
+            }
+            this.children.forEach(c => (<ObjectFieldDebuggerEntry>c).fetchValueFromObjectAndRender(o));
+        });
     }
 
-    renderList(value: BaseListType){
-        this.setCaption(": ", this.type!.toString() + "-" + DebM.object(), "jo_debugger_type");
-        let elements = value.getElements();
-        if(elements.length != this.oldLength){
-            this.removeChildren();
-            this.oldLength = elements.length;
-            for (let i = 0; i < elements.length; i++) {
-                this.children.push(new ListElementDebuggerEntry(
-                    this.symbolTableSection, this, i
-                ))
-            }
-            this.treeViewNode.isFolder = elements.length > 0;
+    renderList(value: BaseListType, typesDiffer: boolean){
+        let length: number;
+        let getElement: ElementGetter;
+        let quickOutputElements: any[];
+
+        if (value.getElementCount && value.getElementAt) {
+            // don't copy the whole list on each refresh, only fetch elements which are shown:
+            length = value.getElementCount();
+            getElement = (index) => value.getElementAt!(index);
+            quickOutputElements = [];
+            let quickOutputLength = Math.min(length, DebuggerSymbolEntry.quickArrayOutputMaxLength + 1);
+            for (let i = 0; i < quickOutputLength; i++) quickOutputElements.push(getElement(i));
+        } else {
+            let elements = value.getElements();
+            length = elements.length;
+            getElement = (index) => elements[index];
+            quickOutputElements = elements;
         }
-        this.children.forEach(c => (<ListElementDebuggerEntry>c).fetchValueFromArrayAndRender(elements));
+
+        this.treeViewNode.iconClass = "img_debugger-object";
+        this.setCaption(": " + this.type!.toString() + "[" + length + "] ", ValueRenderer.quickArrayOutput(quickOutputElements, DebuggerSymbolEntry.quickArrayOutputMaxLength), "jo_debugger_value");
+
+        this.renderElements(length, getElement, undefined, true, typesDiffer);
     }
     
-    renderArray(a: any[], maxLength: number) {
+    renderArray(a: JavaArray, maxLength: number) {
         if(a == null || !this.type) return;
 
-        this.treeViewNode.isFolder = a.length > 0;      // isFolder is a property -> a method gets called where the ExpandCollapseComponent is shown            
-
-        // on first opening:
-        if(typeof this.oldLength == "undefined") this.treeViewNode.expandCollapseComponent.setState("collapsed");
-        
         let elementtype = (<BaseArrayType><any>this.type).getElementType()
-        this.setCaption(": " + elementtype.toString() + "[" + a.length + "] ", ValueRenderer.quickArrayOutput(a, DebuggerSymbolEntry.quickArrayOutputMaxLength) , "jo_debugger_value");
+        this.setCaption(": " + elementtype.toString() + "[" + a.length + "] ", ValueRenderer.quickArrayOutput(a, maxLength) , "jo_debugger_value");
 
-        while((this.children.length || 0) > a.length){
-            this.children.pop()!.treeViewNode.destroy();
-        }
+        this.renderElements(a.length, (index) => a[index], elementtype, false, false);
+    }
 
-        if (a.length != this.oldLength || this.children.length == 0) {
-            
-            let addAndDisplayChildren = () => {
-
-                if(a.length! > DebuggerSymbolEntry.MAXARRAYSECTIONLENGTH){
-
-                    let subintervalLength = this.getSubintervalLength(a.length); 
-                    for(let nextIndex = 0; nextIndex < a.length; nextIndex += subintervalLength){
-                        this.children.push(new ArraySectionDebuggerEntry(
-                            this.symbolTableSection, this, nextIndex, Math.min(nextIndex + subintervalLength - 1, a.length - 1),
-                            elementtype
-                        ))
-                    }
-
-                } else {
-                    for (let i = this.oldLength || 0; i < Math.min(a.length, DebuggerSymbolEntry.MAXCHILDREN); i++) {
-                        this.children.push(new ArrayElementDebuggerEntry(
-                            this.symbolTableSection, this, i,
-                            elementtype
-                        ))
-                    }                
-                }
+    /**
+     * Children of arrays and lists: at most MAXARRAYSECTIONLENGTH elements, otherwise sections
+     * which get their children when expanded.
+     */
+    private renderElements(length: number, getElement: ElementGetter, elementType: BaseType | undefined, isList: boolean, typesDiffer: boolean) {
+        this.treeViewNode.isFolder = length > 0;      // isFolder is a property -> a method gets called where the ExpandCollapseComponent is shown            
 
+        if (length != this.oldLength || typesDiffer) {
+            // on first opening:
+            if(typeof this.oldLength == "undefined") this.treeViewNode.expandCollapseComponent.setState("collapsed", false);
 
-                this.oldLength = a.length;
-                this.children.forEach(c => (<ArrayElementDebuggerEntry>c).fetchValueFromArrayAndRender(a));
-            }
+            this.removeChildren();
+            this.oldLength = length;
+        }
 
-            if(this.treeViewNode.expandCollapseComponent.state == "expanded"){
-                addAndDisplayChildren();
-            } else {
-                this.treeViewNode.removeAllExpandListeners();
-                this.treeViewNode.addExpandListener((state) => {
-                    addAndDisplayChildren();
-                });
+        this.updateChildrenLazily(() => {
+            if (this.children.length == 0) {
+                DebuggerSymbolEntry.createElementEntries(this, 0, length - 1, elementType, isList);
             }
+            this.children.forEach(c => (<ArrayElementDebuggerEntry>c).fetchElementAndRender(getElement));
+        });
+    }
+
+    static createElementEntries(parent: DebuggerSymbolEntry, indexFrom: number, indexTo: number, elementType: BaseType | undefined, isList: boolean) {
+        let length = indexTo - indexFrom + 1;
 
+        if (length > DebuggerSymbolEntry.MAXARRAYSECTIONLENGTH) {
+            let subintervalLength = DebuggerSymbolEntry.getSubintervalLength(length);
+            for (let nextIndex = indexFrom; nextIndex <= indexTo; nextIndex += subintervalLength) {
+                parent.children.push(new ArraySectionDebuggerEntry(
+                    parent.symbolTableSection, parent, nextIndex, Math.min(nextIndex + subintervalLength - 1, indexTo),
+                    elementType, isList
+                ))
+            }
+        } else {
+            for (let i = indexFrom; i <= indexTo; i++) {
+                parent.children.push(isList ?
+                    new ListElementDebuggerEntry(parent.symbolTableSection, parent, i) :
+                    new ArrayElementDebuggerEntry(parent.symbolTableSection, parent, i, elementType!)
+                );
+            }
         }
     }
 
-    getSubintervalLength(intervalLength: number){
+    /**
+     * e.g. 100 for intervals of length 101 ... 99999, 1000 for 100000 ... 999999
+     */
+    static getSubintervalLength(intervalLength: number){
         let digits = Math.trunc(Math.log10(intervalLength));
         return Math.trunc(Math.pow(10, Math.max(digits - 2, 2)));
     }
@@ -285,8 +328,8 @@ export class ArrayElementDebuggerEntry extends DebuggerSymbolEntry {
         super(symbolTableSection, parent, elementType, parent.identifier + '[<span class="jo_debugger_index">' + index + '</span>]');
     }
 
-    fetchValueFromArrayAndRender(a: any[]) {
-        let value = a[this.index];
+    fetchElementAndRender(getElement: ElementGetter) {
+        let value = getElement(this.index);
         this.render(value);
     }
 
@@ -298,63 +341,21 @@ export class ArraySectionDebuggerEntry extends DebuggerSymbolEntry {
         parent: DebuggerSymbolEntry,
         private indexFrom: number,
         private indexTo: number,
-        elementType: BaseType) {
+        elementType: BaseType | undefined,
+        private isList: boolean) {
         super(symbolTableSection, parent, elementType, parent.identifier);
         this.setCaption("", "[" + this.indexFrom + " ... " + this.indexTo + "]", "jo_debugger_index");
-    }
-
-    fetchValueFromArrayAndRender(a: any[]) {
         this.treeViewNode.isFolder = true;      // isFolder is a property -> a method gets called where the ExpandCollapseComponent is shown            
+        this.treeViewNode.expandCollapseComponent.setState("collapsed", false);
+    }
 
-        // on first rendering:
-        if(typeof this.oldLength == "undefined"){
-            this.treeViewNode.expandCollapseComponent.setState("collapsed");
-            this.treeViewNode.removeAllExpandListeners();
-            this.oldLength = this.indexTo - this.indexFrom + 1;
-            
-            this.treeViewNode.addExpandListener((state) => {
-                if(this.oldLength! > DebuggerSymbolEntry.MAXARRAYSECTIONLENGTH){
-
-                    let subintervalLength = this.getSubintervalLength(this.oldLength!); 
-                    for(let nextIndex = this.indexFrom; nextIndex <= this.indexTo; nextIndex += subintervalLength){
-                        this.children.push(new ArraySectionDebuggerEntry(
-                            this.symbolTableSection, this, nextIndex, 
-                            Math.min(nextIndex + subintervalLength - 1, this.indexTo),
-                            this.type!
-                        ))
-                    }
-
-                } else {
-                    for (let i = this.indexFrom || 0; i <= this.indexTo; i++) {
-                        this.children.push(new ArrayElementDebuggerEntry(
-                            this.symbolTableSection, this, i,
-                            this.type!
-                        ))
-                    }                
-                }
-                
-                this.children.forEach(c => (<ArrayElementDebuggerEntry>c).fetchValueFromArrayAndRender(a));
-            }, true);
-            
-            this.children.forEach(c => (<ArrayElementDebuggerEntry>c).fetchValueFromArrayAndRender(a));
-        } 
-        
-        
-        if (a.length != this.oldLength || this.children.length == 0) {
-            
-            let addAndDisplayChildren = () => {
-            }
-
-            if(this.treeViewNode.expandCollapseComponent.state == "expanded"){
-                addAndDisplayChildren();
-            } else {
+    fetchElementAndRender(getElement: ElementGetter) {
+        this.updateChildrenLazily(() => {
+            if (this.children.length == 0) {
+                DebuggerSymbolEntry.createElementEntries(this, this.indexFrom, this.indexTo, this.type, this.isList);
             }
-
-        }
-
-
-
-
+            this.children.forEach(c => (<ArrayElementDebuggerEntry>c).fetchElementAndRender(getElement));
+        });
     }
 
 }
@@ -367,8 +368,8 @@ export class ListElementDebuggerEntry extends DebuggerSymbolEntry {
         super(symbolTableSection, parent, undefined, parent.identifier + '.get(<span class="jo_debugger_index">' + index + '</span>)');
     }
 
-    fetchValueFromArrayAndRender(a: any[]) {
-        let value = a[this.index];
+    fetchElementAndRender(getElement: ElementGetter) {
+        let value = getElement(this.index);
         this.render(value);
     }
 
@@ -1,5 +1,6 @@
 import { JavaField } from "../../java/types/JavaField.ts";
 import { RuntimeObject } from "./DebuggerSymbolEntry.ts";
+import { ArrayTools, JavaArray } from "../interpreter/ArrayTools.ts";
 
 type ArrayOutputData = {
     text: string
@@ -7,7 +8,7 @@ type ArrayOutputData = {
 
 export class ValueRenderer {
 
-    static quickArrayOutput(a: any[], maxLength: number): string {
+    static quickArrayOutput(a: JavaArray, maxLength: number): string {
 
         let data: ArrayOutputData = {
             text: ""
@@ -18,12 +19,12 @@ export class ValueRenderer {
         return data.text;
     }
 
-    private static quickArrayOutputHelper(a: any[], data: ArrayOutputData, maxLength: number) {
+    private static quickArrayOutputHelper(a: JavaArray, data: ArrayOutputData, maxLength: number) {
         let index: number = 0;
         data.text += "[";
         while (index < a.length && data.text.length < maxLength) {
             let element = a[index];
-            if (Array.isArray(element)) {
+            if (ArrayTools.isArray(element)) {
                 ValueRenderer.quickArrayOutputHelper(element, data, maxLength);
             } else {
                 data.text += ValueRenderer.renderValue(element, maxLength - data.text.length - 3);
@@ -39,7 +40,9 @@ export class ValueRenderer {
 
 
     static renderValue(value: any, maxLength: number): string {
-        if (Array.isArray(value)) {
+        if (maxLength <= 0) return "...";
+
+        if (ArrayTools.isArray(value)) {
             return ValueRenderer.quickArrayOutput(value, maxLength);
         } else {
             switch (typeof value) {
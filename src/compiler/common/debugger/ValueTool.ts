@@ -7,6 +7,7 @@ import { JavaEnum } from "../../java/types/JavaEnum";
 import { JavaType } from "../../java/types/JavaType";
 import { NonPrimitiveType } from "../../java/types/NonPrimitiveType";
 import { IPrimitiveTypeWrapper } from "../../java/runtime/system/primitiveTypes/wrappers/IPrimitiveTypeWrapper";
+import { ArrayTools } from "../interpreter/ArrayTools.ts";
 
 export type IdentifierValuePair = {
     identifier: string,
@@ -15,7 +16,12 @@ export type IdentifierValuePair = {
 
 export class ValueTool {
 
-    static isArray(value: any): boolean { return Array.isArray(value); }
+    // long and float arrays are Float64Arrays, too
+    static typedArrayElementTypes: {[constructorName: string]: string} = {
+        "Int8Array": "byte", "Int16Array": "short", "Int32Array": "int", "Float64Array": "double"
+    };
+
+    static isArray(value: any): boolean { return ArrayTools.isArray(value); }
 
     static isObject(value: any): boolean {
         if(typeof value != "object") return false;
@@ -31,7 +37,7 @@ export class ValueTool {
     static isPrimitiveTypeOrNull(value: any): boolean {
         if(value === null) return true;
         if(typeof value == "object") return false;
-        if(Array.isArray(value)) return false;
+        if(ArrayTools.isArray(value)) return false;
         return true;
     }
 
@@ -42,6 +48,10 @@ export class ValueTool {
     private static getTypeIntern(v: any): string {
         if(v == null) return "null";
 
+        if(ArrayBuffer.isView(v)){
+            return ValueTool.typedArrayElementTypes[v.constructor.name] + "[]";
+        }
+
         if(Array.isArray(v)){
             if(v.length == 0) return "<unknown>[]";
             let element = v[0];
@@ -74,7 +84,7 @@ export class ValueTool {
     static getChildren(value: any): IdentifierValuePair[] {
         let children: IdentifierValuePair[] = [];
 
-        if(Array.isArray(value)){
+        if(ArrayTools.isArray(value)){
             let index = 0;
             for(let v of value){
                 children.push({
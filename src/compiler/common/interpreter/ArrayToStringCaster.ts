@@ -1,3 +1,4 @@
+import { ArrayTools, JavaArray } from "./ArrayTools";
 import { CallbackParameter } from "./CallbackParameter";
 import { Thread } from "./Thread";
 
@@ -6,7 +7,7 @@ export type TextContainer = {text: string};
 export class ArrayToStringCaster {
 
     public static arrayOfObjectsToString(textContainer: TextContainer, t: Thread, 
-        array: any[], callback?: CallbackParameter, maximumLength: number = 200) {
+        array: JavaArray, callback?: CallbackParameter, maximumLength: number = 200) {
 
         if (array == null) {
             t.s.push("null");
@@ -15,7 +16,7 @@ export class ArrayToStringCaster {
         }
 
         textContainer.text += "[";
-        let array1 = array.slice();
+        let array1 = ArrayTools.toPlainArray(array).slice();
 
         t.s.push(array1);
 
@@ -39,7 +40,7 @@ export class ArrayToStringCaster {
                         if (callback1) callback1();
                         return;
                     }
-                } else if (Array.isArray(element)) {
+                } else if (ArrayTools.isArray(element)) {
                     t.s.push(element);
                     this.arrayOfObjectsToString(textContainer, t, element, () => {
                         if (array.length > 0) {
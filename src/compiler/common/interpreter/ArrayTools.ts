@@ -0,0 +1,29 @@
+export type PrimitiveTypedArray = Int8Array | Int16Array | Int32Array | Float64Array;
+
+export type PrimitiveTypedArrayConstructor = Int8ArrayConstructor | Int16ArrayConstructor | Int32ArrayConstructor | Float64ArrayConstructor;
+
+/**
+ * Runtime representation of java arrays: arrays of byte, short, int, long, float and double
+ * are typed arrays (see PrimitiveType.typedArrayConstructorName), all other arrays (including
+ * the outer dimensions of multidimensional primitive arrays) are ordinary javascript arrays.
+ */
+export type JavaArray = any[] | PrimitiveTypedArray;
+
+export class ArrayTools {
+
+    /**
+     * Use this instead of Array.isArray which returns false for typed arrays.
+     */
+    static isArray(value: any): value is JavaArray {
+        return Array.isArray(value) || ArrayBuffer.isView(value);
+    }
+
+    /**
+     * Typed arrays are copied to ordinary arrays, e.g. to use Array.prototype.map which would
+     * return a typed array again. Ordinary arrays are returned as they are.
+     */
+    static toPlainArray(array: JavaArray): any[] {
+        return Array.isArray(array) ? array : Array.from(<PrimitiveTypedArray>array);
+    }
+
+}
@@ -48,7 +48,14 @@ export class ExceptionPrinter {
 
     static printWithLinks(exception: Exception, stacktrace: Stacktrace, printManager?: IPrintManager, main?: IMain) {
 
-        if (!printManager || !main) return;
+        if (!printManager) return;
+
+        if (!main) {
+            // no editor to link to (e.g. program runs inside web worker) => plain text.
+            // Test print managers only collect program output.
+            if (!printManager.isTestPrintManager()) ExceptionPrinter.print(exception, stacktrace, printManager);
+            return;
+        }
 
         let outerDiv = this.getHtmlWithLinks(exception, stacktrace, main);
 
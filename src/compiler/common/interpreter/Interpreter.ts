@@ -271,9 +271,18 @@ export class Interpreter {
 
     }
 
+    /**
+     * Headless run (e.g. tests): Nobody waits for Thread.sleep, timers etc. to elapse in real
+     * time, so the scheduler's clock skips idle time.
+     */
     runMainProgramSynchronously() {
-        this.start();
-        this.runREPLSynchronously();
+        this.scheduler.clock.fastMode = true;
+        try {
+            this.start();
+            this.runREPLSynchronously();
+        } finally {
+            this.scheduler.clock.fastMode = false;
+        }
     }
 
     runREPLSynchronously() {
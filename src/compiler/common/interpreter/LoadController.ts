@@ -4,32 +4,70 @@ import { Scheduler, SchedulerExitState, SchedulerState as SchedulerState } from
 export class LoadController {
 
     private maxLoadFactor: number = 0.8;
-    private numberOfStepsPerBatch: number = 10000;
+
+    /**
+     * If set, then each tick uses at most this many milliseconds. Otherwise
+     * maxLoadFactor * timer interval is used.
+     */
+    private frameBudgetMs?: number;
+
+    // estimated cost of one step, computed as exponential moving average of measured batches
+    private msPerStep: number = 0.001;
+    private smoothingFactor: number = 0.3;
+
+    private minStepsPerBatch: number = 100;
+    private maxStepsPerBatch: number = 1e7;
+
+    // Each batch is sized to fill only this fraction of the time left in current tick and may be
+    // at most maxBatchGrowthFactor times as large as the batch before. So if steps suddenly get
+    // more expensive then the tick overshoots it's budget by a bounded amount only.
+    private batchFraction: number = 0.5;
+    private maxBatchGrowthFactor: number = 2;
+    private lastStepsPerBatch: number = this.minStepsPerBatch;
+
+    // batches shorter than this are too inaccurate to measure (performance.now() may be coarsened by browser)
+    private minMeasurableMs: number = 0.5;
+    private unmeasuredMs: number = 0;
+    private unmeasuredSteps: number = 0;
 
     private lastTickTime?: number;
 
     constructor(private scheduler: Scheduler, private interpreter: Interpreter) {
-        
+
+    }
+
+    /**
+     * @param frameBudgetMs milliseconds per tick the interpreter may use at most; undefined => maxLoadFactor * timer interval
+     */
+    setFrameBudget(frameBudgetMs: number | undefined) {
+        this.frameBudgetMs = frameBudgetMs;
+    }
+
+    getFrameBudget(): number | undefined {
+        return this.frameBudgetMs;
+    }
+
+    setMaxLoadFactor(maxLoadFactor: number) {
+        this.maxLoadFactor = Math.max(0.05, Math.min(1, maxLoadFactor));
     }
 
     /**
      * This method is called periodically. It computes number of steps to execute in a way
-     * that consumes this.maxLoadFactor of CPU-Time at most.
-     * 
-     * As it doesn't know exactly how long an average step takes it feeds
-     * Scheduler.run in batches and measures elapsed time after each batch.
-     * 
+     * that consumes this.maxLoadFactor of CPU-Time (or this.frameBudgetMs) at most.
+     *
+     * It estimates the time an average step takes (exponential moving average over
+     * measured batches) and sizes each batch to fill a fraction of the time left in this tick.
+     * Batches grow gradually, if steps get more expensive (graphics, I/O) the estimate rises
+     * and batches shrink again.
+     *
      * This is the outer one of three main loops:
      * LoadController.tick calls Scheduler.run calls Thread.run
-     * 
+     *
      * @param timerIntervalInMs the interval this method is called
      */
     tick(timerIntervalInMs: number) {
         let t0 = performance.now();
 
-        // if(this.scheduler.runningThreads.length > 0)
-        // console.log("started batch: " + t0);
-
         // we don't trust given timerIntervalInMs if we can measure
         // elapsed time since last call ourselves:
         if(this.lastTickTime){
@@ -38,25 +76,48 @@ export class LoadController {
         }
         this.lastTickTime = t0;
 
-        let numberOfBatchesSoFar: number = 0;
-        while ((performance.now() - t0) / timerIntervalInMs < this.maxLoadFactor &&  // <- this ensures we don't overload the system
-            this.scheduler.state == SchedulerState.running) {
-            
+        let budgetMs = this.frameBudgetMs ?? timerIntervalInMs * this.maxLoadFactor;
+
+        let now = t0;
+        while (now - t0 < budgetMs && this.scheduler.state == SchedulerState.running) {
+
+            let remainingMs = budgetMs - (now - t0);
+            let numberOfSteps = Math.round(remainingMs * this.batchFraction / this.msPerStep);
+            numberOfSteps = Math.min(numberOfSteps, this.lastStepsPerBatch * this.maxBatchGrowthFactor);
+            numberOfSteps = Math.max(this.minStepsPerBatch, Math.min(this.maxStepsPerBatch, numberOfSteps));
+            this.lastStepsPerBatch = numberOfSteps;
+
+            let stepCountBefore = this.scheduler.stepCountSinceStartOfProgram;
+
             // let it run!
-            let schedulerExitState = this.scheduler.run(this.numberOfStepsPerBatch);
-            
+            let schedulerExitState = this.scheduler.run(numberOfSteps);
+
+            let batchEnd = performance.now();
+            this.updateEstimate(batchEnd - now, this.scheduler.stepCountSinceStartOfProgram - stepCountBefore);
+            now = batchEnd;
+
             // exit prematurely if scheduler has nothing more to do
             if(schedulerExitState == SchedulerExitState.nothingMoreToDo){
                 break;
             }
-            numberOfBatchesSoFar++;
         }
 
-        // if more than two batches fit into available time: make batches larger!
-        if(numberOfBatchesSoFar > 2 && this.scheduler.stepCountSinceStartOfProgram > 10000){
-            this.numberOfStepsPerBatch += 10000;
-        }
     }
 
+    private updateEstimate(batchMs: number, stepsExecuted: number) {
+        // steps == 0: threads are waiting/sleeping, nothing to learn from this batch
+        if (stepsExecuted <= 0) return;
+
+        // short batches are accumulated until they are long enough to be measured
+        this.unmeasuredMs += batchMs;
+        this.unmeasuredSteps += stepsExecuted;
+        if (this.unmeasuredMs < this.minMeasurableMs) return;
+
+        let measuredMsPerStep = this.unmeasuredMs / this.unmeasuredSteps;
+        this.msPerStep = this.msPerStep + this.smoothingFactor * (measuredMsPerStep - this.msPerStep);
+
+        this.unmeasuredMs = 0;
+        this.unmeasuredSteps = 0;
+    }
 
-}
\ No newline at end of file
+}
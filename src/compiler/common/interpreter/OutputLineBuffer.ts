@@ -0,0 +1,147 @@
+export type OutputSegment = {
+    text: string,
+    color: number | undefined
+}
+
+export type OutputLine = {
+    segments: OutputSegment[],
+    htmlElement?: HTMLElement,      // e.g. exception with links to source code
+    firstRow: number,               // running number of first row of this line since last clear()
+    rows: number                    // 1 for text lines, html elements may need more than one row
+}
+
+/**
+ * Output of System.out.print/println stored as lines in a ring buffer. Printing only
+ * appends to this buffer, so it is cheap even if a program prints in a tight loop;
+ * print managers render (the visible part of) it at most once per animation frame.
+ *
+ * If more than scrollback lines are printed, the oldest ones get dropped.
+ */
+export class OutputLineBuffer {
+
+    static defaultScrollback: number = 10000;
+
+    private lines: (OutputLine | undefined)[];
+    private start: number = 0;
+    private count: number = 0;
+
+    private lastLineIsOpen: boolean = false;    // true if next print appends to last line
+    private nextRow: number = 0;
+
+    droppedLineCount: number = 0;
+
+    /**
+     * is incremented on every change, so renderers can tell if they have to redraw
+     */
+    version: number = 0;
+
+    constructor(private scrollback: number = OutputLineBuffer.defaultScrollback) {
+        this.lines = new Array(scrollback);
+    }
+
+    print(text: string, withNewline: boolean, color: number | undefined) {
+        let parts = text.split("\n");
+        for (let i = 0; i < parts.length; i++) {
+            if (i > 0) this.closeLine();
+            if (parts[i].length > 0) this.appendToLastLine(parts[i], color);
+        }
+        if (withNewline) this.closeLine();
+        this.version++;
+    }
+
+    addHtmlElement(htmlElement: HTMLElement, rows: number) {
+        if (this.lastLineIsOpen) this.closeLine();
+        this.addLine({ segments: [], htmlElement: htmlElement, firstRow: this.nextRow, rows: Math.max(1, rows) });
+        this.version++;
+    }
+
+    clear() {
+        this.lines = new Array(this.scrollback);
+        this.start = 0;
+        this.count = 0;
+        this.lastLineIsOpen = false;
+        this.nextRow = 0;
+        this.droppedLineCount = 0;
+        this.version++;
+    }
+
+    getLineCount(): number {
+        return this.count;
+    }
+
+    /**
+     * index 0 is the oldest line still stored
+     */
+    getLine(index: number): OutputLine {
+        return this.lines[(this.start + index) % this.scrollback]!;
+    }
+
+    /**
+     * running number of first row still stored
+     */
+    getFirstRow(): number {
+        return this.count > 0 ? this.getLine(0).firstRow : this.nextRow;
+    }
+
+    getRowCount(): number {
+        return this.nextRow - this.getFirstRow();
+    }
+
+    /**
+     * Returns index of line containing given row (running number, see getFirstRow) or -1 if
+     * buffer is empty.
+     */
+    findLineIndexAtRow(row: number): number {
+        if (this.count == 0) return -1;
+
+        let low = 0;
+        let high = this.count - 1;
+        while (low < high) {
+            let middle = (low + high + 1) >> 1;
+            if (this.getLine(middle).firstRow <= row) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return low;
+    }
+
+    private appendToLastLine(text: string, color: number | undefined) {
+        let line = this.getOpenLine();
+        let lastSegment = line.segments[line.segments.length - 1];
+        if (lastSegment && lastSegment.color === color) {
+            lastSegment.text += text;
+        } else {
+            line.segments.push({ text: text, color: color });
+        }
+    }
+
+    private closeLine() {
+        this.getOpenLine();
+        this.lastLineIsOpen = false;
+    }
+
+    private getOpenLine(): OutputLine {
+        if (!this.lastLineIsOpen) {
+            this.addLine({ segments: [], firstRow: this.nextRow, rows: 1 });
+            this.lastLineIsOpen = true;
+        }
+        return this.getLine(this.count - 1);
+    }
+
+    private addLine(line: OutputLine) {
+        if (this.count == this.scrollback) {
+            this.lines[this.start] = undefined;
+            this.start = (this.start + 1) % this.scrollback;
+            this.count--;
+            this.droppedLineCount++;
+        }
+
+        this.lines[(this.start + this.count) % this.scrollback] = line;
+        this.count++;
+        this.nextRow += line.rows;
+    }
+
+}
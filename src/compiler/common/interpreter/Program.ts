@@ -2,6 +2,7 @@ import { BaseSymbolTable } from "../BaseSymbolTable";
 import { Module } from "../module/Module";
 import { EmptyRange, IRange } from "../range/Range";
 import { Klass, StepFunction, StepParams } from "./StepFunction.ts";
+import { StepFunctionCache } from "./StepFunctionCache.ts";
 import { CodePrinter } from "../../java/codegenerator/CodePrinter.ts";
 import { CatchBlockInfo } from "./ExceptionInfo.ts";
 import { Thread, ThreadState } from "./Thread.ts";
@@ -25,6 +26,8 @@ export class Step {
     innerClass?: Klass;         // if inner class is instantiated in this step
     lambdaObject?: any;
 
+    program?: Program;          // set by SnippetLinker; used to count breakpoints per program
+
     constructor(public index: number, public module: Module) {
         this.range = { startLineNumber: undefined, startColumn: undefined, endLineNumber: undefined, endColumn: undefined };
     }
@@ -53,12 +56,14 @@ export class Step {
         if (this.originalRun) return; // breakpoint already set
         this.originalRun = this.run;
         this.run = breakpointRunFunction;
+        if (this.program) this.program.numberOfBreakpoints++;
     }
 
     clearBreakpoint() {
         if (this.originalRun) {
             this.run = this.originalRun;
             this.originalRun = undefined;
+            if (this.program) this.program.numberOfBreakpoints--;
         }
     }
 
@@ -90,7 +95,7 @@ export class Step {
     compileToJavascriptFunction() {
         // console.log(this.codeAsString);
         // @ts-ignore
-        this.run = new Function(StepParams.thread, StepParams.stack, StepParams.stackBase, this.codeAsString);
+        this.run = StepFunctionCache.getFunction([StepParams.thread, StepParams.stack, StepParams.stackBase], this.codeAsString);
     }
 
     isBreakpoint(): boolean {
@@ -99,6 +104,59 @@ export class Step {
 
 }
 
+export type FusedBlockFunction = (thread: Thread, stack: any[], stackBase: number, entryIndex: number) => number;
+
+/**
+ * Several consecutive steps of Program.stepsSingle fused into one javascript function
+ * (see SnippetLinker.fuseSteps). The function gets the index of the step to begin with
+ * as additional parameter, so every step inside the block can be entered directly.
+ */
+export class FusedBlock {
+
+    private blockFunction?: FusedBlockFunction;
+
+    constructor(public codeAsString: string) {
+
+    }
+
+    getEntryFunction(entryIndex: number): StepFunction {
+        if (!this.blockFunction) {
+            // @ts-ignore
+            this.blockFunction = StepFunctionCache.getFunction([StepParams.thread, StepParams.stack, StepParams.stackBase, StepParams.entryIndex], this.codeAsString);
+        }
+        let blockFunction = this.blockFunction!;
+        return (thread: Thread, stack: any[], stackBase: number) => blockFunction(thread, stack, stackBase, entryIndex);
+    }
+
+}
+
+/**
+ * Element of Program.stepsMultiple which enters a FusedBlock at the step with the same index
+ * in Program.stepsSingle.
+ */
+export class FusedStep extends Step {
+
+    constructor(singleStep: Step, private block: FusedBlock) {
+        super(singleStep.index, singleStep.module);
+        this.range = singleStep.range;
+        this.codeAsString = block.codeAsString;
+        this.program = singleStep.program;
+    }
+
+    compileToJavascriptFunction() {
+        this.run = this.block.getEntryFunction(this.index);
+    }
+
+}
+
+/**
+ * Builds Program.stepsMultiple once a program gets hot. It's implemented by the code generator of
+ * the program's language and provided by the program's module (see Module.getFastModeStepsBuilder).
+ */
+export interface FastModeStepsBuilder {
+    buildStepsForFastMode(program: Program): Step[];
+}
+
 export class Program {
 
     numberOfThisObjects: number = 0;
@@ -106,7 +164,15 @@ export class Program {
     numberOfLocalVariables: number = 0;
 
     stepsSingle: Step[] = [];
-    stepsMultiple: Step[] = [];
+    stepsMultiple: Step[] = [];     // same indices as stepsSingle, but straight-line code fused; built on tier-up
+
+    numberOfBreakpoints: number = 0;
+
+    // profiling data for tier-up (see getStepsForFastMode)
+    static hotnessThreshold: number = 1000;
+    invocationCount: number = 0;
+    backEdgeCount: number = 0;
+    private tieredUp: boolean = false;
 
     constructor(public module: Module, public symbolTable: BaseSymbolTable | undefined, 
         public methodIdentifierWithClass: string) {
@@ -133,7 +199,8 @@ export class Program {
             i = 0
             stepList = this.stepsMultiple;
             for (let step of this.stepsMultiple) {
-                step.compileToJavascriptFunction();
+                // steps which could not be fused are shared with stepsSingle and are already compiled
+                if (step !== this.stepsSingle[step.index]) step.compileToJavascriptFunction();
                 i++;
             }
         } catch (ex) {
@@ -155,6 +222,40 @@ export class Program {
 
     }
 
+    isHot(): boolean {
+        return this.invocationCount + this.backEdgeCount >= Program.hotnessThreshold;
+    }
+
+    /**
+     * Steplist to use when running at full speed: Once program is hot (invoked often or 
+     * looped often) and as long as there's no breakpoint inside this program we use fused steps.
+     */
+    getStepsForFastMode(): Step[] {
+        if (this.numberOfBreakpoints > 0 || !this.isHot()) return this.stepsSingle;
+        if (!this.tieredUp) this.tierUp();
+        return this.stepsMultiple.length > 0 ? this.stepsMultiple : this.stepsSingle;
+    }
+
+    private tierUp() {
+        this.tieredUp = true;
+        if (this.stepsMultiple.length > 0) return;
+
+        let builder = this.module.getFastModeStepsBuilder();
+        if (!builder) return;
+
+        let stepsMultiple = builder.buildStepsForFastMode(this);
+        try {
+            for (let step of stepsMultiple) {
+                if (step !== this.stepsSingle[step.index]) step.compileToJavascriptFunction();
+            }
+        } catch (ex) {
+            // stay with stepsSingle
+            console.error(chalk.red("Error compiling fused steps of ") + this.methodIdentifierWithClass + ": " + ex);
+            return;
+        }
+        this.stepsMultiple = stepsMultiple;
+    }
+
     printCode(code: string, errorLine: number, lineOffset: number): string {
         let message = "";
 
@@ -196,6 +297,7 @@ export class Program {
     addStep(statement: string) {
         let step = new Step(this.stepsSingle.length, this.module);
         step.codeAsString = statement;
+        step.program = this;
         this.stepsSingle.push(step);
     }
 
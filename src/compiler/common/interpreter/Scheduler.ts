@@ -8,6 +8,8 @@ import { Interpreter } from "./Interpreter";
 import { Program, Step } from "./Program";
 import { Helpers, KlassObjectRegistry, StepParams } from "./StepFunction.ts";
 import { Thread, ThreadState, ThreadStateInfoAfterRun } from "./Thread";
+import { FifoQueue, WakeupHeap } from "./ThreadQueues.ts";
+import { VirtualClock } from "./VirtualClock.ts";
 
 export enum SchedulerState { not_initialized, running, paused, stopped, error }
 
@@ -15,14 +17,32 @@ export enum SchedulerState { not_initialized, running, paused, stopped, error }
 
 export enum SchedulerExitState { nothingMoreToDo, giveMeAdditionalTime }
 
+/**
+ * Threads which are neither terminated nor suspended are kept in this.threads. Those of them
+ * which are runnable wait in readyQueue for their next time slice (round robin). Thread.state's
+ * setter enqueues a thread as soon as it gets runnable, so threads waiting for input, a lock,
+ * a timeout etc. cost nothing per tick. Rate-limited threads (maxStepsPerSecond) whose next step
+ * isn't due yet sleep in wakeupHeap.
+ *
+ * Thread.isQueued is true if a thread has an entry in readyQueue or wakeupHeap. Entries of
+ * threads which have become non-runnable or have been removed since are skipped when dequeued.
+ */
 export class Scheduler {
-    runningThreads: Thread[] = [];
-    suspendedThreads: Thread[] = [];
+    private threads: Set<Thread> = new Set();
+    private suspendedThreads: Set<Thread> = new Set();
     storedThreads?: Thread[] = undefined;
 
-    currentThreadIndex: number = 0;
+    private readyQueue: FifoQueue<Thread> = new FifoQueue();
+    private wakeupHeap: WakeupHeap<Thread> = new WakeupHeap();
+
+    private currentThread?: Thread;
     state!: SchedulerState;
 
+    clock: VirtualClock = new VirtualClock();
+
+    // limits skipping in fast mode if timers fire without making any thread runnable (e.g. paused Timer)
+    static maxSkippedTimersPerRun: number = 1000;
+
     keepThread: boolean = false;    // for single step mode
 
     classObjectRegistry: KlassObjectRegistry = {};
@@ -52,7 +72,7 @@ export class Scheduler {
 
     /**
      * This method is called every tick by LoadController.tick and gets told how many steps it may execute. It distributes 
-     * this steps evenly among all running threads and calls their run-method.
+     * this steps evenly among all runnable threads and calls their run-method.
      * 
      * This one of three nested main loops:
      * 
@@ -76,39 +96,29 @@ export class Scheduler {
             }
         }
 
-        let stepsPerThread = Math.ceil(numberOfStepsMax / this.runningThreads.length);
+        this.clock.fireDueTimers();
 
-        let numberOfStepsInThisRun = 0;     // for displaying number of steps after program halt
-        if (this.runningThreads.length == 0) return SchedulerExitState.nothingMoreToDo;
+        if (this.threads.size == 0) return SchedulerExitState.nothingMoreToDo;
 
-        let lastStoredStepsInThisRun = -1;          // watchdog uses this to decide if there's any runnable thread left
+        this.wakeUpThreads(performance.now());
 
-        let threadState: ThreadStateInfoAfterRun = {
-            state: ThreadState.runnable,
-            stepsExecuted: 0
-        };
+        let stepsPerThread = Math.ceil(numberOfStepsMax / Math.max(1, this.readyQueue.length));
 
-        while (numberOfStepsInThisRun < numberOfStepsMax && this.state == SchedulerState.running) {
+        let numberOfStepsInThisRun = 0;     // for displaying number of steps after program halt
+        let numberOfSkippedTimers = 0;
 
-            // watchdog: if all threads had beed run once and no one executed a step then exit the loop to avoid endless looping when there's nothing to do: 
-            if (this.currentThreadIndex == 0) {
-                if (lastStoredStepsInThisRun == numberOfStepsInThisRun || this.runningThreads.length == 0) {
-                    break;
-                }
-                lastStoredStepsInThisRun = numberOfStepsInThisRun;
-            }
+        let threadState: ThreadStateInfoAfterRun;
+
+        while (numberOfStepsInThisRun < numberOfStepsMax && this.state == SchedulerState.running) {
 
             // fetch next thread (round robin)
-            let currentThread = this.runningThreads[this.currentThreadIndex];
+            let currentThread = this.fetchNextThread();
             if (!currentThread) {
-                if (this.runningThreads.length > 0) {
-                    this.currentThreadIndex = 0;
-                    currentThread = this.runningThreads[0];
-                    lastStoredStepsInThisRun = -1;
-                } else {
-                    return SchedulerExitState.nothingMoreToDo;
-                }
+                // no thread is runnable at the moment. In fast mode we don't wait for the next timer (e.g. end of Thread.sleep):
+                if (numberOfSkippedTimers++ < Scheduler.maxSkippedTimersPerRun && this.clock.skipToNextTimer()) continue;
+                break;
             }
+            this.currentThread = currentThread;
 
             // has current thread a speed limit?
             if (currentThread.maxStepsPerSecond) {
@@ -116,26 +126,25 @@ export class Scheduler {
                 let msPerStep = 1000 / currentThread.maxStepsPerSecond;
                 let elapsedTimeSinceLastThreadRun = t - currentThread.lastTimeThreadWasRun;
                 let numberOfSteps = Math.min(elapsedTimeSinceLastThreadRun / msPerStep, stepsPerThread);
-                if (numberOfSteps > 0) {
-
-                    // run!
-                    threadState = currentThread.run(numberOfSteps);
-
-                    // compute lastTimeThreadWasRun in a way to achieve exact step frequency currentThread.maxStepsPerSecond
-                    currentThread.lastTimeThreadWasRun =
-                        currentThread.lastTimeThreadWasRun + threadState.stepsExecuted * msPerStep;
-                    if (currentThread.maxStepsPerSecond < 20) {
-                        this.interpreter.showProgramPointer(this.getNextStepPosition(currentThread));
-                        this.interpreter.updateDebugger();
-                    } else {
-                        if (this.state == SchedulerState.running) this.interpreter.hideProgrampointerPosition();
-                    }
+                if (numberOfSteps <= 0) {
+                    // next step isn't due yet
+                    if (this.keepThread) break;
+                    currentThread.isQueued = true;
+                    this.wakeupHeap.push(currentThread.lastTimeThreadWasRun, currentThread);
+                    continue;
+                }
+
+                // run!
+                threadState = currentThread.run(numberOfSteps);
+
+                // compute lastTimeThreadWasRun in a way to achieve exact step frequency currentThread.maxStepsPerSecond
+                currentThread.lastTimeThreadWasRun =
+                    currentThread.lastTimeThreadWasRun + threadState.stepsExecuted * msPerStep;
+                if (currentThread.maxStepsPerSecond < 20) {
+                    this.interpreter.showProgramPointer(this.getNextStepPosition(currentThread));
+                    this.interpreter.updateDebugger();
                 } else {
-                    threadState.state = currentThread.state;  // this is crucial as threadState.state would otherwise have a stale value of last running thread
-                    threadState.stepsExecuted = 0;
-                    if (this.runningThreads.length == 1) {
-                        return SchedulerExitState.nothingMoreToDo;
-                    }
+                    if (this.state == SchedulerState.running) this.interpreter.hideProgrampointerPosition();
                 }
             } else {
                 // run in full speed!
@@ -144,81 +153,147 @@ export class Scheduler {
 
             numberOfStepsInThisRun += threadState.stepsExecuted;  // to avoid endless loop and to keep statistics
 
-            if (threadState.state != ThreadState.runnable) {
-                switch (threadState.state) {
-                    case ThreadState.terminated:
-                    case ThreadState.terminatedWithException:
-                        // TODO: Print Exception if present
+            switch (threadState.state) {
+                case ThreadState.terminated:
+                case ThreadState.terminatedWithException:
+                    // TODO: Print Exception if present
 
-                        this.runningThreads.splice(this.currentThreadIndex, 1);
-                        if (this.currentThreadIndex > this.runningThreads.length - 1) {
-                            this.currentThreadIndex = -1;   // it gets incremented by 1 later on
-                            this.keepThread = false;
-                        }
+                    this.threads.delete(currentThread);
+                    this.currentThread = undefined;
 
-                        if (this.runningThreads.length == 0 && !this.interpreter.hasActorsOrPApplet()
-                            || threadState.state == ThreadState.terminatedWithException) {
-
-                            if (currentThread.maxStepsPerSecond) {
-                                this.interpreter.hideProgrampointerPosition();
-                            }
-
-                            this.stepCountSinceStartOfProgram += numberOfStepsInThisRun;
-
-                            this.interpreter.setState(SchedulerState.stopped);
-                            if (threadState.state == ThreadState.terminatedWithException) {
-                                this.interpreter.setState(SchedulerState.error);
-                            }
-                            if (this.callbackAfterProgramFinished) {
-                                let cb = this.callbackAfterProgramFinished;
-                                this.callbackAfterProgramFinished = undefined;
-                                cb();
-                            }
-                            return SchedulerExitState.nothingMoreToDo;
+                    if (this.threads.size == 0 && !this.interpreter.hasActorsOrPApplet()
+                        || threadState.state == ThreadState.terminatedWithException) {
+
+                        if (currentThread.maxStepsPerSecond) {
+                            this.interpreter.hideProgrampointerPosition();
                         }
-                        break;
-                    case ThreadState.stoppedAtBreakpoint:
-                        currentThread.state = ThreadState.runnable;
-                        this.interpreter.pause();
-                        break;
-                    case ThreadState.immediatelyAfterReplStatement:
-                        if (currentThread.programStack.length == 0) {
-                            this.runningThreads.splice(this.runningThreads.indexOf(currentThread), 1);
+
+                        this.stepCountSinceStartOfProgram += numberOfStepsInThisRun;
+
+                        this.interpreter.setState(SchedulerState.stopped);
+                        if (threadState.state == ThreadState.terminatedWithException) {
+                            this.interpreter.setState(SchedulerState.error);
                         }
-                        if (this.callbackAfterReplProgramFinished) {
-                            let cb = this.callbackAfterReplProgramFinished;
-                            this.callbackAfterReplProgramFinished = undefined;
+                        if (this.callbackAfterProgramFinished) {
+                            let cb = this.callbackAfterProgramFinished;
+                            this.callbackAfterProgramFinished = undefined;
                             cb();
                         }
+                        return SchedulerExitState.nothingMoreToDo;
+                    }
+                    break;
+                case ThreadState.stoppedAtBreakpoint:
+                    currentThread.state = ThreadState.runnable;
+                    this.interpreter.pause();
+                    break;
+                case ThreadState.immediatelyAfterReplStatement:
+                    if (currentThread.programStack.length == 0) {
+                        this.threads.delete(currentThread);
+                    }
+                    if (this.callbackAfterReplProgramFinished) {
+                        let cb = this.callbackAfterReplProgramFinished;
+                        this.callbackAfterReplProgramFinished = undefined;
+                        cb();
+                    }
 
-                        break;
-                }
-
+                    break;
             }
 
-            // If user pressed stepOver or stepInto button then she/he expects
-            // program pointer to stay inside current thread. Therefore keepThread == true is set in this case.
-            if (!this.keepThread) {
-                this.currentThreadIndex++;
-                if (this.currentThreadIndex >= this.runningThreads.length) {
-                    this.currentThreadIndex = 0;
-                }
-            }
+            // back to the end of the ready queue if still runnable. If user pressed stepOver or stepInto
+            // button then keepThread == true and fetchNextThread returns this thread again nevertheless.
+            this.enqueue(currentThread);
         }
 
         this.stepCountSinceStartOfProgram += numberOfStepsInThisRun;
 
+        // if no thread is runnable and no rate-limited thread is waiting for it's next step then
+        // there's nothing to do until some event (input, timeout, ...) makes a thread runnable again
+        if (this.readyQueue.length == 0 && (this.wakeupHeap.size == 0 || this.threads.size == 1)) {
+            // ... but in fast mode we don't wait for timeouts: next run skips to the next timer
+            // (sleeping threads, wait(ms), Timer) instead of ending the synchronous run prematurely.
+            if (this.clock.fastMode && this.clock.hasTimers() && this.threads.size > 0) {
+                return SchedulerExitState.giveMeAdditionalTime;
+            }
+            return SchedulerExitState.nothingMoreToDo;
+        }
+
         return SchedulerExitState.giveMeAdditionalTime;
     }
 
+    private fetchNextThread(): Thread | undefined {
+        if (this.keepThread && this.currentThread && this.threads.has(this.currentThread)) {
+            return this.currentThread.state == ThreadState.runnable ? this.currentThread : undefined;
+        }
+
+        let thread = this.dequeueRunnableThread();
+        if (!thread && this.wakeupHeap.size > 0) {
+            this.wakeUpThreads(performance.now());
+            thread = this.dequeueRunnableThread();
+        }
+
+        return thread;
+    }
+
+    private dequeueRunnableThread(): Thread | undefined {
+        let thread: Thread | undefined;
+        while (thread = this.readyQueue.dequeue()) {
+            thread.isQueued = false;
+            if (thread.state == ThreadState.runnable && this.threads.has(thread)) return thread;
+        }
+        return undefined;
+    }
+
+    /**
+     * Enqueues given thread if it is runnable and neither suspended nor already enqueued.
+     */
+    private enqueue(thread: Thread) {
+        if (thread.isQueued || thread.state != ThreadState.runnable || !this.threads.has(thread)) return;
+        thread.isQueued = true;
+        this.readyQueue.enqueue(thread);
+    }
+
+    /**
+     * Called by Thread.state's setter.
+     */
+    onThreadBecameRunnable(thread: Thread) {
+        this.enqueue(thread);
+    }
+
+    /**
+     * Moves threads whose wakeup time is before given time from wakeupHeap to readyQueue.
+     */
+    private wakeUpThreads(time: number) {
+        while (this.wakeupHeap.size > 0 && this.wakeupHeap.peekTime()! < time) {
+            let thread = this.wakeupHeap.pop()!;
+            thread.isQueued = false;
+            this.enqueue(thread);
+        }
+    }
+
+    private clearQueues() {
+        let thread: Thread | undefined;
+        while (thread = this.readyQueue.dequeue()) thread.isQueued = false;
+        while (thread = this.wakeupHeap.pop()) thread.isQueued = false;
+    }
+
+    getThreads(): Thread[] {
+        return Array.from(this.threads);
+    }
+
     setState(newState: SchedulerState) {
         switch (newState) {
             case SchedulerState.running:
                 this.timeStampProgramStarted = performance.now();
                 this.stepCountSinceStartOfProgram = 0;
+                this.clock.start();
+                break;
+            case SchedulerState.paused:
+                this.clock.halt();
                 break;
             case SchedulerState.stopped:
             case SchedulerState.error:
+                this.clock.halt();
+                this.clock.clearTimers();
                 if (this.state == SchedulerState.running) {
                     let printManager = this.interpreter.printManager;
                     if(!printManager.isTestPrintManager()){
@@ -247,17 +322,19 @@ export class Scheduler {
 
 
     terminateAllThreads() {
-        this.runningThreads.forEach(t => t.state = ThreadState.terminated);
+        this.threads.forEach(t => t.state = ThreadState.terminated);
         this.suspendedThreads.forEach(t => t.state = ThreadState.terminated);
 
-        this.runningThreads.length = 0;
-        this.suspendedThreads.length = 0;
+        this.threads.clear();
+        this.suspendedThreads.clear();
+        this.clearQueues();
+        this.currentThread = undefined;
     }
 
     private ifBreakpointPresentDisableOnce() {
-        let currentThread = this.runningThreads[this.currentThreadIndex];
-        let programState = currentThread.currentProgramState;
+        let currentThread = this.getCurrentThread();
         if (currentThread) {
+            let programState = currentThread.currentProgramState;
             let currentStep = programState.currentStepList[programState.stepIndex];
             if (currentStep.isBreakpoint()) {
                 currentThread.haltAtNextBreakpoint = false;
@@ -267,6 +344,7 @@ export class Scheduler {
 
     runSingleStepKeepingThread(stepInto: boolean, callback: () => void) {
         this.keepThread = true;
+        this.currentThread = this.getCurrentThread();
 
         this.ifBreakpointPresentDisableOnce();
 
@@ -278,7 +356,7 @@ export class Scheduler {
             }
             callback();
         } else {
-            let thread = this.runningThreads[this.currentThreadIndex];
+            let thread = this.currentThread;
             if (thread == null) return;
             thread.markSingleStepOver(() => {
                 callback();
@@ -288,7 +366,7 @@ export class Scheduler {
 
     stepOut(callback: () => void) {
         this.keepThread = true;
-        let thread = this.runningThreads[this.currentThreadIndex];
+        let thread = this.currentThread = this.getCurrentThread();
         if (thread == null) return;
         thread.markStepOut(() => {
             callback();
@@ -300,13 +378,13 @@ export class Scheduler {
      * cancel this single-step execution
      */
     unmarkCurrentlyExecutedSingleStep() {
-        let thread = this.runningThreads[this.currentThreadIndex];
+        let thread = this.getCurrentThread();
         if (thread) thread.unmarkStep();
     }
 
     createThread(name: string, initialStack: any[] = []): Thread {
         let thread = new Thread(this, name, initialStack);
-        this.runningThreads.push(thread);
+        this.threads.add(thread);
 
         if (thread.name != "act method-thread") {
             if (!this.interpreter.isMaxSpeed) {
@@ -318,34 +396,26 @@ export class Scheduler {
     }
 
     removeThread(thread: Thread) {
-        this.runningThreads.splice(this.runningThreads.indexOf(thread), 1);
+        this.threads.delete(thread);
     }
 
     suspendThread(thread: Thread) {
-        let index = this.runningThreads.indexOf(thread);
-        if (index >= 0) {
-            this.runningThreads.splice(index, 1);
-            if (this.currentThreadIndex >= index) {
-                this.currentThreadIndex--;
-            }
-        }
-        this.suspendedThreads.push(thread);
+        this.threads.delete(thread);
+        this.suspendedThreads.add(thread);
     }
 
     restoreThread(thread: Thread) {
         thread.state = ThreadState.runnable;
-        let index = this.suspendedThreads.indexOf(thread);
-        if (index >= 0) {
-            this.suspendedThreads.splice(index, 1);
-        }
+        this.suspendedThreads.delete(thread);
 
         if (thread.state >= ThreadState.terminated) return;
 
-        this.runningThreads.push(thread);
+        this.threads.add(thread);
+        this.enqueue(thread);
     }
 
     public getNextStep(currentThread?: Thread): Step | undefined {
-        currentThread = currentThread || this.runningThreads[this.currentThreadIndex];
+        currentThread = currentThread || this.getCurrentThread();
         if (!currentThread) return undefined;
         let programState = currentThread.currentProgramState;
         let step = programState.currentStepList[programState.stepIndex];
@@ -356,7 +426,7 @@ export class Scheduler {
      * for displaying next program position in editor
      */
     getNextStepPosition(currentThread?: Thread): ProgramPointerPositionInfo | undefined {
-        currentThread = currentThread || this.runningThreads[this.currentThreadIndex];
+        currentThread = currentThread || this.getCurrentThread();
         if (!currentThread) return undefined;
         let programState = currentThread.currentProgramState;
         let step = programState?.currentStepList[programState.stepIndex];
@@ -373,13 +443,22 @@ export class Scheduler {
         this.classObjectRegistry = executable.classObjectRegistry;
         this.libraryTypeStore = executable.libraryModuleManager.typestore;
 
-        this.runningThreads = [];
-        this.suspendedThreads = [];
-        this.currentThreadIndex = 0;
+        this.removeAllThreads();
+        this.clock.reset();
 
         this.keepThread = false;
     }
 
+    /**
+     * Thread.sleep, SystemTools.pause: thread gets runnable again after given milliseconds of program time.
+     */
+    sleep(thread: Thread, milliseconds: number) {
+        thread.state = ThreadState.timedWaiting;
+        this.clock.setTimeout(() => {
+            if (thread.state == ThreadState.timedWaiting) thread.state = ThreadState.runnable;
+        }, milliseconds);
+    }
+
     init(executable: Executable): Thread | undefined {
 
         this.initIntern(executable);
@@ -452,12 +531,26 @@ export class Scheduler {
 
     }
 
+    /**
+     * Thread which ran last (or is kept in single step mode). If there's none then the thread
+     * which will run next.
+     */
     getCurrentThread(): Thread | undefined {
-        return this.runningThreads[this.currentThreadIndex];
+        if (this.currentThread && this.threads.has(this.currentThread)) return this.currentThread;
+
+        let thread: Thread | undefined;
+        while (thread = this.readyQueue.peek()) {
+            if (thread.state == ThreadState.runnable && this.threads.has(thread)) return thread;
+            this.readyQueue.dequeue();
+            thread.isQueued = false;
+        }
+
+        return this.threads.values().next().value;
     }
 
     resetLastTimeExecutedTimestamps() {
-        this.runningThreads.filter(t => t.maxStepsPerSecond).forEach(t => t.lastTimeThreadWasRun = performance.now());
+        this.threads.forEach(t => { if (t.maxStepsPerSecond) t.lastTimeThreadWasRun = performance.now() });
+        this.wakeUpThreads(Infinity);
     }
 
     /**
@@ -474,35 +567,38 @@ export class Scheduler {
 
 
     setMaxSpeed(value: number, isMaxSpeed: boolean) {
-        this.runningThreads.filter(t => t.name != 'act method-thread').forEach(t => t.maxStepsPerSecond = isMaxSpeed ? undefined : value);
+        this.threads.forEach(t => { if (t.name != 'act method-thread') t.maxStepsPerSecond = isMaxSpeed ? undefined : value });
+        // threads waiting for their next step have to reconsider with new speed
+        this.wakeUpThreads(Infinity);
     }
 
     removeAllThreads() {
-        this.runningThreads = [];
-        this.suspendedThreads = [];
+        this.threads = new Set();
+        this.suspendedThreads = new Set();
+        this.clearQueues();
+        this.currentThread = undefined;
     }
 
     setAsCurrentThread(standaloneThread: Thread) {
-        let index = this.runningThreads.indexOf(standaloneThread);
-        if (index >= 0) {
-            this.currentThreadIndex = index;
-        } else {
-            this.runningThreads.push(standaloneThread);
-            this.currentThreadIndex = this.runningThreads.length - 1;
-        }
+        this.threads.add(standaloneThread);
+        this.currentThread = standaloneThread;
         standaloneThread.state = ThreadState.runnable;
     }
 
     saveAllThreadsBut(currentThread: Thread) {
-        this.storedThreads = this.runningThreads.filter(t => t != currentThread);
-        this.runningThreads = [currentThread];
-        this.currentThreadIndex = 0;
+        this.storedThreads = Array.from(this.threads).filter(t => t != currentThread);
+        this.threads = new Set([currentThread]);
+        this.clearQueues();
+        this.currentThread = currentThread;
+        this.enqueue(currentThread);
     }
 
     retrieveThreads() {
         if (this.storedThreads) {
-            this.runningThreads = this.runningThreads.concat(this.storedThreads);
-            this.currentThreadIndex = 0;
+            for (let thread of this.storedThreads) {
+                this.threads.add(thread);
+                this.enqueue(thread);
+            }
         }
     }
 
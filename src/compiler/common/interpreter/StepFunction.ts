@@ -10,11 +10,13 @@ export class StepParams {
     static thread = "__t";            // type Thread
     static stack = "__s";             // type any[]
     static stackBase = "__sb";        // type number
+    static entryIndex = "__e";        // type number, only used by fused blocks (see SnippetLinker.fuseSteps)
 }
 
 export class Helpers {
     static classes = StepParams.thread + ".classes";
     static newArray = StepParams.thread + "." + Thread.prototype.newArray.name;
+    static newTypedArray = StepParams.thread + "." + Thread.prototype.newTypedArray.name;
     static print = StepParams.thread + "." + Thread.prototype.print.name;
     static println = StepParams.thread + "." + Thread.prototype.println.name;
     static return = StepParams.thread + "." + Thread.prototype.return.name;
@@ -0,0 +1,65 @@
+export type StepFunctionCacheStatistics = {
+    size: number,
+    hits: number,
+    misses: number
+}
+
+/**
+ * Compiling a step with new Function(...) is expensive. After small edits most steps of a
+ * workspace are byte-identical to the ones of the last compilation run, so we keep
+ * compiled functions in a LRU cache shared by all compilation runs.
+ *
+ * Compiled step functions don't capture anything (they get thread, stack and stackbase
+ * as parameters and step specific data via this), therefore one function object
+ * may safely be used by several steps.
+ */
+export class StepFunctionCache {
+
+    static maxSize: number = 20000;
+
+    private static cache: Map<string, Function> = new Map();
+
+    static hits: number = 0;
+    static misses: number = 0;
+
+    static getFunction(parameters: string[], code: string): Function {
+        // Label comments don't alter semantics but their numbers shift when code above changes:
+        let key = parameters.join(",") + "\n" + code.replace(/\/\/ Label \d*\n/g, "");
+
+        let cache = StepFunctionCache.cache;
+        let f = cache.get(key);
+        if (f) {
+            StepFunctionCache.hits++;
+            // Map iterates in insertion order, so reinsert to mark as most recently used:
+            cache.delete(key);
+            cache.set(key, f);
+            return f;
+        }
+
+        StepFunctionCache.misses++;
+        f = new Function(...parameters, code);
+        cache.set(key, f);
+
+        if (cache.size > StepFunctionCache.maxSize) {
+            // remove least recently used entry
+            cache.delete(cache.keys().next().value!);
+        }
+
+        return f;
+    }
+
+    static getStatistics(): StepFunctionCacheStatistics {
+        return {
+            size: StepFunctionCache.cache.size,
+            hits: StepFunctionCache.hits,
+            misses: StepFunctionCache.misses
+        }
+    }
+
+    static clear() {
+        StepFunctionCache.cache.clear();
+        StepFunctionCache.hits = 0;
+        StepFunctionCache.misses = 0;
+    }
+
+}
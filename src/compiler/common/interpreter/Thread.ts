@@ -9,11 +9,12 @@ import { ThrowableClass } from "../../java/runtime/system/javalang/ThrowableClas
 import { NonPrimitiveType } from "../../java/types/NonPrimitiveType.ts";
 import { InterpreterMessages } from "../language/InterpreterMessages.ts";
 import { IRange } from "../range/Range.ts";
+import { ArrayTools, JavaArray, PrimitiveTypedArrayConstructor } from "./ArrayTools.ts";
 import { ArrayToStringCaster, TextContainer } from "./ArrayToStringCaster.ts";
 import { CallbackParameter } from "./CallbackParameter.ts";
 import { CatchBlockInfo, Exception, ExceptionInfo } from "./ExceptionInfo.ts";
 import { ExceptionPrinter } from "./ExceptionPrinter.ts";
-import { Program, Step } from "./Program";
+import { FusedStep, Program, Step } from "./Program";
 import { Scheduler } from "./Scheduler";
 import { CallbackFunction, KlassObjectRegistry } from "./StepFunction.ts";
 import { SystemException } from "./SystemException.ts";
@@ -83,12 +84,17 @@ export class Thread {
     maxStepsPerSecond?: number;
     lastTimeThreadWasRun: number = performance.now();
 
+    isQueued: boolean = false;      // thread has entry in Scheduler's readyQueue or wakeupHeap
+
     stacksizeBeforeREPLProgram: number = 0;
     replReturnValue?: ReplReturnValue;
 
     numberOfSteps: number = 0;
+    maxNumberOfSteps: number = 0;   // of current call to run; whole-method functions use it to respect time slice
+    fusedStepIndex: number = -1;    // set by fused block if exception occurs inside (see SnippetLinker.fuseSteps)
+    lastFusedStepIndex: number = -1;    // set by fused block when it exits: index of last step executed inside
 
-    lastCheckedArrays: any[][] = [];
+    lastCheckedArrays: JavaArray[] = [];
 
     callbackAfterTerminated?: () => void;
 
@@ -106,11 +112,16 @@ export class Thread {
      */
     run(maxNumberOfSteps: number): ThreadStateInfoAfterRun {
         this.numberOfSteps = 0;
+        this.maxNumberOfSteps = maxNumberOfSteps;
         let stack = this.s; // for performance reasons
         let step: Step;
         let currentProgramState!: ProgramState;
         let stepIndex!: number;
 
+        // fused steps (see SnippetLinker.fuseSteps) execute several steps at once, so
+        // we only use them if no one watches single steps:
+        let useFusedSteps = !this.maxStepsPerSecond && !this.scheduler.keepThread;
+
         try {
             //@ts-ignore
             while (this.numberOfSteps < maxNumberOfSteps && this.state == ThreadState.runnable) {
@@ -150,6 +161,9 @@ export class Thread {
 
                 } else {
                     // not in singlestep-mode (faster!)
+                    if (useFusedSteps) currentStepList = this.getStepListForFastMode(currentProgramState);
+                    let countBackEdges = useFusedSteps && currentStepList == currentProgramState.program?.stepsSingle;
+
                     while (this.numberOfSteps < maxNumberOfSteps && this.state == ThreadState.runnable) {
                         step = currentStepList[stepIndex];
 
@@ -166,12 +180,22 @@ export class Thread {
                         if (currentProgramState != this.currentProgramState) {
                             currentProgramState.stepIndex = stepIndex;
 
-                            currentProgramState.lastExecutedStep = step; // for Exception printing
+                            // for Exception printing:
+                            currentProgramState.lastExecutedStep = this.getLastExecutedStep(step);
 
                             currentProgramState = this.currentProgramState;
                             stepIndex = currentProgramState.stepIndex;
-                            currentStepList = currentProgramState.currentStepList;
+                            currentStepList = useFusedSteps ? this.getStepListForFastMode(currentProgramState) : currentProgramState.currentStepList;
+                            countBackEdges = useFusedSteps && currentStepList == currentProgramState.program?.stepsSingle;
                             stackBase = currentProgramState.stackBase;
+                        } else if (countBackEdges && stepIndex <= step.index) {
+                            // loop inside program which isn't hot yet
+                            let program = currentProgramState.program;
+                            program.backEdgeCount++;
+                            if (program.isHot()) {
+                                currentStepList = program.getStepsForFastMode();
+                                countBackEdges = false;
+                            }
                         }
 
                         this.numberOfSteps++;
@@ -185,10 +209,20 @@ export class Thread {
                 // step.run
             }
 
-            if (currentProgramState) currentProgramState.lastExecutedStep = step!;
+            if (currentProgramState && step!) currentProgramState.lastExecutedStep = this.getLastExecutedStep(step!);
 
         } catch (exception) {
-            if (currentProgramState) currentProgramState.stepIndex = stepIndex;
+            if (this.fusedStepIndex >= 0) {
+                // exception occured inside fused block => determine step which caused it
+                stepIndex = this.fusedStepIndex;
+                step = currentProgramState.currentStepList[stepIndex] || step!;
+                this.fusedStepIndex = -1;
+            }
+
+            if (currentProgramState) {
+                currentProgramState.stepIndex = stepIndex;
+                if (step!) currentProgramState.lastExecutedStep = step!;
+            }
 
             if (exception instanceof ThrowableClass) {
                 this.throwException(exception, step!);
@@ -202,6 +236,102 @@ export class Thread {
         return { state: this._state, stepsExecuted: this.numberOfSteps }
     }
 
+    /**
+     * A fused step executes several steps of program.stepsSingle; the fused block tells which of them
+     * was the last one, so that positions in stacktraces are exact.
+     */
+    private getLastExecutedStep(step: Step): Step {
+        if (step instanceof FusedStep && this.lastFusedStepIndex >= 0) {
+            return step.program?.stepsSingle[this.lastFusedStepIndex] || step;
+        }
+        return step;
+    }
+
+    private getStepListForFastMode(programState: ProgramState): Step[] {
+        // program is undefined after REPL statement
+        return programState.program ? programState.program.getStepsForFastMode() : programState.currentStepList;
+    }
+
+    /**
+     * Library code which calls java methods in a loop (e.g. a comparator while sorting) usually
+     * has to return to the run loop after each call and continue in the call's callback.
+     * Instead this method executes the steps of the just pushed programs right away until the
+     * program stack is back at the given height, so the callback gets called synchronously.
+     *
+     * If the called method can't finish now (sleep, wait, input, breakpoint, time slice used up)
+     * or the thread is in single step mode then this method returns early, the method is continued
+     * by the ordinary run loop and the callback gets called later.
+     */
+    runUntilProgramStackHeight(height: number) {
+        if (this.stepEndsWhenProgramstackLengthLowerOrEqual >= 0) return;
+        let useFusedSteps = !this.maxStepsPerSecond && !this.scheduler.keepThread;
+        let stack = this.s;
+
+        let programState: ProgramState | undefined;
+        let step: Step | undefined;
+
+        while (true) {
+            try {
+                while (this.programStack.length > height && this.numberOfSteps < this.maxNumberOfSteps &&
+                    this.state == ThreadState.runnable) {
+                    programState = this.currentProgramState;
+                    let stepList = useFusedSteps ? this.getStepListForFastMode(programState) : programState.currentStepList;
+                    step = stepList[programState.stepIndex];
+                    programState.stepIndex = step.run!(this, stack, programState.stackBase);
+                    if (programState != this.currentProgramState) {
+                        // for Exception printing:
+                        programState.lastExecutedStep = this.getLastExecutedStep(step);
+                    }
+                    this.numberOfSteps++;
+                }
+                return;
+            } catch (exception) {
+                // Store the position inside the program which threw the exception, regardless of
+                // whether it's caught here or by the run loop.
+                if (programState && step) {
+                    if (this.fusedStepIndex >= 0) {
+                        programState.stepIndex = this.fusedStepIndex;
+                        step = programState.program?.stepsSingle[this.fusedStepIndex] || step;
+                        this.fusedStepIndex = -1;
+                    }
+                    programState.lastExecutedStep = step;
+                }
+
+                // If a method above the given height catches the exception then it's thrown here
+                // and execution continues in the catch block. Otherwise it's rethrown to the run
+                // loop which only knows the program that called the library method.
+                if (step && exception instanceof ThrowableClass && this.isCaughtAboveProgramStackHeight(exception, height)) {
+                    this.throwException(exception, step);
+                    continue;
+                }
+                throw exception;
+            }
+        }
+    }
+
+    /**
+     * Checks without changing the program stack if a catch block of a program at stack index >= height
+     * catches the given exception.
+     */
+    private isCaughtAboveProgramStackHeight(exception: Exception & IThrowable, height: number): boolean {
+        let classNames = this.getExceptionClassNames(exception);
+        for (let i = this.programStack.length - 1; i >= height; i--) {
+            let exceptionInfoList = this.programStack[i].exceptionInfoList;
+            for (let j = exceptionInfoList.length - 1; j >= 0; j--) {
+                for (let catchBlockInfo of exceptionInfoList[j].catchBlockInfos) {
+                    if (classNames.some(cn => catchBlockInfo.exceptionTypes[cn])) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private getExceptionClassNames(exception: Exception & IThrowable): string[] {
+        let classNames = exception.getExtendedImplementedIdentifiers().slice();
+        classNames.push(exception.getIdentifier());
+        return classNames;
+    }
+
     handleSystemException(exception: any, step: Step, currentProgramState: ProgramState) {
 
         console.log(exception);
@@ -212,6 +342,7 @@ export class Thread {
 
     public set state(state: ThreadState) {
         this._state = state;
+        if (state == ThreadState.runnable) this.scheduler.onThreadBecameRunnable(this);
         if (state == ThreadState.terminated && this.callbackAfterTerminated) {
             this.callbackAfterTerminated();
             this.callbackAfterTerminated = undefined;
@@ -278,8 +409,7 @@ export class Thread {
         exception.range = step.getValidRangeOrUndefined();
         exception.thread = this;
 
-        let classNames = exception.getExtendedImplementedIdentifiers().slice();
-        classNames.push(exception.getIdentifier());
+        let classNames = this.getExceptionClassNames(exception);
 
         let rawStackTrace: ProgramState[] = [];
         let newProgramStates: ProgramState[] = [];
@@ -464,6 +594,8 @@ export class Thread {
      * @param program 
      */
     pushProgram(program: Program, callback?: CallbackFunction) {
+        program.invocationCount++;
+
         // Object creation is faster than Object.assign, see
         // https://measurethat.net/Benchmarks/Show/18401/0/objectassign-vs-creating-new-objects3
         let state: ProgramState = {
@@ -506,6 +638,29 @@ export class Thread {
         this.currentProgramState = state;
     }
 
+    /**
+     * Arrays of byte, short, int, long, float and double (see PrimitiveType.typedArrayConstructorName).
+     * Multidimensional arrays are ordinary arrays of typed arrays.
+     */
+    newTypedArray(typedArrayConstructor: PrimitiveTypedArrayConstructor, ...dimensions: number[]): JavaArray {
+        let n0 = dimensions[0];
+
+        if (n0 < 0) {
+            throw new RuntimeExceptionClass(InterpreterMessages.ArrayLengthNegative());
+        }
+
+        if (dimensions.length == 1) {
+            return new typedArrayConstructor(n0);
+        }
+
+        let array = [];
+        let subdimensions = dimensions.slice(1);
+        for (let i = 0; i < n0; i++) {
+            array.push(this.newTypedArray(typedArrayConstructor, ...subdimensions));
+        }
+        return array;
+    }
+
     newArray(defaultValue: any, ...dimensions: number[]): Array<any> {
         let n0 = dimensions[0];
 
@@ -612,7 +767,7 @@ export class Thread {
             return;
         }
 
-        if (Array.isArray(object)) {
+        if (ArrayTools.isArray(object)) {
             this._arrayOfObjectsToString(object, callback, maximumLength);
             return;
         }
@@ -655,7 +810,7 @@ export class Thread {
         aquiredLock.leaveSynchronizedBlock(this);
     }
 
-    _arrayOfObjectsToString(array: any[], callback?: CallbackParameter, maximumLength: number = 200) {
+    _arrayOfObjectsToString(array: JavaArray, callback?: CallbackParameter, maximumLength: number = 200) {
         let textContainer: TextContainer = { text: "" };
         ArrayToStringCaster.arrayOfObjectsToString(textContainer, this, array, () => {
             this.s.push(textContainer.text);
@@ -664,8 +819,8 @@ export class Thread {
     }
 
     _primitiveElementOrArrayToString(element: any): string {
-        if (Array.isArray(element)) {
-            return "[" + element.map(e => this._primitiveElementOrArrayToString(e)).join(", ") + "]";
+        if (ArrayTools.isArray(element)) {
+            return "[" + ArrayTools.toPlainArray(element).map(e => this._primitiveElementOrArrayToString(e)).join(", ") + "]";
         }
 
         if (typeof element == "string") return '"' + element + '"';
@@ -681,12 +836,12 @@ export class Thread {
      *  java: a[3][4] = 17 -> javascript: __t.Array1(a, 3)[__t.CheckLastIndex(4)] = 17   (__t stores result of __t.Array1(a, 3))
      *  java: a[3][4][5] = 17 -> javascript: __t.Array2(a, 3, 4)[__t.CheckLastIndex(5)] = 17 (__t stores result of __t.Array2(a, 3, 4))
      */
-    ArrayValue1(array: any[], index: number) {
+    ArrayValue1(array: JavaArray, index: number) {
         if (index < 0 || index >= array.length) throw new IndexOutOfBoundsExceptionClass(InterpreterMessages.ArrayIndexOutOfBoundsException(index, array.length, 1));
         return array[index];
     }
 
-    ArrayValue2(array: any[][], index1: number, index2: number) {
+    ArrayValue2(array: any[], index1: number, index2: number) {
         if (index1 < 0 || index1 >= array.length) throw new IndexOutOfBoundsExceptionClass(InterpreterMessages.ArrayIndexOutOfBoundsException(index1, array.length, 1));
         let a2 = array[index1];
         if (index2 < 0 || index2 >= a2.length) throw new IndexOutOfBoundsExceptionClass(InterpreterMessages.ArrayIndexOutOfBoundsException(index2, a2.length, 2));
@@ -702,7 +857,7 @@ export class Thread {
         return a2[index3];
     }
 
-    ArrayValueN(array: any[], ...indices: number[]) {
+    ArrayValueN(array: any, ...indices: number[]) {
         for (let i = 0; i < indices.length; i++) {
             let index = indices[i];
             if (index < 0 || index >= array.length) throw new IndexOutOfBoundsExceptionClass(InterpreterMessages.ArrayIndexOutOfBoundsException(index, array.length, i + 1));
@@ -711,7 +866,7 @@ export class Thread {
         return array;
     }
 
-    Array0(array: any[]){
+    Array0(array: JavaArray){
         this.lastCheckedArrays.push(array);
         return array;
     }
@@ -723,7 +878,7 @@ export class Thread {
         return ret;
     }
 
-    Array2(array: any[][], index1: number, index2: number) {
+    Array2(array: any[], index1: number, index2: number) {
         if (index1 < 0 || index1 >= array.length) throw new IndexOutOfBoundsExceptionClass(InterpreterMessages.ArrayIndexOutOfBoundsException(index1, array.length, 1));
         let a2 = array[index1];
         if (index2 < 0 || index2 >= a2.length) throw new IndexOutOfBoundsExceptionClass(InterpreterMessages.ArrayIndexOutOfBoundsException(index2, a2.length, 2));
@@ -734,7 +889,7 @@ export class Thread {
 
     }
 
-    ArrayN(array: any[], ...indices: number[]) {
+    ArrayN(array: any, ...indices: number[]) {
         for (let i = 0; i < indices.length; i++) {
             let index = indices[i];
             if (index < 0 || index >= array.length) throw new IndexOutOfBoundsExceptionClass(InterpreterMessages.ArrayIndexOutOfBoundsException(index, array.length, i + 1));
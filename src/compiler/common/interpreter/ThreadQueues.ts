@@ -0,0 +1,145 @@
+/**
+ * FIFO queue of threads (or lock requests, see Monitor) with O(1) enqueue and dequeue (array
+ * with moving head index, compacted from time to time).
+ */
+export class FifoQueue<T> {
+
+    private entries: (T | undefined)[] = [];
+    private head: number = 0;
+
+    get length(): number {
+        return this.entries.length - this.head;
+    }
+
+    enqueue(entry: T) {
+        this.entries.push(entry);
+    }
+
+    enqueueFront(entry: T) {
+        if (this.head > 0) {
+            this.entries[--this.head] = entry;
+        } else {
+            this.entries.unshift(entry);
+        }
+    }
+
+    dequeue(): T | undefined {
+        if (this.head >= this.entries.length) return undefined;
+
+        let entry = this.entries[this.head];
+        this.entries[this.head++] = undefined;
+
+        if (this.head == this.entries.length) {
+            this.entries = [];
+            this.head = 0;
+        } else if (this.head > 1024 && this.head * 2 > this.entries.length) {
+            this.entries = this.entries.slice(this.head);
+            this.head = 0;
+        }
+
+        return entry;
+    }
+
+    peek(): T | undefined {
+        return this.entries[this.head];
+    }
+
+    clear() {
+        this.entries = [];
+        this.head = 0;
+    }
+
+}
+
+/**
+ * Binary min-heap of threads (or timers, see VirtualClock) ordered by the time they want to be
+ * woken up. Entries with equal wakeup time are woken up in the order they had been pushed.
+ */
+export class WakeupHeap<T> {
+
+    private times: number[] = [];
+    private sequenceNumbers: number[] = [];
+    private entries: T[] = [];
+
+    private nextSequenceNumber: number = 0;
+
+    get size(): number {
+        return this.entries.length;
+    }
+
+    push(time: number, entry: T) {
+        let i = this.entries.length;
+        this.times.push(time);
+        this.sequenceNumbers.push(this.nextSequenceNumber++);
+        this.entries.push(entry);
+
+        while (i > 0) {
+            let parent = (i - 1) >> 1;
+            if (!this.isLess(i, parent)) break;
+            this.swap(i, parent);
+            i = parent;
+        }
+    }
+
+    /**
+     * wakeup time of first entry or undefined if heap is empty
+     */
+    peekTime(): number | undefined {
+        return this.times[0];
+    }
+
+    peek(): T | undefined {
+        return this.entries[0];
+    }
+
+    pop(): T | undefined {
+        if (this.entries.length == 0) return undefined;
+
+        let entry = this.entries[0];
+        let last = this.entries.length - 1;
+        this.swap(0, last);
+        this.times.pop();
+        this.sequenceNumbers.pop();
+        this.entries.pop();
+
+        let i = 0;
+        while (true) {
+            let left = 2 * i + 1;
+            let right = left + 1;
+            let smallest = i;
+            if (left < last && this.isLess(left, smallest)) smallest = left;
+            if (right < last && this.isLess(right, smallest)) smallest = right;
+            if (smallest == i) break;
+            this.swap(i, smallest);
+            i = smallest;
+        }
+
+        return entry;
+    }
+
+    clear() {
+        this.times = [];
+        this.sequenceNumbers = [];
+        this.entries = [];
+    }
+
+    private isLess(i: number, j: number): boolean {
+        return this.times[i] < this.times[j] ||
+            (this.times[i] == this.times[j] && this.sequenceNumbers[i] < this.sequenceNumbers[j]);
+    }
+
+    private swap(i: number, j: number) {
+        let time = this.times[i];
+        this.times[i] = this.times[j];
+        this.times[j] = time;
+
+        let sequenceNumber = this.sequenceNumbers[i];
+        this.sequenceNumbers[i] = this.sequenceNumbers[j];
+        this.sequenceNumbers[j] = sequenceNumber;
+
+        let entry = this.entries[i];
+        this.entries[i] = this.entries[j];
+        this.entries[j] = entry;
+    }
+
+}
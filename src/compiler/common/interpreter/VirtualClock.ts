@@ -0,0 +1,150 @@
+import { WakeupHeap } from "./ThreadQueues.ts";
+
+type ClockTimer = {
+    id: number,
+    time: number,           // program time when timer fires next
+    interval?: number,      // only for repeating timers
+    callback: () => void,
+    cancelled: boolean
+}
+
+/**
+ * Program time used by Thread.sleep, Object.wait(ms), Thread.join(ms), Timer and
+ * System.currentTimeMillis/nanoTime. Timers fire when Scheduler.run calls fireDueTimers,
+ * so they don't run independently of the scheduler (as host setTimeout/setInterval did).
+ *
+ * Program time only advances while the scheduler is running: It is halted when the program
+ * is paused (e.g. at a breakpoint), so sleeping threads and timers pause with it.
+ *
+ * In fast mode (headless runs, see Interpreter.runMainProgramSynchronously) the scheduler
+ * doesn't wait for the next timer if no thread is runnable but skips the idle time.
+ */
+export class VirtualClock {
+
+    fastMode: boolean = false;
+
+    private timers: WakeupHeap<ClockTimer> = new WakeupHeap();
+    private timersById: Map<number, ClockTimer> = new Map();
+    private nextId: number = 1;
+
+    private time: number = 0;                       // ms of program time since reset
+    private origin: number = performance.now();     // currentTimeMillis() at program time 0
+    private lastRealTime?: number;                  // undefined while clock is halted
+
+    reset() {
+        this.clearTimers();
+        this.time = 0;
+        this.origin = performance.now();
+        this.lastRealTime = undefined;
+    }
+
+    start() {
+        if (this.lastRealTime === undefined) this.lastRealTime = performance.now();
+    }
+
+    halt() {
+        this.advance();
+        this.lastRealTime = undefined;
+    }
+
+    /**
+     * program time in ms since reset
+     */
+    now(): number {
+        this.advance();
+        return this.time;
+    }
+
+    currentTimeMillis(): number {
+        return this.origin + this.now();
+    }
+
+    setTimeout(callback: () => void, delayMs: number): number {
+        return this.addTimer(callback, Math.max(0, delayMs));
+    }
+
+    setInterval(callback: () => void, intervalMs: number): number {
+        // intervalMs == 0 would never let program time advance in fast mode
+        return this.addTimer(callback, Math.max(1, intervalMs), Math.max(1, intervalMs));
+    }
+
+    clearTimer(id: number) {
+        let timer = this.timersById.get(id);
+        if (!timer) return;
+        timer.cancelled = true;     // is dropped when it gets to the top of the heap
+        this.timersById.delete(id);
+    }
+
+    clearTimers() {
+        this.timersById.forEach(timer => timer.cancelled = true);
+        this.timersById.clear();
+        this.timers.clear();
+    }
+
+    hasTimers(): boolean {
+        return this.timersById.size > 0;
+    }
+
+    /**
+     * Calls callbacks of all timers which are due.
+     */
+    fireDueTimers() {
+        this.advance();
+
+        while (this.timers.size > 0 && this.timers.peekTime()! <= this.time) {
+            let timer = this.timers.pop()!;
+            if (timer.cancelled) continue;
+
+            if (timer.interval) {
+                // like host setInterval we don't catch up on missed intervals
+                timer.time += timer.interval;
+                if (timer.time <= this.time) timer.time = this.time + timer.interval;
+                this.timers.push(timer.time, timer);
+            } else {
+                this.timersById.delete(timer.id);
+            }
+
+            timer.callback();
+        }
+    }
+
+    /**
+     * Fast mode only: Advances program time to next timer and fires it.
+     * @returns false if there's no timer or clock isn't in fast mode
+     */
+    skipToNextTimer(): boolean {
+        if (!this.fastMode) return false;
+
+        while (this.timers.size > 0 && this.timers.peek()!.cancelled) this.timers.pop();
+        if (this.timers.size == 0) return false;
+
+        this.advance();
+        this.time = Math.max(this.time, this.timers.peekTime()!);
+        this.fireDueTimers();
+
+        return true;
+    }
+
+    private addTimer(callback: () => void, delayMs: number, interval?: number): number {
+        let timer: ClockTimer = {
+            id: this.nextId++,
+            time: this.now() + delayMs,
+            interval: interval,
+            callback: callback,
+            cancelled: false
+        }
+
+        this.timersById.set(timer.id, timer);
+        this.timers.push(timer.time, timer);
+
+        return timer.id;
+    }
+
+    private advance() {
+        if (this.lastRealTime === undefined) return;
+        let t = performance.now();
+        this.time += t - this.lastRealTime;
+        this.lastRealTime = t;
+    }
+
+}
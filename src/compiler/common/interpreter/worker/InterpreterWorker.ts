@@ -0,0 +1,130 @@
+import { JavaCompiler } from "../../../java/JavaCompiler";
+import { CompilerFile } from "../../module/CompilerFile";
+import { Interpreter } from "../Interpreter";
+import { SchedulerState } from "../Scheduler";
+import { WorkerInputManager } from "./WorkerInputManager";
+import { FromWorkerMessage, ToWorkerMessage, WorkerFile } from "./WorkerMessages";
+import { WorkerPrintManager } from "./WorkerPrintManager";
+
+/**
+ * Runs headless programs (console only) inside the web worker, see InterpreterWorkerMain for
+ * the script which is loaded into the worker.
+ *
+ * Executable and steps can't be transferred to the worker, so the worker gets the source files
+ * and compiles them itself. Then it drives the interpreter in time slices of sliceMs milliseconds.
+ * Between two slices it yields to the event loop (to receive stop and input messages) but doesn't
+ * wait for a timer, so a cpu bound program uses the whole core instead of
+ * LoadController.maxLoadFactor of the main thread's timer interval.
+ */
+export class InterpreterWorker {
+
+    static sliceMs: number = 50;
+
+    private compiler: JavaCompiler;
+    private interpreter: Interpreter;
+    private printManager: WorkerPrintManager;
+    private inputManager: WorkerInputManager;
+
+    private isLoopScheduled: boolean = false;
+    private yieldChannel: MessageChannel = new MessageChannel();
+
+    constructor(private postMessage: (message: FromWorkerMessage) => void) {
+
+        this.printManager = new WorkerPrintManager(postMessage);
+        this.inputManager = new WorkerInputManager((message: FromWorkerMessage) => {
+            this.printManager.flush();
+            postMessage(message);
+        });
+
+        this.compiler = new JavaCompiler();
+        this.interpreter = new Interpreter(this.printManager, undefined, undefined, undefined,
+            undefined, undefined, undefined, this.inputManager);
+
+        // we drive the interpreter ourselves, see loop()
+        this.interpreter.isExternalTimer = true;
+        this.interpreter.loadController.setMaxLoadFactor(1);
+        this.interpreter.loadController.setFrameBudget(InterpreterWorker.sliceMs);
+
+        this.interpreter.eventManager.on("stateChanged", (oldState: SchedulerState, newState: SchedulerState) => {
+            this.printManager.flush();
+            this.postMessage({ type: "stateChanged", oldState: oldState, newState: newState });
+            if (newState == SchedulerState.running) this.scheduleLoop(0);
+        });
+
+        this.yieldChannel.port1.onmessage = () => { this.loop() };
+    }
+
+    onMessage(message: ToWorkerMessage) {
+        switch (message.type) {
+            case "run":
+                this.run(message.files, message.mainFileName);
+                break;
+            case "stop":
+                if (this.interpreter.isRunningOrPaused()) this.interpreter.stop(false);
+                this.inputManager.reset();
+                break;
+            case "input":
+                this.inputManager.onInput(message.value);
+                break;
+        }
+    }
+
+    private run(workerFiles: WorkerFile[], mainFileName?: string) {
+        if (this.interpreter.isRunningOrPaused()) this.interpreter.stop(false);
+        this.inputManager.reset();
+
+        let files = workerFiles.map(wf => {
+            let file = new CompilerFile(wf.name);
+            file.setText(wf.text);
+            return file;
+        });
+
+        this.compiler.setFiles(files);
+        this.compiler.lastOpenedFile = files.find(f => f.name == mainFileName);
+        let executable = this.compiler.compileIfDirty();
+
+        let error = executable?.moduleManager.modules.flatMap(m => m.errors).find(e => e.level == "error");
+        if (!executable || error || !executable.mainModule) {
+            this.postMessage({
+                type: "compilationFailed",
+                message: error ? error.message : "No main method found."
+            });
+            return;
+        }
+
+        this.interpreter.setExecutable(executable);
+        this.interpreter.start();
+    }
+
+    private scheduleLoop(delayMs: number) {
+        if (this.isLoopScheduled) return;
+        this.isLoopScheduled = true;
+        if (delayMs > 0) {
+            setTimeout(() => { this.loop() }, delayMs);
+        } else {
+            // setTimeout(..., 0) is clamped to >= 4 ms when nested, a message roundtrip isn't
+            this.yieldChannel.port2.postMessage(null);
+        }
+    }
+
+    private loop() {
+        this.isLoopScheduled = false;
+
+        let scheduler = this.interpreter.scheduler;
+        if (scheduler.state != SchedulerState.running) {
+            this.printManager.flush();
+            return;
+        }
+
+        let stepCountBefore = scheduler.stepCountSinceStartOfProgram;
+        this.interpreter.timerFunction(InterpreterWorker.sliceMs);
+        this.printManager.flush();
+
+        if (scheduler.state != SchedulerState.running) return;
+
+        // all threads are sleeping or waiting for input => don't burn cpu time
+        let idle = scheduler.stepCountSinceStartOfProgram == stepCountBefore;
+        this.scheduleLoop(idle ? this.interpreter.timerIntervalMs : 0);
+    }
+
+}
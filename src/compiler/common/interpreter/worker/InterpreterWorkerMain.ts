@@ -0,0 +1,14 @@
+import { InterpreterWorker } from "./InterpreterWorker";
+import { FromWorkerMessage, ToWorkerMessage } from "./WorkerMessages";
+
+/**
+ * Script which WorkerInterpreter loads into the web worker. InterpreterWorker itself doesn't
+ * touch the worker's global scope, so it can be used (and tested) outside of a worker, too.
+ */
+const workerScope: Worker = self as any;
+
+const interpreterWorker = new InterpreterWorker((message: FromWorkerMessage) => workerScope.postMessage(message));
+
+workerScope.onmessage = (event: MessageEvent<ToWorkerMessage>) => {
+    interpreterWorker.onMessage(event.data);
+}
@@ -0,0 +1,55 @@
+import { IInputManager, InputManagerCallback, InputManagerValidator } from "../IInputManager";
+import { FromWorkerMessage } from "./WorkerMessages";
+
+type PendingInput = {
+    question: string,
+    defaultValue: string | undefined,
+    validator: InputManagerValidator,
+    successCallback: InputManagerCallback
+}
+
+/**
+ * InputManager inside the web worker: asks the main thread for input and waits for the answer.
+ * Validators can't be sent to the main thread, so the raw string is validated here. If it is
+ * invalid the question is asked once more together with the error message.
+ */
+export class WorkerInputManager implements IInputManager {
+
+    private pendingInput?: PendingInput;
+
+    constructor(private postMessage: (message: FromWorkerMessage) => void) {
+
+    }
+
+    readInput(question: string, defaultValue: string | undefined, validator: InputManagerValidator, successCallback: InputManagerCallback): void {
+        this.pendingInput = {
+            question: question,
+            defaultValue: defaultValue,
+            validator: validator,
+            successCallback: successCallback
+        }
+        this.postMessage({ type: "readInput", question: question, defaultValue: defaultValue });
+    }
+
+    onInput(value: string) {
+        let pendingInput = this.pendingInput;
+        if (!pendingInput) return;
+
+        let validation = pendingInput.validator(value);
+        if (validation.errorMessage) {
+            this.postMessage({
+                type: "readInput", question: pendingInput.question,
+                defaultValue: pendingInput.defaultValue, errorMessage: validation.errorMessage
+            });
+            return;
+        }
+
+        this.pendingInput = undefined;
+        pendingInput.successCallback(validation.convertedValue);
+    }
+
+    reset() {
+        this.pendingInput = undefined;
+    }
+
+}
@@ -0,0 +1,135 @@
+import { ActorClass } from "../../../java/runtime/graphics/ActorClass";
+import { Object3dClass } from "../../../java/runtime/graphics/3d/Object3dClass";
+import { World3dClass } from "../../../java/runtime/graphics/3d/World3dClass";
+import { PAppletClass } from "../../../java/runtime/graphics/processing/PAppletClass";
+import { WorldClass } from "../../../java/runtime/graphics/WorldClass";
+import { NonPrimitiveType } from "../../../java/types/NonPrimitiveType";
+import { Executable } from "../../Executable";
+import { CompilerFile } from "../../module/CompilerFile";
+import { EventManager } from "../EventManager";
+import { IInputManager } from "../IInputManager";
+import { IPrintManager } from "../IPrintManager";
+import { SchedulerState } from "../Scheduler";
+import { Klass } from "../StepFunction";
+import { FromWorkerMessage, ToWorkerMessage } from "./WorkerMessages";
+
+type WorkerInterpreterEvents = "stateChanged" | "done" | "compilationFailed";
+
+/**
+ * Main thread side of the web worker execution mode: runs headless programs inside
+ * a dedicated web worker (see InterpreterWorker) so that the editor stays responsive
+ * and cpu bound programs may use a full core.
+ *
+ * Output is received in batches and handed to the given printManager, requests for
+ * input are forwarded to the given inputManager.
+ *
+ * Debugging (breakpoints, single step) and graphics need the main thread, so use
+ * the ordinary Interpreter for them.
+ */
+export class WorkerInterpreter {
+
+    static graphicsClasses: Klass[] = [ActorClass, WorldClass, World3dClass, Object3dClass, PAppletClass];
+
+    eventManager: EventManager<WorkerInterpreterEvents> = new EventManager();
+
+    state: SchedulerState = SchedulerState.not_initialized;
+
+    private worker?: Worker;
+
+    constructor(private printManager: IPrintManager, private inputManager?: IInputManager) {
+
+    }
+
+    /**
+     * Programs which use graphics or gui classes need the main thread.
+     */
+    static isHeadless(executable: Executable): boolean {
+        for (let module of executable.moduleManager.modules) {
+            for (let symbol of module.systemSymbolsUsageTracker.getUsedSymbols()) {
+                if (!(symbol instanceof NonPrimitiveType)) continue;
+                let klass = symbol.runtimeClass;
+                if (!klass) continue;
+                if (WorkerInterpreter.graphicsClasses.some(gc => klass === gc || klass!.prototype instanceof gc)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    run(files: CompilerFile[], mainFile?: CompilerFile) {
+        this.postMessage({
+            type: "run",
+            files: files.map(f => { return { name: f.name, text: f.getText() } }),
+            mainFileName: mainFile?.name
+        });
+    }
+
+    stop() {
+        this.postMessage({ type: "stop" });
+    }
+
+    isRunning(): boolean {
+        return this.state == SchedulerState.running;
+    }
+
+    /**
+     * Stops program execution immediately, even if it is stuck in an endless loop
+     * which doesn't count steps.
+     */
+    terminate() {
+        if (!this.worker) return;
+        this.worker.terminate();
+        this.worker = undefined;
+        this.printManager.flush();
+        this.onStateChanged(this.state, SchedulerState.stopped);
+    }
+
+    private postMessage(message: ToWorkerMessage) {
+        if (!this.worker) {
+            this.worker = new Worker(new URL("./InterpreterWorkerMain.ts", import.meta.url), { type: "module" });
+            this.worker.onmessage = (event: MessageEvent<FromWorkerMessage>) => { this.onMessage(event.data) };
+        }
+        this.worker.postMessage(message);
+    }
+
+    private onMessage(message: FromWorkerMessage) {
+        switch (message.type) {
+            case "print":
+                for (let entry of message.entries) {
+                    this.printManager.print(entry.text, entry.withNewline, entry.color);
+                }
+                this.printManager.flush();
+                break;
+            case "clear":
+                this.printManager.clear();
+                break;
+            case "stateChanged":
+                this.onStateChanged(message.oldState, message.newState);
+                break;
+            case "readInput":
+                this.readInput(message.question, message.defaultValue, message.errorMessage);
+                break;
+            case "compilationFailed":
+                this.eventManager.fire("compilationFailed", message.message);
+                break;
+        }
+    }
+
+    private onStateChanged(oldState: SchedulerState, newState: SchedulerState) {
+        this.state = newState;
+        this.eventManager.fire("stateChanged", oldState, newState);
+        if (newState == SchedulerState.stopped) this.eventManager.fire("done");
+    }
+
+    private readInput(question: string, defaultValue: string | undefined, errorMessage?: string) {
+        if (!this.inputManager) return;
+        if (errorMessage) question = errorMessage + "\n" + question;
+
+        // validation takes place inside the worker
+        this.inputManager.readInput(question, defaultValue,
+            (value: string) => { return { convertedValue: value, errorMessage: undefined } },
+            (value: string) => { this.postMessage({ type: "input", value: value }) });
+    }
+
+}
@@ -0,0 +1,31 @@
+import { SchedulerState } from "../Scheduler";
+
+/**
+ * Messages between WorkerInterpreter (main thread) and InterpreterWorker (web worker).
+ * Everything has to be structured-cloneable, so no functions and no class instances.
+ */
+
+export type WorkerFile = {
+    name: string,
+    text: string
+}
+
+export type WorkerPrintEntry = {
+    text: string | undefined,
+    withNewline: boolean,
+    color: number | undefined
+}
+
+// main thread -> worker
+export type ToWorkerMessage =
+    { type: "run", files: WorkerFile[], mainFileName?: string } |
+    { type: "stop" } |
+    { type: "input", value: string };
+
+// worker -> main thread
+export type FromWorkerMessage =
+    { type: "print", entries: WorkerPrintEntry[] } |
+    { type: "clear" } |
+    { type: "stateChanged", oldState: SchedulerState, newState: SchedulerState } |
+    { type: "readInput", question: string, defaultValue: string | undefined, errorMessage?: string } |
+    { type: "compilationFailed", message: string };
@@ -0,0 +1,55 @@
+import { IPrintManager } from "../IPrintManager";
+import { FromWorkerMessage, WorkerPrintEntry } from "./WorkerMessages";
+
+/**
+ * PrintManager inside the web worker. Posting one message per System.out.print would
+ * flood the main thread, so output is collected and sent in batches:
+ *  - at the end of each time slice (InterpreterWorker calls flush()),
+ *  - if more than maxPendingCharacters are pending,
+ *  - before any other message is posted (so that ordering of output and state changes is kept).
+ */
+export class WorkerPrintManager implements IPrintManager {
+
+    static maxPendingCharacters: number = 65536;
+
+    private pendingEntries: WorkerPrintEntry[] = [];
+    private pendingCharacters: number = 0;
+
+    constructor(private postMessage: (message: FromWorkerMessage) => void) {
+
+    }
+
+    print(text: string | undefined, withNewline: boolean, color: number | undefined): void {
+        this.pendingEntries.push({ text: text, withNewline: withNewline, color: color });
+        this.pendingCharacters += text?.length || 0;
+        if (this.pendingCharacters > WorkerPrintManager.maxPendingCharacters) {
+            this.flush();
+        }
+    }
+
+    flush(): void {
+        if (this.pendingEntries.length == 0) return;
+        let entries = this.pendingEntries;
+        this.pendingEntries = [];
+        this.pendingCharacters = 0;
+        this.postMessage({ type: "print", entries: entries });
+    }
+
+    clear(): void {
+        this.pendingEntries = [];
+        this.pendingCharacters = 0;
+        this.postMessage({ type: "clear" });
+    }
+
+    /**
+     * Html elements can't be posted to the main thread, so we send their text.
+     */
+    printHtmlElement(htmlElement: HTMLElement): void {
+        this.print(htmlElement.textContent || "", true, undefined);
+    }
+
+    isTestPrintManager(): boolean {
+        return false;
+    }
+
+}
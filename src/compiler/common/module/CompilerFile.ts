@@ -46,6 +46,8 @@ export class CompilerFile {
             this.monacoModel.setValue(text);
         } else {
             this.__textWhenMonacoModelAbsent = text;
+            // monaco model increments it's version id on setValue, too
+            this.storedMonacoModelVersion++;
         }
 
         this.notifyListeners();
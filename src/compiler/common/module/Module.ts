@@ -2,7 +2,7 @@ import { JavaType } from "../../java/types/JavaType.ts";
 import { Error } from "../Error";
 import { UsagePosition, UsageTracker } from "../UsagePosition";
 import { CodeFragment } from "../disassembler/CodeFragment.ts";
-import { Program, Step } from "../interpreter/Program";
+import { FastModeStepsBuilder, Program, Step } from "../interpreter/Program";
 import { Thread } from "../interpreter/Thread";
 import { Position } from "../range/Position.ts";
 import { IRange } from "../range/Range.ts";
@@ -37,6 +37,14 @@ export abstract class Module {
 
     abstract getCodeFragments(): CodeFragment[];
 
+    /**
+     * Hot programs of this module use it to build their fused steps (see Program.getStepsForFastMode).
+     * If there is none then programs always execute single steps.
+     */
+    getFastModeStepsBuilder(): FastModeStepsBuilder | undefined {
+        return undefined;
+    }
+
     isStartable(): boolean {
         if (this.hasMainProgram()) {
             return !this.hasErrors();
@@ -22,11 +22,12 @@ import { TypeResolver } from "./TypeResolver/TypeResolver";
 import { CodeGenerator } from "./codegenerator/CodeGenerator";
 import { ExceptionTree } from "./codegenerator/ExceptionTree.ts";
 import { LabelCodeSnippet } from "./codegenerator/LabelManager.ts";
-import { Lexer } from "./lexer/Lexer";
 import { JavaCompiledModule } from "./module/JavaCompiledModule.ts";
 import { JavaModuleManager } from "./module/JavaModuleManager";
 import { JavaLibraryModuleManager } from "./module/libraries/JavaLibraryModuleManager";
 import { Parser } from "./parser/Parser";
+import { TypeScope } from "./parser/AST";
+import { JavaClass } from "./types/JavaClass";
 
 
 enum CompilerState {
@@ -53,7 +54,7 @@ export class JavaCompiler implements Compiler {
     private endOfLastCompilationRunMs = performance.now();
 
     constructor(public main?: IMain, private errorMarker?: ErrorMarker) {
-        this.libraryModuleManager = new JavaLibraryModuleManager();
+        this.libraryModuleManager = JavaLibraryModuleManager.getShared();
         this.moduleManager = new JavaModuleManager();
     }
 
@@ -82,28 +83,39 @@ export class JavaCompiler implements Compiler {
             this.files = currentWorkspace.getFiles().filter(file => FileTypeManager.filenameToFileType(file.name).language == 'myJava');
         }
         
-        this.moduleManager.setupModulesBeforeCompiliation(this.files);
+        let modulesRemoved = this.moduleManager.setupModulesBeforeCompiliation(this.files);
 
-        // we call moduleManager.getNewOrDirtyModules before iterativelySetDirtyFlags
-        // to check if ANY file has changed/is new since last compilation run:
         let newOrDirtyModules = this.moduleManager.getNewOrDirtyModules();
         /**
         * if no module has changed, return as fast as possible
         */
-        if (newOrDirtyModules.length == 0) return this.lastCompiledExecutable;
-
-       // now we extend set of dirty modules to
-       //  - modules which had errors in last compilation run
-       //  - modules that are (indirectly) dependent on other dirty modules
-       this.moduleManager.iterativelySetDirtyFlags();
-       
-       // console.log(Math.round(performance.now() - time) + " ms: Found " + newOrDirtyModules.length + " new or dirty modules.");
-       
-       // if(newOrDirtyModules.length > 0)
-       //console.log("New/dirty modules: " + newOrDirtyModules.map(m => m.file.name).join(", "));
-       
+        if (newOrDirtyModules.length == 0 && !modulesRemoved) return this.lastCompiledExecutable;
+
+        // Lex and parse modules whose text has changed. Comparing their signatures with those of
+        // the last compilation run tells us which other modules have to be recompiled, too:
+        //  - modules which had errors in last compilation run
+        //  - modules that use a module whose signature changed
+        //  - modules that structurally depend on a module which gets recompiled (e.g. subclasses)
+        //  - modules whose declarations reference types of a module which gets recompiled, as
+        //    parsing a module again replaces its type objects
+        // All other modules keep their ASTs, types and programs.
+        let modulesWithChangedSignature: Set<JavaCompiledModule> = new Set();
+        let modulesToParse = newOrDirtyModules;
+        while (modulesToParse.length > 0) {
+            for (let module of modulesToParse) {
+                this.lexAndParse(module);
+                if (module.updateSignature()) modulesWithChangedSignature.add(module);
+            }
+            modulesToParse = this.moduleManager.setDirtyFlagsOfDependentModules(modulesWithChangedSignature);
+        }
+
+        // console.log(Math.round(performance.now() - time) + " ms: Found " + newOrDirtyModules.length + " new or dirty modules.");
+
+        // if(newOrDirtyModules.length > 0)
+        //console.log("New/dirty modules: " + newOrDirtyModules.map(m => m.file.name).join(", "));
+
         newOrDirtyModules = this.moduleManager.getNewOrDirtyModules();
-        if (newOrDirtyModules.length == 0) return this.lastCompiledExecutable;
+        if (newOrDirtyModules.length == 0 && !modulesRemoved) return this.lastCompiledExecutable;
 
         this.errors = [];
 
@@ -114,18 +126,6 @@ export class JavaCompiler implements Compiler {
         let cleanModules = this.moduleManager.getUnChangedModules();
         cleanModules.forEach(cm => cm.registerTypesAtTypestore(this.moduleManager.typestore))
 
-        for (let module of newOrDirtyModules) {
-
-            module.resetBeforeCompilation();
-
-            let lexerOutput = new Lexer().lex(module.file.getText());
-            module.setLexerOutput(lexerOutput);
-
-            let parser = new Parser(module);
-            parser.parse();
-
-        }
-
         let typeResolver = new TypeResolver(this.moduleManager, this.libraryModuleManager);
 
         let exceptionTree = new ExceptionTree(this.libraryModuleManager.typestore, this.moduleManager.typestore);
@@ -135,13 +135,12 @@ export class JavaCompiler implements Compiler {
             this.moduleManager.typestore.initFastExtendsImplementsLookup();
 
 
-            for (let module of newOrDirtyModules) {
+            for (let module of this.sortModulesForCodeGeneration(newOrDirtyModules)) {
                 let codegenerator = new CodeGenerator(module, this.libraryModuleManager.typestore,
                     this.moduleManager.typestore, exceptionTree);
                 codegenerator.start();
                 module.setDirty(false);
             }
-
         }
 
         let klassObjectRegistry: KlassObjectRegistry = {};
@@ -192,13 +191,7 @@ export class JavaCompiler implements Compiler {
         module.compiledSymbolsUsageTracker.clear();
         module.systemSymbolsUsageTracker.clear();
 
-        module.resetBeforeCompilation();
-
-        let lexerOutput = new Lexer().lex(module.file.getText());
-        module.setLexerOutput(lexerOutput);
-
-        let parser = new Parser(module);
-        parser.parse();
+        this.lexAndParse(module);
 
         let typeResolver = new TypeResolver(moduleManagerCopy, this.libraryModuleManager);
 
@@ -225,6 +218,68 @@ export class JavaCompiler implements Compiler {
 
     }
 
+    /**
+     * Code generation can't be spread over several modules at once (let alone over workers):
+     * It alters the shared type objects (standard constructors, default methods, lambda- and
+     * anonymous classes, runtime classes) and its results are steps whose functions belong to
+     * this javascript realm. It depends on the order of modules, too: A class without explicit
+     * constructor gets copies of the constructors of its base class (see
+     * InnerClassCodeGenerator.buildStandardConstructors), so if the base class itself has no
+     * explicit constructor, its module has to be processed first.
+     *
+     * Therefore modules are ordered such that modules declaring base classes come before
+     * modules declaring classes derived from them. In case of cyclic dependencies between
+     * modules the original order is kept as far as possible.
+     */
+    private sortModulesForCodeGeneration(modules: JavaCompiledModule[]): JavaCompiledModule[] {
+        if (modules.length < 2) return modules;
+
+        let moduleSet: Set<JavaCompiledModule> = new Set(modules);
+        let visited: Set<JavaCompiledModule> = new Set();
+        let sortedModules: JavaCompiledModule[] = [];
+
+        let visit = (module: JavaCompiledModule) => {
+            if (visited.has(module)) return;
+            visited.add(module);
+
+            for (let baseClassModule of this.getModulesOfBaseClasses(module.ast)) {
+                if (moduleSet.has(baseClassModule)) visit(baseClassModule);
+            }
+
+            sortedModules.push(module);
+        }
+
+        modules.forEach(visit);
+
+        return sortedModules;
+    }
+
+    private getModulesOfBaseClasses(typeScope: TypeScope | undefined, modules: JavaCompiledModule[] = []): JavaCompiledModule[] {
+        if (!typeScope) return modules;
+
+        for (let cdef of typeScope.innerTypes) {
+            let type = cdef.resolvedType;
+            if (type instanceof JavaClass) {
+                let baseClass = type.getExtends();
+                if (baseClass && baseClass.module instanceof JavaCompiledModule && baseClass.module != type.module) {
+                    modules.push(baseClass.module);
+                }
+            }
+            this.getModulesOfBaseClasses(cdef, modules);
+        }
+
+        return modules;
+    }
+
+    private lexAndParse(module: JavaCompiledModule) {
+        module.resetBeforeCompilation();
+
+        module.lex();
+
+        let parser = new Parser(module);
+        parser.parse();
+    }
+
     startCompilingPeriodically(maxMsBetweenRuns?: number) {
         if (maxMsBetweenRuns) this.maxMsBetweenRuns = maxMsBetweenRuns;
         if (this.state == CompilerState.compilingPeriodically) return;
@@ -46,6 +46,8 @@ export class TypeResolver {
 
         this.resolveTypeReferences();
 
+        this.registerDeclarationDependencies();
+
         this.resolveGenericParameterTypesAndExtendsImplements();
 
         if (CycleFinder.findCycle(this.moduleManager)) return false;
@@ -184,6 +186,76 @@ export class TypeResolver {
         }
     }
 
+    /**
+     * Type objects of a module reference the type objects used in its declarations. If a module gets parsed
+     * again, then it's types are replaced by new objects, so all modules referencing them in declarations
+     * have to be recompiled, too (see JavaModuleManager.setDirtyFlagsOfDependentModules).
+     */
+    registerDeclarationDependencies() {
+        for (let module of this.dirtyModules) {
+            if (!module.ast) continue;
+            for (let typeNode of module.ast.innerTypes) {
+                this.registerDeclarationDependenciesOfType(typeNode, module);
+            }
+        }
+    }
+
+    registerDeclarationDependenciesOfType(node: ASTClassDefinitionNode | ASTInterfaceDefinitionNode | ASTEnumDefinitionNode, module: JavaCompiledModule) {
+        // main class (top level statements) is not visible to other modules
+        if (node.identifier == "") return;
+
+        let typeNodes: (ASTTypeNode | undefined)[] = [];
+
+        if (node.kind != TokenType.keywordEnum) {
+            if (node.kind == TokenType.keywordClass) typeNodes.push(node.extends);
+            typeNodes.push(...node.implements);
+            for (let gpNode of node.genericParameterDeclarations) {
+                typeNodes.push(...(gpNode.extends || []), gpNode.super);
+            }
+        }
+
+        for (let field of node.fieldsOrInstanceInitializers) {
+            if (field.kind == TokenType.fieldDeclaration) typeNodes.push(field.type);
+        }
+
+        for (let method of node.methods) {
+            typeNodes.push(method.returnParameterType, ...method.parameters.map(p => p.type));
+            for (let gpNode of method.genericParameterDeclarations) {
+                typeNodes.push(...(gpNode.extends || []), gpNode.super);
+            }
+        }
+
+        for (let typeNode of typeNodes) {
+            this.registerDeclarationDependenciesOfTypeNode(typeNode, module);
+        }
+
+        for (let innerType of node.innerTypes) {
+            this.registerDeclarationDependenciesOfType(innerType, module);
+        }
+    }
+
+    registerDeclarationDependenciesOfTypeNode(typeNode: ASTTypeNode | undefined, module: JavaCompiledModule) {
+        if (!typeNode) return;
+        switch (typeNode.kind) {
+            case TokenType.baseType:
+                if (typeNode.resolvedType) module.compiledSymbolsUsageTracker.registerDeclarationDependency(typeNode.resolvedType);
+                break;
+            case TokenType.genericTypeInstantiation:
+                let genericTypeNode = <ASTGenericTypeInstantiationNode>typeNode;
+                this.registerDeclarationDependenciesOfTypeNode(genericTypeNode.baseType, module);
+                genericTypeNode.actualTypeArguments.forEach(t => this.registerDeclarationDependenciesOfTypeNode(t, module));
+                break;
+            case TokenType.arrayType:
+                this.registerDeclarationDependenciesOfTypeNode((<ASTArrayTypeNode>typeNode).arrayOf, module);
+                break;
+            case TokenType.wildcardType:
+                let wildcardTypeNode = <ASTWildcardTypeNode>typeNode;
+                wildcardTypeNode.extends.forEach(t => this.registerDeclarationDependenciesOfTypeNode(t, module));
+                this.registerDeclarationDependenciesOfTypeNode(wildcardTypeNode.super, module);
+                break;
+        }
+    }
+
     resolveTypeNode(typeNode: ASTTypeNode, module: JavaBaseModule): JavaType | undefined {
 
         if(typeNode.resolvedType) return typeNode.resolvedType;
@@ -424,6 +496,7 @@ export class TypeResolver {
 
             if (extType instanceof IJavaClass) {
                 resolvedType1.setExtends(extType);
+                module.compiledSymbolsUsageTracker.registerStructuralDependency(extType);
             } else {
                 // anonymous inner class? 
                 if (declNode.identifier == "" && extType instanceof IJavaInterface) {
@@ -443,6 +516,7 @@ export class TypeResolver {
             let implType = this.resolveTypeNode(implNode, module);
             if (implType instanceof IJavaInterface) {
                 resolvedType1.addImplements(implType);
+                module.compiledSymbolsUsageTracker.registerStructuralDependency(implType);
             } else {
                 this.pushError(JCM.onlyInterfacesAfterImplements(), implNode.range, module);
             }
@@ -454,6 +528,7 @@ export class TypeResolver {
             let implType = this.resolveTypeNode(implNode, module);
             if (implType instanceof IJavaInterface) {
                 resolvedType1.addExtends(implType);
+                module.compiledSymbolsUsageTracker.registerStructuralDependency(implType);
             } else {
                 this.pushError(JCM.onlyInterfacesAfterExtends(), implNode.range, module);
             }
@@ -197,6 +197,7 @@ export class InnerClassCodeGenerator extends StatementCodeGenerator {
         let oldRuntimeClass = klass.runtimeClass;
         // oldClass.__programs = [];
         klass.addImplements(functionalInterface);
+        this.module.compiledSymbolsUsageTracker.registerStructuralDependency(functionalInterface);
 
         klass.methods = [method];
 
@@ -0,0 +1,79 @@
+import { JavaMethod } from "../types/JavaMethod";
+import { JavaType } from "../types/JavaType";
+import { MemberIndex } from "../types/MemberIndex";
+import { NonPrimitiveType } from "../types/NonPrimitiveType";
+
+type MethodResolution = {
+    best: JavaMethod | undefined,
+    possible: JavaMethod[],
+    memberIndex: MemberIndex        // member index of receiver type when method was resolved
+}
+
+/**
+ * Caches results of TermCodeGenerator.searchMethod for each combination of receiver type,
+ * method identifier, parameter types, constructor/static/visibility flags and class context
+ * (which matters if visibility is taken into account).
+ *
+ * The cache belongs to the typestore of compiled types, so it lives for one compilation run
+ * and gets cleared if types are added to or removed from this typestore. As methods may still
+ * be added to types while generating code (e.g. standard constructors), a cached resolution is
+ * only used if the member index of its receiver type hasn't been rebuilt since.
+ */
+export class MethodResolutionCache {
+
+    private resolutions: Map<string, MethodResolution> = new Map();
+
+    private typeIds: Map<JavaType, number> = new Map();
+
+    hits: number = 0;
+    misses: number = 0;
+
+    /**
+     * Statistics are kept.
+     */
+    clear() {
+        if (this.resolutions.size == 0 && this.typeIds.size == 0) return;
+        this.resolutions = new Map();
+        this.typeIds = new Map();
+    }
+
+    getKey(identifier: string, receiverType: NonPrimitiveType, parameterTypes: (JavaType | undefined)[],
+        isConstructor: boolean, hasToBeStatic: boolean, takingVisibilityIntoAccount: boolean, classContext: JavaType | undefined): string {
+        // without class context a search taking visibility into account finds public methods only,
+        // so it must not share its key with a search which doesn't
+        let key = identifier + (isConstructor ? "|c" : "|") + (hasToBeStatic ? "s" : "") + (takingVisibilityIntoAccount ? "v|" : "|") +
+            this.getTypeId(receiverType) + "|" + (classContext ? this.getTypeId(classContext) : "");
+        for (let pt of parameterTypes) {
+            key += "|" + (pt ? this.getTypeId(pt) : "");
+        }
+        return key;
+    }
+
+    get(key: string, receiverType: NonPrimitiveType): { best: JavaMethod | undefined, possible: JavaMethod[] } | undefined {
+        let resolution = this.resolutions.get(key);
+        if (resolution && resolution.memberIndex == receiverType.getMemberIndex()) {
+            this.hits++;
+            return resolution;
+        }
+        this.misses++;
+        return undefined;
+    }
+
+    set(key: string, receiverType: NonPrimitiveType, best: JavaMethod | undefined, possible: JavaMethod[]) {
+        this.resolutions.set(key, { best: best, possible: possible, memberIndex: receiverType.getMemberIndex() });
+    }
+
+    getStatistics(): { hits: number, misses: number, entries: number } {
+        return { hits: this.hits, misses: this.misses, entries: this.resolutions.size };
+    }
+
+    private getTypeId(type: JavaType): number {
+        let id = this.typeIds.get(type);
+        if (id === undefined) {
+            id = this.typeIds.size;
+            this.typeIds.set(type, id);
+        }
+        return id;
+    }
+
+}
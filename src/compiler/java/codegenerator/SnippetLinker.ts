@@ -1,10 +1,15 @@
-import { Program, Step } from "../../common/interpreter/Program";
+import { FusedBlock, FusedStep, Program, Step } from "../../common/interpreter/Program";
+import { StepParams } from "../../common/interpreter/StepFunction";
+import { ThreadState } from "../../common/interpreter/Thread";
 import { CodeSnippet } from "./CodeSnippet";
 import { NextStepMark } from "./CodeSnippetKinds";
 import { LabelCodeSnippet } from "./LabelManager";
+import { WholeMethodCompiler } from "./WholeMethodCompiler";
 
 export class SnippetLinker {
 
+    static maxStepsPerFusedBlock: number = 64;
+
     constructor(){
 
     }
@@ -44,10 +49,97 @@ export class SnippetLinker {
         
         if(!currentStep.isEmpty()) steps.push(currentStep);
 
+        steps.forEach(step => step.program = program);
+
         program.stepsSingle = steps;
 
     }
 
+    /**
+     * Steplist for Program.stepsMultiple. Program calls this lazily when it gets hot (see Program.getStepsForFastMode),
+     * so cold code doesn't pay for compiling it.
+     */
+    buildStepsForFastMode(program: Program): Step[] {
+        return new WholeMethodCompiler().compile(program.stepsSingle, program) || this.fuseSteps(program.stepsSingle);
+    }
+
+    /**
+     * Builds the steplist for fast mode: Each run of steps which fall through to their successor
+     * (code ends with "return <index + 1>;") is fused into one javascript function. Jumps
+     * (conditional or not) still leave this function and return the destination index, so
+     * every call of a fused function executes a bounded number of steps and the time slice given
+     * by LoadController is respected.
+     * 
+     * Inside the fused function there's a switch statement with one case per step, therefore
+     * each step inside a block may serve as entry point (jump destination, return address after
+     * method call, catch block). Between two steps the function checks if a method has been
+     * called (programstate changed) or if thread state has changed (sleep, wait, exit, ...) 
+     * and exits in this case. On exit the function stores the index of the last step it executed
+     * in thread.lastFusedStepIndex (for exception positions and stacktraces).
+     * 
+     * Resulting steplist has the same indices as stepsSingle.
+     */
+    fuseSteps(steps: Step[]): Step[] {
+        let stepsMultiple: Step[] = [];
+
+        let t = StepParams.thread;
+
+        let i = 0;
+        while (i < steps.length) {
+            let first = i;
+            while (i < steps.length - 1 && i - first < SnippetLinker.maxStepsPerFusedBlock - 1 &&
+                this.isFusable(steps[i]) && this.isFusable(steps[i + 1]) && this.getCodeWithoutFallThrough(steps[i]) !== undefined) {
+                i++;
+            }
+            let last = i;
+            i++;
+
+            if (first == last) {
+                stepsMultiple.push(steps[first]);
+                continue;
+            }
+
+            let code = `let __ps = ${t}.currentProgramState;\nlet __i = ${StepParams.entryIndex};\n`;
+            code += `try {\nswitch(${StepParams.entryIndex}) {\n`;
+            for (let j = first; j <= last; j++) {
+                code += `case ${j}: {\n`;
+                if (j < last) {
+                    code += this.getCodeWithoutFallThrough(steps[j]) + "\n}\n";
+                    code += `if(${t}.currentProgramState !== __ps || ${t}.state != ${ThreadState.runnable}) return ${j + 1};\n`;
+                    code += `${t}.numberOfSteps++;\n__i = ${j + 1};\n`;
+                } else {
+                    code += steps[j].codeAsString + "\n}\n";
+                }
+            }
+            code += `}\n} catch(__ex) {\n${t}.fusedStepIndex = __i;\nthrow __ex;\n} finally {\n${t}.lastFusedStepIndex = __i;\n}\n`;
+
+            let block = new FusedBlock(code);
+            for (let j = first; j <= last; j++) {
+                stepsMultiple.push(new FusedStep(steps[j], block));
+            }
+        }
+
+        return stepsMultiple;
+    }
+
+    /**
+     * Steps referencing "this" (inner class instantiation, lambda objects) rely on being
+     * called as method of their own Step object and can't be fused.
+     */
+    private isFusable(step: Step): boolean {
+        return !step.innerClass && !step.lambdaObject;
+    }
+
+    /**
+     * If step falls through to it's successor then return it's code without the concluding "return <index + 1>;",
+     * else return undefined.
+     */
+    private getCodeWithoutFallThrough(step: Step): string | undefined {
+        let regExp = new RegExp("^(.*)return " + (step.index + 1) + ";\\s*$", "s");
+        let match = step.codeAsString.match(regExp);
+        return match ? match[1] : undefined;
+    }
+
     private index(snippetParts: CodeSnippet[], lastIndex: number){
         let index = lastIndex;
         for(let part of snippetParts){
@@ -263,8 +263,12 @@ export abstract class StatementCodeGenerator extends TermCodeGenerator {
         } else if (collectionType instanceof IJavaClass && collectionType.runtimeClass!.prototype.getElements) {
             /*
              * Loop over SystemCollection
+             * Collections which would have to copy their elements in getElements (e.g. LinkedList with
+             * its ring buffer) are accessed by index instead.
             */
-            let assignCollectionSnippet = SnippetFramer.frame(collectionSnippet, `${Helpers.elementRelativeToStackbase(stackIndexForCollection)} = ${Helpers.checkNPE('§1', node.collection.range)}.getElements();\n`);
+            let accessByIndex = typeof collectionType.runtimeClass!.prototype.getElementAt == "function";
+            let collectionTemplate = accessByIndex ? Helpers.checkNPE('§1', node.collection.range) : `${Helpers.checkNPE('§1', node.collection.range)}.getElements()`;
+            let assignCollectionSnippet = SnippetFramer.frame(collectionSnippet, `${Helpers.elementRelativeToStackbase(stackIndexForCollection)} = ${collectionTemplate};\n`);
             assignCollectionSnippet.range = node.collection.range;
             forLoopSnippet.addParts(assignCollectionSnippet);
 
@@ -291,15 +295,20 @@ export abstract class StatementCodeGenerator extends TermCodeGenerator {
 
 
             let stackIndexForLoopIndex = forLoopSymbolTable.getStackFrame()!.insertInvisibleLocalVariableAndGetItsIndex();
+            let collection = Helpers.elementRelativeToStackbase(stackIndexForCollection);
+            let loopIndex = Helpers.elementRelativeToStackbase(stackIndexForLoopIndex);
+            let lengthTerm = accessByIndex ? `${collection}.getElementCount()` : `${collection}.length`;
+            let elementTerm = accessByIndex ? `${collection}.getElementAt(${loopIndex})` : `${collection}[${loopIndex}]`;
+
             forLoopSnippet.addParts(new StringCodeSnippet(`${Helpers.elementRelativeToStackbase(stackIndexForLoopIndex)} = -1;\n`, node.collection.range));
             forLoopSnippet.addNextStepMark();
             forLoopSnippet.addParts(continueLabel);
 
-            forLoopSnippet.addParts(new StringCodeSnippet(`${Helpers.elementRelativeToStackbase(stackIndexForLoopIndex)}++;\nif(${Helpers.elementRelativeToStackbase(stackIndexForLoopIndex)} >= ${Helpers.elementRelativeToStackbase(stackIndexForCollection)}.length){\n   `, node.collection.range));
+            forLoopSnippet.addParts(new StringCodeSnippet(`${Helpers.elementRelativeToStackbase(stackIndexForLoopIndex)}++;\nif(${Helpers.elementRelativeToStackbase(stackIndexForLoopIndex)} >= ${lengthTerm}){\n   `, node.collection.range));
             forLoopSnippet.addParts(breakJumpSnippet);
             forLoopSnippet.addParts(new StringCodeSnippet(`}\n`));
 
-            forLoopSnippet.addParts(new StringCodeSnippet(`${Helpers.elementRelativeToStackbase(elementVariable.stackframePosition!)} = ${Helpers.elementRelativeToStackbase(stackIndexForCollection)}[${Helpers.elementRelativeToStackbase(stackIndexForLoopIndex)}];\n`));
+            forLoopSnippet.addParts(new StringCodeSnippet(`${Helpers.elementRelativeToStackbase(elementVariable.stackframePosition!)} = ${elementTerm};\n`));
 
             let statementSnippet = this.compileStatementOrTerm(node.statementToRepeat) || new StringCodeSnippet('');
 
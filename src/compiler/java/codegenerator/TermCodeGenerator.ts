@@ -282,7 +282,12 @@ export abstract class TermCodeGenerator extends BinopCastCodeGenerator {
         let parametersBeforeEllipsis = castParameters.slice(0, methodParameterCountMinusOne);
         let ellipsisParameters = castParameters.slice(methodParameterCountMinusOne);
 
-        let ellipsisParameterSnippet = ParametersJoinedTemplate.applyToSnippet(method.parameters[methodParameterCountMinusOne].type, ellipsisParameters[0].range!, "[", ", ", "]", ...ellipsisParameters);
+        // int..., double..., ... are packed into typed arrays like all other primitive arrays
+        let typedArrayConstructorName = ellipsisType.isPrimitive ? (<PrimitiveType>ellipsisType).typedArrayConstructorName : undefined;
+        let prefix = typedArrayConstructorName ? typedArrayConstructorName + ".of(" : "[";
+        let suffix = typedArrayConstructorName ? ")" : "]";
+
+        let ellipsisParameterSnippet = ParametersJoinedTemplate.applyToSnippet(method.parameters[methodParameterCountMinusOne].type, ellipsisParameters[0].range!, prefix, ", ", suffix, ...ellipsisParameters);
 
         parametersBeforeEllipsis.push(ellipsisParameterSnippet);
 
@@ -505,9 +510,12 @@ export abstract class TermCodeGenerator extends BinopCastCodeGenerator {
 
     compileArrayLiteral(elementType: JavaType, node: ASTArrayLiteralNode): CodeSnippet | undefined {
 
+        let typedArrayConstructorName = elementType.isPrimitive ? (<PrimitiveType>elementType).typedArrayConstructorName : undefined;
+
         if (node.elements.length == 0) {
             // Empty array gets dimension == -1
-            return new StringCodeSnippet("[]", node.range, new JavaArrayType(elementType, 1, this.module, node.range));
+            let emptyArray = typedArrayConstructorName ? `new ${typedArrayConstructorName}(0)` : "[]";
+            return new StringCodeSnippet(emptyArray, node.range, new JavaArrayType(elementType, 1, this.module, node.range));
         }
 
         let elementSnippets: CodeSnippet[] = [];
@@ -537,6 +545,10 @@ export abstract class TermCodeGenerator extends BinopCastCodeGenerator {
 
         let type = new JavaArrayType(elementType, 1, this.module, node.range);
 
+        if (typedArrayConstructorName) {
+            return ParametersJoinedTemplate.applyToSnippet(type, node.range, typedArrayConstructorName + ".of(", ", ", ")", ...elementSnippets);
+        }
+
         return ParametersJoinedTemplate.applyToSnippet(type, node.range, "[", ", ", "]", ...elementSnippets);
 
     }
@@ -554,7 +566,9 @@ export abstract class TermCodeGenerator extends BinopCastCodeGenerator {
         let arrayType = new JavaArrayType(elementType, dimensionTerms.length, this.module, node.range);
 
 
-        let prefix = `${Helpers.newArray}(${defaultValue}, `;
+        let typedArrayConstructorName = elementType.isPrimitive ? (<PrimitiveType>elementType).typedArrayConstructorName : undefined;
+
+        let prefix = typedArrayConstructorName ? `${Helpers.newTypedArray}(${typedArrayConstructorName}, ` : `${Helpers.newArray}(${defaultValue}, `;
         let suffix = ")";
 
         return ParametersJoinedTemplate.applyToSnippet(arrayType, node.range, prefix, ', ', suffix, ...dimensionTerms);
@@ -666,6 +680,8 @@ export abstract class TermCodeGenerator extends BinopCastCodeGenerator {
 
         if (field._isStatic && this.classOfCurrentlyCompiledStaticInitialization) {
             this.classOfCurrentlyCompiledStaticInitialization.staticConstructorsDependOn.set(field.classEnum, true);
+            // initialization sequence of static fields is determined by comparing type objects, so both modules have to be recompiled together
+            this.module.compiledSymbolsUsageTracker.registerStructuralDependency(field.classEnum);
         }
 
         let type = (field).type;
@@ -1074,11 +1090,16 @@ export abstract class TermCodeGenerator extends BinopCastCodeGenerator {
 
                 let resultAsString: string = "";
 
-                if (method.returnParameterType instanceof JavaArrayType && Array.isArray(result)) {
+                if (method.returnParameterType instanceof JavaArrayType && (Array.isArray(result) || ArrayBuffer.isView(result))) {
+                    let elementType = method.returnParameterType.getElementType();
+                    let typedArrayConstructorName = elementType.isPrimitive ? (<PrimitiveType>elementType).typedArrayConstructorName : undefined;
+                    let elements: any[] = Array.from(<any>result);
                     if (this.isStringOrChar(method.returnParameterType.elementType)) {
-                        resultAsString = "[" + result.map(r => `"${r}"`).join(", ") + "]";
+                        resultAsString = "[" + elements.map(r => `"${r}"`).join(", ") + "]";
+                    } else if (typedArrayConstructorName) {
+                        resultAsString = typedArrayConstructorName + ".of(" + elements.map(r => "" + r).join(", ") + ")";
                     } else {
-                        resultAsString = "[" + result.map(r => "" + r).join(", ") + "]";
+                        resultAsString = "[" + elements.map(r => "" + r).join(", ") + "]";
                     }
                 } else {
                     resultAsString = typeof result == "string" ? `"${result}"` : "" + result;
@@ -1176,16 +1197,52 @@ export abstract class TermCodeGenerator extends BinopCastCodeGenerator {
 
         if (objectType == this.stringType) objectType = this.primitiveStringClass.type;
 
-        let possibleMethods: JavaMethod[];
-
+        let receiverType: NonPrimitiveType;
         if (objectType instanceof StaticNonPrimitiveType) {
-            possibleMethods = objectType.getPossibleMethods(identifier, isConstructor, hasToBeStatic);
+            receiverType = objectType.nonPrimitiveType;
         } else if (objectType instanceof NonPrimitiveType) {
-            possibleMethods = objectType.getPossibleMethods(identifier, isConstructor, hasToBeStatic);
+            receiverType = objectType;
         } else {
             return { best: undefined, possible: [] };
         }
 
+        let classContext = takingVisibilityIntoAccount ? (this.classOfCurrentlyCompiledStaticInitialization || this.currentSymbolTable?.classContext) : undefined;
+        let cache = this.compiledTypesTypestore.methodResolutionCache;
+        let cacheKey = cache.getKey(identifier, receiverType, parameterTypes, isConstructor, hasToBeStatic, takingVisibilityIntoAccount, classContext);
+        let cachedResolution = cache.get(cacheKey, receiverType);
+        if (cachedResolution) return cachedResolution;
+
+        let resolution = this.resolveMethod(identifier, objectType, parameterTypes, isConstructor, hasToBeStatic, takingVisibilityIntoAccount);
+
+        let bestMethod = resolution.best;
+        if (bestMethod instanceof GenericMethod) {
+            // generic methods are not cached as the caught types of their generic parameters
+            // are set while resolving
+            let errors = bestMethod.checkCatches(methodCallPosition);
+            // TODO!
+
+            // if (errors.length > 0) {
+            //     this.module.errors.push(...errors);
+            //     return { best: undefined, possible: resolution.possible };
+            // }
+
+            return { best: bestMethod.getCopyWithConcreteTypes(), possible: resolution.possible };
+        }
+
+        cache.set(cacheKey, receiverType, bestMethod, resolution.possible);
+
+        return resolution;
+    }
+
+    /**
+     * Finds the method which needs the least casts of parameter values. Generic methods are returned
+     * as they are (not as copies with concrete types).
+     */
+    private resolveMethod(identifier: string, objectType: StaticNonPrimitiveType | NonPrimitiveType, parameterTypes: (JavaType | undefined)[],
+        isConstructor: boolean, hasToBeStatic: boolean, takingVisibilityIntoAccount: boolean): { best: JavaMethod | undefined, possible: JavaMethod[] } {
+
+        let possibleMethods: JavaMethod[] = objectType.getPossibleMethods(identifier, isConstructor, hasToBeStatic);
+
         if (takingVisibilityIntoAccount) {
             possibleMethods = possibleMethods.filter(m => {
                 if (m.visibility == TokenType.keywordPublic) return true;
@@ -1265,24 +1322,7 @@ export abstract class TermCodeGenerator extends BinopCastCodeGenerator {
             }
         }
 
-        if (bestMethodSoFar) {
-            if (!(bestMethodSoFar instanceof GenericMethod)) {
-                return { best: bestMethodSoFar, possible: possibleMethods };
-            }
-
-            let errors = bestMethodSoFar.checkCatches(methodCallPosition);
-            // TODO!
-
-            // if (errors.length > 0) {
-            //     this.module.errors.push(...errors);
-            //     return { best: undefined, possible: possibleMethods };
-            // }
-
-            return { best: bestMethodSoFar.getCopyWithConcreteTypes(), possible: possibleMethods };
-
-        }
-
-        return { best: undefined, possible: possibleMethods };
+        return { best: bestMethodSoFar, possible: possibleMethods };
     }
 
     registerUsagePosition(symbol: BaseSymbol, range: IRange) {
@@ -0,0 +1,158 @@
+import { FusedBlock, FusedStep, Program, Step } from "../../common/interpreter/Program";
+import { Helpers, StepParams } from "../../common/interpreter/StepFunction";
+
+/**
+ * Second execution tier: If a method never blocks (doesn't call other java methods, doesn't synchronize,
+ * doesn't wait/sleep, has no try-catch-block and no lambda functions) then all of it's steps
+ * are compiled into one javascript function:
+ *  - local variables and parameters live in javascript variables __l0, __l1, ... instead of the thread's stack,
+ *  - jumps between steps are continue-statements of a while-loop around a switch statement, so
+ *    loops in java code are loops inside one javascript function which V8 is able to optimize,
+ *  - steps are still counted. If the time slice given by LoadController is used up then the function
+ *    writes local variables back to the stack and returns the index of the next step to execute.
+ *    Next call continues at this step.
+ *
+ * This function is used in Program.stepsMultiple (fast mode) only, so debugging is not affected.
+ */
+export class WholeMethodCompiler {
+
+    /**
+     * Methods of class Thread which never block, never call java methods and don't touch the current stackframe.
+     */
+    static nonBlockingThreadMembers: string[] = [
+        "classes", "return", "print", "println", "newArray", "newTypedArray", "NPE", "AE", "CheckCast", "Instanceof", "NullstringIfNull",
+        "_primitiveElementOrArrayToString",
+        "ArrayValue1", "ArrayValue2", "ArrayValue3", "ArrayValueN",
+        "Array0", "Array1", "Array2", "ArrayN", "CheckLastIndex"
+    ];
+
+    static loopLabel = "__loop";
+
+    /**
+     * returns steplist for Program.stepsMultiple or undefined if method is not eligible.
+     */
+    compile(steps: Step[], program: Program): Step[] | undefined {
+
+        if (steps.length < 2) return undefined;
+
+        let stackframeSize = program.numberOfThisObjects + program.numberOfParameters + program.numberOfLocalVariables;
+        let usedLocalVariables: Set<number> = new Set();
+
+        let caseBodies: string[] = [];
+
+        for (let step of steps) {
+            if (step.innerClass || step.lambdaObject) return undefined;
+
+            let body = this.transformStepCode(step, usedLocalVariables, steps.length);
+            if (body === undefined) return undefined;
+            caseBodies.push(body);
+        }
+
+        for (let index of usedLocalVariables) {
+            // only variables which are pushed to stack by Thread.pushProgram may live in javascript variables
+            if (index >= stackframeSize) return undefined;
+        }
+
+        let t = StepParams.thread;
+        let localVariables = Array.from(usedLocalVariables).sort((a, b) => a - b);
+
+        let code = "";
+        if (localVariables.length > 0) {
+            code += "let " + localVariables.map(index => `__l${index} = ${Helpers.elementRelativeToStackbase(index)}`).join(", ") + ";\n";
+        }
+        code += `let __i = ${StepParams.entryIndex};\nlet __n = 0;\nlet __budget = ${t}.maxNumberOfSteps - ${t}.numberOfSteps;\n`;
+        code += `try {\n${WholeMethodCompiler.loopLabel}: while(true) {\n`;
+        code += `if(__n >= __budget){\n`;
+        code += localVariables.map(index => `${Helpers.elementRelativeToStackbase(index)} = __l${index};\n`).join("");
+        code += `return __i;\n}\n`;
+        code += `switch(__i) {\n`;
+        for (let i = 0; i < caseBodies.length; i++) {
+            code += `case ${i}: {\n__i = ${i};\n__n++;\n${caseBodies[i]}\n}\n`;
+        }
+        code += `}\n}\n} catch(__ex) {\n`;
+        // debugger shows stackframe at position of exception
+        code += localVariables.map(index => `${Helpers.elementRelativeToStackbase(index)} = __l${index};\n`).join("");
+        code += `${t}.fusedStepIndex = __i;\nthrow __ex;\n} finally {\n${t}.numberOfSteps += __n - 1;\n${t}.lastFusedStepIndex = __i;\n}\n`;
+
+        let block = new FusedBlock(code);
+        return steps.map(step => new FusedStep(step, block));
+
+    }
+
+    /**
+     * returns undefined if step is not eligible
+     */
+    private transformStepCode(step: Step, usedLocalVariables: Set<number>, numberOfSteps: number): string | undefined {
+        let code = step.codeAsString;
+
+        let endsWithReturn = /return \d+;\s*$/.test(code);
+        let returnsFromMethod = code.indexOf(Helpers.return + "(") >= 0;
+        if (!endsWithReturn && !returnsFromMethod) return undefined;
+
+        // concluding "return <index + 1>;" => fall through to next case
+        if (step.index < numberOfSteps - 1) {
+            let match = code.match(new RegExp("^(.*)return " + (step.index + 1) + ";\\s*$", "s"));
+            if (match) code = match[1];
+        }
+
+        let eligible = true;
+
+        code = this.replaceOutsideStringLiterals(code, (fragment: string) => {
+            if (fragment.indexOf("=>") >= 0 || /\bfunction\b/.test(fragment) || /\bthis\b/.test(fragment)) {
+                eligible = false;
+            }
+
+            for (let match of fragment.matchAll(/__t\b(\.(\w+))?/g)) {
+                if (!match[2] || WholeMethodCompiler.nonBlockingThreadMembers.indexOf(match[2]) < 0) {
+                    eligible = false;
+                }
+            }
+
+            fragment = fragment.replace(/__s\[__sb( \+ (\d+))?\]/g, (_match: string, _p1: string, index: string | undefined) => {
+                let i = index ? Number.parseInt(index) : 0;
+                usedLocalVariables.add(i);
+                return "__l" + i;
+            });
+
+            // e.g. for computed stack positions
+            if (/\b__sb\b/.test(fragment)) eligible = false;
+
+            fragment = fragment.replace(/return (\d+);/g, `{__i = $1; continue ${WholeMethodCompiler.loopLabel};}`);
+
+            fragment = fragment.replaceAll(Helpers.return + "(", "return " + Helpers.return + "(");
+
+            return fragment;
+        });
+
+        return eligible ? code : undefined;
+    }
+
+    /**
+     * Applies replacer to all parts of code which are not inside string literals.
+     */
+    private replaceOutsideStringLiterals(code: string, replacer: (fragment: string) => string): string {
+        let result = "";
+        let fragmentStart = 0;
+        let i = 0;
+        while (i < code.length) {
+            let c = code.charAt(i);
+            if (c == '"' || c == "'" || c == '`') {
+                result += replacer(code.substring(fragmentStart, i));
+                let literalStart = i;
+                i++;
+                while (i < code.length && code.charAt(i) != c) {
+                    if (code.charAt(i) == '\\') i++;
+                    i++;
+                }
+                i++;
+                result += code.substring(literalStart, i);
+                fragmentStart = i;
+            } else {
+                i++;
+            }
+        }
+        if (fragmentStart < code.length) result += replacer(code.substring(fragmentStart));
+        return result;
+    }
+
+}
@@ -25,6 +25,11 @@ export class JRC {
         "en": 'Indicates whether some other object is "equal to" this one.',
     })
 
+    static objectHashCodeComment = () => lm({
+        "de": "Gibt einen Hashcode für das Objekt zurück. Objekte, die laut equals gleich sind, müssen denselben Hashcode haben.",
+        "en": "Returns a hash code value for the object. Objects which are equal according to equals must have the same hash code.",
+    })
+
     static objectWaitComment = () => lm({
         "de": "Bewirkt, dass der aktuelle Thread wartet bis in einem anderen Thread die Methode notify() oder notifyAll() dieses Objekts aufgerufen wird.",
         "en": "Causes the current thread to wait until another thread invokes the notify() method or the notifyAll() method for this object.",
@@ -2243,6 +2248,16 @@ export class JRC {
         "en": "Sets speed of thread in steps/second. Values <= 0 mean 'maximum speed'.",
     })
 
+    static threadSleepComment = () => lm({
+        "de": "Hält den aktuellen Thread für die übergebene Zahl an Millisekunden an.",
+        "en": "Pauses current thread for given number of milliseconds.",
+    })
+
+    static threadSleepTimeLower0 = () => lm({
+        "de": "Der Parameter millis der Methode Thread.sleep muss >= 0 sein.",
+        "en": "Parameter millis of method Thread.sleep has to be >= 0.",
+    })
+
 
     /**
      * Klass PApplet
@@ -3779,6 +3794,11 @@ rectMode(RADIUS) also uses the first two parameters as the x- and y-coordinates
         "en": "Milliseconds since 1970-01-01 00:00:00 UTC.",
     })
 
+    static SystemNanoTimeComment = () => lm({
+        "de": "Gibt einen Zeitstempel in Nanosekunden zurück. Er ist nur dazu geeignet, die Differenz zweier Zeitstempel zu berechnen.",
+        "en": "Returns a timestamp in nanoseconds. It can only be used to measure elapsed time (difference of two timestamps).",
+    })
+
     static SystemOutComment = () => lm({
         "de": "PrintStream-Objekt, mit dem Text ausgegeben werden kann.",
         "en": "PrintStream-object to print text.",
@@ -4534,6 +4554,39 @@ rectMode(RADIUS) also uses the first two parameters as the x- and y-coordinates
         "en": "Sorts a List of Comparable elements.",
     })
 
+    static CollectionsSortWithComparatorComment = () => lm({
+        "de": "Sortiert eine Liste gemäß dem übergebenen Comparator. Die Sortierung ist stabil, d.h. gleiche Elemente behalten ihre Reihenfolge.",
+        "en": "Sorts the specified list according to the order induced by the specified comparator. This sort is guaranteed to be stable: equal elements will not be reordered as a result of the sort.",
+    })
+
+    /**
+     * Class Arrays
+     */
+    static ArraysClassComment = () => lm({
+        "de": "Diese Klasse enthält statische Methoden zum Bearbeiten von Arrays (z.B. Sortieren).",
+        "en": "This class contains various methods for manipulating arrays (such as sorting).",
+    })
+
+    static ArraysSortPrimitiveComment = () => lm({
+        "de": "Sortiert die Elemente des Arrays in aufsteigender Reihenfolge.",
+        "en": "Sorts the specified array into ascending numerical order.",
+    })
+
+    static ArraysSortComparableComment = () => lm({
+        "de": "Sortiert die Elemente des Arrays gemäß ihrer compareTo-Methode. Die Sortierung ist stabil, d.h. gleiche Elemente behalten ihre Reihenfolge.",
+        "en": "Sorts the specified array of objects into ascending order, according to the natural ordering of its elements. This sort is guaranteed to be stable.",
+    })
+
+    static ArraysSortWithComparatorComment = () => lm({
+        "de": "Sortiert die Elemente des Arrays gemäß dem übergebenen Comparator. Die Sortierung ist stabil, d.h. gleiche Elemente behalten ihre Reihenfolge.",
+        "en": "Sorts the specified array of objects according to the order induced by the specified comparator. This sort is guaranteed to be stable.",
+    })
+
+    static ArraysSortNullPointerException = () => lm({
+        "de": "Arrays.sort wurde mit null als Argument aufgerufen.",
+        "en": "Arrays.sort had been called with null as argument.",
+    })
+
     /**
      * interface queue
      */
@@ -4635,6 +4688,52 @@ rectMode(RADIUS) also uses the first two parameters as the x- and y-coordinates
         "en": "Empty list, therefore you can't remove an element from it.",
     })
 
+    /**
+     * class ArrayDeque
+     */
+    static arrayDequeClassComment = () => lm({
+        "de": "Liste mit zweiseitigem Zugriff (double ended queue), die intern ein Array als Ringpuffer nutzt. Als Stapel (Stack) und Warteschlange (Queue) schneller als LinkedList.",
+        "en": "Resizable-array implementation of the Deque interface. This class is likely to be faster than Stack when used as a stack, and faster than LinkedList when used as a queue.",
+    })
+
+    static arrayDequeConstructorComment = () => lm({
+        "de": "Erzeugt eine neue, leere ArrayDeque.",
+        "en": "Creates a new empty ArrayDeque.",
+    })
+
+    /**
+     * class PriorityQueue
+     */
+    static priorityQueueClassComment = () => lm({
+        "de": "Warteschlange, die ihre Elemente nach Priorität ordnet: Am Kopf der Warteschlange steht immer das kleinste Element (gemäß compareTo bzw. dem übergebenen Comparator).",
+        "en": "An unbounded priority queue based on a priority heap. The head of this queue is the least element with respect to the natural ordering or the given comparator.",
+    })
+
+    static priorityQueueConstructorComment = () => lm({
+        "de": "Erzeugt eine neue, leere PriorityQueue, die ihre Elemente gemäß deren compareTo-Methode ordnet.",
+        "en": "Creates an empty PriorityQueue that orders its elements according to their natural ordering.",
+    })
+
+    static priorityQueueConstructorWithComparatorComment = () => lm({
+        "de": "Erzeugt eine neue, leere PriorityQueue, die ihre Elemente gemäß dem übergebenen Comparator ordnet.",
+        "en": "Creates an empty PriorityQueue whose elements are ordered according to the specified comparator.",
+    })
+
+    static priorityQueueOfferComment = () => lm({
+        "de": "Fügt das Element in die Warteschlange ein.",
+        "en": "Inserts the specified element into this priority queue.",
+    })
+
+    static priorityQueueNullElementError = () => lm({
+        "de": "Eine PriorityQueue kann nicht null enthalten.",
+        "en": "A PriorityQueue can't contain null elements.",
+    })
+
+    static priorityQueueIsEmptyError = () => lm({
+        "de": "Die Warteschlange ist leer, daher kann kein Element entnommen werden.",
+        "en": "Empty queue, therefore you can't remove an element from it.",
+    })
+
     /**
      * interface Map
      */
@@ -4692,6 +4791,59 @@ rectMode(RADIUS) also uses the first two parameters as the x- and y-coordinates
         "en": "Returns a Set containing all keys of this map.",
         "de": "Gibt ein Set zurück, das alle Schlüssel dieser Map enthält.",
     })
+
+    static mapRemoveComment = () => lm({
+        "de": "Entfernt das Schlüssel-Wert-Paar zum Schlüssel key aus der Map. Gibt den bisherigen Wert zurück bzw. null, falls die Map zum Schlüssel key keinen Wert enthielt.",
+        "en": "Removes the mapping for a key from this map if it is present. Returns the value to which this map previously associated the key, or null if the map contained no mapping for the key.",
+    })
+
+    static mapGetOrDefaultComment = () => lm({
+        "de": "Gibt den Wert zum Schlüssel key zurück. Gibt defaultValue zurück, falls die Map zum Schlüssel key keinen Wert enthält.",
+        "en": "Returns the value to which the specified key is mapped, or defaultValue if this map contains no mapping for the key.",
+    })
+
+    static mapPutIfAbsentComment = () => lm({
+        "de": "Speichert das key-value pair nur dann in der Map, wenn sie zum Schlüssel key noch keinen Wert (oder null) enthält. Gibt den bisherigen Wert zurück bzw. null.",
+        "en": "If the specified key is not already associated with a value (or is mapped to null) associates it with the given value and returns null, else returns the current value.",
+    })
+
+    static mapMergeComment = () => lm({
+        "de": "Falls die Map zum Schlüssel key noch keinen Wert enthält, wird value gespeichert. Andernfalls wird der Wert durch remappingFunction(alter Wert, value) ersetzt bzw. entfernt, falls dieser null ist. Gibt den neuen Wert zurück.",
+        "en": "If the specified key is not already associated with a value, associates it with the given value. Otherwise, replaces the associated value with the results of the given remapping function, or removes if the result is null. Returns the new value.",
+    })
+
+    static mapEntrySetComment = () => lm({
+        "de": "Gibt ein Set zurück, das alle Schlüssel-Wert-Paare (Map.Entry-Objekte) dieser Map enthält.",
+        "en": "Returns a Set containing all mappings (Map.Entry objects) of this map.",
+    })
+
+    static mapMergeNullPointerException = () => lm({
+        "de": "merge wurde mit null als Wert oder als remappingFunction aufgerufen.",
+        "en": "merge had been called with null as value or as remappingFunction.",
+    })
+
+    /**
+     * interface Map.Entry
+     */
+    static mapEntryInterfaceComment = () => lm({
+        "de": "Ein Schlüssel-Wert-Paar einer Map.",
+        "en": "A map entry (key-value pair).",
+    })
+
+    static mapEntryGetKeyComment = () => lm({
+        "de": "Gibt den Schlüssel dieses Schlüssel-Wert-Paares zurück.",
+        "en": "Returns the key corresponding to this entry.",
+    })
+
+    static mapEntryGetValueComment = () => lm({
+        "de": "Gibt den Wert dieses Schlüssel-Wert-Paares zurück.",
+        "en": "Returns the value corresponding to this entry.",
+    })
+
+    static mapEntrySetValueComment = () => lm({
+        "de": "Ersetzt den Wert dieses Schlüssel-Wert-Paares (auch in der Map). Gibt den bisherigen Wert zurück.",
+        "en": "Replaces the value corresponding to this entry with the specified value (writes through to the map). Returns the old value.",
+    })
     /**
      * Class HashMap
      */
@@ -1,5 +1,6 @@
 import { ErrormessageWithId } from "../../../tools/language/LanguageManager.js";
 import { Error, ErrorLevel } from "../../common/Error.js";
+import { IRange } from "../../common/range/Range.js";
 import { JCM } from "../language/JavaCompilerMessages.js";
 import { EscapeSequenceList, keywordList as KeywordList, specialCharList, TokenType, TokenTypeReadable } from "../TokenType.js";
 import { ColorHelper } from "./ColorHelper.js";
@@ -58,7 +59,7 @@ export class Lexer {
 
     constructor() {
 
-        this.tokens = [];
+        this.tokens = new TokenList();
         this.bracketError = undefined;
         this.errorList = [];
 
@@ -96,17 +97,207 @@ export class Lexer {
 
         this.processColorIndices();
 
-        this.tokens.push({
-            range: { startLineNumber: this.line, startColumn: this.column, endLineNumber: this.line, endColumn: this.column },
-            tt: TokenType.endofSourcecode,
-            value: "program end"
-        })
+        this.tokens.push(TokenType.endofSourcecode, "program end", this.line, this.column, this.line, this.column);
 
         return { tokens: this.tokens, errors: this.errorList, bracketError: this.bracketError, colorInformation: this.colorInformation };
 
 
     }
 
+    /**
+     * Lexes newInput reusing the output of a former lexer run on oldInput: Only the lines from the 
+     * last newline token before the first changed character up to the first newline token after the
+     * last changed character at which lexer state equals the state of the former run get lexed again.
+     * Tokens after this point are taken from the former run with their line numbers shifted.
+     *
+     * The changed region is found by comparing oldInput and newInput, so it doesn't matter how many 
+     * edits have been made in between.
+     */
+    relex(oldInput: string, oldOutput: LexerOutput, newInput: string): LexerOutput {
+
+        let oldTokens = oldOutput.tokens;
+        if (oldInput.length == 0 || newInput.length == 0 || oldTokens.length == 0) return this.lex(newInput);
+
+        // find changed region: oldInput[prefixLength, oldInput.length - suffixLength) has been replaced 
+        // by newInput[prefixLength, newInput.length - suffixLength)
+        let minLength = Math.min(oldInput.length, newInput.length);
+        let prefixLength = 0;
+        while (prefixLength < minLength && oldInput.charCodeAt(prefixLength) == newInput.charCodeAt(prefixLength)) prefixLength++;
+
+        let suffixLength = 0;
+        while (suffixLength < minLength - prefixLength &&
+            oldInput.charCodeAt(oldInput.length - 1 - suffixLength) == newInput.charCodeAt(newInput.length - 1 - suffixLength)) suffixLength++;
+
+        // change in first line => nothing to reuse
+        if (prefixLength == 0) return this.lex(newInput);
+
+        let changeEndOld = oldInput.length - suffixLength;
+        let changeEndNew = newInput.length - suffixLength;
+
+        // find last newline token before changed region
+        let changedLineStart = newInput.lastIndexOf("\n", prefixLength - 1) + 1;
+        let changedLine = this.countNewlines(newInput, 0, changedLineStart) + 1;
+
+        let restartIndex = this.findFirstTokenIndexInLine(oldTokens, changedLine) - 1;
+        while (restartIndex >= 0 && oldTokens.types[restartIndex] != TokenType.newline) restartIndex--;
+        if (restartIndex < 0) return this.lex(newInput);
+
+        let restartLine = oldTokens.startLineNumbers[restartIndex] + 1;
+        let restartPos = changedLineStart;
+        for (let line = changedLine; line > restartLine; line--) {
+            restartPos = restartPos < 2 ? 0 : newInput.lastIndexOf("\n", restartPos - 2) + 1;
+        }
+
+        // setup lexer state as it had been after the newline token at restartIndex
+        this.tokens = new TokenList(oldTokens.length + 256);
+        this.tokens.appendFrom(oldTokens, 0, restartIndex + 1, 0);
+        this.errorList = oldOutput.errors.filter(e => e.range.startLineNumber < restartLine);
+        this.colorInformation = oldOutput.colorInformation.filter(c => c.range.endLineNumber < restartLine);
+        this.nonSpaceLastTokenType = this.getNonSpaceTokenTypeBefore(oldTokens, restartIndex);
+        this.input = newInput;
+        this.pos = restartPos;
+        this.line = restartLine;
+        this.column = 1;
+        this.currentChar = restartPos < newInput.length ? newInput.charAt(restartPos) : endChar;
+        this.nextChar = restartPos + 1 < newInput.length ? newInput.charAt(restartPos + 1) : endChar;
+
+        let lineDelta = this.countNewlines(newInput, prefixLength, changeEndNew) - this.countNewlines(oldInput, prefixLength, changeEndOld);
+        let oldIndex = restartIndex + 1;
+
+        while (this.currentChar != endChar) {
+            this.mainState();
+
+            // lexer state may be equal to state of former lexer run if the newline character
+            // we just passed lies behind the changed region
+            if (this.pos > changeEndNew && this.tokens.types[this.tokens.length - 1] == TokenType.newline) {
+                let oldNewlineLine = this.line - 1 - lineDelta;
+                while (oldIndex < oldTokens.length && oldTokens.startLineNumbers[oldIndex] < oldNewlineLine) oldIndex++;
+                while (oldIndex < oldTokens.length && oldTokens.startLineNumbers[oldIndex] == oldNewlineLine
+                    && oldTokens.types[oldIndex] != TokenType.newline) oldIndex++;
+
+                if (oldIndex < oldTokens.length && oldTokens.types[oldIndex] == TokenType.newline
+                    && oldTokens.startLineNumbers[oldIndex] == oldNewlineLine
+                    && this.getNonSpaceTokenTypeBefore(oldTokens, oldIndex) == this.nonSpaceLastTokenType) {
+                    return this.finishRelexing(oldOutput, oldIndex, oldNewlineLine, lineDelta);
+                }
+            }
+        }
+
+        this.processColorIndices();
+
+        this.tokens.push(TokenType.endofSourcecode, "program end", this.line, this.column, this.line, this.column);
+
+        this.bracketError = Lexer.findBracketError(this.tokens);
+
+        return { tokens: this.tokens, errors: this.errorList, bracketError: this.bracketError, colorInformation: this.colorInformation };
+    }
+
+    /**
+     * Appends tokens, errors and color information following the newline token at oldNewlineIndex 
+     * from former lexer run.
+     */
+    private finishRelexing(oldOutput: LexerOutput, oldNewlineIndex: number, oldNewlineLine: number, lineDelta: number): LexerOutput {
+        let oldTokens = oldOutput.tokens;
+
+        // color indices of relexed tokens are processed after appending the following tokens 
+        // as e.g. new Color(...) may continue behind the newline token
+        this.tokens.appendFrom(oldTokens, oldNewlineIndex + 1, oldTokens.length, lineDelta);
+        this.processColorIndices();
+
+        for (let error of oldOutput.errors) {
+            if (error.range.startLineNumber > oldNewlineLine) {
+                this.errorList.push(lineDelta == 0 ? error : Object.assign({}, error, { range: this.shiftRange(error.range, lineDelta) }));
+            }
+        }
+
+        for (let ci of oldOutput.colorInformation) {
+            if (ci.range.startLineNumber > oldNewlineLine) {
+                this.colorInformation.push(lineDelta == 0 ? ci : { color: ci.color, range: this.shiftRange(ci.range, lineDelta) });
+            }
+        }
+
+        this.bracketError = Lexer.findBracketError(this.tokens);
+
+        return { tokens: this.tokens, errors: this.errorList, bracketError: this.bracketError, colorInformation: this.colorInformation };
+    }
+
+    private shiftRange(range: IRange, lineDelta: number): IRange {
+        return {
+            startLineNumber: range.startLineNumber + lineDelta, startColumn: range.startColumn,
+            endLineNumber: range.endLineNumber + lineDelta, endColumn: range.endColumn
+        }
+    }
+
+    private countNewlines(text: string, from: number, to: number): number {
+        let count = 0;
+        let pos = text.indexOf("\n", from);
+        while (pos >= 0 && pos < to) {
+            count++;
+            pos = text.indexOf("\n", pos + 1);
+        }
+        return count;
+    }
+
+    /**
+     * binary search in list of tokens which is sorted by start position
+     */
+    private findFirstTokenIndexInLine(tokens: TokenList, line: number): number {
+        let low = 0;
+        let high = tokens.length;
+        while (low < high) {
+            let middle = (low + high) >> 1;
+            if (tokens.startLineNumbers[middle] < line) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private getNonSpaceTokenTypeBefore(tokens: TokenList, index: number): TokenType | undefined {
+        for (let i = index - 1; i >= 0; i--) {
+            if (this.spaceTokens.indexOf(tokens.types[i]) < 0) return tokens.types[i];
+        }
+        return undefined;
+    }
+
+    /**
+     * Same bracket check as done by mainState/checkClosingBracket while lexing, but based on token list.
+     */
+    static findBracketError(tokens: TokenList): string | undefined {
+        let bracketStack: TokenType[] = [];
+        for (let i = 0; i < tokens.length; i++) {
+            let tt: TokenType = tokens.types[i];
+            switch (tt) {
+                case TokenType.leftBracket:
+                case TokenType.leftSquareBracket:
+                case TokenType.leftCurlyBracket:
+                    bracketStack.push(tt);
+                    break;
+                case TokenType.rightBracket:
+                case TokenType.rightSquareBracket:
+                case TokenType.rightCurlyBracket:
+                    if (bracketStack.length == 0) {
+                        return TokenTypeReadable[Lexer.correspondingBracket[tt]] + " " + TokenTypeReadable[tt];
+                    }
+                    let openBracket = bracketStack.pop()!;
+                    let correspondingBracket = Lexer.correspondingBracket[openBracket];
+                    if (tt != correspondingBracket) {
+                        return TokenTypeReadable[openBracket] + " " + TokenTypeReadable[correspondingBracket];
+                    }
+                    break;
+            }
+        }
+
+        if (bracketStack.length > 0) {
+            let bracketOpen = bracketStack.pop()!;
+            return TokenTypeReadable[bracketOpen] + " " + TokenTypeReadable[Lexer.correspondingBracket[bracketOpen]];
+        }
+
+        return undefined;
+    }
+
     processColorIndices() {
 
         for (let colorIndex of this.colorIndices) {
@@ -115,7 +306,7 @@ export class Lexer {
             // new Color(100, 100, 100)
             // Color.red
 
-            let colorToken = this.tokens[colorIndex];
+            let colorToken = this.tokens.getToken(colorIndex);
             let previousToken = this.getLastNonSpaceToken(colorIndex)
 
             if (previousToken?.tt == TokenType.keywordNew) {
@@ -174,9 +365,8 @@ export class Lexer {
         let tokens: Token[] = [];
         let d = tokenIndex;
         while (tokens.length < count && d + 1 < this.tokens.length) {
-            let foundToken = this.tokens[d + 1];
-            if ([TokenType.space, TokenType.newline].indexOf(foundToken.tt) < 0) {
-                tokens.push(foundToken);
+            if ([TokenType.space, TokenType.newline].indexOf(this.tokens.types[d + 1]) < 0) {
+                tokens.push(this.tokens.getToken(d + 1));
             }
             d++;
         }
@@ -188,9 +378,8 @@ export class Lexer {
     getLastNonSpaceToken(tokenIndex: number) {
         let d = tokenIndex;
         while (d - 1 > 0) {
-            let foundToken = this.tokens[d - 1];
-            if ([TokenType.space, TokenType.newline].indexOf(foundToken.tt) < 0) {
-                return foundToken;
+            if ([TokenType.space, TokenType.newline].indexOf(this.tokens.types[d - 1]) < 0) {
+                return this.tokens.getToken(d - 1);
             }
             d--;
         }
@@ -553,22 +742,11 @@ export class Lexer {
         if (!endLineNumber) endLineNumber = startLineNumber;
         if (!endColumn) endColumn = startColumn + ("" + text).length;
 
-        let t: Token = {
-            tt: tt,
-            value: text,
-            range: {
-                startLineNumber: startLineNumber,
-                startColumn: startColumn,
-                endLineNumber: endLineNumber,
-                endColumn: endColumn
-            }
-        }
-
         if (!(this.spaceTokens.indexOf(tt) >= 0)) {
             this.nonSpaceLastTokenType = tt;
         }
 
-        this.tokens.push(t);
+        this.tokens.push(tt, text, startLineNumber, startColumn, endLineNumber, endColumn);
     }
 
     pushError(messageWithId: ErrormessageWithId, length: number, errorLevel: ErrorLevel = "error",
@@ -584,8 +762,8 @@ export class Lexer {
             range: {
                 startLineNumber: startLineNumber,
                 startColumn: startColumn,
-                endLineNumber: 10,
-                endColumn: 10
+                endLineNumber: endLineNumber,
+                endColumn: endColumn
             },
             level: errorLevel
         });
@@ -623,11 +801,17 @@ export class Lexer {
         let line = this.line;
         this.next();
         let char = this.currentChar;
+        if (char == "\n" || char == endChar) {
+            // leave newline to mainState so that line numbers stay correct
+            this.pushError(JCM.expectingEndOfCharConstant(), 1);
+            this.pushToken(TokenType.charLiteral, "", line, column, this.line, this.column);
+            return;
+        }
         if (char == "\\") {
             let escapeChar = EscapeSequenceList[this.nextChar];
             if (escapeChar == null) {
                 this.pushError(JCM.unknownEscapeSequence(this.nextChar), 2);
-                if (this.nextChar != "'") {
+                if (this.nextChar != "'" && this.nextChar != "\n") {
                     char = this.nextChar;
                     this.next();
                 }
@@ -666,8 +850,9 @@ export class Lexer {
             } else if (char == "\n" || char == endChar) {
                 this.pushError(JCM.endOfLineInsideStringLiteral(), text.length + 1, "error", line, column);
                 text += " "; // make open string literal longer so that JavaCompletionItemProvider realizes that cursor is inside string literal  
-                this.next();
-                break;
+                // newline is left to mainState so that line numbers stay correct, nevertheless token ends behind it as before
+                this.pushToken(TokenType.stringLiteral, text, line, column, this.line, this.column + 1);
+                return;
             }
             text += char;
             this.next();
@@ -739,7 +924,7 @@ export class Lexer {
             } else
                 if (char == "\r" || char == "\n") {
                     this.next();
-                    if (this.currentChar == "\n") this.next();
+                    if (char == "\r" && this.currentChar == "\n") this.next();
                     char = this.currentChar;
                     StringLines.push(currentStringLine);
                     currentStringLine = "";
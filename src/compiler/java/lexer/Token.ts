@@ -9,17 +9,143 @@ export type Token = {
     spaceBefore?: Token
 }
 
-export type TokenList = Token[];
+/**
+ * Stores tokens column-wise in typed arrays instead of one object (plus range object) per token,
+ * so lexing a large file doesn't allocate hundreds of thousands of small objects. Token values
+ * are interned in a side table.
+ *
+ * Token objects are only materialized on demand (see getToken). TokenIterator does this only for
+ * the non-space tokens the parser actually looks at.
+ */
+export class TokenList {
+
+    length: number = 0;
+
+    types: Uint16Array;
+    startLineNumbers: Int32Array;
+    startColumns: Int32Array;
+    endLineNumbers: Int32Array;
+    endColumns: Int32Array;
+
+    private valueIndices: Int32Array;
+    private values: (string | number | boolean)[] = [];
+    private valueToIndexMap: Map<string | number | boolean, number> = new Map();
+
+    constructor(private capacity: number = 256) {
+        this.types = new Uint16Array(capacity);
+        this.startLineNumbers = new Int32Array(capacity);
+        this.startColumns = new Int32Array(capacity);
+        this.endLineNumbers = new Int32Array(capacity);
+        this.endColumns = new Int32Array(capacity);
+        this.valueIndices = new Int32Array(capacity);
+    }
+
+    push(tt: TokenType, value: string | number | boolean, startLineNumber: number, startColumn: number,
+        endLineNumber: number, endColumn: number) {
+        if (this.length == this.capacity) this.grow();
+
+        let i = this.length++;
+        this.types[i] = tt;
+        this.startLineNumbers[i] = startLineNumber;
+        this.startColumns[i] = startColumn;
+        this.endLineNumbers[i] = endLineNumber;
+        this.endColumns[i] = endColumn;
+        this.valueIndices[i] = this.internValue(value);
+    }
+
+    pushToken(token: Token) {
+        let r = token.range;
+        this.push(token.tt, token.value, r.startLineNumber, r.startColumn, r.endLineNumber, r.endColumn);
+    }
+
+    /**
+     * Appends tokens [from, to) of other token list, shifting their line numbers by lineDelta.
+     */
+    appendFrom(other: TokenList, from: number, to: number, lineDelta: number) {
+        for (let i = from; i < to; i++) {
+            this.push(other.types[i], other.getValue(i),
+                other.startLineNumbers[i] + lineDelta, other.startColumns[i],
+                other.endLineNumbers[i] + lineDelta, other.endColumns[i]);
+        }
+    }
+
+    getValue(index: number): string | number | boolean {
+        return this.values[this.valueIndices[index]];
+    }
+
+    getRange(index: number): IRange {
+        return {
+            startLineNumber: this.startLineNumbers[index],
+            startColumn: this.startColumns[index],
+            endLineNumber: this.endLineNumbers[index],
+            endColumn: this.endColumns[index]
+        }
+    }
+
+    /**
+     * Each call returns a new token object.
+     */
+    getToken(index: number): Token {
+        return {
+            tt: this.types[index],
+            value: this.getValue(index),
+            range: this.getRange(index)
+        }
+    }
+
+    toArray(): Token[] {
+        let tokens: Token[] = [];
+        for (let i = 0; i < this.length; i++) tokens.push(this.getToken(i));
+        return tokens;
+    }
+
+    private internValue(value: string | number | boolean): number {
+        // Map considers 0 and -0 to be equal
+        if (value === 0 && 1 / value < 0) {
+            this.values.push(value);
+            return this.values.length - 1;
+        }
+
+        let index = this.valueToIndexMap.get(value);
+        if (index === undefined) {
+            index = this.values.length;
+            this.values.push(value);
+            this.valueToIndexMap.set(value, index);
+        }
+        return index;
+    }
+
+    private grow() {
+        this.capacity *= 2;
+
+        let types = new Uint16Array(this.capacity);
+        types.set(this.types);
+        this.types = types;
+
+        this.startLineNumbers = this.growInt32Array(this.startLineNumbers);
+        this.startColumns = this.growInt32Array(this.startColumns);
+        this.endLineNumbers = this.growInt32Array(this.endLineNumbers);
+        this.endColumns = this.growInt32Array(this.endColumns);
+        this.valueIndices = this.growInt32Array(this.valueIndices);
+    }
+
+    private growInt32Array(array: Int32Array): Int32Array {
+        let newArray = new Int32Array(this.capacity);
+        newArray.set(array);
+        return newArray;
+    }
+
+}
 
 function tokenToString(t: Token){
     return "<div><span style='font-weight: bold'>" + TokenType[t.tt] + "</span>" +
             "<span style='color: blue'> &nbsp;'" + t.value + "'</span> (l&nbsp;" + t.range.startLineNumber + ", c&nbsp;" + t.range.startColumn + ")</div>";
 }
- 
+
 export function tokenListToString(tl: TokenList):string{
     let s = "";
-    for(let t of tl){
+    for(let t of tl.toArray()){
         s += tokenToString(t) + "\n";
     }
     return s;
-}
\ No newline at end of file
+}
@@ -12,10 +12,12 @@ export class TokenPrinter {
         TokenType.charLiteral
     ]
 
-    public static print(tokens: TokenList, parentDiv: HTMLElement){
+    public static print(tokenList: TokenList, parentDiv: HTMLElement){
 
         DOM.clear(parentDiv);
-        if(tokens.length == 0) return;
+        if(tokenList.length == 0) return;
+
+        let tokens = tokenList.toArray();
 
 
         let tokenDiv = DOM.makeDiv(parentDiv, 'jo_tokenprinter_tokendiv')
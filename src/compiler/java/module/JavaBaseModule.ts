@@ -1,7 +1,8 @@
 import { CodeReachedAssertions } from "../../common/interpreter/CodeReachedAssertions";
-import { Program } from "../../common/interpreter/Program";
+import { FastModeStepsBuilder, Program } from "../../common/interpreter/Program";
 import { Thread } from "../../common/interpreter/Thread";
 import { Module } from "../../common/module/Module";
+import { SnippetLinker } from "../codegenerator/SnippetLinker";
 import { JavaType } from "../types/JavaType";
 import { JavaTypeStore } from "./JavaTypeStore";
 
@@ -24,4 +25,8 @@ export abstract class JavaBaseModule extends Module {
         return false;
     }
 
+    getFastModeStepsBuilder(): FastModeStepsBuilder {
+        return new SnippetLinker();
+    }
+
 }
\ No newline at end of file
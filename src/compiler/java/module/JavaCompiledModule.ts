@@ -6,7 +6,7 @@ import { Thread } from "../../common/interpreter/Thread.ts";
 import { CompilerFile } from "../../common/module/CompilerFile";
 import { Position } from "../../common/range/Position.ts";
 import { JavaSymbolTable } from "../codegenerator/JavaSymbolTable.ts";
-import { LexerOutput } from "../lexer/Lexer.ts";
+import { Lexer, LexerOutput } from "../lexer/Lexer.ts";
 import { TokenList } from "../lexer/Token";
 import { ASTBlockNode, ASTClassDefinitionNode, ASTGlobalNode } from "../parser/AST";
 import { JavaArrayType } from "../types/JavaArrayType.ts";
@@ -17,6 +17,7 @@ import { StaticNonPrimitiveType } from "../types/StaticNonPrimitiveType.ts";
 import { JavaBaseModule } from "./JavaBaseModule";
 import { JavaModuleManager } from "./JavaModuleManager";
 import { TypePosition } from "./TypePosition.ts";
+import { JavaModuleSignature } from "./JavaModuleSignature.ts";
 import { IRange, Range } from "../../common/range/Range.ts";
 import { CodeFragment } from "../../common/disassembler/CodeFragment.ts";
 import { JavaCompiledModuleMessages } from "../language/JavaCompiledModuleMessages.ts";
@@ -50,6 +51,15 @@ export class JavaCompiledModule extends JavaBaseModule {
 
     methodDeclarationRanges: IRange[] = [];
 
+    /**
+     * see JavaModuleSignature
+     */
+    signature?: string;
+
+    // text and result of last lexer run to lex only changed regions next time
+    private lastLexerInput?: string;
+    private lastLexerOutput?: LexerOutput;
+
     constructor(file: CompilerFile, public moduleManager?: JavaModuleManager) {
         super(file, false);
     }
@@ -100,9 +110,21 @@ export class JavaCompiledModule extends JavaBaseModule {
         return false;
     }
 
+    /**
+     * Lexes current text of file. If module had been lexed before then only the region around
+     * changed lines gets lexed again (see Lexer.relex).
+     */
+    lex() {
+        let text = this.file.getText();
+        let lexerOutput = this.lastLexerOutput ? new Lexer().relex(this.lastLexerInput!, this.lastLexerOutput, text) : new Lexer().lex(text);
+        this.lastLexerInput = text;
+        this.lastLexerOutput = lexerOutput;
+        this.setLexerOutput(lexerOutput);
+    }
+
     setLexerOutput(lexerOutput: LexerOutput) {
         this.tokens = lexerOutput.tokens;
-        this.errors = lexerOutput.errors;
+        this.errors = lexerOutput.errors.slice();     // parser pushes it's errors onto this.errors
         this.colorInformation = lexerOutput.colorInformation;
     }
 
@@ -222,8 +244,15 @@ export class JavaCompiledModule extends JavaBaseModule {
     }
 
 
-    dependsOnOtherDirtyModule(): boolean {
-        return this.compiledSymbolsUsageTracker.existsDependencyToOtherDirtyModule();
+    /**
+     * To be called after parsing.
+     * @returns true if signature differs from signature of last compilation run
+     */
+    updateSignature(): boolean {
+        let newSignature = JavaModuleSignature.build(this);
+        let changed = newSignature != this.signature;
+        this.signature = newSignature;
+        return changed;
     }
 
     findSymbolTableAtPosition(position: Position): JavaSymbolTable | undefined {
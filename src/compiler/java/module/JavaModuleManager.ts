@@ -38,41 +38,53 @@ export class JavaModuleManager {
         return this.modules.find(m => m.file == file);
     }
 
-    setupModulesBeforeCompiliation(files: CompilerFile[]){
-        this.removeUnusedModules(files);
+    /**
+     * @returns true if modules of files which don't exist any more have been removed
+     */
+    setupModulesBeforeCompiliation(files: CompilerFile[]): boolean {
+        let modulesRemoved = this.removeUnusedModules(files);
         this.createNewModules(files);
+        return modulesRemoved;
     }
 
     emptyTypeStore() {
         this.typestore.empty();
     }
 
-    iterativelySetDirtyFlags(){
-
-        for(let module of this.modules){
-            if(module.hasErrors()) module.setDirty(true);
-        }
+    /**
+     * Modules which had errors in last compilation run get recompiled. Other modules only get recompiled if
+     *  - the signature of a module they use has changed (see JavaModuleSignature) or a module they use has been removed or
+     *  - they structurally depend on a module which gets recompiled (see UsageTracker.registerStructuralDependency) or
+     *  - their declarations reference types of a module which gets recompiled (see UsageTracker.registerDeclarationDependency):
+     *    recompiled modules get new type objects and types are compared by identity.
+     * 
+     * Signature changes propagate along structural dependencies as classes inherit members of their base classes.
+     * 
+     * @returns modules which had been clean before and are dirty now. They have to be parsed before 
+     * calling this method again.
+     */
+    setDirtyFlagsOfDependentModules(modulesWithChangedSignature: Set<JavaCompiledModule>): JavaCompiledModule[] {
+
+        let newDirtyModules: JavaCompiledModule[] = [];
 
         let done: boolean = false;
         while(!done){
             done = true;
             for(let module of this.modules){
                 if(module.isDirty()) continue;
-                // does module depend on dirty other module?
-                if(module.dependsOnOtherDirtyModule()){
+                let usageTracker = module.compiledSymbolsUsageTracker;
+                if(module.hasErrors() || usageTracker.needsRecompilation(modulesWithChangedSignature, this.modules)){
                     module.setDirty(true);
+                    if(usageTracker.structurallyDependsOnModuleOf(modulesWithChangedSignature)){
+                        modulesWithChangedSignature.add(module);
+                    }
+                    newDirtyModules.push(module);
                     done = false;
-                    break;
                 }
             }
         }
 
-        for(let module of this.modules){
-            if(module.isDirty()){
-                module.resetBeforeCompilation();
-            } 
-        }
-
+        return newDirtyModules;
     }
 
     createNewModules(files: CompilerFile[]){
@@ -84,8 +96,10 @@ export class JavaModuleManager {
         }
     }
 
-    removeUnusedModules(files: CompilerFile[]){
+    removeUnusedModules(files: CompilerFile[]): boolean {
+        let moduleCount = this.modules.length;
         this.modules = this.modules.filter(m => files.indexOf(m.file) >= 0);
+        return this.modules.length < moduleCount;
     }
 
     getNewOrDirtyModules(): JavaCompiledModule[] {
@@ -0,0 +1,138 @@
+import { IRange } from "../../common/range/Range";
+import { TokenType } from "../TokenType";
+import { ASTArrayTypeNode, ASTBaseTypeNode, ASTClassDefinitionNode, ASTEnumDefinitionNode, ASTFieldDeclarationNode, ASTGenericParameterDeclarationNode, ASTGenericTypeInstantiationNode, ASTInterfaceDefinitionNode, ASTMethodDeclarationNode, ASTTypeNode, ASTWildcardTypeNode } from "../parser/AST";
+import { JavaCompiledModule } from "./JavaCompiledModule";
+
+type TypeDefinitionNode = ASTClassDefinitionNode | ASTInterfaceDefinitionNode | ASTEnumDefinitionNode;
+
+/**
+ * The signature of a module is a textual representation of everything other modules may depend on
+ * when they get compiled: declarations of types, generic parameters, extends/implements, non-private
+ * fields and methods and the initial values of final fields (they get inlined as constants).
+ * It is built from the AST, so method bodies, comments and whitespace don't affect it.
+ *
+ * If the signature of a changed module equals its signature from the last compilation run
+ * then modules which only use its types don't need to be recompiled.
+ */
+export class JavaModuleSignature {
+
+    private lines: string[];
+
+    private constructor(private module: JavaCompiledModule) {
+        this.lines = module.file.getText().split("\n");
+    }
+
+    static build(module: JavaCompiledModule): string {
+        if (!module.ast) return "";
+        let builder = new JavaModuleSignature(module);
+        let parts: string[] = [];
+        for (let typeNode of module.ast.innerTypes) {
+            builder.appendType(typeNode, parts);
+        }
+        return parts.join("\n");
+    }
+
+    private appendType(node: TypeDefinitionNode, parts: string[]) {
+        // main class (top level statements) and anonymous inner classes are not visible to other modules
+        if (node.identifier == "") return;
+
+        let head = this.modifiers(node) + node.kind + " " + node.path + "/" + node.identifier;
+
+        switch (node.kind) {
+            case TokenType.keywordClass:
+                head += this.genericParameters(node.genericParameterDeclarations);
+                if (node.extends) head += " extends " + this.typeToString(node.extends);
+                if (node.implements.length > 0) head += " implements " + node.implements.map(t => this.typeToString(t)).join(", ");
+                break;
+            case TokenType.keywordInterface:
+                head += this.genericParameters(node.genericParameterDeclarations);
+                if (node.implements.length > 0) head += " extends " + node.implements.map(t => this.typeToString(t)).join(", ");
+                break;
+            case TokenType.keywordEnum:
+                head += " {" + node.valueNodes.map(v => v.identifier).join(", ") + "}";
+                break;
+        }
+
+        parts.push(head);
+
+        for (let field of node.fieldsOrInstanceInitializers) {
+            if (field.kind != TokenType.fieldDeclaration || field.visibility == TokenType.keywordPrivate) continue;
+            parts.push(this.fieldToString(field, node.kind == TokenType.keywordInterface));
+        }
+
+        for (let method of node.methods) {
+            if (method.visibility == TokenType.keywordPrivate) continue;
+            parts.push(this.methodToString(method));
+        }
+
+        for (let innerType of node.innerTypes) {
+            this.appendType(innerType, parts);
+        }
+    }
+
+    private fieldToString(field: ASTFieldDeclarationNode, isInterfaceField: boolean): string {
+        let s = "  " + this.modifiers(field) + this.typeToString(field.type) + " " + field.identifier;
+        if ((field.isFinal || isInterfaceField) && field.initialization) {
+            s += " = " + this.getText(field.initialization.range);
+        }
+        return s;
+    }
+
+    private methodToString(method: ASTMethodDeclarationNode): string {
+        let s = "  " + this.modifiers(method) + (method.isDefault ? "default " : "") + this.genericParameters(method.genericParameterDeclarations);
+        if (!method.isContructor) s += (method.returnParameterType ? this.typeToString(method.returnParameterType) : "void") + " ";
+        s += method.identifier + "(" + method.parameters.map(p => (p.type ? this.typeToString(p.type) : "?") + (p.isEllipsis ? "..." : "")).join(", ") + ")";
+        return s;
+    }
+
+    private modifiers(node: { visibility: TokenType, isStatic: boolean, isFinal: boolean, isAbstract: boolean }): string {
+        return node.visibility + " " + (node.isStatic ? "static " : "") + (node.isFinal ? "final " : "") + (node.isAbstract ? "abstract " : "");
+    }
+
+    private genericParameters(gpNodes: ASTGenericParameterDeclarationNode[]): string {
+        if (gpNodes.length == 0) return "";
+        return "<" + gpNodes.map(gp => {
+            let s = gp.identifier;
+            if (gp.extends && gp.extends.length > 0) s += " extends " + gp.extends.map(t => this.typeToString(t)).join(" & ");
+            if (gp.super) s += " super " + this.typeToString(gp.super);
+            return s;
+        }).join(", ") + "> ";
+    }
+
+    private typeToString(node: ASTTypeNode | undefined): string {
+        if (!node) return "?";
+        switch (node.kind) {
+            case TokenType.baseType:
+                return (<ASTBaseTypeNode>node).identifiers.map(i => i.identifier).join(".");
+            case TokenType.genericTypeInstantiation:
+                let gtiNode = <ASTGenericTypeInstantiationNode>node;
+                return this.typeToString(gtiNode.baseType) + "<" + gtiNode.actualTypeArguments.map(t => this.typeToString(t)).join(", ") + ">";
+            case TokenType.arrayType:
+                let arrayNode = <ASTArrayTypeNode>node;
+                return this.typeToString(arrayNode.arrayOf) + "[]".repeat(arrayNode.arrayDimensions);
+            case TokenType.wildcardType:
+                let wcNode = <ASTWildcardTypeNode>node;
+                let s = "?";
+                if (wcNode.extends.length > 0) s += " extends " + wcNode.extends.map(t => this.typeToString(t)).join(" & ");
+                if (wcNode.super) s += " super " + this.typeToString(wcNode.super);
+                return s;
+            case TokenType.voidType:
+                return "void";
+            case TokenType.varType:
+                return "var";
+        }
+        return "?";
+    }
+
+    private getText(range: IRange): string {
+        if (range.startLineNumber == range.endLineNumber) {
+            return (this.lines[range.startLineNumber - 1] || "").substring(range.startColumn - 1, range.endColumn - 1);
+        }
+        let text = (this.lines[range.startLineNumber - 1] || "").substring(range.startColumn - 1);
+        for (let line = range.startLineNumber + 1; line < range.endLineNumber; line++) {
+            text += "\n" + this.lines[line - 1];
+        }
+        return text + "\n" + (this.lines[range.endLineNumber - 1] || "").substring(0, range.endColumn - 1);
+    }
+
+}
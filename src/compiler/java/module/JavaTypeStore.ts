@@ -1,4 +1,5 @@
 import { KlassObjectRegistry } from "../../common/interpreter/StepFunction";
+import { MethodResolutionCache } from "../codegenerator/MethodResolutionCache";
 import { JCM } from "../language/JavaCompilerMessages";
 import { PrimitiveType } from "../runtime/system/primitiveTypes/PrimitiveType";
 import { JavaClass } from "../types/JavaClass";
@@ -13,6 +14,10 @@ export class JavaTypeStore {
 
     private typeMap: Map<string, JavaType> = new Map();
 
+    methodResolutionCache: MethodResolutionCache = new MethodResolutionCache();
+
+    private frozen: boolean = false;
+
     constructor() {
 
     }
@@ -27,11 +32,23 @@ export class JavaTypeStore {
         return jts;
     }
 
+    /**
+     * Typestore of library types is shared by all compilers, so it must not be altered after
+     * it has been built.
+     */
+    freeze() {
+        this.frozen = true;
+    }
+
     empty() {
+        if (this.frozen) throw new Error("Frozen typestore can't be emptied.");
         this.typeMap = new Map();
+        this.methodResolutionCache = new MethodResolutionCache();
     }
 
     addType(type: JavaType) {
+        if (this.frozen) throw new Error("Type " + type.identifier + " can't be added to frozen typestore.");
+        this.methodResolutionCache.clear();
         if (type instanceof NonPrimitiveType) {
             this.typeMap.set(type.pathAndIdentifier, type);
         } else {
@@ -5,14 +5,19 @@ import { JavaType } from "../../types/JavaType";
 import { JavaTypeStore } from "../JavaTypeStore";
 import { JavaLibraryModule, JavaTypeMap, LibraryKlassType } from "./JavaLibraryModule";
 import { LibraryDeclarationParser } from "./LibraryDeclarationParser";
+import { KlassDeclarationRecords, LibraryDeclarationSnapshot } from "./LibraryDeclarationSnapshot";
 
 export class JavaLibraryModuleManager {
 
+    private static sharedInstance?: JavaLibraryModuleManager;
+
     libraryModules: JavaLibraryModule[] = [];
     javaTypes: JavaType[] = [];
     typestore: JavaTypeStore;
     systemModule: SystemModule;
 
+    private declarationRecords: Map<Klass, KlassDeclarationRecords>;
+
     constructor(...additionalModules: JavaLibraryModule[]){
         this.systemModule = new SystemModule();
         this.libraryModules.push(this.systemModule)
@@ -21,15 +26,37 @@ export class JavaLibraryModuleManager {
         }
 
         this.typestore = new JavaTypeStore();
+
+        let klasses = this.libraryModules.flatMap(module => module.classes);
+        klasses.push(this.systemModule.primitiveStringClass);
+        let recordParser = new LibraryDeclarationParser(this.systemModule);
+        this.declarationRecords = LibraryDeclarationSnapshot.getRecords(klasses, klass => recordParser.parseDeclarationRecords(klass));
+
         this.compileClassesToTypes();
 
         let ldp: LibraryDeclarationParser = new LibraryDeclarationParser(this.systemModule);
+        ldp.declarationRecords = this.declarationRecords;
         ldp.parseClassOrEnumOrInterfaceDeclarationWithoutGenerics(this.systemModule.primitiveStringClass, this.systemModule);
         ldp.parseClassOrInterfaceDeclarationGenericsAndExtendsImplements(this.systemModule.primitiveStringClass, this.typestore, this.systemModule);
         ldp.parseFieldsAndMethods(this.systemModule.primitiveStringClass, this.typestore, this.systemModule);
 
         this.typestore.initFastExtendsImplementsLookup();
 
+        this.typestore.freeze();
+
+    }
+
+    /**
+     * Library types don't depend on user code, so all compilers (and REPLs and test cases) share one
+     * library module manager. Besides saving time and memory this is necessary since runtime classes
+     * are global: each new library module manager would redirect klass.type to its own types.
+     * User types are held by each compiler's JavaModuleManager.
+     */
+    static getShared(): JavaLibraryModuleManager {
+        if (!JavaLibraryModuleManager.sharedInstance) {
+            JavaLibraryModuleManager.sharedInstance = new JavaLibraryModuleManager();
+        }
+        return JavaLibraryModuleManager.sharedInstance;
     }
 
     compileClassesToTypes(){
@@ -38,6 +65,7 @@ export class JavaLibraryModuleManager {
         this.javaTypes = [];
 
         ldp.currentTypeStore = this.typestore;
+        ldp.declarationRecords = this.declarationRecords;
     
         for(let module of this.libraryModules){
             for (let klass of module.classes) {
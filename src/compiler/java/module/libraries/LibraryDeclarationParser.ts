@@ -13,23 +13,20 @@ import { JavaType } from "../../types/JavaType";
 import { GenericMethod, JavaMethod } from "../../types/JavaMethod";
 import { NonPrimitiveType } from "../../types/NonPrimitiveType";
 import { JavaParameter } from "../../types/JavaParameter";
-import { Visibility } from "../../types/Visibility";
 import { JavaBaseModule } from "../JavaBaseModule";
 import { JavaTypeStore } from "../JavaTypeStore";
 import { LibraryAttributeDeclaration, LibraryMethodDeclaration, LibraryMethodOrAttributeDeclaration } from "./DeclareType";
 import { LibraryKlassType, JavaTypeMap, JavaLibraryModule } from "./JavaLibraryModule";
 import { LdToken, LibraryDeclarationLexer } from "./LibraryDeclarationLexer";
 import { SystemModule } from "../../runtime/system/SystemModule.ts";
-
-type ModifiersAndType = {
-    visibility: Visibility,
-    final: boolean,
-    static: boolean,
-    abstract: boolean,
-    default: boolean,
-    type: TokenType.keywordClass | TokenType.keywordInterface | TokenType.keywordEnum
-}
-
+import { KlassDeclarationRecords, LibraryGenericParameterRecord, LibraryMemberRecord, LibraryParameterRecord, LibraryTypeDeclarationRecord, LibraryTypeRecord, ModifiersAndType } from "./LibraryDeclarationSnapshot.ts";
+
+/**
+ * Builds types for library classes from their signature strings (__javaDeclarations) in two steps:
+ *  - parse signature strings into records (see LibraryDeclarationSnapshot) which don't depend on
+ *    any type objects and therefore can be reused by all library module managers,
+ *  - build types, fields and methods from these records.
+ */
 export class LibraryDeclarationParser extends LibraryDeclarationLexer {
 
     static endOfSourcecodeToken: LdToken = { tt: TokenType.endofSourcecode, value: "" };
@@ -46,6 +43,11 @@ export class LibraryDeclarationParser extends LibraryDeclarationLexer {
     currentTypeStore: JavaTypeStore = new JavaTypeStore();
     genericParameterMapStack: Record<string, GenericTypeParameter>[] = [];
 
+    /**
+     * records of parsed signatures; signatures of classes not contained are parsed when needed
+     */
+    declarationRecords: Map<Klass, KlassDeclarationRecords> = new Map();
+
     startBracketList: TokenType[] = [TokenType.leftBracket, TokenType.leftCurlyBracket, TokenType.leftSquareBracket, TokenType.lower];
     endBracketList: TokenType[] = [TokenType.rightBracket, TokenType.rightCurlyBracket, TokenType.rightSquareBracket, TokenType.greater];
 
@@ -53,27 +55,53 @@ export class LibraryDeclarationParser extends LibraryDeclarationLexer {
         super();
     }
 
-    parseClassOrEnumOrInterfaceDeclarationWithoutGenerics(klass: Klass & LibraryKlassType, module: JavaBaseModule): NonPrimitiveType {
+    /**
+     * Parse signature strings of given class
+     */
+    parseDeclarationRecords(klass: Klass & LibraryKlassType): KlassDeclarationRecords {
+        let declaration = this.parseTypeDeclarationRecord(this.getClassSignature(klass));
+
+        let members: LibraryMemberRecord[] = [];
+        for (let decl of this.getFieldAndMethodDeclarations(klass)) {
+            this.initTokens(decl.signature);
+            members.push(this.parseMemberRecord(decl.type == "method"));
+        }
+
+        return { declaration: declaration, members: members };
+    }
+
+    private getDeclarationRecords(klass: Klass & LibraryKlassType): KlassDeclarationRecords {
+        let records = this.declarationRecords.get(klass);
+        if (!records) {
+            records = this.parseDeclarationRecords(klass);
+            this.declarationRecords.set(klass, records);
+        }
+        return records;
+    }
 
+    private getClassSignature(klass: Klass & LibraryKlassType): string {
         let javaClassDeclaration = klass.__javaDeclarations?.find(decl => decl.type == "declaration");
 
         if (!javaClassDeclaration) {
             console.log("Error parsing library class " + klass.name + ": missing java class declaration.");
         }
 
-        let signature = javaClassDeclaration ? javaClassDeclaration.signature : "public class " + klass.name + " extends Object";
+        return javaClassDeclaration ? javaClassDeclaration.signature : "public class " + klass.name + " extends Object";
+    }
 
-        this.initTokens(signature);
+    private getFieldAndMethodDeclarations(klass: Klass & LibraryKlassType): LibraryMethodOrAttributeDeclaration[] {
+        return (klass.__javaDeclarations || []).filter(cd => cd.type == "field" || cd.type == "method");
+    }
 
-        let modifiersAndType = this.parseModifiersAndType(true);
+    parseClassOrEnumOrInterfaceDeclarationWithoutGenerics(klass: Klass & LibraryKlassType, module: JavaBaseModule): NonPrimitiveType {
+
+        let javaClassDeclaration = klass.__javaDeclarations?.find(decl => decl.type == "declaration");
+
+        let record = this.getDeclarationRecords(klass).declaration;
+        let modifiersAndType = record.modifiers;
+
+        let path: string[] = record.path.slice();
 
-        let path: string[] = [];
-        do {
-            this.expect(TokenType.identifier, false);
-            path.push(this.cct.value);
-            this.nextToken();
-        } while(this.comesToken(TokenType.dot, true));
-        
         let pathAndIdentifier = path.join(".");
         let identifier: string = path.pop()!;
 
@@ -127,210 +155,276 @@ export class LibraryDeclarationParser extends LibraryDeclarationLexer {
     parseClassOrInterfaceDeclarationGenericsAndExtendsImplements(klass: Klass & LibraryKlassType, typestore: JavaTypeStore, module: JavaBaseModule) {
 
         this.currentTypeStore = typestore;
+        this.currentDeclaration = this.getClassSignature(klass);
 
-        let javaClassDeclaration = klass.__javaDeclarations?.find(decl => decl.type == "declaration");
+        let record = this.getDeclarationRecords(klass).declaration;
 
-        if (!javaClassDeclaration) {
-            console.log("Error parsing library class " + klass.name + ": missing java class declaration.");
+        let npt = klass.type as JavaClass | JavaInterface | JavaEnum;
+
+        if (npt instanceof JavaEnum) {
+            if (record.genericParameters.length > 0) {
+                this.pushError("Ein enum-Typ kann nicht generisch sein.");
+            }
+            if (record.extends.length > 0 || record.implements.length > 0) {
+                this.pushError("Ein enum-Typ kann nicht generisch sein.");
+            }
+            return;
+        }
+
+        if (record.genericParameters.length > 0) {
+            npt.genericTypeParameters = this.buildGenericParameters(record.genericParameters, module);
         }
 
-        let signature = javaClassDeclaration ? javaClassDeclaration.signature : "public class " + klass.name + " extends Object";
+        if (record.extends.length > 0) {
+            let types = record.extends.map(t => this.resolveType(t, module));
+            if (npt instanceof JavaClass) {
+                npt.setExtends(<any>types[0])
+            } else {
+                npt.addExtends(<any>types);
+            }
+        }
 
+        if (record.implements.length > 0 && npt instanceof JavaClass) {
+            npt.addImplements(<any>record.implements.map(t => this.resolveType(t, module)));
+        }
+
+    }
+
+    /**
+     * Records
+     */
+
+    parseTypeDeclarationRecord(signature: string): LibraryTypeDeclarationRecord {
         this.initTokens(signature);
 
-        this.skipTill([TokenType.lower, TokenType.keywordExtends, TokenType.keywordImplements], false);
+        let modifiersAndType = this.parseModifiersAndType(true);
 
-        let npt = klass.type as JavaClass | JavaInterface | JavaEnum;
+        let path: string[] = [];
+        do {
+            this.expect(TokenType.identifier, false);
+            path.push(this.cct.value);
+            this.nextToken();
+        } while(this.comesToken(TokenType.dot, true));
+
+        let record: LibraryTypeDeclarationRecord = {
+            modifiers: modifiersAndType,
+            path: path,
+            genericParameters: [],
+            extends: [],
+            implements: []
+        }
+
+        this.skipTill([TokenType.lower, TokenType.keywordExtends, TokenType.keywordImplements], false);
 
         if (this.comesToken(TokenType.lower, false)) {
-            if (npt instanceof JavaEnum) {
-                this.pushError("Ein enum-Typ kann nicht generisch sein.");
-                this.skipTill([TokenType.keywordExtends, TokenType.keywordImplements], false);
-            } else {
-                npt.genericTypeParameters = this.parseGenericParameters(module);
-            }
+            record.genericParameters = this.parseGenericParameterRecords();
         }
 
         while (this.comesToken([TokenType.keywordExtends, TokenType.keywordImplements], false)) {
-            if (npt instanceof JavaEnum) {
-                this.pushError("Ein enum-Typ kann nicht generisch sein.");
-                this.skipTill([TokenType.keywordExtends, TokenType.keywordImplements], false);
+            let tt = this.tt;
+            this.nextToken();
+            let types = this.parseCommaSeparatedTypeRecordList();
+            if (tt == TokenType.keywordExtends) {
+                record.extends = record.extends.concat(types);
             } else {
-                let npt1: JavaClass | JavaInterface = <any>npt;
-                let tt = this.tt;
-                this.nextToken();
-                switch (tt) {
-                    case TokenType.keywordExtends:
-                        let types = this.parseCommaSeparatedTypeList(module);
-                        if (types.length > 0) {
-                            if (npt1 instanceof JavaClass) {
-                                npt1.setExtends(<any>types[0])
-                            } else {
-                                npt1.addExtends(<any>types);
-                            }
-                        }
-                        break;
-                    case TokenType.keywordImplements:
-                        let types1 = this.parseCommaSeparatedTypeList(module)
-                        if (types1.length > 0) {
-                            if (npt1 instanceof JavaClass) {
-                                npt1.addImplements(<any>types1);
-                            }
-                        }
-                        break;
-                }
+                record.implements = record.implements.concat(types);
+            }
+        }
+
+        return record;
+    }
+
+    /**
+     * example: "public <E> E testMethod(List<? extends E> li, E element)"
+     */
+    parseMemberRecord(isMethod: boolean): LibraryMemberRecord {
+        let modifiers = this.parseModifiersAndType(false);
+
+        let genericParameters = this.parseGenericParameterRecords();
+
+        let record: LibraryMemberRecord = {
+            modifiers: modifiers,
+            genericParameters: genericParameters,
+            type: this.parseTypeRecord()
+        }
+
+        // constructors have no identifier
+        if (!this.comesToken(TokenType.leftBracket, false)) {
+            record.identifier = this.expectIdentifier();
+        }
+
+        if (isMethod) {
+            this.comesToken(TokenType.leftBracket, true);
+            let parameters: LibraryParameterRecord[] = [];
+
+            if (!this.comesToken(TokenType.rightBracket, false)) {
+                do {
+                    let isFinal = this.comesToken(TokenType.keywordFinal, true);
+                    let type = this.parseTypeRecord();
+                    let isEllipsis = this.comesToken(TokenType.ellipsis, true);
+                    let id = this.expectIdentifier();
+                    parameters.push({ identifier: id, type: type, isFinal: isFinal, isEllipsis: isEllipsis });
+                } while (this.comesToken(TokenType.comma, true));
             }
 
+            this.expect(TokenType.rightBracket, true);
+            record.parameters = parameters;
         }
 
+        return record;
     }
 
-    parseCommaSeparatedTypeList(module: JavaBaseModule): JavaType[] {
-        let types: JavaType[] = [];
+    parseCommaSeparatedTypeRecordList(): LibraryTypeRecord[] {
+        let types: LibraryTypeRecord[] = [];
         do {
-            types.push(this.parseType(module))
+            types.push(this.parseTypeRecord())
         } while (this.comesToken(TokenType.comma, true));
         return types;
     }
 
-    parseGenericParameters(module: JavaBaseModule): GenericTypeParameters {
+    parseGenericParameterRecords(): LibraryGenericParameterRecord[] {
         if (!this.comesToken(TokenType.lower, true)) return [];
-        let startPos = this.pos;
         if (!this.comesToken(TokenType.identifier, false)) {
             this.pushError("Lese Definition eines generischen Parameters. Nach dem < wird ein Bezeichner erwartet.");
             return [];
         }
 
-        let gi: GenericTypeParameters = [];
-
-        let currentGenericParameterMap = this.genericParameterMapStack[this.genericParameterMapStack.length - 1];
+        let records: LibraryGenericParameterRecord[] = [];
 
-        // first step: only collect identifiers because generic parameters can reference each other recursively
         do {
-
-            let identifier = <string>this.cct.value;
-            let gp = new GenericTypeParameter(identifier, module, LibraryDeclarationParser.nullRange, [], undefined);
-            gi.push(gp);
-            currentGenericParameterMap[identifier] = gp;
-            this.nextToken();
-            this.skipSymmetricBracketsUntil([TokenType.comma, TokenType.greater])
-
-        } while (this.comesToken(TokenType.comma, true))
-
-        this.expect(TokenType.greater, true);
-
-        // second step: parse generic parameters with their upper/lower bounds
-        this.pos = startPos - 1;
-        this.nextToken();
-
-        do {
-            this.parseGenericParameterDeclaration(module)
+            records.push(this.parseGenericParameterRecord());
         } while (this.comesToken(TokenType.comma, true));
 
         this.expect(TokenType.greater, true);
 
-        return gi;
+        return records;
     }
 
-
-
-    skipSymmetricBracketsUntil(tt: TokenType[]) {
-        let bracketCounter: number = 0;
-
-        while (this.pos < this.tokenList.length && (bracketCounter > 0 || tt.indexOf(this.tt) < 0)) {
-            if (this.startBracketList.indexOf(this.tt) >= 0) {
-                bracketCounter++;
-            } else if (this.endBracketList.indexOf(this.tt) >= 0) {
-                bracketCounter--;
-            }
-            this.nextToken();
+    parseGenericParameterRecord(): LibraryGenericParameterRecord {
+        let record: LibraryGenericParameterRecord = {
+            identifier: this.expectIdentifier(),
+            upperBounds: []
         }
 
-    }
-
-
-    parseGenericParameterDeclaration(module: JavaBaseModule): GenericTypeParameter {
-        let identifier = this.expectIdentifier();
-        let upperBounds: (JavaClass | JavaInterface)[] = [];
-        let lowerBound: JavaClass | undefined = undefined;
-
         while (this.comesToken([TokenType.keywordExtends, TokenType.keywordImplements], false)) {
             let tt = this.tt;
             this.nextToken();
             switch (tt) {
                 case TokenType.keywordExtends:
                     do {
-                        upperBounds.push(<any>this.parseType(module));
+                        record.upperBounds.push(this.parseTypeRecord());
                     } while (this.comesToken(TokenType.ampersand, true))
                     break;
                 case TokenType.keywordImplements:
-                    lowerBound = <any>this.parseType(module);
+                    record.lowerBound = this.parseTypeRecord();
                     break;
             }
         }
 
-        let currentGenericParameterMap = this.genericParameterMapStack[this.genericParameterMapStack.length - 1];
-        let gp = currentGenericParameterMap[identifier];
-        gp.upperBounds = upperBounds;
-        gp.lowerBound = lowerBound;
-
-        return gp;
+        return record;
     }
 
     /**
      * int, int[][], HashMap<Integer, Boolean>[]
      * 
      */
-    parseType(module: JavaBaseModule): JavaType {
+    parseTypeRecord(): LibraryTypeRecord {
         let id = this.expectIdentifier();
         while(this.comesToken(TokenType.dot, true)){
             id += "." + this.expectIdentifier();
         }
 
+        let record: LibraryTypeRecord = { identifier: id };
+
+        if (id == "" || id == "?") return record;
+
+        if (this.comesToken(TokenType.lower, true)) {
+            let typeArguments: LibraryTypeRecord[] = [];
+            while (!this.isEnd()) {
+                let t = this.parseTypeRecord();
+
+                if (t.identifier == "?") {
+                    if (this.comesToken(TokenType.keywordExtends, true)) {
+                        t.extends = this.parseTypeRecord();
+                    }
+                    if (this.comesToken(TokenType.keywordSuper, true)) {
+                        t.super = this.parseTypeRecord();
+                    }
+                }
+
+                typeArguments.push(t);
+                if (this.comesToken(TokenType.greater, false)) break;
+                if (!this.expect(TokenType.comma, true)) break;
+            }
+            this.expect(TokenType.greater, true);
+            record.typeArguments = typeArguments;
+        }
+
+        let dimension = 0;
+        while (this.comesToken(TokenType.leftSquareBracket, true)) {
+            dimension++;
+            this.expect(TokenType.rightSquareBracket, true);
+        }
+        if (dimension > 0) record.dimension = dimension;
+
+        return record;
+    }
+
+    /**
+     * Types
+     */
+
+    buildGenericParameters(records: LibraryGenericParameterRecord[], module: JavaBaseModule): GenericTypeParameters {
+        let gi: GenericTypeParameters = [];
+
+        let currentGenericParameterMap = this.genericParameterMapStack[this.genericParameterMapStack.length - 1];
+
+        // first step: only create generic parameters because they can reference each other recursively
+        for (let record of records) {
+            let gp = new GenericTypeParameter(record.identifier, module, LibraryDeclarationParser.nullRange, [], undefined);
+            gi.push(gp);
+            currentGenericParameterMap[record.identifier] = gp;
+        }
+
+        // second step: resolve upper/lower bounds
+        for (let i = 0; i < records.length; i++) {
+            gi[i].upperBounds = records[i].upperBounds.map(ub => <any>this.resolveType(ub, module));
+            gi[i].lowerBound = records[i].lowerBound ? <any>this.resolveType(records[i].lowerBound!, module) : undefined;
+        }
+
+        return gi;
+    }
+
+    resolveType(record: LibraryTypeRecord, module: JavaBaseModule): JavaType {
+        let id = record.identifier;
+
         if (id == "") return this.currentTypeStore.getType("void")!;
 
         if (id == "?") {
             let gt = new GenericTypeParameter(id, module, EmptyRange.instance);
             gt.isWildcard = true;
+            if (record.extends) gt.upperBounds.push(<any>this.resolveType(record.extends, module));
+            if (record.super) gt.lowerBound = <any>this.resolveType(record.super, module);
             return gt;
         }
 
         let type = this.findType(id);
 
-        if (this.comesToken(TokenType.lower, true)) {
+        if (record.typeArguments) {
             if (type.genericTypeParameters?.length == 0) {
                 this.pushError("Der Typ " + type.identifier + " ist nicht generisch.");
-                this.skipTill(TokenType.greater, true);
             } else {
                 let typeMap: Map<GenericTypeParameter, JavaType> = new Map();
-                for (let gtp of type.genericTypeParameters) {
-                    let t = this.parseType(module);
-
-                    if (t instanceof GenericTypeParameter && t.isWildcard) {
-                        if (this.comesToken(TokenType.keywordExtends, true)) {
-                            t.upperBounds.push(<any>this.parseType(module));
-                        }
-                        if (this.comesToken(TokenType.keywordSuper, true)) {
-                            t.lowerBound = <any>this.parseType(module);
-                        }
-                    }
-
-                    typeMap.set(gtp, t)
-                    if (this.comesToken(TokenType.greater, false)) break;
-                    this.expect(TokenType.comma, true);
+                let typeArguments = record.typeArguments;
+                for (let i = 0; i < type.genericTypeParameters.length && i < typeArguments.length; i++) {
+                    typeMap.set(type.genericTypeParameters[i], this.resolveType(typeArguments[i], module));
                 }
-                this.expect(TokenType.greater, true);
                 type = type.getCopyWithConcreteType(typeMap);
             }
         }
 
-        while (this.comesToken(TokenType.leftSquareBracket, true)) {
-            if (type instanceof JavaArrayType) {
-                type.dimension++;
-            } else {
-                type = new JavaArrayType(type, 1, module, LibraryDeclarationParser.nullRange);
-            }
-            this.expect(TokenType.rightSquareBracket, true);
+        if (record.dimension) {
+            type = new JavaArrayType(type, record.dimension, module, LibraryDeclarationParser.nullRange);
         }
 
         return type;
@@ -473,49 +567,47 @@ export class LibraryDeclarationParser extends LibraryDeclarationLexer {
     }
 
     /**
-     * Parse fields and Methods
+     * Build fields and Methods
      */
 
     parseFieldsAndMethods(klass: Klass & LibraryKlassType, typestore: JavaTypeStore, module: JavaBaseModule) {
 
         this.currentTypeStore = typestore;
 
-        let javaClassDeclaration = klass.__javaDeclarations;
-
-        if (!javaClassDeclaration) {
+        if (!klass.__javaDeclarations) {
             return;
         }
 
-        for (let decl of javaClassDeclaration.filter(cd => cd.type == "field" || cd.type == "method")) {
-            this.initTokens(decl.signature);
-            this.parseFieldOrMethod(klass, module, decl);
+        let declarations = this.getFieldAndMethodDeclarations(klass);
+        let records = this.getDeclarationRecords(klass).members;
+
+        for (let i = 0; i < declarations.length; i++) {
+            this.currentDeclaration = declarations[i].signature;
+            this.buildFieldOrMethod(klass, module, declarations[i], records[i]);
         }
 
     }
 
-    parseFieldOrMethod(klass: Klass & LibraryKlassType, module: JavaBaseModule, decl: LibraryMethodOrAttributeDeclaration) {
+    buildFieldOrMethod(klass: Klass & LibraryKlassType, module: JavaBaseModule, decl: LibraryMethodOrAttributeDeclaration, record: LibraryMemberRecord) {
 
         this.genericParameterMapStack.push({});
 
         let klassType = <JavaClass | JavaInterface | JavaEnum>klass.type;
 
-        // example: "public <E> E testMethod(List<? extends E> li, E element)"
-        let modifiers = this.parseModifiersAndType(false);
-
-        // if(decl.signature.indexOf('getCollidingShapes') >= 0){
-        //     debugger;
-        // }
+        let modifiers = record.modifiers;
 
-        let genericParameters = this.parseGenericParameters(module);
+        let genericParameters = this.buildGenericParameters(record.genericParameters, module);
 
-        let type = this.parseType(module);
+        let type = this.resolveType(record.type, module);
 
-        let isConstructor: boolean = type == klassType && this.comesToken(TokenType.leftBracket, false);
+        let isConstructor: boolean = type == klassType && record.identifier === undefined;
 
-        let identifier = isConstructor ? klassType.identifier : this.expectIdentifier();
+        let identifier = isConstructor ? klassType.identifier : (record.identifier || "");
+        if (!isConstructor && record.identifier === undefined) {
+            this.pushError("Ein Bezeichner wird erwartet, gefunden wurde (.");
+        }
 
         if (decl.type == "method") {
-            this.comesToken(TokenType.leftBracket, true);
             // method
             let m = genericParameters.length == 0 ?
                 new JavaMethod(identifier, EmptyRange.instance, module, modifiers.visibility) :
@@ -524,15 +616,10 @@ export class LibraryDeclarationParser extends LibraryDeclarationLexer {
             m.isConstructor = isConstructor;
             m.documentation = decl.comment;
 
-            if (!this.comesToken(TokenType.rightBracket, false)) {
-                do {
-                    let isFinal = this.comesToken(TokenType.keywordFinal, true);
-                    let type = this.parseType(module);
-                    let isEllipsis = this.comesToken(TokenType.ellipsis, true);
-                    if (isEllipsis) type = new JavaArrayType(type, 1, module, EmptyRange.instance);
-                    let id = this.expectIdentifier();
-                    m.parameters.push(new JavaParameter(id, EmptyRange.instance, module, type, isFinal, isEllipsis, false));
-                } while (this.comesToken(TokenType.comma, true));
+            for (let parameter of record.parameters || []) {
+                let type = this.resolveType(parameter.type, module);
+                if (parameter.isEllipsis) type = new JavaArrayType(type, 1, module, EmptyRange.instance);
+                m.parameters.push(new JavaParameter(parameter.identifier, EmptyRange.instance, module, type, parameter.isFinal, parameter.isEllipsis, false));
             }
 
             m.isStatic = modifiers.static;
@@ -541,7 +628,6 @@ export class LibraryDeclarationParser extends LibraryDeclarationLexer {
             m.classEnumInterface = klassType;
             m.isDefault = modifiers.default;
 
-            this.expect(TokenType.rightBracket, true);
             klassType.methods.push(m);
 
             let mdecl = <LibraryMethodDeclaration>decl;
@@ -0,0 +1,163 @@
+import { Klass } from "../../../common/interpreter/StepFunction";
+import { TokenType } from "../../TokenType";
+import { Visibility } from "../../types/Visibility";
+import { LibraryKlassType } from "./JavaLibraryModule";
+
+export type ModifiersAndType = {
+    visibility: Visibility,
+    final: boolean,
+    static: boolean,
+    abstract: boolean,
+    default: boolean,
+    type: TokenType.keywordClass | TokenType.keywordInterface | TokenType.keywordEnum
+}
+
+/**
+ * e.g. int, int[][], HashMap<Integer, Boolean>[], ? extends Shape
+ */
+export type LibraryTypeRecord = {
+    identifier: string,
+    typeArguments?: LibraryTypeRecord[],
+    extends?: LibraryTypeRecord,        // only for wildcards
+    super?: LibraryTypeRecord,          // only for wildcards
+    dimension?: number
+}
+
+export type LibraryGenericParameterRecord = {
+    identifier: string,
+    upperBounds: LibraryTypeRecord[],
+    lowerBound?: LibraryTypeRecord
+}
+
+export type LibraryTypeDeclarationRecord = {
+    modifiers: ModifiersAndType,
+    path: string[],
+    genericParameters: LibraryGenericParameterRecord[],
+    extends: LibraryTypeRecord[],
+    implements: LibraryTypeRecord[]
+}
+
+export type LibraryParameterRecord = {
+    identifier: string,
+    type: LibraryTypeRecord,
+    isFinal: boolean,
+    isEllipsis: boolean
+}
+
+export type LibraryMemberRecord = {
+    modifiers: ModifiersAndType,
+    genericParameters: LibraryGenericParameterRecord[],
+    type: LibraryTypeRecord,
+    identifier?: string,                    // undefined if type is followed by left bracket (constructor)
+    parameters?: LibraryParameterRecord[]   // only for methods
+}
+
+/**
+ * Parsed signatures of a library class: its declaration and its fields and methods in the order
+ * of __javaDeclarations.
+ */
+export type KlassDeclarationRecords = {
+    declaration: LibraryTypeDeclarationRecord,
+    members: LibraryMemberRecord[]
+}
+
+type SnapshotData = {
+    fingerprint: string,
+    records: KlassDeclarationRecords[]
+}
+
+/**
+ * Snapshot of the parsed signature strings of all library classes. The snapshot of the last
+ * JavaLibraryModuleManager is kept in memory and (if running inside a browser) in localStorage,
+ * so signatures only need to be lexed and parsed once instead of each time a compiler is created
+ * or the page is loaded.
+ *
+ * The snapshot is identified by a fingerprint of all signature strings. If they have changed
+ * (e.g. new version of online-ide) then the snapshot is stale and all signatures get parsed again.
+ */
+export class LibraryDeclarationSnapshot {
+
+    static readonly formatVersion = 1;
+    static readonly storageKey = "javaLibraryDeclarationSnapshot";
+
+    private static lastSnapshot?: SnapshotData;
+
+    static getRecords(klasses: (Klass & LibraryKlassType)[],
+        parse: (klass: Klass & LibraryKlassType) => KlassDeclarationRecords): Map<Klass, KlassDeclarationRecords> {
+
+        let fingerprint = LibraryDeclarationSnapshot.getFingerprint(klasses);
+
+        let records = LibraryDeclarationSnapshot.load(fingerprint, klasses.length);
+        if (!records) {
+            records = klasses.map(klass => parse(klass));
+            LibraryDeclarationSnapshot.store({ fingerprint: fingerprint, records: records });
+        }
+
+        let map: Map<Klass, KlassDeclarationRecords> = new Map();
+        for (let i = 0; i < klasses.length; i++) {
+            map.set(klasses[i], records[i]);
+        }
+        return map;
+    }
+
+    private static load(fingerprint: string, klassCount: number): KlassDeclarationRecords[] | undefined {
+        if (LibraryDeclarationSnapshot.lastSnapshot?.fingerprint == fingerprint) {
+            return LibraryDeclarationSnapshot.lastSnapshot.records;
+        }
+
+        if (typeof localStorage == "undefined") return undefined;
+
+        try {
+            let data: SnapshotData | null = JSON.parse(localStorage.getItem(LibraryDeclarationSnapshot.storageKey) || "null");
+            if (data && data.fingerprint == fingerprint && data.records?.length == klassCount) {
+                LibraryDeclarationSnapshot.lastSnapshot = data;
+                return data.records;
+            }
+        } catch (e) {
+            // corrupt snapshot => parse signatures
+        }
+
+        return undefined;
+    }
+
+    private static store(data: SnapshotData) {
+        LibraryDeclarationSnapshot.lastSnapshot = data;
+
+        if (typeof localStorage == "undefined") return;
+
+        try {
+            localStorage.setItem(LibraryDeclarationSnapshot.storageKey, JSON.stringify(data));
+        } catch (e) {
+            // quota exceeded => snapshot is only kept in memory
+        }
+    }
+
+    /**
+     * FNV-1a hash of class names and declarations
+     */
+    private static getFingerprint(klasses: (Klass & LibraryKlassType)[]): string {
+        let hash = 0x811c9dc5;
+        let length = 0;
+
+        let add = (s: string) => {
+            for (let i = 0; i < s.length; i++) {
+                hash ^= s.charCodeAt(i);
+                hash = Math.imul(hash, 0x01000193);
+            }
+            hash ^= 0xffff;     // separator
+            hash = Math.imul(hash, 0x01000193);
+            length += s.length + 1;
+        }
+
+        for (let klass of klasses) {
+            add(klass.name);
+            for (let decl of klass.__javaDeclarations || []) {
+                add(decl.type);
+                add(decl.signature);
+            }
+        }
+
+        return LibraryDeclarationSnapshot.formatVersion + "/" + klasses.length + "/" + length + "/" + (hash >>> 0).toString(16);
+    }
+
+}
@@ -158,8 +158,7 @@ export class JavaCompletionItemProvider implements monaco.languages.CompletionIt
             watchDog--;
             if (watchDog == 0) return false;
 
-            let t = tokenList[pos];
-            let p = t.range;
+            let p = tokenList.getRange(pos);
 
             if (position.lineNumber > p.endLineNumber || position.lineNumber == p.endLineNumber && position.column > p.endColumn) {
                 posMin = pos;
@@ -171,7 +170,7 @@ export class JavaCompletionItemProvider implements monaco.languages.CompletionIt
                 continue;
             }
 
-            return t.tt == TokenType.stringLiteral;
+            return tokenList.types[pos] == TokenType.stringLiteral;
 
         }
 
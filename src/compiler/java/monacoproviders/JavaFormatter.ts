@@ -1,6 +1,6 @@
 import { IRange, Range } from "../../common/range/Range";
 import { Lexer } from "../lexer/Lexer";
-import { Token, TokenList } from "../lexer/Token";
+import { Token } from "../lexer/Token";
 import { TokenType } from "../TokenType";
 
 export class JavaFormatter implements monaco.languages.DocumentFormattingEditProvider,
@@ -76,7 +76,7 @@ export class JavaFormatter implements monaco.languages.DocumentFormattingEditPro
 
         let text = model.getValue(monaco.editor.EndOfLinePreference.LF);
 
-        let tokenlist = new Lexer().lex(text).tokens;
+        let tokenlist = new Lexer().lex(text).tokens.toArray();
 
         // let tokenlist = this.main.currentWorkspace.currentlyOpenModule.tokenList;
 
@@ -360,7 +360,7 @@ export class JavaFormatter implements monaco.languages.DocumentFormattingEditPro
         return edits;
 
     }
-    getNextNonSpaceToken(currentIndex: number, tokenlist: TokenList): Token {
+    getNextNonSpaceToken(currentIndex: number, tokenlist: Token[]): Token {
 
         if (currentIndex == tokenlist.length - 1) return tokenlist[currentIndex];
 
@@ -372,7 +372,7 @@ export class JavaFormatter implements monaco.languages.DocumentFormattingEditPro
 
     }
 
-    lowerBelongsToGenericExpression(position: number, tokenlist: TokenList) {
+    lowerBelongsToGenericExpression(position: number, tokenlist: Token[]) {
         let i = position + 1;
         while (i < tokenlist.length) {
             let tt = tokenlist[i].tt;
@@ -387,7 +387,7 @@ export class JavaFormatter implements monaco.languages.DocumentFormattingEditPro
         return false;
     }
 
-    greaterBelongsToGenericExpression(position: number, tokenlist: TokenList) {
+    greaterBelongsToGenericExpression(position: number, tokenlist: Token[]) {
         let i = position - 1;
         while (i >= 0) {
             let tt = tokenlist[i].tt;
@@ -35,7 +35,7 @@ export class TokenIterator {
     lastToken: Token = this.dummy;
     cct: Token = this.dummy;                // current token
     tt: TokenType = TokenType.comment;      // current tokentype
-    lastComment?: Token;
+    lastCommentIndex: number = -1;
 
     endToken: Token;
 
@@ -58,13 +58,10 @@ export class TokenIterator {
 
     constructor(private tokenList: TokenList, protected module: JavaCompiledModule) {
         if(tokenList.length == 0){
-            tokenList.push({
-                tt: TokenType.endofSourcecode,
-                value: "",
-                range: EmptyRange.instance
-            })
+            let r = EmptyRange.instance;
+            tokenList.push(TokenType.endofSourcecode, "", r.startLineNumber, r.startColumn, r.endLineNumber, r.endColumn);
         }
-        this.endToken = tokenList[tokenList.length - 1];
+        this.endToken = tokenList.getToken(tokenList.length - 1);
         this.pos = -1;
         if(tokenList.length > 0) this.nextToken(); // fetch first non-space token
     }
@@ -88,6 +85,14 @@ export class TokenIterator {
         return token;
     }
 
+    /**
+     * Token objects are materialized from the packed token list only for non-space tokens.
+     * The last token is always represented by the same object endToken (see isEnd).
+     */
+    private materialize(index: number): Token {
+        return index == this.tokenList.length - 1 ? this.endToken : this.tokenList.getToken(index);
+    }
+
     nextToken() {
 
         let token: Token;
@@ -96,6 +101,8 @@ export class TokenIterator {
 
         this.lastToken = this.cct;
 
+        let types = this.tokenList.types;
+
         while (true) {
 
             this.pos++;
@@ -105,14 +112,17 @@ export class TokenIterator {
                 break;
             }
 
-            token = this.tokenList[this.pos]
-            if (token.tt == TokenType.comment) {
-                this.lastComment = token;
+            let tt: TokenType = types[this.pos];
+            if (tt == TokenType.comment) {
+                this.lastCommentIndex = this.pos;
             }
 
-            if (token.tt != TokenType.newline && token.tt != TokenType.space && token.tt != TokenType.comment) {
-                token.commentBefore = this.lastComment;
-                this.lastComment = undefined;
+            if (tt != TokenType.newline && tt != TokenType.space && tt != TokenType.comment) {
+                token = this.materialize(this.pos);
+                if (this.lastCommentIndex >= 0) {
+                    token.commentBefore = this.tokenList.getToken(this.lastCommentIndex);
+                    this.lastCommentIndex = -1;
+                }
                 break;
             }
 
@@ -133,16 +143,17 @@ export class TokenIterator {
         let pos = this.pos;
         let token = this.cct;
 
+        let tokenPos = -1;
+
         while (k > 0 && pos < this.tokenList.length - 1) {
             pos++;
-            let t: Token = this.tokenList[pos];
-            if (TokenIterator.spaceTokenTypes.indexOf(t.tt) < 0) {
+            if (TokenIterator.spaceTokenTypes.indexOf(this.tokenList.types[pos]) < 0) {
                 k--;
-                token = t;
+                tokenPos = pos;
             }
         }
 
-        return token;
+        return tokenPos < 0 ? token : this.materialize(tokenPos);
     }
 
     pushErrorAndSkipToken() {
@@ -153,7 +164,7 @@ export class TokenIterator {
     skipTokensTillEndOfLineOr(skippedTokens: TokenType | TokenType[], skipFoundToken: boolean = true) {
         if (!Array.isArray(skippedTokens)) skippedTokens = [skippedTokens];
         skippedTokens.push(TokenType.linefeed, TokenType.newline);
-        while (this.pos < this.tokenList.length && skippedTokens.indexOf(this.tokenList[this.pos].tt) < 0) {
+        while (this.pos < this.tokenList.length && skippedTokens.indexOf(this.tokenList.types[this.pos]) < 0) {
             this.nextToken();
         }
         if (this.pos < this.tokenList.length && skipFoundToken) {
@@ -264,18 +275,31 @@ export class TokenIterator {
 
     skipTillNextTokenAfter(tt: TokenType[]) {
 
+        // remember positions of last two non-space tokens and materialize them only once at the end
+        let lastPos = -1;
+        let currentPos = -1;
+
         while (this.pos < this.tokenList.length - 1) {
-            let token = this.tokenList[this.pos];
-            if (TokenIterator.spaceTokenTypes.indexOf(token.tt) < 0) {
-                this.lastToken = this.cct;
-                this.cct = token;
+            let tokenType: TokenType = this.tokenList.types[this.pos];
+            if (TokenIterator.spaceTokenTypes.indexOf(tokenType) < 0) {
+                lastPos = currentPos;
+                currentPos = this.pos;
             }
-            if (tt.indexOf(token.tt) >= 0) {
+            if (tt.indexOf(tokenType) >= 0) {
+                this.setSkippedTokens(lastPos, currentPos);
                 this.nextToken();
                 return;
             }
             this.pos++;
         }
+
+        this.setSkippedTokens(lastPos, currentPos);
+    }
+
+    private setSkippedTokens(lastPos: number, currentPos: number) {
+        if (currentPos < 0) return;
+        this.lastToken = lastPos < 0 ? this.cct : this.materialize(lastPos);
+        this.cct = this.materialize(currentPos);
     }
 
     expectAndSkipIdentifierAsString(): string {
@@ -368,7 +392,7 @@ export class TokenIterator {
         let p = this.pos + 1; // skip left bracket
         let depth = 1;
         while (p < this.tokenList.length && depth > 0) {
-            switch (this.tokenList[p++].tt) {
+            switch (this.tokenList.types[p++]) {
                 case TokenType.leftBracket: depth++;
                     break;
                 case TokenType.rightBracket: depth--;
@@ -376,12 +400,12 @@ export class TokenIterator {
         }
 
         if (depth == 0) {
-            while (p < this.tokenList.length && TokenIterator.spaceTokenTypes.indexOf(this.tokenList[p].tt) >= 0) {
+            while (p < this.tokenList.length && TokenIterator.spaceTokenTypes.indexOf(this.tokenList.types[p]) >= 0) {
                 p++;
             }
 
             if (p < this.tokenList.length) {
-                return this.tokenList[p].tt;
+                return this.tokenList.types[p];
             }
         }
 
@@ -395,7 +419,7 @@ export class TokenIterator {
 
         let pos1: number = this.pos;
         while (pos1 < this.tokenList.length) {
-            let tt = this.tokenList[pos1].tt;
+            let tt: TokenType = this.tokenList.types[pos1];
             if (tokensToLookFor.indexOf(tt) >= 0) return tt;
             if(tillToken.indexOf(tt) >= 0) break;
             pos1++;
@@ -413,8 +437,7 @@ export class TokenIterator {
         let nonSpaceTokenTypesFound: TokenType[] = [];
 
         while (pos < this.tokenList.length) {
-            let token = this.tokenList[pos];
-            let tt = token.tt;
+            let tt: TokenType = this.tokenList.types[pos];
             if (tt == TokenType.semicolon || tt == TokenType.assignment) break;
             if(tt == TokenType.leftBracket){
                 if(isCodeOutsideClassdeclarations){
@@ -103,6 +103,7 @@ export class ArcClass extends FilledShapeClass {
         }
 
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
 
         let g: PIXI.Graphics = <any>this.container;
 
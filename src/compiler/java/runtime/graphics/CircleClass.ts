@@ -81,6 +81,7 @@ export class CircleClass extends FilledShapeClass {
             });
         }
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
 
         let g: PIXI.Graphics = <any>this.container;
 
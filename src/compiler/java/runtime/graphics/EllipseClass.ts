@@ -86,6 +86,7 @@ export class EllipseClass extends FilledShapeClass {
             });
         }
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
 
         let g: PIXI.Graphics = <any>this.container;
 
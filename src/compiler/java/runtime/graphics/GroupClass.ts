@@ -162,6 +162,7 @@ export class GroupClass extends ShapeClass implements BaseListType {
             if(index >= 0){
                 this.world.shapesWhichBelongToNoGroup.splice(index, 1);
             }
+            this.world.spatialIndex.remove(shape);
         }
         
         this.shapes.push(shape);
@@ -277,6 +278,7 @@ export class GroupClass extends ShapeClass implements BaseListType {
 
     setWorldTransformAndHitPolygonDirty(): void {
         this.worldTransformDirty = true;
+        this.markBoundsDirty();
         for (let shape of this.shapes) shape.setWorldTransformAndHitPolygonDirty();
     }
 
@@ -6,6 +6,7 @@ import { Interpreter } from '../../../common/interpreter/Interpreter';
 import { MouseManager } from './MouseManager';
 import { GNGEventListenerType, IGNGEventListener } from './gng/IGNGEventListener.ts';
 import { GNGEventlistenerManager } from './gng/GNGEventlistenerManager.ts';
+import { ShapeSpatialIndex } from './ShapeSpatialIndex.ts';
 
 
 export interface IWorld {
@@ -13,6 +14,7 @@ export interface IWorld {
     interpreter: Interpreter;
     defaultGroup?: GroupClass;
     shapesWhichBelongToNoGroup: ShapeClass[];
+    spatialIndex: ShapeSpatialIndex;    // contains shapesWhichBelongToNoGroup
 
     currentLeft: number;
     currentTop: number;
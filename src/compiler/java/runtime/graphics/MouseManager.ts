@@ -3,6 +3,7 @@ import * as PIXI from 'pixi.js';
 import { MouseEventMethod, ShapeClass } from "./ShapeClass";
 import { MouseListenerInterface } from "./MouseListenerInterface";
 import { Thread, ThreadState } from "../../../common/interpreter/Thread";
+import { ShapeSpatialIndex } from "./ShapeSpatialIndex";
 
 export interface InternalMouseListener {
     onMouseEvent(kind: MouseEventKind, x: number, y: number): void;
@@ -19,6 +20,12 @@ export class MouseManager {
 
     shapesWithImplementedMouseMethods: ShapeClass[] = [];
 
+    /**
+     * contains shapesWithImplementedMouseMethods, so that _containsPoint (which needs
+     * the bounding box of the shape) is only called for shapes near the mouse pointer
+     */
+    spatialIndex: ShapeSpatialIndex = new ShapeSpatialIndex();
+
     listeners: Map<string, any> = new Map();
 
     constructor(private world: IWorld) {
@@ -102,10 +109,12 @@ export class MouseManager {
 
     addShapeWithImplementedMouseMethods(shape: ShapeClass) {
         this.shapesWithImplementedMouseMethods.push(shape);
+        this.spatialIndex.add(shape);
     }
 
     removeShapeWithImplementedMouseMethods(shape: ShapeClass) {
         this.shapesWithImplementedMouseMethods.splice(this.shapesWithImplementedMouseMethods.indexOf(shape), 1);
+        this.spatialIndex.remove(shape);
     }
 
 
@@ -115,13 +124,16 @@ export class MouseManager {
 
         let t: Thread = this.world.interpreter.scheduler.createThread("mouse event thread");
 
+        let shapesNearPointer: Set<ShapeClass> = new Set(this.spatialIndex.getShapesAtPoint(x, y));
+        let containsPoint = (shape: ShapeClass) => shapesNearPointer.has(shape) && shape._containsPoint(x, y);
+
         switch (mouseEventKind) {
             case "mousedown":
             case "mouseup":
                 for (let shape of this.shapesWithImplementedMouseMethods) {
                     if (!shape.reactToMouseEventsWhenInvisible && !shape.container.visible) continue;
                     let mouseEventMethod: MouseEventMethod = shape.mouseEventsImplemented![mouseEventKind];
-                    if (mouseEventMethod && (shape.trackMouseMove || shape._containsPoint(x, y))) {
+                    if (mouseEventMethod && (shape.trackMouseMove || containsPoint(shape))) {
                         mouseEventMethod.call(shape, t, undefined, x, y, button);
                     }
                 }
@@ -130,7 +142,7 @@ export class MouseManager {
                 for (let shape of this.shapesWithImplementedMouseMethods) {
                     if (!shape.reactToMouseEventsWhenInvisible && !shape.container.visible) continue;
                     let mouseEventMethod: MouseEventMethod = shape.mouseEventsImplemented![mouseEventKind];
-                    if (mouseEventMethod && shape._containsPoint(x, y) && !shape.mouseLastSeenInsideObject) {
+                    if (mouseEventMethod && containsPoint(shape) && !shape.mouseLastSeenInsideObject) {
                         shape.mouseLastSeenInsideObject = true;
                         mouseEventMethod.call(shape, t, undefined, x, y);
                     }
@@ -157,15 +169,15 @@ export class MouseManager {
                         (mouseEnterEventMethod != null && !shape.mouseLastSeenInsideObject) ||
                         (mouseLeaveEventMethod != null && shape.mouseLastSeenInsideObject)
                     ){
-                        let containsPoint = shape._containsPoint(x, y);
-                        if((shape.trackMouseMove || containsPoint) && mouseMoveEventMethod != null){
+                        let shapeContainsPoint = containsPoint(shape);
+                        if((shape.trackMouseMove || shapeContainsPoint) && mouseMoveEventMethod != null){
                             mouseMoveEventMethod.call(shape, t, undefined, x, y);
                         }
-                        if(containsPoint && mouseEnterEventMethod != null && !shape.mouseLastSeenInsideObject){
+                        if(shapeContainsPoint && mouseEnterEventMethod != null && !shape.mouseLastSeenInsideObject){
                             shape.mouseLastSeenInsideObject = true;
                             mouseEnterEventMethod.call(shape, t, undefined, x, y);
                         }
-                        if(!containsPoint && mouseLeaveEventMethod != null && shape.mouseLastSeenInsideObject){
+                        if(!shapeContainsPoint && mouseLeaveEventMethod != null && shape.mouseLastSeenInsideObject){
                             shape.mouseLastSeenInsideObject = false;
                             mouseLeaveEventMethod.call(shape, t, undefined, x, y);
                         }
@@ -208,6 +208,7 @@ export class PolygonClass extends FilledShapeClass {
         this.getWorldTransform().applyInverse(p, p);
         this.hitPolygonInitial.push({ x: p.x, y: p.y });
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
         if (render) this.render();
     }
 
@@ -218,6 +219,7 @@ export class PolygonClass extends FilledShapeClass {
         this.getWorldTransform().applyInverse(p, p);
         this.hitPolygonInitial.splice(index, 0, { x: p.x, y: p.y });
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
         this.render();
     }
 
@@ -230,6 +232,7 @@ export class PolygonClass extends FilledShapeClass {
         this.hitPolygonInitial[index].x = p.x;
         this.hitPolygonInitial[index].y = p.y;
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
         this.render();
     }
 
@@ -237,6 +240,7 @@ export class PolygonClass extends FilledShapeClass {
         if (index == 0 || index == 1) {
             this.hitPolygonInitial[index] = { x: x, y: y };
             this.hitPolygonDirty = true;
+            this.markBoundsDirty();
             this.render();
         }
     }
@@ -249,6 +253,7 @@ export class PolygonClass extends FilledShapeClass {
         }
 
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
         this.render();
     }
 
@@ -264,6 +269,7 @@ export class PolygonClass extends FilledShapeClass {
             this.hitPolygonInitial.push({ x: points[i], y: points[i + 1] })
         }
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
         this.render();
     }
 
@@ -96,6 +96,7 @@ export class SectorClass extends FilledShapeClass {
         this.hitPolygonInitial.push({ x: this.mx, y: this.my });
 
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
 
         let g: PIXI.Graphics = <any>this.container;
 
@@ -158,6 +158,7 @@ export class ShapeClass extends ActorClass {
         this._cj$_constructor_$Actor$(t, () => {
             if (!this.world.defaultGroup) {
                 this.world.shapesWhichBelongToNoGroup.push(this);
+                this.world.spatialIndex.add(this);
             }
 
             let atLeastOneMouseListenerOverridden = false;
@@ -416,6 +417,7 @@ export class ShapeClass extends ActorClass {
             let index1 = world.shapesWhichBelongToNoGroup.indexOf(this);
             if (index1 >= 0) world.shapesWhichBelongToNoGroup.splice(index1, 1);
         }
+        world.spatialIndex.remove(this);
 
         let index2 = world.shapesNotAffectedByWorldTransforms.indexOf(this);
         if (index2 >= 0) world.shapesNotAffectedByWorldTransforms.splice(index2, 1);
@@ -583,7 +585,17 @@ export class ShapeClass extends ActorClass {
 
     _getFirstCollidingSprite(imageIndex: number): ShapeClass | null {
         if (this.hitPolygonDirty) this.transformHitPolygon();
-        return this.getFirstCollidingSpriteHelper(imageIndex, this.world.shapesWhichBelongToNoGroup, this.container.getBounds());
+        let bounds = this.container.getBounds();
+        return this.getFirstCollidingSpriteHelper(imageIndex, this.getShapesWithOverlappingBoundingBox(bounds), bounds);
+    }
+
+    /**
+     * Shapes which belong to no group and whose bounding box may overlap given bounds, in
+     * the same order as in world.shapesWhichBelongToNoGroup. Bounding boxes of groups contain
+     * those of their members, so it suffices to look into groups returned here.
+     */
+    getShapesWithOverlappingBoundingBox(bounds: PIXI.Bounds): ShapeClass[] {
+        return this.world.spatialIndex.getShapesInRectangle(bounds.left, bounds.top, bounds.right, bounds.bottom);
     }
 
     _getCollidingShapes(group: GroupClass): ShapeClass[] | null {
@@ -656,7 +668,7 @@ export class ShapeClass extends ActorClass {
         let bb = this.container.getBounds();
         if (this.hitPolygonDirty) this.transformHitPolygon();
 
-        return this.collidesWithAnyShapeHelper(<number>color, this.world.shapesWhichBelongToNoGroup, bb);
+        return this.collidesWithAnyShapeHelper(<number>color, this.getShapesWithOverlappingBoundingBox(bb), bb);
     }
 
 
@@ -667,6 +679,24 @@ export class ShapeClass extends ActorClass {
     setWorldTransformAndHitPolygonDirty() {
         this.worldTransformDirty = true;
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
+    }
+
+    /**
+     * Bounding box of this shape (and therefore of the groups containing it) may have changed,
+     * so it has to be reinserted into the spatial indices of world and mouse manager.
+     */
+    markBoundsDirty() {
+        let world = this.world;
+        if (!world) return;
+
+        let shape: ShapeClass = this;
+        world.mouseManager?.spatialIndex.markDirty(shape);
+        while (shape.belongsToGroup) {
+            shape = shape.belongsToGroup;
+            world.mouseManager?.spatialIndex.markDirty(shape);
+        }
+        world.spatialIndex.markDirty(shape);
     }
 
     public getWorldTransform(): PIXI.Matrix {
@@ -0,0 +1,237 @@
+import { ShapeClass } from "./ShapeClass";
+
+type IndexEntry = {
+    shape: ShapeClass,
+    order: number,              // queries return shapes in the order they had been added
+
+    // range of grid cells covered by bounding box (inclusive)
+    left: number,
+    top: number,
+    right: number,
+    bottom: number,
+
+    isLarge: boolean,           // covers too many cells => stored in largeEntries
+    isPlaced: boolean,
+    isDirty: boolean,
+    isRemoved: boolean,
+    queryMark: number
+}
+
+/**
+ * Broad phase for collision detection and mouse hit testing: Uniform grid over the bounding boxes
+ * (container.getBounds()) of a set of shapes. Queries return all shapes whose bounding box may
+ * contain the given point or intersect the given rectangle, so callers still have to do the
+ * exact test, but only for a few shapes instead of all shapes of the world.
+ *
+ * Shapes which have been moved, rotated or scaled (see ShapeClass.setWorldTransformAndHitPolygonDirty)
+ * or whose geometry changed (see ShapeClass.markBoundsDirty) are reinserted before the next query.
+ * Bounding boxes are in screen coordinates, so the world invalidates the whole grid if its
+ * transformation changes. As a safety net for changes of bounds not covered by the above it
+ * does so once per frame, too. The grid is rebuilt lazily, so this is free if no query happens.
+ */
+export class ShapeSpatialIndex {
+
+    static cellSize: number = 128;
+    static maxCellsPerShape: number = 64;
+
+    private static minCell: number = -32768;
+    private static maxCell: number = 32767;
+
+    private entries: Map<ShapeClass, IndexEntry> = new Map();
+    private cells: Map<number, IndexEntry[]> = new Map();
+    private largeEntries: IndexEntry[] = [];
+    private dirtyEntries: IndexEntry[] = [];
+
+    private allDirty: boolean = true;
+    private nextOrder: number = 0;
+    private queryCounter: number = 0;
+
+    add(shape: ShapeClass) {
+        if (this.entries.has(shape)) return;
+
+        let entry: IndexEntry = {
+            shape: shape, order: this.nextOrder++,
+            left: 0, top: 0, right: -1, bottom: -1,
+            isLarge: false, isPlaced: false, isDirty: false, isRemoved: false, queryMark: 0
+        };
+
+        this.entries.set(shape, entry);
+        this.markEntryDirty(entry);
+    }
+
+    remove(shape: ShapeClass) {
+        let entry = this.entries.get(shape);
+        if (!entry) return;
+
+        this.entries.delete(shape);
+        this.removeFromCells(entry);
+        entry.isRemoved = true;
+    }
+
+    markDirty(shape: ShapeClass) {
+        let entry = this.entries.get(shape);
+        if (entry) this.markEntryDirty(entry);
+    }
+
+    invalidateAll() {
+        this.allDirty = true;
+        this.dirtyEntries = [];
+    }
+
+    /**
+     * Candidates (in the order they had been added) whose bounding box may intersect the
+     * given rectangle.
+     */
+    getShapesInRectangle(left: number, top: number, right: number, bottom: number): ShapeClass[] {
+        this.update();
+
+        let mark = ++this.queryCounter;
+        let found: IndexEntry[] = [];
+
+        let collect = (entry: IndexEntry) => {
+            if (entry.queryMark == mark) return;
+            entry.queryMark = mark;
+            found.push(entry);
+        }
+
+        let cellLeft = ShapeSpatialIndex.toCell(left);
+        let cellTop = ShapeSpatialIndex.toCell(top);
+        let cellRight = ShapeSpatialIndex.toCell(right);
+        let cellBottom = ShapeSpatialIndex.toCell(bottom);
+
+        if ((cellRight - cellLeft + 1) * (cellBottom - cellTop + 1) > this.cells.size) {
+            this.cells.forEach(list => list.forEach(collect));
+            this.largeEntries.forEach(collect);
+            return ShapeSpatialIndex.sortByOrder(found);
+        }
+
+        for (let x = cellLeft; x <= cellRight; x++) {
+            for (let y = cellTop; y <= cellBottom; y++) {
+                let list = this.cells.get(ShapeSpatialIndex.getKey(x, y));
+                if (list) list.forEach(collect);
+            }
+        }
+        this.largeEntries.forEach(collect);
+
+        return ShapeSpatialIndex.sortByOrder(found);
+    }
+
+    getShapesAtPoint(x: number, y: number): ShapeClass[] {
+        return this.getShapesInRectangle(x, y, x, y);
+    }
+
+    private update() {
+        if (this.allDirty) {
+            this.cells.clear();
+            this.largeEntries = [];
+            this.entries.forEach(entry => {
+                entry.isPlaced = false;
+                entry.isDirty = false;
+                this.place(entry);
+            });
+            this.allDirty = false;
+            return;
+        }
+
+        if (this.dirtyEntries.length == 0) return;
+
+        for (let entry of this.dirtyEntries) {
+            entry.isDirty = false;
+            if (entry.isRemoved) continue;
+            this.removeFromCells(entry);
+            this.place(entry);
+        }
+        this.dirtyEntries = [];
+    }
+
+    private markEntryDirty(entry: IndexEntry) {
+        if (entry.isDirty || this.allDirty) return;
+        entry.isDirty = true;
+        this.dirtyEntries.push(entry);
+    }
+
+    private place(entry: IndexEntry) {
+        if (entry.shape.isDestroyed) return;
+
+        let bounds = entry.shape.container.getBounds();
+
+        entry.left = ShapeSpatialIndex.toCell(bounds.left);
+        entry.top = ShapeSpatialIndex.toCell(bounds.top);
+        entry.right = ShapeSpatialIndex.toCell(bounds.right);
+        entry.bottom = ShapeSpatialIndex.toCell(bounds.bottom);
+
+        // empty bounds (left > right) can't collide with anything nor contain any point
+        if (entry.left > entry.right || entry.top > entry.bottom) return;
+
+        entry.isPlaced = true;
+        entry.isLarge = (entry.right - entry.left + 1) * (entry.bottom - entry.top + 1) > ShapeSpatialIndex.maxCellsPerShape;
+
+        if (entry.isLarge) {
+            this.largeEntries.push(entry);
+            return;
+        }
+
+        for (let x = entry.left; x <= entry.right; x++) {
+            for (let y = entry.top; y <= entry.bottom; y++) {
+                let key = ShapeSpatialIndex.getKey(x, y);
+                let list = this.cells.get(key);
+                if (!list) {
+                    list = [];
+                    this.cells.set(key, list);
+                }
+                list.push(entry);
+            }
+        }
+    }
+
+    private removeFromCells(entry: IndexEntry) {
+        if (!entry.isPlaced) return;
+        entry.isPlaced = false;
+
+        if (entry.isLarge) {
+            ShapeSpatialIndex.removeFromList(this.largeEntries, entry);
+            return;
+        }
+
+        for (let x = entry.left; x <= entry.right; x++) {
+            for (let y = entry.top; y <= entry.bottom; y++) {
+                let key = ShapeSpatialIndex.getKey(x, y);
+                let list = this.cells.get(key);
+                if (!list) continue;
+                ShapeSpatialIndex.removeFromList(list, entry);
+                if (list.length == 0) this.cells.delete(key);
+            }
+        }
+    }
+
+    /**
+     * Order inside cells doesn't matter, so last element is moved into the gap.
+     */
+    private static removeFromList(list: IndexEntry[], entry: IndexEntry) {
+        let index = list.indexOf(entry);
+        if (index < 0) return;
+        list[index] = list[list.length - 1];
+        list.pop();
+    }
+
+    /**
+     * Coordinates outside the grid are clamped to its border cells. This only makes
+     * queries less selective, never wrong.
+     */
+    private static toCell(coordinate: number): number {
+        let cell = Math.floor(coordinate / ShapeSpatialIndex.cellSize);
+        if (cell < ShapeSpatialIndex.minCell) return ShapeSpatialIndex.minCell;
+        if (cell > ShapeSpatialIndex.maxCell) return ShapeSpatialIndex.maxCell;
+        return cell;
+    }
+
+    private static getKey(x: number, y: number): number {
+        return (x - ShapeSpatialIndex.minCell) * 65536 + (y - ShapeSpatialIndex.minCell);
+    }
+
+    private static sortByOrder(found: IndexEntry[]): ShapeClass[] {
+        found.sort((a, b) => a.order - b.order);
+        return found.map(entry => entry.shape);
+    }
+
+}
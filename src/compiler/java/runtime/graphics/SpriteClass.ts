@@ -174,6 +174,7 @@ export class SpriteClass extends ShapeClass {
             { x: left, y: top }, { x: right, y: top }, { x: right, y: bottom }, { x: left, y: bottom }
         ];
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
         sprite.destroy();
         this.isTileSprite = true;
     }
@@ -244,6 +245,7 @@ export class SpriteClass extends ShapeClass {
         this.hitPolygonInitial = convexhull.makeHull(points);
 
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
 
         this.container = new PIXI.Sprite(rt);
 
@@ -355,6 +357,7 @@ export class SpriteClass extends ShapeClass {
             if (!this.isTileSprite) {
                 this.hitPolygonInitial = HitPolygonStore.getPolygonForTexture(spriteLibrary, imageIndex, this, new PIXI.Sprite(sheet.textures[nameWithIndex]));
                 this.hitPolygonDirty = true;
+                this.markBoundsDirty();
             }
 
         } else {
@@ -50,6 +50,9 @@ export class TurtleClass extends FilledShapeClass {
 
     static type: NonPrimitiveType;
 
+    // line elements per baked chunk (see renderIncrementally)
+    static elementsPerChunk: number = 5000;
+
     lineElements: LineElement[] = [];
     turtleAngleDeg: number = 0; // in Rad
 
@@ -57,21 +60,24 @@ export class TurtleClass extends FilledShapeClass {
 
     //@ts-ignore
     turtle!: PIXI.Graphics;             // If you change this identifier then you have to change corresponding declaration in class ShapeClass
-    lineGraphic!: PIXI.Graphics;
+    lineGraphic!: PIXI.Graphics;        // draws line elements from liveStartIndex on
+
+    lineChunks: PIXI.Graphics[] = [];   // baked graphics drawing line elements before liveStartIndex
+    liveStartIndex: number = 0;
+    lineGraphicDirty: boolean = false;
 
     xSum: number = 0;
     ySum: number = 0;
 
-    initialHitPolygonDirty: boolean = true;
+    initialHitPolygonDirty: boolean = true;     // hitPolygonInitial has to be rebuilt from lineElements
+
+    // world transform hitPolygonTransformed has been computed with (see transformHitPolygon)
+    hitPolygonTransform?: { a: number, b: number, c: number, d: number, tx: number, ty: number };
 
     turtleSize: number = 40;
 
     penIsDown: boolean = true;
 
-    lastLineWidth: number = 0;
-    lastColor: number | null = 0;
-    lastAlpha: number = 0;
-
     lastTurtleAngleDeg: number = 0; // angle in Rad
 
     renderJobPresent: boolean = false;
@@ -99,7 +105,8 @@ export class TurtleClass extends FilledShapeClass {
 
             this.borderColor = 0xffffff;
 
-            this.hitPolygonInitial = [];
+            this.hitPolygonInitial = [{ x: xStart, y: yStart }];
+            this.initialHitPolygonDirty = false;
 
             this.container = new PIXI.Container();
 
@@ -136,8 +143,7 @@ export class TurtleClass extends FilledShapeClass {
     _closeAndFill(closeAndFill: boolean) {
         if (closeAndFill != this.isFilled) {
             this.isFilled = closeAndFill;
-            this.render();
-            this.initialHitPolygonDirty = true;
+            this.redrawAll();
         }
     }
 
@@ -183,6 +189,7 @@ export class TurtleClass extends FilledShapeClass {
             lastLineElement.x += length * Math.cos(turtleAngleRad);
             lastLineElement.y += length * Math.sin(turtleAngleRad);
             newLineElement = lastLineElement;
+            this.hitPolygonInitial[this.hitPolygonInitial.length - 1] = { x: newLineElement.x, y: newLineElement.y };
         } else {
             newLineElement = {
                 x: lastLineElement.x + length * Math.cos(turtleAngleRad),
@@ -193,12 +200,14 @@ export class TurtleClass extends FilledShapeClass {
             }
 
             this.lineElements.push(newLineElement);
+            this.hitPolygonInitial.push({ x: newLineElement.x, y: newLineElement.y });
         }
 
         this.angleHasChanged = false;
 
         this.hitPolygonDirty = true;
-        this.initialHitPolygonDirty = true;
+        this.lineGraphicDirty = true;
+        this.markBoundsDirty();
         this.calculateCenter();
 
         this.newTurtleX = newLineElement.x;
@@ -210,7 +219,8 @@ export class TurtleClass extends FilledShapeClass {
             this.renderJobPresent = true;
             setTimeout(() => {
                 this.renderJobPresent = false;
-                this.render();
+                if (this.isDestroyed) return;
+                if (this.lineGraphicDirty) this.renderIncrementally();
                 this.moveTurtleTo(this.newTurtleX, this.newTurtleY, this.turtleAngleDeg);
             }, 100);
         }
@@ -227,9 +237,11 @@ export class TurtleClass extends FilledShapeClass {
         }
 
         this.lineElements.push(newLineElement);
+        this.hitPolygonInitial.push({ x: x, y: y });
 
         this.hitPolygonDirty = true;
-        this.initialHitPolygonDirty = true;
+        this.lineGraphicDirty = true;
+        this.markBoundsDirty();
         this.calculateCenter();
         this.moveTurtleTo(newLineElement.x, newLineElement.y, this.turtleAngleDeg);
     }
@@ -281,15 +293,8 @@ export class TurtleClass extends FilledShapeClass {
 
     _collidesWith(shape: ShapeClass): boolean {
 
-        if (shape instanceof TurtleClass && shape.initialHitPolygonDirty) {
-            shape.setupInitialHitPolygon();
-        }
-
-        if (this.initialHitPolygonDirty) {
-            this.setupInitialHitPolygon();
-            this.transformHitPolygon();
-            this.render();
-        }
+        if (shape instanceof TurtleClass) shape.prepareHitTest();
+        this.prepareHitTest();
 
         if (!this.hasOverlappingBoundingBoxWith(shape)) return false;
 
@@ -311,8 +316,49 @@ export class TurtleClass extends FilledShapeClass {
 
     }
 
+    /**
+     * Bounding box (container.getBounds) and hit polygon have to reflect line elements which
+     * haven't been rendered yet.
+     */
+    prepareHitTest() {
+        if (this.initialHitPolygonDirty) this.setupInitialHitPolygon();
+        if (this.lineGraphicDirty) this.renderIncrementally();
+    }
+
     setupInitialHitPolygon() {
         this.hitPolygonInitial = this.lineElements.map((le) => { return { x: le.x, y: le.y } });
+        this.hitPolygonTransform = undefined;
+        this.hitPolygonDirty = true;
+        this.initialHitPolygonDirty = false;
+    }
+
+    /**
+     * forward and moveTo only append points to hitPolygonInitial or move it's last point, so as long
+     * as the world transform doesn't change only these points need to be transformed.
+     */
+    transformHitPolygon() {
+        if (!this.hitPolygonDirty) return;
+
+        let m = this.getWorldTransform();
+        let t = this.hitPolygonTransform;
+
+        if (!t || t.a != m.a || t.b != m.b || t.c != m.c || t.d != m.d || t.tx != m.tx || t.ty != m.ty) {
+            this.hitPolygonTransformed = [];
+            this.hitPolygonTransform = { a: m.a, b: m.b, c: m.c, d: m.d, tx: m.tx, ty: m.ty };
+        } else {
+            // last point may have moved
+            this.hitPolygonTransformed.length = Math.max(0, Math.min(this.hitPolygonTransformed.length, this.hitPolygonInitial.length - 1));
+        }
+
+        for (let i = this.hitPolygonTransformed.length; i < this.hitPolygonInitial.length; i++) {
+            let p = this.hitPolygonInitial[i];
+            this.hitPolygonTransformed.push({
+                x: (m.a * p.x) + (m.c * p.y) + m.tx,
+                y: (m.b * p.x) + (m.d * p.y) + m.ty
+            });
+        }
+
+        this.hitPolygonDirty = false;
     }
 
     _clear(x: number | undefined = undefined, y: number | undefined = undefined, angle: number | undefined = undefined) {
@@ -329,9 +375,12 @@ export class TurtleClass extends FilledShapeClass {
             alpha: 1,
             lineWidth: 1
         });
+        this.xSum = 0;
+        this.ySum = 0;
         this.calculateCenter();
 
-        this.hitPolygonInitial = [];
+        this.initialHitPolygonDirty = true;
+        this.markBoundsDirty();
         if (angle != null) {
             this.turtleAngleDeg = angle;
             this.angleHasChanged = true;
@@ -339,7 +388,7 @@ export class TurtleClass extends FilledShapeClass {
             this.borderColor = 0;
             this.turtleSize = 40;
         }
-        this.render();
+        this.redrawAll();
         if (angle != null) {
             this.moveTurtleTo(x, y, angle);
         }
@@ -351,7 +400,7 @@ export class TurtleClass extends FilledShapeClass {
         let x = lastLineElement.x;
         let y = lastLineElement.y;
 
-        for (let sh of this.world.shapesWhichBelongToNoGroup) {
+        for (let sh of this.world.spatialIndex.getShapesAtPoint(x, y)) {
             if (sh != this && sh._containsPoint(x, y)) {
                 return true;
             }
@@ -364,7 +413,7 @@ export class TurtleClass extends FilledShapeClass {
         let x = lastLineElement.x;
         let y = lastLineElement.y;
 
-        for (let sh of this.world.shapesWhichBelongToNoGroup) {
+        for (let sh of this.world.spatialIndex.getShapesAtPoint(x, y)) {
             if (sh != this && sh._containsPoint(x, y)) {
                 if (sh instanceof FilledShapeClass && sh.fillColor == farbe) return true;
                 // if(sh instanceof TurtleHelper) TODO
@@ -382,11 +431,7 @@ export class TurtleClass extends FilledShapeClass {
 
     _containsPoint(x: number, y: number) {
 
-        if (this.initialHitPolygonDirty) {
-            this.setupInitialHitPolygon();
-            this.transformHitPolygon();
-            this.render();
-        }
+        this.prepareHitTest();
 
         if (!this.container.getBounds().containsPoint(x, y)) return false;
 
@@ -492,85 +537,142 @@ export class TurtleClass extends FilledShapeClass {
         let copy = new TurtleClass();
         copy._cj$_constructor_$Turtle$double$double(t, callback, this.lineElements[0].x, this.lineElements[0].y, this.showTurtle);
         copy.turtleAngleDeg = this.turtleAngleDeg;
-        copy.lineElements = this.lineElements.slice();
+        copy.lineElements = this.lineElements.map(le => Object.assign({}, le));     // forward modifies last element
+        copy.xSum = this.xSum;
+        copy.ySum = this.ySum;
         copy.copyFrom(this);
-        copy.render();
+        copy.redrawAll();
         t.s.push(copy);
         if (callback) callback();
     }
 
+    /**
+     * Called after changes of color, alpha etc. Line elements carry their own style, so if the
+     * turtle isn't filled this only affects elements to come.
+     */
     render(): void {
+        if (this.isFilled) {
+            this.redrawAll();
+        } else {
+            this.renderIncrementally();
+        }
+    }
+
+    /**
+     * Line elements have been replaced (clear, copy) or the turtle got (un)filled.
+     */
+    redrawAll(): void {
+        if (!this.lineGraphic) return;
+
+        for (let chunk of this.lineChunks) chunk.destroy();
+        this.lineChunks = [];
+        this.liveStartIndex = 0;
+
+        this.renderIncrementally();
+    }
+
+    /**
+     * Redrawing hundreds of thousands of line elements every render job would get slower and slower,
+     * so only the elements from liveStartIndex on are drawn into lineGraphic. As soon as there are
+     * more than elementsPerChunk of them, the older ones are baked into a graphic of their own which
+     * never changes again (so pixi builds it's geometry only once). The last element is never baked
+     * because forward may still extend it.
+     *
+     * A filled turtle is one polygon, so it is always drawn as a whole.
+     */
+    renderIncrementally(): void {
+        if (!this.lineGraphic) return;
+        this.lineGraphicDirty = false;
 
         let g: PIXI.Graphics = this.lineGraphic;
+        g.clear();
 
-        if (this.lineElements.length > 1) {
-            let le = this.lineElements[1];
-            this.lastLineWidth = le.lineWidth;
-            this.lastColor = le.color;
-            this.lastAlpha = le.alpha;
+        if (this.isFilled) {
+            this.drawFilled(g);
+            return;
         }
 
-        g.clear();
+        g.alpha = 1;
+
+        let lastIndex = this.lineElements.length - 1;
+        while (lastIndex - this.liveStartIndex > TurtleClass.elementsPerChunk) {
+            let endIndex = this.liveStartIndex + TurtleClass.elementsPerChunk;
+            let chunk = new PIXI.Graphics();
+            this.drawLineElements(chunk, this.liveStartIndex, endIndex);
+            this.container.addChildAt(chunk, this.lineChunks.length);     // below lineGraphic and turtle
+            this.lineChunks.push(chunk);
+            this.liveStartIndex = endIndex;
+        }
+
+        this.drawLineElements(g, this.liveStartIndex, lastIndex);
+    }
+
+    /**
+     * Draws lines from lineElements[fromIndex] to lineElements[toIndex]. Consecutive elements
+     * with equal style are stroked together.
+     */
+    private drawLineElements(g: PIXI.Graphics, fromIndex: number, toIndex: number) {
+        let firstPoint = this.lineElements[fromIndex];
+        g.moveTo(firstPoint.x, firstPoint.y);
+
+        let style: LineElement | undefined;     // style of current path
+
+        for (let i = fromIndex + 1; i <= toIndex; i++) {
+            let le: LineElement = this.lineElements[i];
+
+            if (le.color == null) {
+                g.moveTo(le.x, le.y);
+                continue;
+            }
+
+            if (style && (le.lineWidth != style.lineWidth || le.color != style.color || le.alpha != style.alpha)) {
+                this.strokeLines(g, style);
+                let previous = this.lineElements[i - 1];
+                g.moveTo(previous.x, previous.y);
+            }
 
+            style = le;
+            g.lineTo(le.x, le.y);
+        }
 
+        if (style) this.strokeLines(g, style);
+    }
+
+    private strokeLines(g: PIXI.Graphics, style: LineElement) {
+        g.stroke({
+            width: style.lineWidth,
+            color: style.color == null ? 0x0 : style.color,
+            alpha: style.alpha,
+            alignment: 0.5
+        })
+    }
+
+    private drawFilled(g: PIXI.Graphics) {
         let firstPoint = this.lineElements[0];
         g.moveTo(firstPoint.x, firstPoint.y);
 
         for (let i = 1; i < this.lineElements.length; i++) {
             let le: LineElement = this.lineElements[i];
-            if(this.lastColor != null){
-                if (!this.isFilled && i > 1) {
-                    if (le.lineWidth != this.lastLineWidth || le.color != this.lastColor || le.alpha != this.lastAlpha) {
-                        g.stroke({
-                            width: this.lastLineWidth,
-                            color: this.lastColor == null ? 0x0 : this.lastColor,
-                            alpha: this.lastAlpha,
-                            alignment: 0.5
-                        })
-                        this.lastLineWidth = le.lineWidth;
-                        this.lastAlpha = le.alpha;
-                    }
-                }
-            }
             if (le.color != null) {
                 g.lineTo(le.x, le.y);
-                // console.log("LineTo: " + le.x + ", " + le.y);
             } else {
                 g.moveTo(le.x, le.y);
-                // console.log("MoveTo: " + le.x + ", " + le.y);
             }
-            this.lastColor = le.color;
         }
 
-        if (this.isFilled) {
-            g.closePath();
-            g.stroke({
-                width: this.borderWidth,
-                color: this.borderColor,
-                alpha: this.borderAlpha,
-                alignment: 0.5
-            })
-        } else {
-            if (this.lineElements.length > 1) {
-                let lastLineElement = this.lineElements[this.lineElements.length - 1];
-                g.stroke({
-                    width: lastLineElement.lineWidth,
-                    color: lastLineElement.color == null ? 0x0 : lastLineElement.color,
-                    alpha: lastLineElement.alpha,
-                    alignment: 0.5
-                })
-            }
-        }
+        g.closePath();
+        g.stroke({
+            width: this.borderWidth,
+            color: this.borderColor,
+            alpha: this.borderAlpha,
+            alignment: 0.5
+        })
 
-        if (this.fillColor != null && this.isFilled) {
+        if (this.fillColor != null) {
             g.fill(this.fillColor);
             g.alpha = this.fillAlpha;
         }
-
-
-        g.closePath();
-
-    };
+    }
 
 
     _mj$toString$String$(t: Thread, callback: CallbackParameter) {
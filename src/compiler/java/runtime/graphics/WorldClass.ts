@@ -13,6 +13,7 @@ import { ActorType, IActor } from './IActor.ts';
 import { IWorld } from './IWorld.ts';
 import { MouseManager } from './MouseManager.ts';
 import { ShapeClass } from './ShapeClass.ts';
+import { ShapeSpatialIndex } from './ShapeSpatialIndex.ts';
 import { GNGEventListenerType, IGNGEventListener } from './gng/IGNGEventListener.ts';
 import { GNGEventlistenerManager } from './gng/GNGEventlistenerManager.ts';
 import { JRC } from '../../language/JavaRuntimeLibraryComments.ts';
@@ -82,6 +83,7 @@ export class WorldClass extends ObjectClass implements IWorld, GraphicSystem {
     defaultGroup?: GroupClass;
 
     shapesWhichBelongToNoGroup: ShapeClass[] = [];
+    spatialIndex: ShapeSpatialIndex = new ShapeSpatialIndex();
 
     shapesNotAffectedByWorldTransforms: ShapeClass[] = [];
 
@@ -158,6 +160,7 @@ export class WorldClass extends ObjectClass implements IWorld, GraphicSystem {
     }
 
     tick(elapsedMS: number, interpreter: Interpreter) {
+        this.invalidateSpatialIndices();
         this.actorManager.callActMethods(33);
         interpreter.timerFunction(33);
     }
@@ -394,7 +397,18 @@ export class WorldClass extends ObjectClass implements IWorld, GraphicSystem {
 
     }
 
+    /**
+     * Bounding boxes in spatial indices are in screen coordinates, so they have to be
+     * recomputed if world transformation changes. tick does this once per frame, too
+     * (see ShapeSpatialIndex).
+     */
+    invalidateSpatialIndices() {
+        this.spatialIndex.invalidateAll();
+        this.mouseManager?.spatialIndex.invalidateAll();
+    }
+
     computeCurrentWorldBounds() {
+        this.invalidateSpatialIndices();
 
         let p1: PIXI.Point = new PIXI.Point(0, 0);
         this.app.stage.localTransform.applyInverse(p1, p1);
@@ -134,6 +134,7 @@ export class ButtonClass extends GuiTextComponentClass {
             { x: left, y: top + this.height }
         ];
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
 
         this.backgroundGraphics.roundRect(0, 0, this.dotWidth, this.height, this.height / 8);
 
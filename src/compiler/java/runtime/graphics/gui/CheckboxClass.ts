@@ -166,6 +166,7 @@ export class CheckboxClass extends GuiTextComponentClass {
             { x: left, y: top + this.dotWidth }
         ];
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
 
 
         this.backgroundGraphics.roundRect(0, 0, this.dotWidth, this.dotWidth, this.dotWidth / 8);
@@ -240,6 +240,7 @@ export class RadiobuttonClass extends GuiTextComponentClass {
             { x: left, y: top + this.dotWidth }
         ];
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
 
         this.backgroundGraphics.circle(this.dotWidth / 2, this.dotWidth / 2, this.dotWidth / 2);
 
@@ -190,6 +190,7 @@ export class TextfieldClass extends GuiTextComponentClass {
             { x: left + width, y: top + this.height }, { x: left + width, y: top }
         ];
         this.hitPolygonDirty = true;
+        this.markBoundsDirty();
 
         let rLeft = -this.padding;
         let rTop = -this.padding;
@@ -114,11 +114,15 @@ import { JsonElementClass } from "../network/JsonElementClass.ts";
 import { JsonParserClass } from "../network/JsonParserClass.ts";
 import { URLEncoder as URLEncoderClass } from "../network/URLEncoderClass.ts";
 import { CollectionsClass } from "./collections/CollectionsClass.ts";
+import { ArraysClass } from "./collections/ArraysClass.ts";
 import { QueueInterface } from "./collections/QueueInterface.ts";
 import { DequeInterface } from "./collections/DequeueInterface.ts";
 import { LinkedListClass } from "./collections/LinkedListClass.ts";
+import { ArrayDequeClass } from "./collections/ArrayDequeClass.ts";
+import { PriorityQueueClass } from "./collections/PriorityQueueClass.ts";
 import { CharacterClass } from "./primitiveTypes/wrappers/CharacterClass.ts";
 import { MapInterface } from "./collections/MapInterface.ts";
+import { MapEntryInterface } from "./collections/MapEntryInterface.ts";
 import { HashMapClass } from "./collections/HashMapClass.ts";
 import { SetInterface } from "./collections/SetInterface.ts";
 import { HashSetClass } from "./collections/HashSetClass.ts";
@@ -126,6 +130,7 @@ import { EmptyStackExceptionClass } from "./collections/EmptyStackException.ts";
 import { VectorClass } from "./collections/VectorClass.ts";
 import { StackClass } from "./collections/StackClass.ts";
 import { BiConsumerInterface } from "./functional/BiConsumerInterface.ts";
+import { BiFunctionInterface } from "./functional/BiFunctionInterface.ts";
 import { PAppletClass } from "../graphics/processing/PAppletClass.ts";
 import { World3dClass } from "../graphics/3d/World3dClass.ts";
 import { CodeFragment } from "../../../common/disassembler/CodeFragment.ts";
@@ -166,7 +171,7 @@ export class SystemModule extends JavaLibraryModule {
             GamepadClass, KeyListenerInterface, SystemToolsClass, InputClass, SoundClass, FilesClass,
 
             // Functional
-            ConsumerInterface, BiConsumerInterface, FunctionInterface,
+            ConsumerInterface, BiConsumerInterface, FunctionInterface, BiFunctionInterface,
 
             NumberClass, IntegerClass, LongClass, FloatClass, DoubleClass, ShortClass, BooleanClass, CharacterClass,  // boxed primitive types
 
@@ -180,9 +185,9 @@ export class SystemModule extends JavaLibraryModule {
             // Collections
             IteratorInterface, IterableInterface, CollectionInterface, ListInterface, ArrayListClass,
 
-            CollectionsClass,
-            QueueInterface, DequeInterface, LinkedListClass,
-            SetInterface, MapInterface, HashMapClass, HashSetClass,
+            CollectionsClass, ArraysClass,
+            QueueInterface, DequeInterface, LinkedListClass, ArrayDequeClass, PriorityQueueClass,
+            SetInterface, MapInterface, MapEntryInterface, HashMapClass, HashSetClass,
             VectorClass, StackClass,
 
             // Thread
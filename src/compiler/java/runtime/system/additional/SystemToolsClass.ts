@@ -1,5 +1,5 @@
 import { JRC } from "../../../language/JavaRuntimeLibraryComments";
-import { Thread, ThreadState } from "../../../../common/interpreter/Thread";
+import { Thread } from "../../../../common/interpreter/Thread";
 import { LibraryDeclarations } from "../../../module/libraries/DeclareType";
 import { ObjectClass, StringClass } from "../javalang/ObjectClassStringClass";
 import { RuntimeExceptionClass } from "../javalang/RuntimeException";
@@ -35,12 +35,7 @@ export class SystemToolsClass extends ObjectClass {
             throw new RuntimeExceptionClass(JRC.SystemToolsPauseTimeLower0())
         }
         if(milliseconds == 0) return;
-        t.state = ThreadState.timedWaiting;
-        setTimeout(() => {
-            if(t.state == ThreadState.timedWaiting){
-                t.state = ThreadState.runnable;
-            }
-        }, milliseconds);
+        t.scheduler.sleep(t, milliseconds);
     }
 
     static _mj$getStepCount$int$(t: Thread) {
@@ -22,7 +22,7 @@ export class TimerClass extends ObjectClass {
     static type: NonPrimitiveType;
 
     state: TimerState = "running";
-    intervalIds: any[] = [];
+    intervalIds: number[] = [];      // ids of timers of scheduler's clock
 
     isCurrentlyRunning: boolean[] = [];
 
@@ -33,7 +33,7 @@ export class TimerClass extends ObjectClass {
     }
 
     static _mj$executeLater$void$Runnable$int(t: Thread, runnable: RunnableInterface, dt: number){
-        setTimeout(() => {
+        t.scheduler.clock.setTimeout(() => {
             if([SchedulerState.running, SchedulerState.paused].indexOf(t.scheduler.state) < 0) return;
             let newThread = t.scheduler.createThread("timer-thread");
             runnable._mj$run$void$(newThread, undefined);
@@ -44,17 +44,12 @@ export class TimerClass extends ObjectClass {
 
     _mj$repeat$void$Runnable$int(t: Thread, callback: CallbackFunction, runnable: RunnableInterface, dt: number){
 
-        if(this.intervalIds.length == 0){
-            t.scheduler.interpreter.eventManager.once("stop", () => {
-                this.intervalIds.forEach(id => clearInterval(id))
-            })
-        }
-
+        // scheduler clears all timers of it's clock when program stops
         let index = this.intervalIds.length;
         this.isCurrentlyRunning.push(false);
         let that = this;
 
-        this.intervalIds.push(setInterval(() => {
+        this.intervalIds.push(t.scheduler.clock.setInterval(() => {
             if(t.scheduler.state == SchedulerState.running && that.state == "running" && !that.isCurrentlyRunning[index]){
                 let newThread = t.scheduler.createThread("timer-thread");
                 runnable._mj$run$void$(newThread, undefined);
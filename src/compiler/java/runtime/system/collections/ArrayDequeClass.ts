@@ -0,0 +1,20 @@
+import { JRC } from "../../../language/JavaRuntimeLibraryComments";
+import { LibraryDeclarations } from "../../../module/libraries/DeclareType.ts";
+import { NonPrimitiveType } from "../../../types/NonPrimitiveType.ts";
+import { LinkedListClass } from "./LinkedListClass.ts";
+
+/**
+ * LinkedList is backed by a ring buffer, too, so ArrayDeque just reuses its implementation.
+ */
+export class ArrayDequeClass extends LinkedListClass {
+    static __javaDeclarations: LibraryDeclarations = [
+        { type: "declaration", signature: "class ArrayDeque<E> implements Deque<E>", comment: JRC.arrayDequeClassComment },
+
+        { type: "method", signature: "ArrayDeque()", native: ArrayDequeClass.prototype._constructor, comment: JRC.arrayDequeConstructorComment },
+
+        ...LinkedListClass.dequeMethodDeclarations
+    ]
+
+    static type: NonPrimitiveType;
+
+}
@@ -0,0 +1,76 @@
+import { JRC } from "../../../language/JavaRuntimeLibraryComments";
+import { CallbackFunction } from "../../../../common/interpreter/StepFunction";
+import { Thread } from "../../../../common/interpreter/Thread";
+import { LibraryDeclarations } from "../../../module/libraries/DeclareType";
+import { NonPrimitiveType } from "../../../types/NonPrimitiveType";
+import { NullPointerExceptionClass } from "../javalang/NullPointerExceptionClass";
+import { ObjectClass } from "../javalang/ObjectClassStringClass";
+import { ComparatorInterface } from "./ComparatorInterface";
+import { SystemCollection } from "./SystemCollection";
+
+type NumberArrayConstructor = Int8ArrayConstructor | Int16ArrayConstructor | Int32ArrayConstructor | Float64ArrayConstructor;
+
+export class ArraysClass extends ObjectClass {
+    static __javaDeclarations: LibraryDeclarations = [
+        { type: "declaration", signature: "class Arrays extends Object", comment: JRC.ArraysClassComment },
+        { type: "method", signature: "static void sort(byte[] a)", native: ArraysClass.sortByteArray, comment: JRC.ArraysSortPrimitiveComment },
+        { type: "method", signature: "static void sort(short[] a)", native: ArraysClass.sortShortArray, comment: JRC.ArraysSortPrimitiveComment },
+        { type: "method", signature: "static void sort(int[] a)", native: ArraysClass.sortIntArray, comment: JRC.ArraysSortPrimitiveComment },
+        { type: "method", signature: "static void sort(long[] a)", native: ArraysClass.sortFloatingPointArray, comment: JRC.ArraysSortPrimitiveComment },
+        { type: "method", signature: "static void sort(float[] a)", native: ArraysClass.sortFloatingPointArray, comment: JRC.ArraysSortPrimitiveComment },
+        { type: "method", signature: "static void sort(double[] a)", native: ArraysClass.sortFloatingPointArray, comment: JRC.ArraysSortPrimitiveComment },
+        { type: "method", signature: "static void sort(char[] a)", native: ArraysClass.sortCharArray, comment: JRC.ArraysSortPrimitiveComment },
+        { type: "method", signature: "static void sort(Object[] a)", java: ArraysClass.sortObjectArray, comment: JRC.ArraysSortComparableComment },
+        { type: "method", signature: "static <T> void sort(T[] a, Comparator<? super T> c)", java: ArraysClass.sortObjectArray, comment: JRC.ArraysSortWithComparatorComment },
+    ];
+
+    static type: NonPrimitiveType;
+
+    static sortByteArray(a: number[]) {
+        ArraysClass.sortNumbers(a, Int8Array);
+    }
+
+    static sortShortArray(a: number[]) {
+        ArraysClass.sortNumbers(a, Int16Array);
+    }
+
+    static sortIntArray(a: number[]) {
+        ArraysClass.sortNumbers(a, Int32Array);
+    }
+
+    /**
+     * long values are javascript numbers, too. As in java NaN is sorted to the end and -0.0 before 0.0.
+     */
+    static sortFloatingPointArray(a: number[]) {
+        ArraysClass.sortNumbers(a, Float64Array);
+    }
+
+    /**
+     * Typed arrays sort numerically with native code and without calling a compare function,
+     * which is much faster than Array.sort((a, b) => a - b).
+     */
+    private static sortNumbers(a: number[], typedArrayConstructor: NumberArrayConstructor) {
+        if (a == null) throw new NullPointerExceptionClass(JRC.ArraysSortNullPointerException());
+        if (ArrayBuffer.isView(a)) {
+            (<any>a).sort();
+            return;
+        }
+        let typedArray = typedArrayConstructor.from(a);
+        typedArray.sort();
+        for (let i = 0; i < a.length; i++) a[i] = typedArray[i];
+    }
+
+    /**
+     * chars are strings of length 1, default sort order of javascript (utf-16 code units) is the order of java.
+     */
+    static sortCharArray(a: string[]) {
+        if (a == null) throw new NullPointerExceptionClass(JRC.ArraysSortNullPointerException());
+        a.sort();
+    }
+
+    static sortObjectArray(t: Thread, callback: CallbackFunction, a: ObjectClass[], comparator?: ComparatorInterface) {
+        if (a == null) throw new NullPointerExceptionClass(JRC.ArraysSortNullPointerException());
+        SystemCollection.mergeSort(t, callback, comparator || null, a);
+    }
+
+}
@@ -4,7 +4,6 @@ import { Thread } from "../../../../common/interpreter/Thread";
 import { LibraryDeclarations } from "../../../module/libraries/DeclareType";
 import { NonPrimitiveType } from "../../../types/NonPrimitiveType";
 import { ObjectClass } from "../javalang/ObjectClassStringClass";
-import { ComparableInterface } from "./ComparableInterface";
 import { ComparatorInterface } from "./ComparatorInterface";
 import { ListInterface } from "./ListInterface";
 import { SystemCollection } from "./SystemCollection";
@@ -14,7 +13,7 @@ export class CollectionsClass extends ObjectClass {
         { type: "declaration", signature: "class Collections extends Object", comment: JRC.CollectionsClassComment},
         { type: "method", signature: "static void shuffle(List<?> list)", java: CollectionsClass.shuffle, comment: JRC.CollectionsShuffleComment},
         { type: "method", signature: "static <T extends Comparable> void sort(List<T> list)", java: CollectionsClass.sortComparableList, comment: JRC.CollectionsSortComparableListComment},
-        { type: "method", signature: "static <T> void sort(List<T> list, Comparator<? super T> comparator)", java: CollectionsClass.sortComparableList, comment: JRC.CollectionsSortComparableListComment},
+        { type: "method", signature: "static <T> void sort(List<T> list, Comparator<? super T> comparator)", java: CollectionsClass.sortComparableList, comment: JRC.CollectionsSortWithComparatorComment},
     ];
 
     static type: NonPrimitiveType;
@@ -76,28 +75,12 @@ export class CollectionsClass extends ObjectClass {
     }
 
 
-    static sortComparableList(t: Thread, callback: CallbackFunction, list: ListInterface){
+    /**
+     * Collections.sort(list) and Collections.sort(list, comparator)
+     */
+    static sortComparableList(t: Thread, callback: CallbackFunction, list: ListInterface, comparator?: ComparatorInterface){
 
-        let comparator: ComparatorInterface = {
-            _mj$compare$int$T$T: function (t: Thread, callback: CallbackFunction, object1: ObjectClass, object2: ObjectClass): void {
-                if(object1 == null){
-                    t.s.push(1);
-                    if(callback) callback();
-                    return;
-                }
-                
-                if(object2 == null){
-                    t.s.push(-1);
-                    if(callback) callback();
-                    return;
-                }
-
-                (<ComparableInterface><any>object1)._mj$compareTo$int$T(t, callback, object2);
-                return;
-            }
-        }
-
-        CollectionsClass.sortListWithComparator(t, callback, list, comparator);
+        CollectionsClass.sortListWithComparator(t, callback, list, comparator || SystemCollection.naturalOrderComparator);
         
     }
 
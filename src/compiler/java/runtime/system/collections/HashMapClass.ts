@@ -4,14 +4,12 @@ import { Thread } from "../../../../common/interpreter/Thread.ts";
 import { LibraryDeclarations } from "../../../module/libraries/DeclareType.ts";
 import { NonPrimitiveType } from "../../../types/NonPrimitiveType.ts";
 import { BiConsumerInterface } from "../functional/BiConsumerInterface.ts";
-import { ObjectClass, StringClass } from "../javalang/ObjectClassStringClass.ts";
+import { BiFunctionInterface } from "../functional/BiFunctionInterface.ts";
+import { NullPointerExceptionClass } from "../javalang/NullPointerExceptionClass.ts";
+import { ObjectClass, ObjectClassOrNull, StringClass } from "../javalang/ObjectClassStringClass.ts";
 import { ArrayListClass } from "./ArrayListClass.ts";
 import { HashSetClass } from "./HashSetClass.ts";
-
-type Value = {
-    k: ObjectClass | null;
-    v: ObjectClass | null;
-}
+import { HashTableEntry, JavaHashTable } from "./JavaHashTable.ts";
 
 export class HashMapClass extends ObjectClass {
     static __javaDeclarations: LibraryDeclarations = [
@@ -22,14 +20,19 @@ export class HashMapClass extends ObjectClass {
         // from Map-interface
         { type: "method", signature: "int size()", native: HashMapClass.prototype._size, comment: JRC.mapSizeComment },
         { type: "method", signature: "boolean isEmpty()", native: HashMapClass.prototype._isEmpty, comment: JRC.mapIsEmptyComment },
-        { type: "method", signature: "boolean containsKey(K key)", native: HashMapClass.prototype._containsKey, comment: JRC.mapContainsKeyComment },
-        { type: "method", signature: "boolean containsValue(V value)", native: HashMapClass.prototype._containsValue, comment: JRC.mapContainsValueComment },
-        { type: "method", signature: "V get(K key)", native: HashMapClass.prototype._get, comment: JRC.mapGetComment },
-        { type: "method", signature: "V put(K key, V value)", native: HashMapClass.prototype._put, comment: JRC.mapPutComment },
+        { type: "method", signature: "boolean containsKey(K key)", java: HashMapClass.prototype._mj$containsKey$boolean$K, comment: JRC.mapContainsKeyComment },
+        { type: "method", signature: "boolean containsValue(V value)", java: HashMapClass.prototype._mj$containsValue$boolean$V, comment: JRC.mapContainsValueComment },
+        { type: "method", signature: "V get(K key)", java: HashMapClass.prototype._mj$get$V$K, comment: JRC.mapGetComment },
+        { type: "method", signature: "V getOrDefault(K key, V defaultValue)", java: HashMapClass.prototype._mj$getOrDefault$V$K$V, comment: JRC.mapGetOrDefaultComment },
+        { type: "method", signature: "V put(K key, V value)", java: HashMapClass.prototype._mj$put$V$K$V, comment: JRC.mapPutComment },
+        { type: "method", signature: "V putIfAbsent(K key, V value)", java: HashMapClass.prototype._mj$putIfAbsent$V$K$V, comment: JRC.mapPutIfAbsentComment },
+        { type: "method", signature: "V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction)", java: HashMapClass.prototype._mj$merge$V$K$V$BiFunction, comment: JRC.mapMergeComment },
+        { type: "method", signature: "V remove(K key)", java: HashMapClass.prototype._mj$remove$V$K, comment: JRC.mapRemoveComment },
         { type: "method", signature: "void clear()", native: HashMapClass.prototype._clear, comment: JRC.mapClearComment },
         { type: "method", signature: "void forEach(BiConsumer<? super K, ? super V> action)", java: HashMapClass.prototype._mj$forEach$void$BiConsumer, comment: JRC.mapForeachComment },
         { type: "method", signature: "Collection<V> values()", java: HashMapClass.prototype._mj$values$Collection$, comment: JRC.mapValuesComment },
         { type: "method", signature: "Set<K> keySet()", java: HashMapClass.prototype._mj$keySet$Set$, comment: JRC.mapKeySetComment },
+        { type: "method", signature: "Set<Map.Entry<K, V>> entrySet()", java: HashMapClass.prototype._mj$entrySet$Set$, comment: JRC.mapEntrySetComment },
 
         // override toString-method
         { type: "method", signature: "String toString()", java: HashMapClass.prototype._mj$toString$String$, comment: JRC.objectToStringComment },
@@ -39,82 +42,163 @@ export class HashMapClass extends ObjectClass {
 
     static type: NonPrimitiveType;
 
-    map: Map<any, Value> = new Map();
+    table: JavaHashTable = new JavaHashTable();
 
     _constructor() {
         return this;
     }
 
     _size() {
-        return this.map.size;
+        return this.table.size;
     }
 
     _isEmpty() {
-        return this.map.size == 0;
+        return this.table.size == 0;
     }
 
-    _containsKey(key: ObjectClass) {
-        if (key == null) {
-            return (typeof this.map.get(null)) !== "undefined";
-        } else {
-            let hashCode = key.__internalHashCode();
-            return (typeof this.map.get(hashCode)) !== "undefined";
+    _containsValue(value: ObjectClassOrNull) {
+        for (let entry = this.table.first; entry; entry = entry.after) {
+            if (JavaHashTable.fastEquals(value, entry.value)) return true;
         }
+        return false;
     }
 
-    _values() {
-        let values: (ObjectClass | null)[] = [];
-        this.map.forEach((v, k) => values.push(v.v));
-        return values;
+    _mj$containsKey$boolean$K(t: Thread, callback: CallbackFunction, key: ObjectClassOrNull) {
+        if (JavaHashTable.isFastKey(key)) {
+            t.s.push(this.table.findEntryWithFastKey(key, JavaHashTable.fastHash(key)) !== undefined);
+            if (callback) callback();
+            return;
+        }
+
+        this.table.findEntry(t, key, (entry) => {
+            t.s.push(entry !== undefined);
+            if (callback) callback();
+        });
     }
 
-    _containsValue(value: ObjectClass) {
-        let ret: boolean = false;
-        for (let v of this.map.values()) {
-            if (v.v == value) {
-                ret = true;
-                break;
-            }
+    _mj$containsValue$boolean$V(t: Thread, callback: CallbackFunction, value: ObjectClassOrNull) {
+        if (JavaHashTable.isFastKey(value)) {
+            t.s.push(this._containsValue(value));
+            if (callback) callback();
+            return;
         }
-        return ret;
+
+        // value's class overrides equals => call it for each value
+        let found = false;
+        JavaHashTable.forEachSequentially(this.table.getValues(), (v, done) => {
+            if (found) { done(); return; }
+            value!._mj$equals$boolean$Object(t, () => {
+                if (t.s.pop()) found = true;
+                done();
+            }, v);
+        }, () => {
+            t.s.push(found);
+            if (callback) callback();
+        });
+    }
+
+    _mj$get$V$K(t: Thread, callback: CallbackFunction, key: ObjectClassOrNull) {
+        this._mj$getOrDefault$V$K$V(t, callback, key, null);
     }
 
-    _get(key: ObjectClass) {
-        if (key == null) {
-            return this.map.get(null)?.v || null;
-        } else {
-            let hashCode = key.__internalHashCode();
-            return this.map.get(hashCode)?.v || null;
+    _mj$getOrDefault$V$K$V(t: Thread, callback: CallbackFunction, key: ObjectClassOrNull, defaultValue: ObjectClassOrNull) {
+        if (JavaHashTable.isFastKey(key)) {
+            let entry = this.table.findEntryWithFastKey(key, JavaHashTable.fastHash(key));
+            t.s.push(entry ? entry.value : defaultValue);
+            if (callback) callback();
+            return;
         }
+
+        this.table.findEntry(t, key, (entry) => {
+            t.s.push(entry ? entry.value : defaultValue);
+            if (callback) callback();
+        });
     }
 
-    _put(key: ObjectClass, value: ObjectClass) {
-        if (key == null) {
-            let oldValue = this.map.get(null) || null;
-            this.map.set(null, { k: null, v: value });
-            return oldValue;
-        } else {
-            let hashCode = key.__internalHashCode();
-            let oldValue = this.map.get(hashCode);
-            this.map.set(hashCode, { k: key, v: value });
+    _mj$put$V$K$V(t: Thread, callback: CallbackFunction, key: ObjectClassOrNull, value: ObjectClassOrNull) {
+        if (JavaHashTable.isFastKey(key)) {
+            let hash = JavaHashTable.fastHash(key);
+            t.s.push(this.putEntry(this.table.findEntryWithFastKey(key, hash), key, value, hash));
+            if (callback) callback();
+            return;
+        }
+
+        this.table.findEntry(t, key, (entry, hash) => {
+            t.s.push(this.putEntry(entry, key, value, hash));
+            if (callback) callback();
+        });
+    }
+
+    /**
+     * returns old value
+     */
+    private putEntry(entry: HashTableEntry | undefined, key: ObjectClassOrNull, value: ObjectClassOrNull, hash: number): ObjectClassOrNull {
+        if (entry) {
+            let oldValue = entry.value;
+            entry.value = value;
             return oldValue;
         }
+        this.table.add(key, value, hash);
+        return null;
+    }
+
+    _mj$putIfAbsent$V$K$V(t: Thread, callback: CallbackFunction, key: ObjectClassOrNull, value: ObjectClassOrNull) {
+        this.table.findEntry(t, key, (entry, hash) => {
+            let oldValue = entry ? entry.value : null;
+            if (oldValue == null) this.putEntry(entry, key, value, hash);
+            t.s.push(oldValue);
+            if (callback) callback();
+        });
+    }
+
+    _mj$merge$V$K$V$BiFunction(t: Thread, callback: CallbackFunction, key: ObjectClassOrNull, value: ObjectClassOrNull, remappingFunction: BiFunctionInterface) {
+        if (value == null || remappingFunction == null) {
+            throw new NullPointerExceptionClass(JRC.mapMergeNullPointerException());
+        }
+
+        this.table.findEntry(t, key, (entry, hash) => {
+            if (!entry || entry.value == null) {
+                this.putEntry(entry, key, value, hash);
+                t.s.push(value);
+                if (callback) callback();
+                return;
+            }
+
+            let existingEntry = entry;
+            remappingFunction._mj$apply$R$T$U(t, () => {
+                let newValue = t.s.pop();
+                if (newValue == null) {
+                    this.table.remove(existingEntry);
+                } else {
+                    existingEntry.value = newValue;
+                }
+                t.s.push(newValue);
+                if (callback) callback();
+            }, existingEntry.value, value);
+        });
+    }
+
+    _mj$remove$V$K(t: Thread, callback: CallbackFunction, key: ObjectClassOrNull) {
+        this.table.findEntry(t, key, (entry) => {
+            if (entry) this.table.remove(entry);
+            t.s.push(entry ? entry.value : null);
+            if (callback) callback();
+        });
     }
 
     _clear() {
-        this.map.clear();
+        this.table.clear();
     }
 
     _mj$forEach$void$BiConsumer(t: Thread, callback: CallbackFunction, biConsumer: BiConsumerInterface) {
 
         let index: number = -1;
-        let elements: Value[] = [];
-        this.map.forEach((v, k) => elements.push(v));
+        let elements: HashTableEntry[] = this.table.getEntries();
 
         let f = () => {
             index++;
             if (index < elements.length) {
-                biConsumer._mj$accept$void$T$U(t, f, elements[index].k!, elements[index].v!);
+                biConsumer._mj$accept$void$T$U(t, f, elements[index].key, elements[index].value);
             } else {
                 if (callback) callback();
             }
@@ -126,22 +210,31 @@ export class HashMapClass extends ObjectClass {
 
     _mj$values$Collection$(t: Thread, callback: CallbackFunction) {
         //@ts-ignore
-        t.s.push(new ArrayListClass(this._values()))
+        t.s.push(new ArrayListClass(this.table.getValues()))
         if (callback) callback();
     }
 
     _mj$keySet$Set$(t: Thread, callback: CallbackFunction) {
         let set = new HashSetClass();
-        this.map.forEach((v, k) => {
-            set._add(v.k!);
-        })
+        for (let entry = this.table.first; entry; entry = entry.after) {
+            // keys are distinct, so we don't need to compare them again
+            set.table.add(entry.key, null, entry.hash);
+        }
         t.s.push(set);
-        if (callback) callback;
+        if (callback) callback();
+    }
+
+    _mj$entrySet$Set$(t: Thread, callback: CallbackFunction) {
+        let set = new HashSetClass();
+        for (let entry = this.table.first; entry; entry = entry.after) {
+            set.table.add(entry, null, JavaHashTable.fastHash(entry));
+        }
+        t.s.push(set);
+        if (callback) callback();
     }
 
     _mj$toString$String$(t: Thread, callback: CallbackFunction) {
-        let entries: Value[] = [];
-        this.map.forEach((v, k) => entries.push(v));
+        let entries: HashTableEntry[] = this.table.getEntries();
 
         let s = "[";
         let index = -1;
@@ -149,7 +242,7 @@ export class HashMapClass extends ObjectClass {
 
         let f: (callback: () => void) => void;
 
-        let processValue = (value: ObjectClass | null, callback: () => void) => {
+        let processValue = (value: ObjectClassOrNull, callback: () => void) => {
             s += " = ";
             if(value == null) {
                 s += "null";
@@ -160,7 +253,7 @@ export class HashMapClass extends ObjectClass {
                     f(callback);
                 });
             }
-            
+
         }
 
         f = (callback: () => void) => {
@@ -169,17 +262,17 @@ export class HashMapClass extends ObjectClass {
                 s += "]";
                 callback();
                 return;
-            } 
+            }
             let entry = entries[index];
             if(index > 0) s += ", ";
             s += "{";
-            if(entry.k == null) {
+            if(entry.key == null) {
                 s += "null";
-                processValue(entry.v, callback);
+                processValue(entry.value, callback);
             } else {
-                entry.k._mj$toString$String$(t, () => {
+                entry.key._mj$toString$String$(t, () => {
                     s += t.s.pop().value;
-                    processValue(entry.v, callback);
+                    processValue(entry.value, callback);
                 });
             }
 
@@ -193,4 +286,4 @@ export class HashMapClass extends ObjectClass {
     }
 
 
-}
\ No newline at end of file
+}
@@ -8,6 +8,7 @@ import { NullPointerExceptionClass } from "../javalang/NullPointerExceptionClass
 import { ObjectClass, ObjectClassOrNull, StringClass } from "../javalang/ObjectClassStringClass.ts";
 import { CollectionInterface } from "./CollectionInterface.ts";
 import { IteratorInterface } from "./IteratorInterface.ts";
+import { JavaHashTable } from "./JavaHashTable.ts";
 import { SystemCollection } from "./SystemCollection.ts";
 
 
@@ -22,7 +23,7 @@ export class HashSetClass extends ObjectClass {
         { type: "method", signature: "void forEach(Consumer<? super E> action)", java: HashSetClass.prototype._mj$forEach$void$Consumer, comment: JRC.iterableForEachComment },
 
         // from Collection
-        { type: "method", signature: "boolean add(E e)", native: HashSetClass.prototype._add, comment: JRC.collectionAddElementComment },
+        { type: "method", signature: "boolean add(E e)", java: HashSetClass.prototype._mj$add$boolean$E, comment: JRC.collectionAddElementComment },
         { type: "method", signature: "boolean addAll(Collection<? extends E> c)", java: HashSetClass.prototype._mj$addAll$boolean$Collection, comment: JRC.collectionAddAllComment },
         { type: "method", signature: "void clear()", java: HashSetClass.prototype._mj$clear$void$, comment: JRC.collectionClearComment },
         { type: "method", signature: "boolean contains(E element)", java: HashSetClass.prototype._mj$contains$boolean$E, comment: JRC.collectionContainsComment },
@@ -46,27 +47,24 @@ export class HashSetClass extends ObjectClass {
 
     static type: NonPrimitiveType;
 
-    map: Map<any, any>; // maps keys/hashCodes to original keys
-
-    constructor(map?: Map<any, any>) {
-        super();
-        this.map = map || new Map();
-    }
+    table: JavaHashTable = new JavaHashTable();
 
     _constructor() {
         return this;
     }
 
 
-    _mj$contains$boolean$E(t: Thread, callback: CallbackFunction, element: ObjectClass | null) {
-        if (element == null) {
-            t.s.push((typeof this.map.get(null)) != "undefined");
-        } else {
-            let hashCode = element.__internalHashCode();
-            t.s.push((typeof this.map.get(hashCode)) != "undefined");
+    _mj$contains$boolean$E(t: Thread, callback: CallbackFunction, element: ObjectClassOrNull) {
+        if (JavaHashTable.isFastKey(element)) {
+            t.s.push(this.table.findEntryWithFastKey(element, JavaHashTable.fastHash(element)) !== undefined);
+            if (callback) callback();
+            return;
         }
-        if (callback) callback();
-        return;
+
+        this.table.findEntry(t, element, (entry) => {
+            t.s.push(entry !== undefined);
+            if (callback) callback();
+        });
     }
 
     _mj$containsAll$boolean$Collection(t: Thread, callback: CallbackFunction, collection: CollectionInterface) {
@@ -74,89 +72,104 @@ export class HashSetClass extends ObjectClass {
             throw new NullPointerExceptionClass(JRC.collectionContainsAllNullPointerException());
         }
 
-
-        let f = (t: Thread, callback: CallbackFunction, elementsToCheck: ObjectClassOrNull[]) => {
-
-            if (elementsToCheck.length > 0) {
-                this._mj$contains$boolean$E(t, () => {
-                    if (t.s.pop()) {
-                        f(t, callback, elementsToCheck);
-                    } else {
-                        t.s.push(false);
-                        if (callback) callback();
-                    }
-                }, elementsToCheck.pop()!);
-            } else {
-                t.s.push(true);
+        let f = (elementsToCheck: ObjectClassOrNull[]) => {
+            let containsAll = true;
+            JavaHashTable.forEachSequentially(elementsToCheck, (element, done) => {
+                if (!containsAll) { done(); return; }
+                this.table.findEntry(t, element, (entry) => {
+                    if (!entry) containsAll = false;
+                    done();
+                });
+            }, () => {
+                t.s.push(containsAll);
                 if (callback) callback();
-            }
-
+            });
         }
 
         if (collection instanceof SystemCollection) {
-            let elementsToCheck = collection.getAllElements().slice();
-            f(t, callback, elementsToCheck);
-            return;
+            f(collection.getAllElements().slice());
         } else {
             collection._mj$toArray$Object_I$(t, () => {
-                let elementsToCheck = <any[]>t.s.pop();
-                f(t, callback, elementsToCheck.slice());
-                return;
+                f((<any[]>t.s.pop()).slice());
             })
         }
 
     }
 
-    _add(element: ObjectClassOrNull): boolean {
-        if (element == null) {
-            let oldValue = this.map.get(null);
-            this.map.set(null, element);
-            return typeof oldValue == "undefined";
-        } else {
-            let hashCode = element.__internalHashCode();
-            let oldValue = this.map.get(hashCode);
-            this.map.set(hashCode, element);
-            return typeof oldValue == "undefined";
+    /**
+     * returns true if element has been added
+     */
+    private addElements(t: Thread, elements: ObjectClassOrNull[], callback: (changed: boolean) => void) {
+        let changed = false;
+        JavaHashTable.forEachSequentially(elements, (element, done) => {
+            this.table.findEntry(t, element, (entry, hash) => {
+                if (!entry) {
+                    this.table.add(element, null, hash);
+                    changed = true;
+                }
+                done();
+            });
+        }, () => callback(changed));
+    }
+
+    _mj$add$boolean$E(t: Thread, callback: CallbackFunction, element: ObjectClassOrNull) {
+        if (JavaHashTable.isFastKey(element)) {
+            let hash = JavaHashTable.fastHash(element);
+            let isNew = this.table.findEntryWithFastKey(element, hash) === undefined;
+            if (isNew) this.table.add(element, null, hash);
+            t.s.push(isNew);
+            if (callback) callback();
+            return;
         }
-    };
+
+        this.addElements(t, [element], (changed) => {
+            t.s.push(changed);
+            if (callback) callback();
+        });
+    }
 
     _mj$addAll$boolean$Collection(t: Thread, callback: CallbackFunction, collection: CollectionInterface) {
         if (collection == null) {
             throw new NullPointerExceptionClass(JRC.collectionAddAllNullPointerException());
         }
 
-        if (collection instanceof SystemCollection) {
-            collection.getAllElements().forEach(element => this._add(element));
-            t.s.push(true);
+        let f = (changed: boolean) => {
+            t.s.push(changed);
             if (callback) callback();
+        }
+
+        if (collection instanceof SystemCollection) {
+            this.addElements(t, collection.getAllElements().slice(), f);
             return;
         }
 
         collection._mj$toArray$Object_I$(t, () => {
             let newElements = t.s.pop();
             if (newElements != null && Array.isArray(newElements)) {
-                newElements.forEach(element => this._add(element));
-                t.s.push(true);
-                if (callback) callback();
+                this.addElements(t, newElements, f);
             }
         })
 
     };
 
-    _mj$remove$boolean$E(t: Thread, callback: CallbackFunction, element: ObjectClassOrNull) {
-        if (element == null) {
-            let oldValue = this.map.get(null);
-            t.s.push(typeof oldValue == "undefined");
-            this.map.delete(null);
-        } else {
-            let hashCode = element.__internalHashCode();
-            let oldValue = this.map.get(hashCode);
-            t.s.push(typeof oldValue == "undefined");
-            this.map.delete(hashCode);
-        }
-        if (callback) callback();
-        return;
+    private removeElements(t: Thread, elements: ObjectClassOrNull[], callback: (changed: boolean) => void) {
+        let changed = false;
+        JavaHashTable.forEachSequentially(elements, (element, done) => {
+            this.table.findEntry(t, element, (entry) => {
+                if (entry) {
+                    this.table.remove(entry);
+                    changed = true;
+                }
+                done();
+            });
+        }, () => callback(changed));
+    }
 
+    _mj$remove$boolean$E(t: Thread, callback: CallbackFunction, element: ObjectClassOrNull) {
+        this.removeElements(t, [element], (changed) => {
+            t.s.push(changed);
+            if (callback) callback();
+        });
     };
 
     _mj$removeAll$boolean$Collection(t: Thread, callback: CallbackFunction, collection: CollectionInterface) {
@@ -164,30 +177,27 @@ export class HashSetClass extends ObjectClass {
             throw new NullPointerExceptionClass(JRC.collectionAddAllNullPointerException());
         }
 
-        if (collection instanceof SystemCollection) {
-            collection.getAllElements().forEach(element => this._mj$remove$boolean$E(t, undefined, element));
-            t.s.push(true);
+        let f = (changed: boolean) => {
+            t.s.push(changed);
             if (callback) callback();
+        }
+
+        if (collection instanceof SystemCollection) {
+            this.removeElements(t, collection.getAllElements().slice(), f);
             return;
         }
 
         collection._mj$toArray$Object_I$(t, () => {
-            let newElements = t.s.pop();
-            if (newElements != null && Array.isArray(newElements)) {
-                newElements.forEach(element => this._mj$remove$boolean$E(t, undefined, element));
-                t.s.push(true);
-                if (callback) callback();
+            let elements = t.s.pop();
+            if (elements != null && Array.isArray(elements)) {
+                this.removeElements(t, elements, f);
             }
         })
 
     };
 
-    private toArray(): ObjectClass[] {
-        let keys: ObjectClass[] = [];
-        for (let v of this.map.values()) {
-            keys.push(v);
-        }
-        return keys;
+    private toArray(): ObjectClassOrNull[] {
+        return this.table.getKeys();
     }
 
     _mj$toArray$Object_I$(t: Thread, callback: CallbackFunction) {
@@ -201,19 +211,20 @@ export class HashSetClass extends ObjectClass {
 
 
     _mj$size$int$(t: Thread, callback: CallbackFunction) {
-        t.s.push(this.map.size);
+        t.s.push(this.table.size);
         if (callback) callback();
         return;
     }
 
     _mj$isEmpty$boolean$(t: Thread, callback: CallbackFunction) {
-        t.s.push(this.map.size == 0);
+        t.s.push(this.table.size == 0);
         if (callback) callback();
         return;
     }
 
     _mj$clear$void$(t: Thread, callback: CallbackFunction) {
-        this.map.clear();
+        this.table.clear();
+        if (callback) callback();
     }
 
     _mj$iterator$Iterator$(t: Thread, callback: CallbackFunction) {
@@ -221,7 +232,7 @@ export class HashSetClass extends ObjectClass {
 
         let nextIndex = 0;
 
-        let elements: ObjectClass[] = this.toArray();
+        let elements: ObjectClassOrNull[] = this.toArray();
 
         //@ts-ignore
         iterator["_mj$hasNext$boolean$"] = (t: Thread, callback: CallbackFunction) => {
@@ -262,8 +273,7 @@ export class HashSetClass extends ObjectClass {
 
     _mj$toString$String$(t: Thread, callback: CallbackFunction) {
 
-        let keys: ObjectClass[] = [];
-        this.map.forEach((v, k) => keys.push(v));
+        let keys: ObjectClassOrNull[] = this.toArray();
 
         if(keys.length == 0){
             t.s.push("[]");
@@ -0,0 +1,320 @@
+import { CallbackFunction } from "../../../../common/interpreter/StepFunction.ts";
+import { Thread } from "../../../../common/interpreter/Thread.ts";
+import { ObjectClass, ObjectClassOrNull, StringClass } from "../javalang/ObjectClassStringClass.ts";
+import { MapEntryInterface } from "./MapEntryInterface.ts";
+
+export class HashTableEntry extends MapEntryInterface {
+
+    nextInBucket?: HashTableEntry;
+
+    // doubly linked list of all entries in insertion order
+    before?: HashTableEntry;
+    after?: HashTableEntry;
+
+    constructor(public key: ObjectClassOrNull, public value: any, public hash: number) {
+        super();
+    }
+
+    _mj$getKey$K$(t: Thread, callback: CallbackFunction) {
+        t.s.push(this.key);
+        if (callback) callback();
+    }
+
+    _mj$getValue$V$(t: Thread, callback: CallbackFunction) {
+        t.s.push(this.value);
+        if (callback) callback();
+    }
+
+    _mj$setValue$V$V(t: Thread, callback: CallbackFunction, value: ObjectClassOrNull) {
+        t.s.push(this.value);
+        this.value = value;
+        if (callback) callback();
+    }
+
+    _mj$toString$String$(t: Thread, callback: CallbackFunction) {
+        let s = "";
+        let appendValue = () => {
+            s += "=";
+            if (this.value == null) {
+                t.s.push(new StringClass(s + "null"));
+                if (callback) callback();
+            } else {
+                this.value._mj$toString$String$(t, () => {
+                    t.s.push(new StringClass(s + t.s.pop().value));
+                    if (callback) callback();
+                });
+            }
+        }
+
+        if (this.key == null) {
+            s = "null";
+            appendValue();
+        } else {
+            this.key._mj$toString$String$(t, () => {
+                s = t.s.pop().value;
+                appendValue();
+            });
+        }
+    }
+
+}
+
+type KeyClassInfo = {
+    libraryHashCode: boolean,
+    libraryEquals: boolean
+}
+
+export type HashTableLookupCallback = (entry: HashTableEntry | undefined, hash: number) => void;
+
+/**
+ * Hash table with separate chaining used by HashMap and HashSet.
+ *
+ * Keys are compared with java semantics: first by hashCode(), then by equals(). If a key's class
+ * overrides hashCode() or equals() then these java methods are called (asynchronously, as they may
+ * be compiled java code). Keys whose methods are those of library classes (String, Integer, ...,
+ * classes without overridden methods) take a synchronous fast path based on __internalHashCode().
+ *
+ * Iteration order is insertion order.
+ */
+export class JavaHashTable {
+
+    static defaultCapacity: number = 16;
+    static loadFactor: number = 0.75;
+
+    private static keyClassInfos: WeakMap<Function, KeyClassInfo> = new WeakMap();
+
+    private buckets: (HashTableEntry | undefined)[];
+
+    size: number = 0;
+
+    first?: HashTableEntry;
+    last?: HashTableEntry;
+
+    constructor() {
+        this.buckets = new Array(JavaHashTable.defaultCapacity);
+    }
+
+    private static getKeyClassInfo(key: ObjectClass): KeyClassInfo {
+        let klass = key.constructor;
+        let info = JavaHashTable.keyClassInfos.get(klass);
+        if (!info) {
+            info = {
+                libraryHashCode: JavaHashTable.isDeclaredInLibraryClass(klass.prototype, "_mj$hashCode$int$"),
+                libraryEquals: JavaHashTable.isDeclaredInLibraryClass(klass.prototype, "_mj$equals$boolean$Object")
+            }
+            JavaHashTable.keyClassInfos.set(klass, info);
+        }
+        return info;
+    }
+
+    /**
+     * Library classes have own static property __javaDeclarations, runtime classes of java
+     * classes compiled from user code inherit it.
+     */
+    private static isDeclaredInLibraryClass(prototype: any, methodIdentifier: string): boolean {
+        while (prototype && !Object.prototype.hasOwnProperty.call(prototype, methodIdentifier)) {
+            prototype = Object.getPrototypeOf(prototype);
+        }
+        return !prototype || Object.prototype.hasOwnProperty.call(prototype.constructor, "__javaDeclarations");
+    }
+
+    static isFastKey(key: any): boolean {
+        if (key == null || typeof key != "object") return true;
+        let info = JavaHashTable.getKeyClassInfo(key);
+        return info.libraryHashCode && info.libraryEquals;
+    }
+
+    /**
+     * Only for keys with library implementation of hashCode().
+     */
+    static fastHash(key: any): number {
+        if (key == null) return 0;
+        return ObjectClass.hashCodeOfInternalValue(typeof key == "object" ? key.__internalHashCode() : key);
+    }
+
+    /**
+     * Only for keys with library implementation of equals().
+     */
+    static fastEquals(key: any, otherKey: any): boolean {
+        if (key === otherKey) return true;
+        if (key == null || otherKey == null || typeof key != "object" || typeof otherKey != "object") return false;
+        return key.constructor === otherKey.constructor && key.__internalHashCode() === otherKey.__internalHashCode();
+    }
+
+    private bucketIndex(hash: number): number {
+        // like java.util.HashMap: let higher bits influence bucket index
+        return (hash ^ (hash >>> 16)) & (this.buckets.length - 1);
+    }
+
+    /**
+     * Synchronous lookup, only for keys with JavaHashTable.isFastKey(key) == true.
+     */
+    findEntryWithFastKey(key: any, hash: number): HashTableEntry | undefined {
+        let entry = this.buckets[this.bucketIndex(hash)];
+        while (entry) {
+            if (entry.hash == hash && JavaHashTable.fastEquals(key, entry.key)) return entry;
+            entry = entry.nextInBucket;
+        }
+        return undefined;
+    }
+
+    /**
+     * Looks up key and calls callback with found entry (or undefined) and the key's hash code.
+     * Callback is called synchronously if no java methods need to be called.
+     */
+    findEntry(t: Thread, key: ObjectClassOrNull, callback: HashTableLookupCallback) {
+        if (JavaHashTable.isFastKey(key)) {
+            let hash = JavaHashTable.fastHash(key);
+            callback(this.findEntryWithFastKey(key, hash), hash);
+            return;
+        }
+
+        let k = key!;
+        if (JavaHashTable.getKeyClassInfo(k).libraryHashCode) {
+            this.findEntryCallingEquals(t, k, JavaHashTable.fastHash(k), callback);
+        } else {
+            k._mj$hashCode$int$(t, () => {
+                this.findEntryCallingEquals(t, k, t.s.pop() | 0, callback);
+            });
+        }
+    }
+
+    private findEntryCallingEquals(t: Thread, key: ObjectClass, hash: number, callback: HashTableLookupCallback) {
+        let libraryEquals = JavaHashTable.getKeyClassInfo(key).libraryEquals;
+        let entry = this.buckets[this.bucketIndex(hash)];
+
+        let next = () => {
+            while (entry) {
+                if (entry.hash == hash) {
+                    if (entry.key === key) {
+                        callback(entry, hash);
+                        return;
+                    }
+                    if (libraryEquals) {
+                        if (JavaHashTable.fastEquals(key, entry.key)) {
+                            callback(entry, hash);
+                            return;
+                        }
+                    } else {
+                        let candidate = entry;
+                        key._mj$equals$boolean$Object(t, () => {
+                            if (t.s.pop()) {
+                                callback(candidate, hash);
+                            } else {
+                                entry = candidate.nextInBucket;
+                                next();
+                            }
+                        }, candidate.key);
+                        return;
+                    }
+                }
+                entry = entry.nextInBucket;
+            }
+            callback(undefined, hash);
+        }
+
+        next();
+    }
+
+    /**
+     * Adds new entry. Caller has to make sure that there's no entry with equal key yet.
+     */
+    add(key: ObjectClassOrNull, value: any, hash: number): HashTableEntry {
+        if (this.size + 1 > this.buckets.length * JavaHashTable.loadFactor) {
+            this.resize(this.buckets.length * 2);
+        }
+
+        let entry = new HashTableEntry(key, value, hash);
+        let index = this.bucketIndex(hash);
+        entry.nextInBucket = this.buckets[index];
+        this.buckets[index] = entry;
+
+        entry.before = this.last;
+        if (this.last) {
+            this.last.after = entry;
+        } else {
+            this.first = entry;
+        }
+        this.last = entry;
+
+        this.size++;
+        return entry;
+    }
+
+    remove(entry: HashTableEntry) {
+        let index = this.bucketIndex(entry.hash);
+        let e = this.buckets[index];
+        if (e === entry) {
+            this.buckets[index] = entry.nextInBucket;
+        } else {
+            while (e && e.nextInBucket !== entry) e = e.nextInBucket;
+            if (!e) return;     // entry had already been removed
+            e.nextInBucket = entry.nextInBucket;
+        }
+
+        if (entry.before) entry.before.after = entry.after; else this.first = entry.after;
+        if (entry.after) entry.after.before = entry.before; else this.last = entry.before;
+        entry.nextInBucket = entry.before = entry.after = undefined;
+
+        this.size--;
+    }
+
+    clear() {
+        this.buckets = new Array(JavaHashTable.defaultCapacity);
+        this.first = this.last = undefined;
+        this.size = 0;
+    }
+
+    private resize(newCapacity: number) {
+        this.buckets = new Array(newCapacity);
+        for (let entry = this.first; entry; entry = entry.after) {
+            let index = this.bucketIndex(entry.hash);
+            entry.nextInBucket = this.buckets[index];
+            this.buckets[index] = entry;
+        }
+    }
+
+    getEntries(): HashTableEntry[] {
+        let entries: HashTableEntry[] = [];
+        for (let entry = this.first; entry; entry = entry.after) entries.push(entry);
+        return entries;
+    }
+
+    getKeys(): ObjectClassOrNull[] {
+        let keys: ObjectClassOrNull[] = [];
+        for (let entry = this.first; entry; entry = entry.after) keys.push(entry.key);
+        return keys;
+    }
+
+    getValues(): any[] {
+        let values: any[] = [];
+        for (let entry = this.first; entry; entry = entry.after) values.push(entry.value);
+        return values;
+    }
+
+    /**
+     * Calls action for each element one after another. Action calls done() when finished, possibly
+     * after java methods have been executed. Synchronous completions don't increase javascript stack depth.
+     */
+    static forEachSequentially<E>(elements: E[], action: (element: E, done: () => void) => void, callback: () => void) {
+        let index = 0;
+        let loop = () => {
+            while (index < elements.length) {
+                let isInsideAction = true;
+                let completedSynchronously = false;
+                action(elements[index++], () => {
+                    if (isInsideAction) {
+                        completedSynchronously = true;
+                    } else {
+                        loop();
+                    }
+                });
+                isInsideAction = false;
+                if (!completedSynchronously) return;
+            }
+            callback();
+        }
+        loop();
+    }
+
+}
@@ -10,29 +10,30 @@ import { ConsumerInterface } from "../functional/ConsumerInterface.ts";
 import { BaseListType } from "../../../../common/BaseType.ts";
 import { JRC } from "../../../language/JavaRuntimeLibraryComments";
 import { RuntimeExceptionClass } from "../javalang/RuntimeException.ts";
+import { RingBuffer } from "./RingBuffer.ts";
 
 export class LinkedListClass extends ObjectClass implements BaseListType {
-    static __javaDeclarations: LibraryDeclarations = [
-        { type: "declaration", signature: "class LinkedList<E> implements Deque<E>" },
-
-        { type: "method", signature: "LinkedList()", native: LinkedListClass.prototype._constructor, comment: JRC.linkedListConstructorComment },
 
+    /**
+     * Methods of interface Deque, shared with ArrayDeque.
+     */
+    static dequeMethodDeclarations: LibraryDeclarations = [
         // from IterableInterface
         { type: "method", signature: "Iterator<E> iterator()", native: LinkedListClass.prototype._iterator, comment: JRC.iterableIteratorComment },
         { type: "method", signature: "void forEach(Consumer<? super E> action)", java: LinkedListClass.prototype._mj$forEach$void$Consumer, comment: JRC.iterableForEachComment },
 
         // from CollectionInterface
-        { type: "method", signature: "Object[] toArray()", native: LinkedListClass.prototype._toArray, template: "§1.elements.slice()", comment: JRC.collectionToArrayComment },
-        { type: "method", signature: "<T> T[] toArray(T[] a)", native: LinkedListClass.prototype._toArray, template: "§1.elements.slice()", comment: JRC.collectionToArrayComment2 },
-        { type: "method", signature: "boolean add(E e)", native: LinkedListClass.prototype._add, template: "(§1.elements.push(§2) >= 0)", comment: JRC.collectionAddElementComment },
+        { type: "method", signature: "Object[] toArray()", native: LinkedListClass.prototype._toArray, template: "§1.elements.toArray()", comment: JRC.collectionToArrayComment },
+        { type: "method", signature: "<T> T[] toArray(T[] a)", native: LinkedListClass.prototype._toArray, template: "§1.elements.toArray()", comment: JRC.collectionToArrayComment2 },
+        { type: "method", signature: "boolean add(E e)", native: LinkedListClass.prototype._add, template: "(§1.elements.addLast(§2), true)", comment: JRC.collectionAddElementComment },
         { type: "method", signature: "boolean addAll(Collection<? extends E> c)", java: LinkedListClass.prototype._addAll, comment: JRC.collectionAddAllComment },
-        { type: "method", signature: "void clear()", native: LinkedListClass.prototype._clear, template: "§1.elements.length = 0", comment: JRC.collectionClearComment },
+        { type: "method", signature: "void clear()", native: LinkedListClass.prototype._clear, template: "§1.elements.clear()", comment: JRC.collectionClearComment },
         { type: "method", signature: "boolean contains(E Element)", java: LinkedListClass.prototype._mj$contains$boolean$Object, comment: JRC.collectionContainsComment },
         { type: "method", signature: "boolean containsAll(Collection<?> c)", java: LinkedListClass.prototype._mj$containsAll$boolean$Collection, comment: JRC.collectionContainsAllComment },
-        { type: "method", signature: "boolean isEmpty()", native: LinkedListClass.prototype._isEmpty, template: "(§1.elements.length == 0)", comment: JRC.collectionIsEmptyComment },
+        { type: "method", signature: "boolean isEmpty()", native: LinkedListClass.prototype._isEmpty, template: "(§1.elements.size == 0)", comment: JRC.collectionIsEmptyComment },
         { type: "method", signature: "boolean remove(E element)", java: LinkedListClass.prototype._mj$remove$boolean$E, comment: JRC.collectionRemoveObjectComment },
         { type: "method", signature: "boolean removeAll(Collection<?> c)", java: LinkedListClass.prototype._removeAll, comment: JRC.collectionRemoveAllComment },
-        { type: "method", signature: "int size()", native: LinkedListClass.prototype._size, template: "§1.elements.length", comment: JRC.collectionSizeComment },
+        { type: "method", signature: "int size()", native: LinkedListClass.prototype._size, template: "§1.elements.size", comment: JRC.collectionSizeComment },
 
         // from Queue
         { type: "method", signature: "E remove()", java: LinkedListClass.prototype._mj$remove$E$, comment: JRC.queueRemoveComment },
@@ -55,12 +56,20 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
 
         // override toString-method
         { type: "method", signature: "String toString()", java: LinkedListClass.prototype._mj$toString$String$, comment: JRC.objectToStringComment },
-        // 
+    ]
+
+    static __javaDeclarations: LibraryDeclarations = [
+        { type: "declaration", signature: "class LinkedList<E> implements Deque<E>" },
+
+        { type: "method", signature: "LinkedList()", native: LinkedListClass.prototype._constructor, comment: JRC.linkedListConstructorComment },
+
+        ...LinkedListClass.dequeMethodDeclarations
     ]
 
     static type: NonPrimitiveType;
 
-    protected elements: ObjectClassOrNull[] = [];
+    // ring buffer instead of array so that adding/removing at the head of the list is O(1)
+    protected elements: RingBuffer<ObjectClassOrNull> = new RingBuffer();
 
     _constructor() {
         return this;
@@ -69,27 +78,27 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
 
     // from Queue:
     _mj$remove$E$(t: Thread, callback: CallbackFunction) {
-        if (this.elements.length == 0) throw new RuntimeExceptionClass(JRC.linkedListIsEmptyError());
-        t.s.push(this.elements.shift());
+        if (this.elements.size == 0) throw new RuntimeExceptionClass(JRC.linkedListIsEmptyError());
+        t.s.push(this.elements.removeFirst());
         if (callback) callback();
         return;
     }
 
     _mj$poll$E$(t: Thread, callback: CallbackFunction) {
-        if (this.elements.length == 0) {
+        if (this.elements.size == 0) {
             t.s.push(null);
         } else {
-            t.s.push(this.elements.shift());
+            t.s.push(this.elements.removeFirst());
         }
         if (callback) callback();
         return;
     }
 
     _mj$peek$E$(t: Thread, callback: CallbackFunction) {
-        if (this.elements.length == 0) {
+        if (this.elements.size == 0) {
             t.s.push(null);
         } else {
-            t.s.push(this.elements[0]);
+            t.s.push(this.elements.peekFirst());
         }
         if (callback) callback();
         return;
@@ -98,39 +107,12 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
 
     // from Deque:
     _mj$removeFirstOccurrence$boolean$E(t: Thread, callback: CallbackFunction, element: ObjectClassOrNull) {
-        let firstIndex: number = -1;
-        if (element == null || element._mj$equals$boolean$Object == ObjectClass.prototype._mj$equals$boolean$Object) {
-            firstIndex = this.elements.indexOf(element);
-            if (firstIndex < 0) {
-                t.s.push(false);
-            } else {
-                this.elements.splice(firstIndex, 1);
-                t.s.push(true);
-            }
+        this._mj$indexOf$int$E(t, () => {
+            let index = t.s.pop();
+            if (index >= 0) this.elements.removeAt(index);
+            t.s.push(index >= 0);
             if (callback) callback();
-        } else {
-            let index = 0;
-            let f = () => {
-                if (index >= this.elements.length) {
-                    t.s.push(false);
-                    if (callback) callback();
-                    return;
-                } else {
-                    element._mj$equals$boolean$Object(t, () => {
-                        if (t.s.pop()) {
-                            this.elements.splice(index, 1);
-                            t.s.push(true);
-                            if (callback) callback();
-                            return;
-                        } else {
-                            index++;
-                            f();
-                        }
-                    }, this.elements[index])
-                }
-            }
-            f();
-        }
+        }, element);
     }
 
     _mj$removeLastOccurrence$boolean$E(t: Thread, callback: CallbackFunction, element: ObjectClassOrNull) {
@@ -140,12 +122,12 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
             if (lastIndex < 0) {
                 t.s.push(false);
             } else {
-                this.elements.splice(lastIndex, 1);
+                this.elements.removeAt(lastIndex);
                 t.s.push(true);
             }
             if (callback) callback();
         } else {
-            let index = this.elements.length - 1;
+            let index = this.elements.size - 1;
             let f = () => {
                 if (index < 0) {
                     t.s.push(false);
@@ -154,7 +136,7 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
                 } else {
                     element._mj$equals$boolean$Object(t, () => {
                         if (t.s.pop()) {
-                            this.elements.splice(index, 1);
+                            this.elements.removeAt(index);
                             t.s.push(true);
                             if (callback) callback();
                             return;
@@ -162,7 +144,7 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
                             index--;
                             f();
                         }
-                    }, this.elements[index])
+                    }, this.elements.get(index))
                 }
             }
             f();
@@ -170,46 +152,46 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
     }
 
     _mj$addFirst$void$E(t: Thread, callback: CallbackFunction, element: ObjectClassOrNull) {
-        this.elements.unshift(element);
+        this.elements.addFirst(element);
         if (callback) callback();
         return;
     }
 
     _mj$addLast$void$E(t: Thread, callback: CallbackFunction, element: ObjectClassOrNull) {
-        this.elements.push(element);
+        this.elements.addLast(element);
         if (callback) callback();
         return;
     }
 
     _mj$removeFirst$E$(t: Thread, callback: CallbackFunction) {
-        if (this.elements.length == 0) throw new RuntimeExceptionClass(JRC.linkedListIsEmptyError());
-        t.s.push(this.elements.shift());
+        if (this.elements.size == 0) throw new RuntimeExceptionClass(JRC.linkedListIsEmptyError());
+        t.s.push(this.elements.removeFirst());
         if (callback) callback();
         return;
     }
 
     _mj$removeLast$E$(t: Thread, callback: CallbackFunction) {
-        if (this.elements.length == 0) throw new RuntimeExceptionClass(JRC.linkedListIsEmptyError());
-        t.s.push(this.elements.pop());
+        if (this.elements.size == 0) throw new RuntimeExceptionClass(JRC.linkedListIsEmptyError());
+        t.s.push(this.elements.removeLast());
         if (callback) callback();
         return;
     }
 
     _mj$peekFirst$E$(t: Thread, callback: CallbackFunction) {
-        if (this.elements.length == 0) {
+        if (this.elements.size == 0) {
             t.s.push(null);
         } else {
-            t.s.push(this.elements[0]);
+            t.s.push(this.elements.peekFirst());
         }
         if (callback) callback();
         return;
     }
 
     _mj$peekLast$E$(t: Thread, callback: CallbackFunction) {
-        if (this.elements.length == 0) {
+        if (this.elements.size == 0) {
             t.s.push(null);
         } else {
-            t.s.push(this.elements[this.elements.length - 1]);
+            t.s.push(this.elements.peekLast());
         }
         if (callback) callback();
         return;
@@ -217,14 +199,14 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
     }
 
     _mj$pop$E$(t: Thread, callback: CallbackFunction) {
-        if (this.elements.length == 0) throw new RuntimeExceptionClass(JRC.linkedListIsEmptyError());
-        t.s.push(this.elements.pop());
+        if (this.elements.size == 0) throw new RuntimeExceptionClass(JRC.linkedListIsEmptyError());
+        t.s.push(this.elements.removeLast());
         if (callback) callback();
         return;
     }
 
     _mj$push$void$E(t: Thread, callback: CallbackFunction, element: ObjectClassOrNull) {
-        this.elements.push(element);
+        this.elements.addLast(element);
         if (callback) callback();
         return;
     }
@@ -232,7 +214,7 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
     _mj$descendingIterator$Iterator$(t: Thread, callback: CallbackFunction) {
         let iterator = new ObjectClass();
 
-        let nextIndex = this.elements.length - 1;
+        let nextIndex = this.elements.size - 1;
 
         //@ts-ignore
         iterator["_mj$hasNext$boolean$"] = (t: Thread, callback: CallbackFunction) => {
@@ -243,7 +225,7 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
         //@ts-ignore
         iterator["_mj$next$E$"] = (t: Thread, callback: CallbackFunction) => {
             if (nextIndex >= 0) nextIndex--;
-            t.s.push(this.elements[nextIndex + 1]);
+            t.s.push(this.elements.get(nextIndex + 1));
             if (callback) callback();
         }
 
@@ -260,8 +242,8 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
 
         let f = () => {
             index++;
-            if (index < this.elements.length) {
-                consumer._mj$accept$void$T(t, f, this.elements[index]);
+            if (index < this.elements.size) {
+                consumer._mj$accept$void$T(t, f, this.elements.get(index));
             } else {
                 if (callback) callback();
             }
@@ -272,25 +254,29 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
     }
 
     _mj$toString$String$(t: Thread, callback: CallbackFunction) {
-        if (this.elements.length == 0) {
+        if (this.elements.size == 0) {
             t.s.push("[]");
             if (callback) callback();
             return;
         }
-        let element = this.elements[0];
+        let elements = this.elements.toArray();
+        let element = elements[0];
         if (typeof element == "object" || Array.isArray(element) || element == null) {
-            t._arrayOfObjectsToString(this.elements, () => {
+            t._arrayOfObjectsToString(elements, () => {
                 t.s.push(new StringClass(t.s.pop()));
                 if (callback) callback();
             })
             return;
         } else {
-            t.s.push(new StringClass(t._primitiveElementOrArrayToString(this.elements)));
+            t.s.push(new StringClass(t._primitiveElementOrArrayToString(elements)));
             if (callback) callback();
             return;
         }
     }
 
+    /**
+     * Iterates over the ring buffer directly, no copy of the elements is made.
+     */
     _iterator() {
 
         let iterator = new ObjectClass();
@@ -299,14 +285,14 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
 
         //@ts-ignore
         iterator["_mj$hasNext$boolean$"] = (t: Thread, callback: CallbackFunction) => {
-            t.s.push(nextIndex < this.elements.length);
+            t.s.push(nextIndex < this.elements.size);
             if (callback) callback();
         }
 
         //@ts-ignore
         iterator["_mj$next$E$"] = (t: Thread, callback: CallbackFunction) => {
-            if (nextIndex < this.elements.length) nextIndex++;
-            t.s.push(this.elements[nextIndex - 1]);
+            if (nextIndex < this.elements.size) nextIndex++;
+            t.s.push(this.elements.get(nextIndex - 1));
             if (callback) callback();
         }
 
@@ -314,11 +300,12 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
     }
 
     getAllElements(): ObjectClassOrNull[] {
-        return this.elements;
+        return this.elements.toArray();
     }
 
     _add(element: ObjectClassOrNull) {
-        this.elements.push(element);
+        this.elements.addLast(element);
+        return true;
     }
 
     _addAll(t: Thread, callback: CallbackFunction, collection: CollectionInterface) {
@@ -329,7 +316,7 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
         }
 
         if (collection instanceof SystemCollection) {
-            this.elements = this.elements.concat(collection.getAllElements());
+            this.elements.addAll(collection.getAllElements());
             t.s.push(true);
             if (callback) callback();
             return;
@@ -338,7 +325,7 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
         collection._mj$toArray$Object_I$(t, () => {
             let newElements = t.s.pop();
             if (newElements != null && Array.isArray(newElements)) {
-                this.elements = this.elements.concat(newElements);
+                this.elements.addAll(newElements);
                 t.s.push(true);
                 if (callback) callback();
             }
@@ -348,7 +335,7 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
 
 
     _clear() {
-        this.elements.length = 0;
+        this.elements.clear();
     }
 
     _mj$contains$boolean$Object(t: Thread, callback: CallbackFunction, element: ObjectClassOrNull) {
@@ -399,7 +386,7 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
     }
 
     _isEmpty() {
-        return this.elements.length == 0;
+        return this.elements.size == 0;
     }
 
     _mj$remove$boolean$E(t: Thread, callback: CallbackFunction, o: ObjectClassOrNull) {
@@ -407,7 +394,7 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
         this._mj$indexOf$int$E(t, () => {
             let index = t.s.pop();
             if (index >= 0) {
-                this.elements.splice(index, 1)
+                this.elements.removeAt(index);
                 t.s.push(true);
             } else {
                 t.s.push(false);
@@ -426,7 +413,7 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
         } else {
             let index = 0;
             let f = () => {
-                if (index >= this.elements.length) {
+                if (index >= this.elements.size) {
                     t.s.push(-1);
                     if (callback) callback();
                     return;
@@ -440,7 +427,7 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
                             index++;
                             f();
                         }
-                    }, this.elements[index])
+                    }, this.elements.get(index))
                 }
             }
             f();
@@ -451,11 +438,11 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
 
 
     _size() {
-        return this.elements.length;
+        return this.elements.size;
     }
 
     _toArray() {
-        return this.elements.slice();
+        return this.elements.toArray();
     }
 
     _removeAll(t: Thread, callback: CallbackFunction, collection: CollectionInterface) {
@@ -466,29 +453,37 @@ export class LinkedListClass extends ObjectClass implements BaseListType {
         }
 
         if (collection instanceof SystemCollection) {
-            let oldLength = this.elements.length;
             let elementsToRemove = collection.getAllElements();
-            this.elements = this.elements.filter(element => elementsToRemove.indexOf(element) < 0);
-            t.s.push(this.elements.length != oldLength);
+            t.s.push(this.elements.removeIf(element => elementsToRemove.indexOf(element) >= 0));
             if (callback) callback();
             return;
         }
 
         collection._mj$toArray$Object_I$(t, () => {
             let elementsToRemove = t.s.pop();
-            let oldLength = this.elements.length;
             if (elementsToRemove != null && Array.isArray(elementsToRemove)) {
-                this.elements = this.elements.filter(element => elementsToRemove.indexOf(element) < 0);
-                t.s.push(this.elements.length != oldLength);
+                t.s.push(this.elements.removeIf(element => elementsToRemove.indexOf(element) >= 0));
                 if (callback) callback();
             }
         })
 
     }
 
+    /**
+     * Copy of the ring buffer's elements. Enhanced for loops and the debugger use getElementCount
+     * and getElementAt instead, so they don't copy the list.
+     */
     getElements(): any[] {
-        return this.elements;
+        return this.elements.toArray();
+    }
+
+    getElementCount(): number {
+        return this.elements.size;
+    }
+
+    getElementAt(index: number): ObjectClassOrNull {
+        return this.elements.get(index);
     }
 
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+import { JRC } from "../../../language/JavaRuntimeLibraryComments";
+import { CallbackFunction } from "../../../../common/interpreter/StepFunction.ts";
+import { Thread } from "../../../../common/interpreter/Thread.ts";
+import { LibraryDeclarations } from "../../../module/libraries/DeclareType.ts";
+import { NonPrimitiveType } from "../../../types/NonPrimitiveType.ts";
+import { ObjectClass, ObjectClassOrNull } from "../javalang/ObjectClassStringClass.ts";
+
+export class MapEntryInterface extends ObjectClass {
+    static __javaDeclarations: LibraryDeclarations = [
+        { type: "declaration", signature: "interface Map.Entry<K, V>", comment: JRC.mapEntryInterfaceComment },
+        { type: "method", signature: "K getKey()", java: MapEntryInterface.prototype._mj$getKey$K$, comment: JRC.mapEntryGetKeyComment },
+        { type: "method", signature: "V getValue()", java: MapEntryInterface.prototype._mj$getValue$V$, comment: JRC.mapEntryGetValueComment },
+        { type: "method", signature: "V setValue(V value)", java: MapEntryInterface.prototype._mj$setValue$V$V, comment: JRC.mapEntrySetValueComment },
+    ]
+
+    static type: NonPrimitiveType;
+
+    _mj$getKey$K$(t: Thread, callback: CallbackFunction) { }
+    _mj$getValue$V$(t: Thread, callback: CallbackFunction) { }
+    _mj$setValue$V$V(t: Thread, callback: CallbackFunction, value: ObjectClassOrNull) { }
+
+}
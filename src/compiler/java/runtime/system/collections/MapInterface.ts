@@ -4,6 +4,7 @@ import { Thread } from "../../../../common/interpreter/Thread.ts";
 import { LibraryDeclarations } from "../../../module/libraries/DeclareType.ts";
 import { NonPrimitiveType } from "../../../types/NonPrimitiveType.ts";
 import { BiConsumerInterface } from "../functional/BiConsumerInterface.ts";
+import { BiFunctionInterface } from "../functional/BiFunctionInterface.ts";
 import { ObjectClass, ObjectClassOrNull } from "../javalang/ObjectClassStringClass.ts";
 
 export class MapInterface extends ObjectClass {
@@ -19,6 +20,11 @@ export class MapInterface extends ObjectClass {
         { type: "method", signature: "void forEach(BiConsumer<? super K, ? super V> action)", java: MapInterface.prototype._mj$forEach$void$BiConsumer , comment: JRC.mapForeachComment},
         { type: "method", signature: "Collection<V> values()", java: MapInterface.prototype._mj$values$Collection$, comment: JRC.mapValuesComment },
         { type: "method", signature: "Set<K> keySet()", java: MapInterface.prototype._mj$keySet$Set$, comment: JRC.mapKeySetComment },
+        { type: "method", signature: "Set<Map.Entry<K, V>> entrySet()", java: MapInterface.prototype._mj$entrySet$Set$, comment: JRC.mapEntrySetComment },
+        { type: "method", signature: "V getOrDefault(K key, V defaultValue)", java: MapInterface.prototype._mj$getOrDefault$V$K$V, comment: JRC.mapGetOrDefaultComment },
+        { type: "method", signature: "V putIfAbsent(K key, V value)", java: MapInterface.prototype._mj$putIfAbsent$V$K$V, comment: JRC.mapPutIfAbsentComment },
+        { type: "method", signature: "V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction)", java: MapInterface.prototype._mj$merge$V$K$V$BiFunction, comment: JRC.mapMergeComment },
+        { type: "method", signature: "V remove(K key)", java: MapInterface.prototype._mj$remove$V$K, comment: JRC.mapRemoveComment },
 
     ]
 
@@ -34,5 +40,10 @@ export class MapInterface extends ObjectClass {
     _mj$forEach$void$BiConsumer(t: Thread, callback: CallbackFunction, biConsumer: BiConsumerInterface) { }
     _mj$values$Collection$(t: Thread, callback: CallbackFunction) {}
     _mj$keySet$Set$(t: Thread, callback: CallbackFunction) {}
+    _mj$entrySet$Set$(t: Thread, callback: CallbackFunction) {}
+    _mj$getOrDefault$V$K$V(t: Thread, callback: CallbackFunction, key: ObjectClassOrNull, defaultValue: ObjectClassOrNull) {}
+    _mj$putIfAbsent$V$K$V(t: Thread, callback: CallbackFunction, key: ObjectClassOrNull, value: ObjectClassOrNull) {}
+    _mj$merge$V$K$V$BiFunction(t: Thread, callback: CallbackFunction, key: ObjectClassOrNull, value: ObjectClassOrNull, remappingFunction: BiFunctionInterface) {}
+    _mj$remove$V$K(t: Thread, callback: CallbackFunction, key: ObjectClassOrNull) {}
 
 }
\ No newline at end of file
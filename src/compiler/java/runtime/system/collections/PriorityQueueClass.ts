@@ -0,0 +1,388 @@
+import { JRC } from "../../../language/JavaRuntimeLibraryComments";
+import { CallbackFunction } from "../../../../common/interpreter/StepFunction.ts";
+import { Thread } from "../../../../common/interpreter/Thread.ts";
+import { BaseListType } from "../../../../common/BaseType.ts";
+import { LibraryDeclarations } from "../../../module/libraries/DeclareType.ts";
+import { NonPrimitiveType } from "../../../types/NonPrimitiveType.ts";
+import { ConsumerInterface } from "../functional/ConsumerInterface.ts";
+import { NullPointerExceptionClass } from "../javalang/NullPointerExceptionClass.ts";
+import { ObjectClass, ObjectClassOrNull, StringClass } from "../javalang/ObjectClassStringClass.ts";
+import { RuntimeExceptionClass } from "../javalang/RuntimeException.ts";
+import { CollectionInterface } from "./CollectionInterface.ts";
+import { ComparatorInterface } from "./ComparatorInterface.ts";
+import { JavaHashTable } from "./JavaHashTable.ts";
+import { SystemCollection } from "./SystemCollection.ts";
+
+/**
+ * Binary min-heap stored in an array. Comparisons call compareTo resp. the comparator's compare
+ * method which may be java code, so sifting is done in continuation passing style. Library
+ * implementations (String, Integer, ...) and java code which doesn't need to wait complete
+ * synchronously, see SystemCollection.compare.
+ */
+export class PriorityQueueClass extends ObjectClass implements BaseListType {
+    static __javaDeclarations: LibraryDeclarations = [
+        { type: "declaration", signature: "class PriorityQueue<E> implements Queue<E>", comment: JRC.priorityQueueClassComment },
+
+        { type: "method", signature: "PriorityQueue()", native: PriorityQueueClass.prototype._constructor, comment: JRC.priorityQueueConstructorComment },
+        { type: "method", signature: "PriorityQueue(Comparator<? super E> comparator)", native: PriorityQueueClass.prototype._constructor, comment: JRC.priorityQueueConstructorWithComparatorComment },
+
+        // from IterableInterface
+        { type: "method", signature: "Iterator<E> iterator()", native: PriorityQueueClass.prototype._iterator, comment: JRC.iterableIteratorComment },
+        { type: "method", signature: "void forEach(Consumer<? super E> action)", java: PriorityQueueClass.prototype._mj$forEach$void$Consumer, comment: JRC.iterableForEachComment },
+
+        // from CollectionInterface
+        { type: "method", signature: "Object[] toArray()", native: PriorityQueueClass.prototype._toArray, template: "§1.heap.slice()", comment: JRC.collectionToArrayComment },
+        { type: "method", signature: "<T> T[] toArray(T[] a)", native: PriorityQueueClass.prototype._toArray, template: "§1.heap.slice()", comment: JRC.collectionToArrayComment2 },
+        { type: "method", signature: "boolean add(E e)", java: PriorityQueueClass.prototype._mj$add$boolean$E, comment: JRC.collectionAddElementComment },
+        { type: "method", signature: "boolean addAll(Collection<? extends E> c)", java: PriorityQueueClass.prototype._mj$addAll$boolean$Collection, comment: JRC.collectionAddAllComment },
+        { type: "method", signature: "void clear()", native: PriorityQueueClass.prototype._clear, template: "§1.heap.length = 0", comment: JRC.collectionClearComment },
+        { type: "method", signature: "boolean contains(E Element)", java: PriorityQueueClass.prototype._mj$contains$boolean$E, comment: JRC.collectionContainsComment },
+        { type: "method", signature: "boolean containsAll(Collection<?> c)", java: PriorityQueueClass.prototype._mj$containsAll$boolean$Collection, comment: JRC.collectionContainsAllComment },
+        { type: "method", signature: "boolean isEmpty()", native: PriorityQueueClass.prototype._isEmpty, template: "(§1.heap.length == 0)", comment: JRC.collectionIsEmptyComment },
+        { type: "method", signature: "boolean remove(E element)", java: PriorityQueueClass.prototype._mj$remove$boolean$E, comment: JRC.collectionRemoveObjectComment },
+        { type: "method", signature: "boolean removeAll(Collection<?> c)", java: PriorityQueueClass.prototype._mj$removeAll$boolean$Collection, comment: JRC.collectionRemoveAllComment },
+        { type: "method", signature: "int size()", native: PriorityQueueClass.prototype._size, template: "§1.heap.length", comment: JRC.collectionSizeComment },
+
+        // from Queue
+        { type: "method", signature: "boolean offer(E e)", java: PriorityQueueClass.prototype._mj$add$boolean$E, comment: JRC.priorityQueueOfferComment },
+        { type: "method", signature: "E remove()", java: PriorityQueueClass.prototype._mj$remove$E$, comment: JRC.queueRemoveComment },
+        { type: "method", signature: "E poll()", java: PriorityQueueClass.prototype._mj$poll$E$, comment: JRC.queuePollComment },
+        { type: "method", signature: "E peek()", java: PriorityQueueClass.prototype._mj$peek$E$, comment: JRC.queuePeekComment },
+
+        // override toString-method
+        { type: "method", signature: "String toString()", java: PriorityQueueClass.prototype._mj$toString$String$, comment: JRC.objectToStringComment },
+    ]
+
+    static type: NonPrimitiveType;
+
+    // heap[0] is the least element, children of heap[i] are heap[2*i + 1] and heap[2*i + 2]
+    heap: ObjectClassOrNull[] = [];
+
+    comparator?: ComparatorInterface;
+
+    _constructor(comparator?: ComparatorInterface) {
+        if (comparator) this.comparator = comparator;
+        return this;
+    }
+
+    private compare(t: Thread, object1: ObjectClassOrNull, object2: ObjectClassOrNull, callback: (result: number) => void) {
+        SystemCollection.compare(t, this.comparator || SystemCollection.naturalOrderComparator, object1, object2, callback);
+    }
+
+    private siftUp(t: Thread, index: number, callback: () => void) {
+        let element = this.heap[index];
+        SystemCollection.asyncLoop((next, exit) => {
+            if (index == 0) {
+                exit();
+                return;
+            }
+            let parentIndex = (index - 1) >> 1;
+            let parent = this.heap[parentIndex];
+            this.compare(t, element, parent, (result) => {
+                if (result >= 0) {
+                    exit();
+                    return;
+                }
+                this.heap[index] = parent;
+                index = parentIndex;
+                next();
+            });
+        }, () => {
+            this.heap[index] = element;
+            callback();
+        });
+    }
+
+    private siftDown(t: Thread, index: number, callback: () => void) {
+        let element = this.heap[index];
+        let size = this.heap.length;
+        SystemCollection.asyncLoop((next, exit) => {
+            let childIndex = 2 * index + 1;
+            if (childIndex >= size) {
+                exit();
+                return;
+            }
+
+            let moveDown = (smallerChildIndex: number) => {
+                this.compare(t, element, this.heap[smallerChildIndex], (result) => {
+                    if (result <= 0) {
+                        exit();
+                        return;
+                    }
+                    this.heap[index] = this.heap[smallerChildIndex];
+                    index = smallerChildIndex;
+                    next();
+                });
+            }
+
+            let rightChildIndex = childIndex + 1;
+            if (rightChildIndex < size) {
+                this.compare(t, this.heap[rightChildIndex], this.heap[childIndex], (result) => {
+                    moveDown(result < 0 ? rightChildIndex : childIndex);
+                });
+            } else {
+                moveDown(childIndex);
+            }
+        }, () => {
+            this.heap[index] = element;
+            callback();
+        });
+    }
+
+    private addElement(t: Thread, element: ObjectClassOrNull, callback: () => void) {
+        if (element == null) throw new NullPointerExceptionClass(JRC.priorityQueueNullElementError());
+        this.heap.push(element);
+        this.siftUp(t, this.heap.length - 1, callback);
+    }
+
+    private removeAt(t: Thread, index: number, callback: () => void) {
+        let last = this.heap.pop()!;
+        if (index == this.heap.length) {
+            callback();
+            return;
+        }
+        this.heap[index] = last;
+        this.siftDown(t, index, () => {
+            this.siftUp(t, index, callback);
+        });
+    }
+
+    private addElements(t: Thread, elements: ObjectClassOrNull[], callback: CallbackFunction) {
+        JavaHashTable.forEachSequentially(elements, (element, done) => {
+            this.addElement(t, element, done);
+        }, () => {
+            t.s.push(elements.length > 0);
+            if (callback) callback();
+        });
+    }
+
+    _mj$add$boolean$E(t: Thread, callback: CallbackFunction, element: ObjectClassOrNull) {
+        this.addElement(t, element, () => {
+            t.s.push(true);
+            if (callback) callback();
+        });
+    }
+
+    _mj$addAll$boolean$Collection(t: Thread, callback: CallbackFunction, collection: CollectionInterface) {
+        if (collection == null) {
+            throw new NullPointerExceptionClass("PriorityQueue.addAll wurde mit null als Argument aufgerufen.");
+        }
+
+        if (collection instanceof SystemCollection) {
+            this.addElements(t, collection.getAllElements().slice(), callback);
+            return;
+        }
+
+        collection._mj$toArray$Object_I$(t, () => {
+            this.addElements(t, t.s.pop(), callback);
+        });
+    }
+
+    // from Queue:
+    _mj$remove$E$(t: Thread, callback: CallbackFunction) {
+        if (this.heap.length == 0) throw new RuntimeExceptionClass(JRC.priorityQueueIsEmptyError());
+        this._mj$poll$E$(t, callback);
+    }
+
+    _mj$poll$E$(t: Thread, callback: CallbackFunction) {
+        if (this.heap.length == 0) {
+            t.s.push(null);
+            if (callback) callback();
+            return;
+        }
+
+        let head = this.heap[0];
+        this.removeAt(t, 0, () => {
+            t.s.push(head);
+            if (callback) callback();
+        });
+    }
+
+    _mj$peek$E$(t: Thread, callback: CallbackFunction) {
+        t.s.push(this.heap.length == 0 ? null : this.heap[0]);
+        if (callback) callback();
+    }
+
+    _mj$indexOf$int$E(t: Thread, callback: CallbackFunction, element: ObjectClassOrNull) {
+        if (element == null || element._mj$equals$boolean$Object == ObjectClass.prototype._mj$equals$boolean$Object) {
+            t.s.push(this.heap.indexOf(element));
+            if (callback) callback();
+            return;
+        }
+
+        let index = 0;
+        SystemCollection.asyncLoop((next, exit) => {
+            if (index >= this.heap.length) {
+                index = -1;
+                exit();
+                return;
+            }
+            element._mj$equals$boolean$Object(t, () => {
+                if (t.s.pop()) {
+                    exit();
+                } else {
+                    index++;
+                    next();
+                }
+            }, this.heap[index]);
+        }, () => {
+            t.s.push(index);
+            if (callback) callback();
+        });
+    }
+
+    _mj$contains$boolean$E(t: Thread, callback: CallbackFunction, element: ObjectClassOrNull) {
+        this._mj$indexOf$int$E(t, () => {
+            t.s.push(t.s.pop() >= 0);
+            if (callback) callback();
+        }, element);
+    }
+
+    _mj$containsAll$boolean$Collection(t: Thread, callback: CallbackFunction, collection: CollectionInterface) {
+        if (collection == null) {
+            throw new NullPointerExceptionClass("PriorityQueue.containsAll wurde mit null als Argument aufgerufen.");
+        }
+
+        let check = (elementsToCheck: ObjectClassOrNull[]) => {
+            let containsAll = true;
+            JavaHashTable.forEachSequentially(elementsToCheck, (element, done) => {
+                if (!containsAll) { done(); return; }
+                this._mj$contains$boolean$E(t, () => {
+                    if (!t.s.pop()) containsAll = false;
+                    done();
+                }, element);
+            }, () => {
+                t.s.push(containsAll);
+                if (callback) callback();
+            });
+        }
+
+        if (collection instanceof SystemCollection) {
+            check(collection.getAllElements().slice());
+            return;
+        }
+
+        collection._mj$toArray$Object_I$(t, () => {
+            check(t.s.pop());
+        });
+    }
+
+    _mj$remove$boolean$E(t: Thread, callback: CallbackFunction, element: ObjectClassOrNull) {
+        this._mj$indexOf$int$E(t, () => {
+            let index = t.s.pop();
+            if (index < 0) {
+                t.s.push(false);
+                if (callback) callback();
+                return;
+            }
+            this.removeAt(t, index, () => {
+                t.s.push(true);
+                if (callback) callback();
+            });
+        }, element);
+    }
+
+    _mj$removeAll$boolean$Collection(t: Thread, callback: CallbackFunction, collection: CollectionInterface) {
+        if (collection == null) {
+            throw new NullPointerExceptionClass("PriorityQueue.removeAll wurde mit null als Argument aufgerufen.");
+        }
+
+        let removeElements = (elementsToRemove: ObjectClassOrNull[]) => {
+            let remainingElements = this.heap.filter(element => elementsToRemove.indexOf(element) < 0);
+            let changed = remainingElements.length != this.heap.length;
+            this.heap = [];
+            this.addElements(t, remainingElements, () => {
+                t.s.pop();
+                t.s.push(changed);
+                if (callback) callback();
+            });
+        }
+
+        if (collection instanceof SystemCollection) {
+            removeElements(collection.getAllElements());
+            return;
+        }
+
+        collection._mj$toArray$Object_I$(t, () => {
+            removeElements(t.s.pop());
+        });
+    }
+
+    _clear() {
+        this.heap.length = 0;
+    }
+
+    _isEmpty() {
+        return this.heap.length == 0;
+    }
+
+    _size() {
+        return this.heap.length;
+    }
+
+    _toArray() {
+        return this.heap.slice();
+    }
+
+    /**
+     * Iterates over the heap array directly, no copy of the elements is made. As in java the
+     * elements are not traversed in any particular order.
+     */
+    _iterator() {
+        let iterator = new ObjectClass();
+
+        let nextIndex = 0;
+
+        //@ts-ignore
+        iterator["_mj$hasNext$boolean$"] = (t: Thread, callback: CallbackFunction) => {
+            t.s.push(nextIndex < this.heap.length);
+            if (callback) callback();
+        }
+
+        //@ts-ignore
+        iterator["_mj$next$E$"] = (t: Thread, callback: CallbackFunction) => {
+            if (nextIndex < this.heap.length) nextIndex++;
+            t.s.push(this.heap[nextIndex - 1]);
+            if (callback) callback();
+        }
+
+        return iterator;
+    }
+
+    _mj$forEach$void$Consumer(t: Thread, callback: CallbackFunction, consumer: ConsumerInterface) {
+        let index: number = -1;
+
+        let f = () => {
+            index++;
+            if (index < this.heap.length) {
+                consumer._mj$accept$void$T(t, f, this.heap[index]);
+            } else {
+                if (callback) callback();
+            }
+        }
+
+        f();
+    }
+
+    _mj$toString$String$(t: Thread, callback: CallbackFunction) {
+        if (this.heap.length == 0) {
+            t.s.push(new StringClass("[]"));
+            if (callback) callback();
+            return;
+        }
+
+        t._arrayOfObjectsToString(this.heap, () => {
+            t.s.push(new StringClass(t.s.pop()));
+            if (callback) callback();
+        });
+    }
+
+    getAllElements(): ObjectClassOrNull[] {
+        return this.heap;
+    }
+
+    getElements(): any[] {
+        return this.heap;
+    }
+
+}
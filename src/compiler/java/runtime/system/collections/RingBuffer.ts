@@ -0,0 +1,145 @@
+/**
+ * Growable circular array used as backing store of LinkedList and ArrayDeque.
+ *
+ * Adding and removing elements at both ends takes O(1) (amortized), whereas Array.shift/unshift
+ * take O(n). Capacity is always a power of two so that index wrap-around is a bitwise and.
+ */
+export class RingBuffer<E> {
+
+    static defaultCapacity: number = 16;
+
+    private buffer: (E | undefined)[];
+    private head: number = 0;
+    private mask: number;
+
+    size: number = 0;
+
+    constructor() {
+        this.buffer = new Array(RingBuffer.defaultCapacity);
+        this.mask = RingBuffer.defaultCapacity - 1;
+    }
+
+    get(index: number): E {
+        return <E>this.buffer[(this.head + index) & this.mask];
+    }
+
+    set(index: number, element: E) {
+        this.buffer[(this.head + index) & this.mask] = element;
+    }
+
+    addFirst(element: E) {
+        if (this.size == this.buffer.length) this.grow();
+        this.head = (this.head - 1) & this.mask;
+        this.buffer[this.head] = element;
+        this.size++;
+    }
+
+    addLast(element: E) {
+        if (this.size == this.buffer.length) this.grow();
+        this.buffer[(this.head + this.size) & this.mask] = element;
+        this.size++;
+    }
+
+    /**
+     * Caller has to make sure that buffer is not empty.
+     */
+    removeFirst(): E {
+        let element = <E>this.buffer[this.head];
+        this.buffer[this.head] = undefined;     // let garbage collector do its work
+        this.head = (this.head + 1) & this.mask;
+        this.size--;
+        return element;
+    }
+
+    /**
+     * Caller has to make sure that buffer is not empty.
+     */
+    removeLast(): E {
+        let index = (this.head + this.size - 1) & this.mask;
+        let element = <E>this.buffer[index];
+        this.buffer[index] = undefined;
+        this.size--;
+        return element;
+    }
+
+    peekFirst(): E | undefined {
+        return this.size == 0 ? undefined : this.buffer[this.head];
+    }
+
+    peekLast(): E | undefined {
+        return this.size == 0 ? undefined : this.buffer[(this.head + this.size - 1) & this.mask];
+    }
+
+    /**
+     * Removes element at given index by moving the shorter part of the buffer, so removing
+     * next to one of the ends is cheap.
+     */
+    removeAt(index: number): E {
+        let element = this.get(index);
+        if (index < this.size / 2) {
+            for (let i = index; i > 0; i--) this.set(i, this.get(i - 1));
+            this.removeFirst();
+        } else {
+            for (let i = index; i < this.size - 1; i++) this.set(i, this.get(i + 1));
+            this.removeLast();
+        }
+        return element;
+    }
+
+    indexOf(element: E): number {
+        for (let i = 0; i < this.size; i++) {
+            if (this.buffer[(this.head + i) & this.mask] === element) return i;
+        }
+        return -1;
+    }
+
+    lastIndexOf(element: E): number {
+        for (let i = this.size - 1; i >= 0; i--) {
+            if (this.buffer[(this.head + i) & this.mask] === element) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes all elements for which predicate returns true, returns true if any element has been removed.
+     */
+    removeIf(predicate: (element: E) => boolean): boolean {
+        let newSize = 0;
+        for (let i = 0; i < this.size; i++) {
+            let element = this.get(i);
+            if (!predicate(element)) this.set(newSize++, element);
+        }
+        if (newSize == this.size) return false;
+        for (let i = newSize; i < this.size; i++) this.set(i, <any>undefined);
+        this.size = newSize;
+        return true;
+    }
+
+    addAll(elements: E[]) {
+        for (let element of elements) this.addLast(element);
+    }
+
+    clear() {
+        this.buffer = new Array(RingBuffer.defaultCapacity);
+        this.mask = RingBuffer.defaultCapacity - 1;
+        this.head = 0;
+        this.size = 0;
+    }
+
+    toArray(): E[] {
+        let array: E[] = new Array(this.size);
+        for (let i = 0; i < this.size; i++) {
+            array[i] = <E>this.buffer[(this.head + i) & this.mask];
+        }
+        return array;
+    }
+
+    private grow() {
+        let newBuffer: (E | undefined)[] = this.toArray();
+        newBuffer.length = this.buffer.length * 2;
+        this.buffer = newBuffer;
+        this.mask = newBuffer.length - 1;
+        this.head = 0;
+    }
+
+}
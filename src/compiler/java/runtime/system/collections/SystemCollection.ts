@@ -1,6 +1,7 @@
 import { CallbackFunction } from "../../../../common/interpreter/StepFunction.ts";
 import { Thread } from "../../../../common/interpreter/Thread.ts";
 import { ObjectClass, ObjectClassOrNull } from "../javalang/ObjectClassStringClass.ts";
+import { ComparableInterface } from "./ComparableInterface.ts";
 import { ComparatorInterface } from "./ComparatorInterface.ts";
 
 export abstract class SystemCollection extends ObjectClass {
@@ -20,78 +21,134 @@ export abstract class SystemCollection extends ObjectClass {
         return;
     }
 
-    static sortWithComparator(t: Thread, callback: CallbackFunction, comparator: ComparatorInterface, list: SystemCollection) {
+    /**
+     * Comparator used if no comparator is given: calls compareTo, null is greater than any other element.
+     */
+    static naturalOrderComparator: ComparatorInterface = <any>{
+        _mj$compare$int$T$T: function (t: Thread, callback: CallbackFunction, object1: ObjectClass, object2: ObjectClass): void {
+            if (object1 == null) {
+                t.s.push(object2 == null ? 0 : 1);
+                if (callback) callback();
+                return;
+            }
 
-        let elements = list.getAllElements();
+            if (object2 == null) {
+                t.s.push(-1);
+                if (callback) callback();
+                return;
+            }
 
-        if (elements.length <= 1) {
-            if (callback) callback(); // nothing to do
-        } else {
-            SystemCollection.quicksort(t, callback, comparator, 0, elements.length - 1, elements);
+            (<ComparableInterface><any>object1)._mj$compareTo$int$T(t, callback, object2);
         }
     }
 
-    static quicksort(t: Thread, callback: CallbackFunction, comparator: ComparatorInterface, fromIndex: number, toIndex: number, elements: ObjectClassOrNull[]) {
-        let that = this;
+    /**
+     * Calls comparator and executes it synchronously if it's compiled java code which doesn't
+     * need to wait (see Thread.runUntilProgramStackHeight).
+     */
+    static compare(t: Thread, comparator: ComparatorInterface, object1: ObjectClassOrNull, object2: ObjectClassOrNull, callback: (result: number) => void) {
+        let programStackHeight = t.programStack.length;
+        comparator._mj$compare$int$T$T(t, () => { callback(t.s.pop()) }, object1, object2);
+        if (t.programStack.length > programStackHeight) t.runUntilProgramStackHeight(programStackHeight);
+    }
+
+    /**
+     * Executes body repeatedly until it calls exit() instead of next(). If body completes
+     * synchronously then javascript stack depth doesn't increase.
+     */
+    static asyncLoop(body: (next: () => void, exit: () => void) => void, callback: () => void) {
+        let run = () => {
+            while (true) {
+                let isInsideBody = true;
+                let result: "pending" | "next" | "exit" = "pending";
+                try {
+                    body(() => {
+                        if (isInsideBody) result = "next"; else run();
+                    }, () => {
+                        if (isInsideBody) result = "exit"; else callback();
+                    });
+                } finally {
+                    // if body throws then its callbacks mustn't be swallowed later on
+                    isInsideBody = false;
+                }
+                if (result == "pending") return;
+                if (result == "exit") {
+                    callback();
+                    return;
+                }
+            }
+        }
+        run();
+    }
 
-        if (toIndex - fromIndex <= 1) {
+    static sortWithComparator(t: Thread, callback: CallbackFunction, comparator: ComparatorInterface | null, list: SystemCollection) {
+        SystemCollection.mergeSort(t, callback, comparator, list.getAllElements());
+    }
+
+    /**
+     * Stable bottom-up merge sort, sorts elements in place. Costs O(n log n) comparisons in any case.
+     * Each comparison is one iteration of asyncLoop, so comparators which complete synchronously
+     * are called in a tight loop and only comparators which have to wait are resumed by callback.
+     */
+    static mergeSort(t: Thread, callback: CallbackFunction, comparator: ComparatorInterface | null, elements: any[]) {
+        let n = elements.length;
+        if (n <= 1) {
             if (callback) callback(); // nothing to do
             return;
         }
 
-        SystemCollection.partition(t, () => {
+        if (!comparator) comparator = SystemCollection.naturalOrderComparator;
 
-            let partitionIndex: number = t.s.pop();
-            SystemCollection.quicksort(t, () => {
-                SystemCollection.quicksort(t, () => {
-                    if (callback) callback();
-                    return;
-                }, comparator, partitionIndex + 1, toIndex, elements);
-            }, comparator, fromIndex, partitionIndex - 1, elements);
+        let source: any[] = elements.slice();
+        let target: any[] = new Array(n);
 
+        // merge source[left, mid) and source[mid, right) into target[left, right)
+        let width = 1;
+        let left = 0, mid = 0, right = 0;
+        let i = 0, j = 0, k = 0;
 
-        }, comparator, fromIndex, toIndex, elements);
+        let startMerge = () => {
+            mid = Math.min(left + width, n);
+            right = Math.min(left + 2 * width, n);
+            i = left;
+            j = mid;
+            k = left;
+        }
 
-    }
+        startMerge();
 
-    private static partition(t: Thread, callback: () => void, comparator: ComparatorInterface, begin: number, end: number, elements: ObjectClassOrNull[]) {
-
-        let pivot: ObjectClassOrNull = elements[end];
-        let i: number = begin - 1;
-
-        let j = begin;
-        let loop = () => {
-            if (j < end) {
-                comparator._mj$compare$int$T$T(t, () => {
-                    if (t.s.pop() <= 0) {
-                        i++;
-
-                        let z = elements[i];
-                        elements[i] = elements[j];
-                        elements[j] = z;
-                        j++;
-                        loop();
-                    } else {
-                        j++;
-                        loop();
-                    }
-                }, elements[j], pivot);
-            } else {
-                // after for-loop
-                let z = elements[i + 1];
-                elements[i + 1] = elements[end];
-                elements[end] = z;
-                t.s.push(i + 1);
-                callback();
+        SystemCollection.asyncLoop((next, exit) => {
+            if (i < mid && j < right) {
+                SystemCollection.compare(t, comparator!, source[i], source[j], (result) => {
+                    // <= keeps equal elements in their order
+                    target[k++] = result <= 0 ? source[i++] : source[j++];
+                    next();
+                });
                 return;
             }
-        }
-
-        loop();
 
+            while (i < mid) target[k++] = source[i++];
+            while (j < right) target[k++] = source[j++];
+
+            left += 2 * width;
+            if (left >= n) {
+                let z = source;
+                source = target;
+                target = z;
+                width *= 2;
+                if (width >= n) {
+                    exit();
+                    return;
+                }
+                left = 0;
+            }
 
+            startMerge();
+            next();
+        }, () => {
+            for (let index = 0; index < n; index++) elements[index] = source[index];
+            if (callback) callback();
+        });
     }
 
-
-
-}
\ No newline at end of file
+}
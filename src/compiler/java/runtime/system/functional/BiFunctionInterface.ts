@@ -0,0 +1,18 @@
+import { CallbackFunction } from "../../../../common/interpreter/StepFunction.ts";
+import { Thread } from "../../../../common/interpreter/Thread.ts";
+import { LibraryDeclarations } from "../../../module/libraries/DeclareType.ts";
+import { NonPrimitiveType } from "../../../types/NonPrimitiveType.ts";
+import { InterfaceClass } from "../javalang/InterfaceClass.ts";
+import { ObjectClassOrNull } from "../javalang/ObjectClassStringClass.ts";
+
+export class BiFunctionInterface extends InterfaceClass {
+    static __javaDeclarations: LibraryDeclarations = [
+        {type: "declaration", signature: "interface BiFunction<T, U, R>"},
+        {type: "method", signature: "R apply(T t, U u)", java: BiFunctionInterface.prototype._mj$apply$R$T$U},
+    ]
+
+    static type: NonPrimitiveType;
+
+    _mj$apply$R$T$U(t: Thread, callback: CallbackFunction, tElement: ObjectClassOrNull, uElement: ObjectClassOrNull){}
+
+}
@@ -0,0 +1,130 @@
+import { Thread, ThreadState } from "../../../../common/interpreter/Thread";
+import { FifoQueue } from "../../../../common/interpreter/ThreadQueues";
+
+type LockRequest = {
+    thread: Thread,
+    reentranceCounter: number,      // restored when thread gets the lock (!= 0 only after wait())
+    isWaiting: boolean              // thread called wait() and hasn't been notified nor timed out yet
+}
+
+/**
+ * Lock state of an object. Objects only get a monitor when they are synchronized on for the
+ * first time (see ObjectClass.getMonitor), so the millions of objects which never are don't pay
+ * for it.
+ *
+ * Threads which want to enter while another thread holds the lock wait in entryQueue, threads
+ * which called wait() wait in waitQueue (both FIFO). When the lock is released it is handed over
+ * to the first thread in entryQueue directly, so no other thread can barge in before that thread
+ * runs again.
+ *
+ * Entering a synchronized block takes two steps: beforeEntering (which may block the thread) and
+ * enter. The lock is reserved for the thread in the first one already.
+ */
+export class Monitor {
+
+    owner?: Thread;
+    reentranceCounter: number = 0;      // == 1 when owner first entered synchronized block
+
+    private entryQueue: FifoQueue<LockRequest> = new FifoQueue();
+    private waitQueue: FifoQueue<LockRequest> = new FifoQueue();
+    private numberOfWaitingThreads: number = 0;     // waitQueue may contain stale requests of threads which timed out
+
+    beforeEntering(t: Thread) {
+        if (!this.owner) {
+            this.owner = t;
+            return;
+        }
+
+        if (this.owner == t) return;
+
+        this.entryQueue.enqueue({ thread: t, reentranceCounter: 0, isWaiting: false });
+        t.state = ThreadState.blocked;
+        t.scheduler.suspendThread(t);
+    }
+
+    enter(t: Thread) {
+        // owner == t due to beforeEntering or handOver
+        this.owner = t;
+        this.reentranceCounter++;
+    }
+
+    leave(t: Thread) {
+        if (this.owner != t) return;
+        this.reentranceCounter--;
+        if (this.reentranceCounter == 0) this.handOver();
+    }
+
+    /**
+     * Caller has to ensure that t is owner.
+     */
+    wait(t: Thread, milliseconds?: number) {
+        let request: LockRequest = { thread: t, reentranceCounter: this.reentranceCounter, isWaiting: true };
+        this.waitQueue.enqueue(request);
+        this.numberOfWaitingThreads++;
+
+        if (milliseconds) {
+            t.state = ThreadState.timedWaiting;
+            t.scheduler.clock.setTimeout(() => {
+                if (request.isWaiting) this.stopWaiting(request);
+            }, milliseconds);
+        } else {
+            t.state = ThreadState.waiting;
+        }
+
+        t.scheduler.suspendThread(t);
+
+        // release lock completely; it's reentranceCounter is restored when thread gets it again
+        this.reentranceCounter = 0;
+        this.handOver();
+    }
+
+    notify() {
+        let request: LockRequest | undefined;
+        while (request = this.waitQueue.dequeue()) {
+            if (request.isWaiting) {
+                this.stopWaiting(request);
+                return;
+            }
+        }
+    }
+
+    notifyAll() {
+        let request: LockRequest | undefined;
+        while (request = this.waitQueue.dequeue()) {
+            if (request.isWaiting) this.stopWaiting(request);
+        }
+    }
+
+    /**
+     * Thread has been notified or timed out: it has to get the lock before it continues.
+     */
+    private stopWaiting(request: LockRequest) {
+        request.isWaiting = false;
+        if (--this.numberOfWaitingThreads == 0) this.waitQueue.clear();
+
+        if (!this.owner) {
+            this.grant(request);
+        } else {
+            request.thread.state = ThreadState.blocked;
+            this.entryQueue.enqueue(request);
+        }
+    }
+
+    private handOver() {
+        this.owner = undefined;
+
+        let request: LockRequest | undefined;
+        while (request = this.entryQueue.dequeue()) {
+            if (request.thread.state >= ThreadState.terminated) continue;
+            this.grant(request);
+            return;
+        }
+    }
+
+    private grant(request: LockRequest) {
+        this.owner = request.thread;
+        this.reentranceCounter = request.reentranceCounter;
+        request.thread.scheduler.restoreThread(request.thread);
+    }
+
+}
@@ -1,11 +1,12 @@
 import { JRC } from "../../../language/JavaRuntimeLibraryComments";
 import { ValueRenderer } from "../../../../common/debugger/ValueRenderer.ts";
 import { CallbackFunction } from "../../../../common/interpreter/StepFunction.ts";
-import { Thread, ThreadState } from "../../../../common/interpreter/Thread";
+import { Thread } from "../../../../common/interpreter/Thread";
 import { LibraryDeclarations } from "../../../module/libraries/DeclareType.ts";
 import { NonPrimitiveType } from "../../../types/NonPrimitiveType";
 import { JCM } from "../../../language/JavaCompilerMessages.ts";
 import { IPrimitiveTypeWrapper } from "../primitiveTypes/wrappers/IPrimitiveTypeWrapper.ts";
+import { Monitor } from "./Monitor.ts";
 
 export type ObjectClassOrNull = ObjectClass | null;
 
@@ -18,6 +19,7 @@ export class ObjectClass {
         { type: "method", signature: "public Object()", native: ObjectClass.prototype._constructor },
         { type: "method", signature: "public String toString()", java: ObjectClass.prototype._mj$toString$String$, comment: JRC.objectToStringComment },
         { type: "method", signature: "public boolean equals(Object otherObject)", java: ObjectClass.prototype._mj$equals$boolean$Object, comment: JRC.objectEqualsComment },
+        { type: "method", signature: "public int hashCode()", native: ObjectClass.prototype._nHashCode, java: ObjectClass.prototype._mj$hashCode$int$, comment: JRC.objectHashCodeComment },
         { type: "method", signature: "public final void wait()", java: ObjectClass.prototype._mj$wait$void$, comment: JRC.objectWaitComment },
         { type: "method", signature: "public final void wait(int milliseconds)", java: ObjectClass.prototype._mj$wait$void$, comment: JRC.objectWaitWithTimeoutComment },
         { type: "method", signature: "public final void notify()", java: ObjectClass.prototype._mj$notify$void$, comment: JRC.objectNotifyComment },
@@ -28,9 +30,12 @@ export class ObjectClass {
 
     static type: NonPrimitiveType;
 
-    private waitingThreads?: Thread[];
-    private threadHoldingLockToThisObject?: Thread;
-    private reentranceCounter?: number;                 // == 1 when thread first entered synchronized block
+    // identity hash codes are stored outside of the objects so that they don't show up in the debugger
+    private static identityHashCodes: WeakMap<object, number> = new WeakMap();
+    private static identityHashCodeCounter: number = 0;
+
+    // lock state is stored outside of the objects, too: only few objects are ever synchronized on (see Monitor)
+    private static monitors: WeakMap<ObjectClass, Monitor> = new WeakMap();
 
     constructor() {
 
@@ -48,69 +53,42 @@ export class ObjectClass {
      * @param milliseconds 
     */
     _mj$wait$void$(t: Thread, callback: CallbackFunction, milliseconds?: number) {
-        if (this.threadHoldingLockToThisObject != t) {
+        let monitor = ObjectClass.monitors.get(this);
+        if (monitor?.owner != t) {
             this.throwIllegalMonitorException(t, JCM.threadWantsToWaitAndHasNoLockOnObject());
         }
 
-        let that = this;
-
-        if (milliseconds) {
-            setTimeout(() => {
-                if (t.state == ThreadState.timedWaiting) t.state = ThreadState.blocked;
-            }, milliseconds);
-
-            t.state = ThreadState.timedWaiting;
-        } else {
-            t.state = ThreadState.waiting;
-        }
-
-        if (!that.waitingThreads) that.waitingThreads = [];
-        if (that.waitingThreads.indexOf(t) < 0) that.waitingThreads.push(t);
-
-        t.scheduler.suspendThread(t);
+        monitor!.wait(t, milliseconds);
 
         if (callback) callback();
     }
 
 
     _mj$notify$void$(t: Thread, callback: CallbackFunction) {
-        if (this.threadHoldingLockToThisObject != t) {
+        let monitor = ObjectClass.monitors.get(this);
+        if (monitor?.owner != t) {
             this.throwIllegalMonitorException(t, JCM.threadWantsToNotifyAndHasNoLockOnObject());
         }
-        if (this.waitingThreads) {
-            for (let i = 0; i < this.waitingThreads.length; i++) {
-                if ([ThreadState.waiting, ThreadState.timedWaiting].indexOf(this.waitingThreads[i].state) >= 0) {
-                    this.waitingThreads[i].state = ThreadState.blocked;
-                    break;
-                }
-            }
-        }
+        monitor!.notify();
         if (callback) callback();
     }
 
     _mj$notifyAll$void$(t: Thread, callback: CallbackFunction) {
-        if (this.threadHoldingLockToThisObject != t) {
+        let monitor = ObjectClass.monitors.get(this);
+        if (monitor?.owner != t) {
             this.throwIllegalMonitorException(t, JCM.threadWantsToNotifyAndHasNoLockOnObject());
         }
-        if (this.waitingThreads) {
-            for (let t of this.waitingThreads) {
-                t.state = ThreadState.blocked;
-            }
-        }
+        monitor!.notifyAll();
         if (callback) callback();
     }
 
-    restoreOneBlockedThread() {
-        if (this.waitingThreads) {
-            for (let i = 0; i < this.waitingThreads.length - 1; i++) {
-                let t = this.waitingThreads[i];
-                if (t.state == ThreadState.blocked) {
-                    this.waitingThreads.splice(i, 1);
-                    t.scheduler.restoreThread(t);
-                    break;
-                }
-            }
+    private getMonitor(): Monitor {
+        let monitor = ObjectClass.monitors.get(this);
+        if (!monitor) {
+            monitor = new Monitor();
+            ObjectClass.monitors.set(this, monitor);
         }
+        return monitor;
     }
 
     throwIllegalMonitorException(t: Thread, message: string) {
@@ -146,10 +124,7 @@ export class ObjectClass {
     beforeEnteringSynchronizedBlock(t: Thread, pushLockObject: boolean = false) {
         if (pushLockObject) t.s.push(this);
 
-        if (this.threadHoldingLockToThisObject && this.threadHoldingLockToThisObject != t) {
-            t.state == ThreadState.blocked;
-            t.scheduler.suspendThread(t);
-        }
+        this.getMonitor().beforeEntering(t);
     }
 
 
@@ -157,32 +132,58 @@ export class ObjectClass {
 
         if (pushLockObject) t.s.push(this);
 
-        if (!this.threadHoldingLockToThisObject) {
-            this.threadHoldingLockToThisObject = t;
-            this.reentranceCounter = 1;
-        } else {
-            this.reentranceCounter!++;
-        }
+        this.getMonitor().enter(t);
 
         t.registerEnteringSynchronizedBlock(this);
     }
 
     leaveSynchronizedBlock(t: Thread) {
-        if (this.threadHoldingLockToThisObject == t) {
-            this.reentranceCounter!--;
-            if (this.reentranceCounter == 0) {
-                this._mj$notifyAll$void$(t, undefined);
-                this.threadHoldingLockToThisObject = undefined;
-                this.reentranceCounter = undefined;
-                this.restoreOneBlockedThread();
-            }
-        }
+        ObjectClass.monitors.get(this)?.leave(t);
+    }
+
+    _nHashCode(): number {
+        return ObjectClass.hashCodeOfInternalValue(this.__internalHashCode());
+    }
+
+    _mj$hashCode$int$(t: Thread, callback: CallbackFunction) {
+        t.s.push(this._nHashCode());
+        if (callback) callback();
     }
 
     __internalHashCode(): any {
         return this;
     }
 
+    /**
+     * Java-compatible hash code of the value returned by __internalHashCode(): strings hash
+     * like java.lang.String, integers to themselves, objects to their identity hash code.
+     */
+    static hashCodeOfInternalValue(value: any): number {
+        switch (typeof value) {
+            case "string":
+                let h = 0;
+                for (let c of value) h = Math.imul(31, h) + c.charCodeAt(0) | 0;
+                return h;
+            case "number":
+                if (Number.isInteger(value) && value >= -0x80000000 && value <= 0x7fffffff) return value;
+                return ObjectClass.hashCodeOfInternalValue("" + value);
+            case "boolean":
+                return value ? 1231 : 1237;
+            case "bigint":
+                return ObjectClass.hashCodeOfInternalValue(value.toString());
+            case "object":
+                if (value == null) return 0;
+                let hashCode = ObjectClass.identityHashCodes.get(value);
+                if (hashCode === undefined) {
+                    // multiplication with golden ratio spreads consecutive numbers over all buckets
+                    hashCode = Math.imul(++ObjectClass.identityHashCodeCounter, 0x9e3779b1);
+                    ObjectClass.identityHashCodes.set(value, hashCode);
+                }
+                return hashCode;
+        }
+        return 0;
+    }
+
 }
 
 export class StringClass extends ObjectClass implements IPrimitiveTypeWrapper {
@@ -40,7 +40,8 @@ export class SystemClass extends ObjectClass {
         { type: "declaration", signature: "class System extends Object", comment: JRC.SystemClassComment },
         { type: "field", signature: "static PrintStream out", comment: JRC.SystemOutComment},
         { type: "method", signature: "static void exit(int status)", java: SystemClass._mj$exit$void$int, comment: JRC.SystemExitComment },
-        { type: "method", signature: "static int currentTimeMillis()", native: SystemClass._currentTimeMillis, comment: JRC.SystemCurrentTimeMillisComment },
+        { type: "method", signature: "static int currentTimeMillis()", java: SystemClass._mj$currentTimeMillis$int$, comment: JRC.SystemCurrentTimeMillisComment },
+        { type: "method", signature: "static long nanoTime()", java: SystemClass._mj$nanoTime$long$, comment: JRC.SystemNanoTimeComment },
     ];    
 
     static type: NonPrimitiveType;
@@ -52,8 +53,12 @@ export class SystemClass extends ObjectClass {
         t.scheduler.exit(status);
     }    
 
-    static _currentTimeMillis(){
-        return Math.round(performance.now()) + SystemClass.deltaTimeMillis;
+    static _mj$currentTimeMillis$int$(t: Thread){
+        t.s.push(Math.round(t.scheduler.clock.currentTimeMillis()) + SystemClass.deltaTimeMillis);
+    }
+
+    static _mj$nanoTime$long$(t: Thread){
+        t.s.push(Math.round(t.scheduler.clock.now() * 1e6));
     }    
 
 
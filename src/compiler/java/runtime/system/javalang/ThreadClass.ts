@@ -9,6 +9,7 @@ import { NonPrimitiveType } from "../../../types/NonPrimitiveType.ts";
 import { EnumClass } from "./EnumClass.ts";
 import { ObjectClass, StringClass } from "./ObjectClassStringClass.ts";
 import { RunnableInterface } from "./RunnableInterface.ts";
+import { RuntimeExceptionClass } from "./RuntimeException.ts";
 
 
 export class ThreadStateClass extends EnumClass {
@@ -81,6 +82,7 @@ export class ThreadClass extends ObjectClass implements RunnableInterface {
         { type: "method", signature: "public string getName()", template: `§1.name` , comment: JRC.threadGetNameComment},
         { type: "method", signature: "public void setName(string name)", java: ThreadClass.prototype._setName , comment: JRC.threadSetNameComment},
         { type: "method", signature: "public void setSpeed(int maxStepsPerSecond)", java: ThreadClass.prototype._setSpeed , comment: JRC.threadSetSpeedComment},
+        { type: "method", signature: "public static void sleep(long millis)", java: ThreadClass._mj$sleep$void$long, comment: JRC.threadSleepComment},
     ]
 
 
@@ -145,6 +147,14 @@ export class ThreadClass extends ObjectClass implements RunnableInterface {
         this.threadsToJoinWhenFinished.length = 0;
     }
 
+    static _mj$sleep$void$long(t: Thread, millis: number){
+        if(millis < 0){
+            throw new RuntimeExceptionClass(JRC.threadSleepTimeLower0());
+        }
+        if(millis == 0) return;
+        t.scheduler.sleep(t, millis);
+    }
+
     _mj$join(t: Thread, callback: CallbackFunction, milliseconds?: number){
 
         // only other thread can join this thread
@@ -157,7 +167,7 @@ export class ThreadClass extends ObjectClass implements RunnableInterface {
 
         if(milliseconds){
 
-            setTimeout(() => {
+            t.scheduler.clock.setTimeout(() => {
                 let index = that.threadsToJoinWhenFinished.indexOf(t);
                 if(index >= 0) that.threadsToJoinWhenFinished.splice(index, 1);
                 t.scheduler.restoreThread(t);
@@ -6,6 +6,7 @@ export class BytePrimitiveType extends PrimitiveType {
     constructor(module: JavaBaseModule){
         super('byte', module);
         this.defaultValueAsString = "0";
+        this.typedArrayConstructorName = "Int8Array";
     }
     
     isUsableAsIndex(): boolean {
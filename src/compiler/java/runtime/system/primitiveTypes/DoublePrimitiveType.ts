@@ -6,6 +6,7 @@ export class DoublePrimitiveType extends PrimitiveType {
     constructor(module: JavaBaseModule){
         super('double', module);
         this.defaultValueAsString = "0.0";
+        this.typedArrayConstructorName = "Float64Array";
     }
     
     isUsableAsIndex(): boolean {
@@ -6,6 +6,7 @@ export class FloatPrimitiveType extends PrimitiveType {
     constructor(module: JavaBaseModule){
         super('float', module);
         this.defaultValueAsString = "0.0";
+        this.typedArrayConstructorName = "Float64Array";
     }
     
     isUsableAsIndex(): boolean {
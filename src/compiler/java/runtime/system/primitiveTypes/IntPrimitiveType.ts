@@ -6,6 +6,7 @@ export class IntPrimitiveType extends PrimitiveType {
     constructor(module: JavaBaseModule){
         super('int', module);
         this.defaultValueAsString = "0";
+        this.typedArrayConstructorName = "Int32Array";
     }
     
     isUsableAsIndex(): boolean {
@@ -6,6 +6,7 @@ export class LongPrimitiveType extends PrimitiveType {
     constructor(module: JavaBaseModule){
         super('long', module);
         this.defaultValueAsString = "0";
+        this.typedArrayConstructorName = "Float64Array";
     }
     
     isUsableAsIndex(): boolean {
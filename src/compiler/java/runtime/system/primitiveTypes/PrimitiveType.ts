@@ -12,6 +12,14 @@ export abstract class PrimitiveType extends JavaType {
     defaultValueAsString: string = "0";
     defaultValue: any = 0;
 
+    /**
+     * Arrays of numeric primitive types are backed by typed arrays (int[] -> Int32Array, ...), which need
+     * much less memory and behave like java on overflow. boolean and char values are no numbers in
+     * javascript, so their arrays are ordinary arrays.
+     * long and float values are stored as javascript numbers, therefore Float64Array.
+     */
+    typedArrayConstructorName?: string;
+
     static boxedTypeIdentifiers: string[] = ["Boolean", "Character", "Byte", "Short", "Integer", "Long", "Float", "Double"];
     static typeIdentifiers: string[] = ['boolean', 'char', 'byte', 'short', 'int', 'long', 'float', 'double'];
 
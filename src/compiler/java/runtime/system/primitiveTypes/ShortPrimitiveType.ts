@@ -6,6 +6,7 @@ export class ShortPrimitiveType extends PrimitiveType {
     constructor(module: JavaBaseModule){
         super('short', module);
         this.defaultValueAsString = "0";
+        this.typedArrayConstructorName = "Int16Array";
     }
     
     isUsableAsIndex(): boolean {
@@ -138,19 +138,6 @@ export abstract class IJavaClass extends JavaTypeWithInstanceInitializer {
     }
 
 
-    getField(identifier: string, uptoVisibility: Visibility, forceStatic: boolean = false): JavaField | undefined {
-        let field = this.getFields().find(f => f.identifier == identifier && f.visibility <= uptoVisibility && (f._isStatic || !forceStatic));
-        if (field) return field;
-        if (uptoVisibility == TokenType.keywordPrivate) uptoVisibility = TokenType.keywordProtected;
-
-        let baseClass = this.getExtends();
-        if (baseClass) {
-            return baseClass.getField(identifier, uptoVisibility, forceStatic);
-        } else {
-            return undefined;
-        }
-    }
-
     toString(): string {
         let s: string = this.identifier;
 
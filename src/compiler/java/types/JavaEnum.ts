@@ -40,15 +40,6 @@ export class JavaEnum extends JavaTypeWithInstanceInitializer {
         return JCM.enum();
     }
 
-    getField(identifier: string, uptoVisibility: Visibility, forceStatic: boolean = false): JavaField | undefined {
-        let field = this.getFields().find(f => f.identifier == identifier && f.visibility <= uptoVisibility && (f._isStatic || !forceStatic));
-        if (field) return field;
-        if (uptoVisibility == TokenType.keywordPrivate) uptoVisibility = TokenType.keywordProtected;
-
-        return this.baseEnumClass.getField(identifier, uptoVisibility, forceStatic);
-
-    }
-
     removeField(identifier: string){
         let index = this.fields.findIndex(field => field.identifier == identifier);
         if(index >= 0) this.fields.splice(index, 1);
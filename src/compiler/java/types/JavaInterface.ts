@@ -48,17 +48,6 @@ export abstract class IJavaInterface extends NonPrimitiveType {
         return undefined;
     }
 
-    getField(identifier: string, uptoVisibility: Visibility, forceStatic: boolean = false): JavaField | undefined {
-        let field = this.getFields().find(f => f.identifier == identifier && f.visibility <= uptoVisibility && (f._isStatic || !forceStatic));
-        if (field) return field;
-        if (uptoVisibility == TokenType.keywordPrivate) uptoVisibility = TokenType.keywordProtected;
-        for (let interf of this.getExtends()) {
-            field = interf.getField(identifier, uptoVisibility, forceStatic);
-            if (field) return field
-        }
-        return undefined;
-    }
-
     toString(): string {
         let s: string = this.identifier;
 
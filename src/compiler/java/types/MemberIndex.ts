@@ -0,0 +1,137 @@
+import { TokenType } from "../TokenType";
+import { JavaField } from "./JavaField";
+import { JavaMethod } from "./JavaMethod";
+import { NonPrimitiveType } from "./NonPrimitiveType";
+import { Visibility } from "./Visibility";
+
+type IndexedField = { field: JavaField, isInherited: boolean };
+
+/**
+ * Lookup tables identifier => fields/methods of a type including the ones inherited from its
+ * supertypes. They replace linear scans over field lists and concatenation of method lists up
+ * the type hierarchy on every lookup (see NonPrimitiveType.getMemberIndex).
+ *
+ * Fields and methods of user defined types are added while compiling (e.g. standard constructors,
+ * default methods copied from interfaces, invisible fields for outer local variables), so an index
+ * remembers which member lists and supertype indices it has been built from and gets rebuilt
+ * if any of them changed (see isUpToDate).
+ */
+export class MemberIndex {
+
+    /**
+     * candidates for each field identifier in lookup order: own fields first, then fields of
+     * supertypes (depth first)
+     */
+    private fieldMap: Map<string, IndexedField[]> = new Map();
+
+    /**
+     * non-constructor methods for each identifier in the same order as NonPrimitiveType.getPossibleMethods
+     * had collected them
+     */
+    private methodMap: Map<string, JavaMethod[]> = new Map();
+
+    constructors: JavaMethod[] = [];
+
+    private ownFields: JavaField[];
+    private ownFieldCount: number;
+    private ownMethods: JavaMethod[];
+    private ownMethodCount: number;
+    private supertypeIndices: MemberIndex[];
+
+    constructor(private type: NonPrimitiveType, private supertypes: NonPrimitiveType[]) {
+        this.ownFields = type.getFields();
+        this.ownFieldCount = this.ownFields.length;
+        this.ownMethods = type.getOwnMethods();
+        this.ownMethodCount = this.ownMethods.length;
+        this.supertypeIndices = supertypes.map(st => st.getMemberIndex());
+
+        for (let field of this.ownFields) {
+            this.addField(field, false);
+        }
+
+        for (let method of this.ownMethods) {
+            if (method.isConstructor) {
+                this.constructors.push(method);
+            } else {
+                this.addMethod(method);
+            }
+        }
+
+        for (let supertypeIndex of this.supertypeIndices) {
+            supertypeIndex.fieldMap.forEach(indexedFields => {
+                for (let indexedField of indexedFields) this.addField(indexedField.field, true);
+            });
+            supertypeIndex.methodMap.forEach(methods => {
+                for (let method of methods) this.addMethod(method);
+            });
+        }
+    }
+
+    isUpToDate(supertypes: NonPrimitiveType[]): boolean {
+        if (!MemberIndex.isSameList(this.ownFields, this.type.getFields(), this.ownFieldCount)) return false;
+        if (!MemberIndex.isSameList(this.ownMethods, this.type.getOwnMethods(), this.ownMethodCount)) return false;
+        if (!MemberIndex.isSameList(this.supertypes, supertypes, this.supertypes.length)) return false;
+
+        for (let i = 0; i < supertypes.length; i++) {
+            if (supertypes[i].getMemberIndex() != this.supertypeIndices[i]) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Some types (e.g. interfaces) return a new empty list on each call of getFields.
+     */
+    private static isSameList(oldList: any[], newList: any[], oldLength: number) {
+        if (newList.length != oldLength) return false;
+        if (newList === oldList || oldLength == 0) return true;
+        for (let i = 0; i < oldLength; i++) {
+            if (newList[i] !== oldList[i]) return false;
+        }
+        return true;
+    }
+
+    private addField(field: JavaField, isInherited: boolean) {
+        let list = this.fieldMap.get(field.identifier);
+        if (!list) {
+            list = [];
+            this.fieldMap.set(field.identifier, list);
+        }
+        list.push({ field: field, isInherited: isInherited });
+    }
+
+    private addMethod(method: JavaMethod) {
+        let list = this.methodMap.get(method.identifier);
+        if (!list) {
+            list = [];
+            this.methodMap.set(method.identifier, list);
+        }
+        list.push(method);
+    }
+
+    /**
+     * For inherited fields uptoVisibility private is lowered to protected.
+     */
+    getField(identifier: string, uptoVisibility: Visibility, forceStatic: boolean): JavaField | undefined {
+        let candidates = this.fieldMap.get(identifier);
+        if (!candidates) return undefined;
+
+        let inheritedUptoVisibility = uptoVisibility == TokenType.keywordPrivate ? TokenType.keywordProtected : uptoVisibility;
+
+        for (let candidate of candidates) {
+            let field = candidate.field;
+            if (field.visibility <= (candidate.isInherited ? inheritedUptoVisibility : uptoVisibility)
+                && (field._isStatic || !forceStatic)) return field;
+        }
+
+        return undefined;
+    }
+
+    /**
+     * The returned list is shared and must not be altered.
+     */
+    getMethods(identifier: string): JavaMethod[] {
+        return this.methodMap.get(identifier) || [];
+    }
+
+}
@@ -10,6 +10,7 @@ import { StaticNonPrimitiveType } from "./StaticNonPrimitiveType.ts";
 import { Visibility } from "./Visibility.ts";
 import { BaseObjectType } from "../../common/BaseType.ts";
 import { JavaAnnotation } from "./JavaAnnotation.ts";
+import { MemberIndex } from "./MemberIndex.ts";
 
 /**
  * A NonPrimitiveType 
@@ -33,7 +34,9 @@ export abstract class NonPrimitiveType extends JavaType implements BaseObjectTyp
         return this.getFields();
     }
 
-    abstract getField(identifier: string, uptoVisibility: Visibility, forceStatic?: boolean): JavaField | undefined;
+    getField(identifier: string, uptoVisibility: Visibility, forceStatic: boolean = false): JavaField | undefined {
+        return this.getMemberIndex().getField(identifier, uptoVisibility, forceStatic);
+    }
 
     abstract getCompletionItems(visibilityUpTo: Visibility, leftBracketAlreadyThere: boolean, identifierAndBracketAfterCursor: string,
         rangeToReplace: monaco.IRange, methodContext: JavaMethod | undefined, onlyStatic?: boolean): monaco.languages.CompletionItem[];
@@ -73,6 +76,8 @@ export abstract class NonPrimitiveType extends JavaType implements BaseObjectTyp
 
     annotations: JavaAnnotation[] = [];
 
+    private memberIndex?: MemberIndex;
+
     constructor(identifier: string, identifierRange: IRange, pathAndIdentifier: string, module: JavaBaseModule) {
         super(identifier, identifierRange, module);
         this.isPrimitive = false;
@@ -109,44 +114,46 @@ export abstract class NonPrimitiveType extends JavaType implements BaseObjectTyp
         };
     }
 
+    /**
+     * Returns lookup tables for own and inherited fields and methods. They are built lazily and
+     * rebuilt if members of this type or one of its supertypes changed.
+     */
+    getMemberIndex(): MemberIndex {
+        let supertypes = this.getDirectSupertypes();
+        if (!this.memberIndex || !this.memberIndex.isUpToDate(supertypes)) {
+            this.memberIndex = new MemberIndex(this, supertypes);
+        }
+        return this.memberIndex;
+    }
+
+    private getDirectSupertypes(): NonPrimitiveType[] {
+        //@ts-ignore
+        if (!this["getExtends"]) return [];
+        //@ts-ignore
+        let ext = this.getExtends() as NonPrimitiveType | NonPrimitiveType[] | undefined;        // is array if this instanceOf JavaInterface
+        if (!ext) return [];
+        return Array.isArray(ext) ? ext : [ext];
+    }
+
     getPossibleMethods(identifier: string, isConstructor: boolean, hasToBeStatic: boolean): JavaMethod[] {
-        let methodsWithArbitraryParameterCount: JavaMethod[] = [];
 
         if (isConstructor) {
             let type: NonPrimitiveType | undefined = this;
             while (type) {
-                let constructorList = type.getOwnMethods().filter(m => m.isConstructor);
-                methodsWithArbitraryParameterCount = methodsWithArbitraryParameterCount
-                    .concat(constructorList);
+                let constructorList = type.getMemberIndex().constructors;
                 //@ts-ignore
                 if (type["getExtends"] && constructorList.length == 0) {
                     //@ts-ignore
                     type = type.getExtends();
                 } else {
-                    break;
+                    return constructorList.slice();
                 }
             }
-
-        } else {
-
-            methodsWithArbitraryParameterCount = this.getOwnMethods()
-                .filter(m => !m.isConstructor && m.identifier == identifier && (!hasToBeStatic || m.isStatic))
-
-            //@ts-ignore
-            let ext = this.getExtends() as NonPrimitiveType | NonPrimitiveType[] | undefined;        // is array if this instanceOf JavaInterface
-
-            if (ext) {
-                if (!Array.isArray(ext)) ext = [ext];
-
-                for (let type of ext) {
-                    methodsWithArbitraryParameterCount = methodsWithArbitraryParameterCount
-                        .concat(type.getPossibleMethods(identifier, isConstructor, hasToBeStatic));
-                }
-            }
-
+            return [];
         }
 
-        return methodsWithArbitraryParameterCount;
+        let methods = this.getMemberIndex().getMethods(identifier);
+        return hasToBeStatic ? methods.filter(m => m.isStatic) : methods.slice();
     }
 
     isVisibleFrom(classContext: NonPrimitiveType | undefined) {
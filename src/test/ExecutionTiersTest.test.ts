@@ -0,0 +1,255 @@
+import { expect, test } from 'vitest'
+
+import { SymbolOnStackframe } from '../compiler/common/BaseSymbolTable';
+import { Interpreter } from '../compiler/common/interpreter/Interpreter';
+import { Program } from '../compiler/common/interpreter/Program';
+import { Thread } from '../compiler/common/interpreter/Thread';
+import { CompilerFile } from '../compiler/common/module/CompilerFile';
+import { compileFiles, runMainProgram, StoreOutputPrintManager } from './TestHelpers';
+
+type RunResult = {
+  output: string,
+  exception?: string,
+  stacktraceLines: (number | undefined)[],
+  steps: number
+}
+
+/**
+ * Runs program with given Program.hotnessThreshold: 0 means fused steps (or whole-method functions) from
+ * the very beginning, Number.POSITIVE_INFINITY means single steps only.
+ */
+function run(sourcecode: string, hotnessThreshold: number): RunResult {
+  let oldHotnessThreshold = Program.hotnessThreshold;
+  Program.hotnessThreshold = hotnessThreshold;
+
+  try {
+    let file = new CompilerFile();
+    file.setText(sourcecode);
+    let { output, interpreter } = runMainProgram(compileFiles([file]));
+
+    let thread = interpreter.mainThread!;
+
+    return {
+      output: output,
+      exception: thread.exception ? thread.exception.getIdentifier() + ": " + thread.exception.getMessage() : undefined,
+      stacktraceLines: (thread.stackTrace || []).map(ste => ste.range?.startLineNumber),
+      steps: interpreter.scheduler.stepCountSinceStartOfProgram
+    }
+
+  } finally {
+    Program.hotnessThreshold = oldHotnessThreshold;
+  }
+}
+
+/**
+ * Value of local variable in current stackframe of thread (as shown by debugger)
+ */
+function getLocalVariable(thread: Thread, identifier: string): any {
+  let programState = thread.currentProgramState;
+  let range = programState.program.stepsSingle[programState.stepIndex].range;
+  let symbolTable = programState.program.symbolTable?.findSymbolTableAtPosition({ lineNumber: range.startLineNumber!, column: range.startColumn! });
+  while (symbolTable) {
+    let symbol = symbolTable.identifierToSymbolMap.get(identifier);
+    if (symbol) return (<SymbolOnStackframe>symbol).getValue(thread.s, programState.stackBase);
+    symbolTable = symbolTable.parent;
+  }
+  return undefined;
+}
+
+/**
+ * returns number of (first) line containing given marker
+ */
+function lineOf(sourcecode: string, marker: string): number {
+  return sourcecode.substring(0, sourcecode.indexOf(marker)).split("\n").length;
+}
+
+let callInsideConditionalExpression = `int sum = 0;
+for (int i = 0; i < 10; i++) {
+   sum += i < 9 ?
+      Helper.f(i) :      // call f
+      Helper.g(i);       // call g
+}
+println(sum);
+
+class Helper {
+   static int f(int i) {
+      if (i == 8) throw new RuntimeException("Boom " + i);     // throw
+      return i;
+   }
+
+   static int g(int i) {
+      return 2 * i;
+   }
+}
+`;
+
+test('Exception position after fused step', () => {
+  let result = run(callInsideConditionalExpression, 0);
+
+  expect(result.exception).toBe("RuntimeException: Boom 8");
+  expect(result.stacktraceLines).toStrictEqual([
+    lineOf(callInsideConditionalExpression, "// throw"),
+    lineOf(callInsideConditionalExpression, "// call f")
+  ]);
+})
+
+let exceptionInsideWholeMethodFunction = `int[] values = new int[2000];
+int sum = Tier.sumUntil(values, 2500);      // call
+println(sum);
+
+class Tier {
+   static int sumUntil(int[] a, int n) {
+      int sum = 0;
+      for(int i = 0; i < n; i++){
+         sum += a[i];      // index
+      }
+      return sum;
+   }
+}
+`;
+
+test('Exception inside hot loop of whole-method function', () => {
+  for (let hotnessThreshold of [0, Program.hotnessThreshold, Number.POSITIVE_INFINITY]) {
+    let result = run(exceptionInsideWholeMethodFunction, hotnessThreshold);
+
+    expect(result.exception, "hotness threshold " + hotnessThreshold).toMatch(/^IndexOutOfBoundsException: /);
+    expect(result.output, "hotness threshold " + hotnessThreshold).toBe("");
+    expect(result.stacktraceLines, "hotness threshold " + hotnessThreshold).toStrictEqual([
+      lineOf(exceptionInsideWholeMethodFunction, "// index"),
+      lineOf(exceptionInsideWholeMethodFunction, "// call")
+    ]);
+  }
+})
+
+let breakpointInsideWholeMethodFunction = `int sum = Tier.sumOfRemainders(100000);
+println(sum);
+
+class Tier {
+   static int sumOfRemainders(int n) {
+      int sum = 0;
+      for(int i = 0; i < n; i++){
+         sum += i % 100;      // breakpoint
+      }
+      return sum;
+   }
+}
+`;
+
+test('Breakpoint inside hot loop of whole-method function', () => {
+  let file = new CompilerFile();
+  file.setText(breakpointInsideWholeMethodFunction);
+  let executable = compileFiles([file]);
+
+  let interpreter = new Interpreter(new StoreOutputPrintManager());
+  interpreter.setExecutable(executable);
+  interpreter.start();
+
+  // loop gets hot and continues as whole-method function:
+  interpreter.scheduler.run(20000);
+  let thread = interpreter.mainThread!;
+  expect(thread.currentProgramState.program.stepsMultiple.length).toBeGreaterThan(0);
+
+  let breakpointLine = lineOf(breakpointInsideWholeMethodFunction, "// breakpoint");
+  executable.findModuleByFile(file)!.findStep(breakpointLine)!.setBreakpoint();
+
+  interpreter.runREPLSynchronously();
+
+  expect(thread.currentProgramState.program.stepsSingle[thread.currentProgramState.stepIndex].range.startLineNumber).toBe(breakpointLine);
+
+  let i: number = getLocalVariable(thread, "i");
+  let sum: number = getLocalVariable(thread, "sum");
+  expect(i).toBeGreaterThan(Program.hotnessThreshold);
+
+  let expectedSum = 0;
+  for (let j = 0; j < i; j++) expectedSum += j % 100;
+  expect(sum).toBe(expectedSum);
+})
+
+let mixedControlFlow = `int sum = 0;
+String text = "";
+for(int i = 0; i < 200; i++){
+   switch(i % 4){
+      case 0: sum += i; break;
+      case 1: sum -= 1; continue;
+      case 2: text = "return 3;"; break;
+      default: sum += Calc.square(i % 7);
+   }
+   if(i % 50 == 0) text += i;
+   int k = 0;
+   while(true){
+      k++;
+      if(k > i % 5) break;
+   }
+   sum += k;
+   try {
+      if(i % 60 == 59) throw new RuntimeException("r" + i);
+      sum++;
+   } catch (RuntimeException ex) {
+      text += ex.getMessage();
+   } finally {
+      sum += 2;
+   }
+   sum += i % 3 == 0 ? Calc.square(2) : Calc.cube(1);
+}
+println(sum + " " + text);
+Calc.fail(sum);      // call
+
+class Calc {
+   static int square(int x) {
+      return x * x;
+   }
+
+   static int cube(int x) {
+      return x * x * x;
+   }
+
+   static void fail(int x) {
+      int[] a = new int[1];
+      a[x % 1 + 1] = 5;     // throw
+   }
+}
+`;
+
+test('Fused steps behave like single steps', () => {
+  let singleSteps = run(mixedControlFlow, Number.POSITIVE_INFINITY);
+
+  expect(singleSteps.output).toMatch(/^-?\d+ .*return 3;/);
+  expect(singleSteps.exception).toMatch(/^IndexOutOfBoundsException: /);
+  expect(singleSteps.stacktraceLines).toStrictEqual([
+    lineOf(mixedControlFlow, "// throw"),
+    lineOf(mixedControlFlow, "// call")
+  ]);
+
+  // 0: fused from the beginning, 10: tier-up while running
+  for (let hotnessThreshold of [0, 10]) {
+    expect(run(mixedControlFlow, hotnessThreshold), "hotness threshold " + hotnessThreshold).toStrictEqual(singleSteps);
+  }
+})
+
+let exceptionInsideComparator = `ArrayList<Integer> list = new ArrayList<>();
+for (int i = 0; i < 50; i++) list.add(50 - i);
+Collections.sort(list, (x, y) -> Cmp.compare(x, y));      // sort
+println(list.get(0));
+
+class Cmp {
+   static int compare(int x, int y) {
+      int d = x - y;
+      if (x == 17) d = d / (y - y);      // throw
+      return d;
+   }
+}
+`;
+
+test('Exception inside comparator called synchronously by library code', () => {
+  for (let hotnessThreshold of [0, Number.POSITIVE_INFINITY]) {
+    let result = run(exceptionInsideComparator, hotnessThreshold);
+
+    expect(result.exception, "hotness threshold " + hotnessThreshold).toMatch(/^ArithmeticException: /);
+    expect(result.output, "hotness threshold " + hotnessThreshold).toBe("");
+
+    // stacktrace: Cmp.compare, lambda, main program
+    let lines = result.stacktraceLines;
+    expect(lines[0], "hotness threshold " + hotnessThreshold).toBe(lineOf(exceptionInsideComparator, "// throw"));
+    expect(lines[lines.length - 1], "hotness threshold " + hotnessThreshold).toBe(lineOf(exceptionInsideComparator, "// sort"));
+  }
+})
@@ -0,0 +1,122 @@
+import { expect, test } from 'vitest'
+
+import { Executable } from '../compiler/common/Executable';
+import { CompilerFile } from '../compiler/common/module/CompilerFile';
+import { JavaCompiler } from '../compiler/java/JavaCompiler';
+import { ASTGlobalNode } from '../compiler/java/parser/AST';
+import { compileWithoutErrors, runMainProgram } from './TestHelpers';
+
+/**
+ * Workspace with several files which are compiled again after each change, like in the editor.
+ */
+class Workspace {
+
+  compiler: JavaCompiler = new JavaCompiler();
+  files: Map<string, CompilerFile> = new Map();
+
+  constructor(sources: { [name: string]: string }, mainFileName: string) {
+    for (let name in sources) {
+      let file = new CompilerFile(name);
+      file.setText(sources[name]);
+      this.files.set(name, file);
+    }
+    this.compiler.setFiles(Array.from(this.files.values()));
+    this.compiler.lastOpenedFile = this.files.get(mainFileName);
+  }
+
+  edit(name: string, text: string) {
+    this.files.get(name)!.setText(text);
+  }
+
+  compile(): Executable {
+    return compileWithoutErrors(this.compiler);
+  }
+
+  run(): string {
+    return runMainProgram(this.compile()).output;
+  }
+
+  /**
+   * AST of a module only changes if it had been parsed again
+   */
+  getAst(name: string): ASTGlobalNode | undefined {
+    return this.compiler.moduleManager.findModuleByFile(this.files.get(name)!)!.ast;
+  }
+
+}
+
+let classB = (value: number) => `class B {
+   int value(){
+      return ${value};
+   }
+}
+`;
+
+let classA = `class A {
+   static int twice(B b){
+      return 2 * b.value();
+   }
+
+   static String describe(Object o){
+      return "Object";
+   }
+
+   static String describe(B b){
+      return "B";
+   }
+}
+`;
+
+let mainProgram = (suffix: string) => `B b = new B();
+println(A.twice(b) + " " + A.describe(b) + "${suffix}");
+`;
+
+test('Edit method body, then edit dependent module', () => {
+  let workspace = new Workspace({ "B.java": classB(1), "A.java": classA, "Main.java": mainProgram("") }, "Main.java");
+
+  expect(workspace.run()).toBe("2 B\n");
+
+  // B's signature doesn't change but it gets new type objects, so A's method declarations
+  // have to be built again. Main only uses B inside statements and keeps it's AST.
+  let mainAst = workspace.getAst("Main.java");
+  let aAst = workspace.getAst("A.java");
+  workspace.edit("B.java", classB(5));
+
+  expect(workspace.run()).toBe("10 B\n");
+  expect(workspace.getAst("Main.java")).toBe(mainAst);
+  expect(workspace.getAst("A.java")).not.toBe(aAst);
+
+  // Main is parsed again and resolves A.twice(B) and A.describe(B) against current type of B:
+  workspace.edit("Main.java", mainProgram("!"));
+
+  expect(workspace.run()).toBe("10 B!\n");
+})
+
+test('Edit dependent module after several edits of method bodies', () => {
+  let workspace = new Workspace({ "B.java": classB(1), "A.java": classA, "Main.java": mainProgram("") }, "Main.java");
+  expect(workspace.run()).toBe("2 B\n");
+
+  for (let i = 2; i <= 4; i++) {
+    workspace.edit("B.java", classB(i));
+    expect(workspace.run()).toBe(2 * i + " B\n");
+    workspace.edit("A.java", classA + "\n// edit " + i);
+    expect(workspace.run()).toBe(2 * i + " B\n");
+    workspace.edit("Main.java", mainProgram("" + i));
+    expect(workspace.run()).toBe(2 * i + " B" + i + "\n");
+  }
+})
+
+test('Module which only uses other module inside statements is not recompiled', () => {
+  let workspace = new Workspace({ "B.java": classB(1), "A.java": classA, "Main.java": mainProgram("") }, "Main.java");
+  workspace.compile();
+
+  let mainAst = workspace.getAst("Main.java");
+  let bAst = workspace.getAst("B.java");
+
+  // A's declarations only reference B, so B and Main keep their ASTs:
+  workspace.edit("A.java", classA.replace("2 * b.value()", "3 * b.value()"));
+
+  expect(workspace.run()).toBe("3 B\n");
+  expect(workspace.getAst("Main.java")).toBe(mainAst);
+  expect(workspace.getAst("B.java")).toBe(bAst);
+})
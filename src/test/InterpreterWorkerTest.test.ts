@@ -0,0 +1,97 @@
+import { expect, test } from 'vitest'
+
+import { SchedulerState } from '../compiler/common/interpreter/Scheduler';
+import { InterpreterWorker } from '../compiler/common/interpreter/worker/InterpreterWorker';
+import { FromWorkerMessage } from '../compiler/common/interpreter/worker/WorkerMessages';
+import { WorkerPrintManager } from '../compiler/common/interpreter/worker/WorkerPrintManager';
+
+type WorkerRun = {
+  output: string,
+  states: SchedulerState[],
+  messages: FromWorkerMessage[]
+}
+
+/**
+ * Runs program inside InterpreterWorker (without an actual web worker) and collects the messages
+ * it posts until the program has finished.
+ */
+function runInWorker(sourcecode: string, inputs: string[] = []): Promise<WorkerRun> {
+  return new Promise((resolve) => {
+    let result: WorkerRun = { output: "", states: [], messages: [] };
+    let hasRun = false;
+
+    let worker = new InterpreterWorker((message: FromWorkerMessage) => {
+      result.messages.push(message);
+      switch (message.type) {
+        case "print":
+          for (let entry of message.entries) {
+            result.output += (entry.text || "") + (entry.withNewline ? "\n" : "");
+          }
+          break;
+        case "readInput":
+          worker.onMessage({ type: "input", value: inputs.shift() || "" });
+          break;
+        case "compilationFailed":
+          resolve(result);
+          break;
+        case "stateChanged":
+          result.states.push(message.newState);
+          if (message.newState == SchedulerState.running) hasRun = true;
+          if (hasRun && message.newState == SchedulerState.stopped) {
+            // if an exception occured then state error follows synchronously
+            setTimeout(() => resolve(result), 0);
+          }
+          break;
+      }
+    });
+
+    worker.onMessage({ type: "run", files: [{ name: "Main.java", text: sourcecode }], mainFileName: "Main.java" });
+  });
+}
+
+test('Worker runs program and posts output', async () => {
+  let result = await runInWorker(`int sum = 0;
+for(int i = 1; i <= 100; i++){
+   sum += i;
+}
+println("Sum: " + sum);
+`);
+
+  expect(result.output).toBe("Sum: 5050\n");
+  expect(result.states[result.states.length - 1]).toBe(SchedulerState.stopped);
+})
+
+test('Worker prints uncaught exception as plain text', async () => {
+  let result = await runInWorker(`println("before");
+int[] a = new int[2];
+a[5] = 1;
+println("after");
+`);
+
+  expect(result.output).toMatch(/^before\nIndexOutOfBoundsException: .*\nStacktrace:\n/s);
+  expect(result.output).not.toContain("after");
+  expect(result.states[result.states.length - 1]).toBe(SchedulerState.error);
+})
+
+test('Worker reports compilation errors', async () => {
+  let result = await runInWorker(`int i = "no number";`);
+
+  expect(result.messages.some(message => message.type == "compilationFailed")).toBe(true);
+  expect(result.output).toBe("");
+})
+
+test('WorkerPrintManager sends text of html elements', () => {
+  let messages: FromWorkerMessage[] = [];
+  let printManager = new WorkerPrintManager((message: FromWorkerMessage) => messages.push(message));
+
+  printManager.print("Hello", false, undefined);
+  printManager.printHtmlElement(<HTMLElement><unknown>{ textContent: "Exception in thread main" });
+  printManager.flush();
+
+  expect(messages).toStrictEqual([{
+    type: "print", entries: [
+      { text: "Hello", withNewline: false, color: undefined },
+      { text: "Exception in thread main", withNewline: true, color: undefined }
+    ]
+  }]);
+})
@@ -5,35 +5,8 @@ import { Interpreter } from "../compiler/common/interpreter/Interpreter";
 import { CompilerFile } from "../compiler/common/module/CompilerFile";
 import { JavaCompiler } from "../compiler/java/JavaCompiler";
 import { getLine, getLineNumber, threeDez } from "../tools/StringTools";
-import { IPrintManager } from "../compiler/common/interpreter/IPrintManager";
 import { ViteTestAssertions } from "./ViteTestAssertions";
-
-class StoreOutputPrintManager implements IPrintManager {
-    
-    output: string = "";
-    
-    isTestPrintManager(): boolean {
-        return true;
-    }
-
-    printHtmlElement(htmlElement: HTMLElement): void {
-        
-    }
-
-    print(text: string | undefined, withNewline: boolean, color: number | undefined): void {
-        if (!text) return;
-        if (text.startsWith("Execution")) return;
-        this.output += text;
-        if (withNewline) this.output += "\n";
-    }
-    clear(): void {
-        this.output = "";
-    }
-
-    flush(): void {
-        
-    }
-}
+import { StoreOutputPrintManager } from "./TestHelpers";
 
 try {
 
@@ -151,7 +124,8 @@ function compileAndTest(name: string, program: string, lineOffset: number, expec
 
         } else if (allErrors.length == 0) {
 
-            let printManager = new StoreOutputPrintManager();
+            // empty lines and messages of the interpreter (e.g. "Execution time...") are not part of the output:
+            let printManager = new StoreOutputPrintManager(text => !!text && !text.startsWith("Execution"));
 
             let interpreter = new Interpreter(printManager);
             interpreter.setExecutable(executable);
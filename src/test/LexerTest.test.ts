@@ -0,0 +1,44 @@
+import { expect, test } from 'vitest'
+
+import { Lexer } from '../compiler/java/lexer/Lexer';
+
+let program = `class Test {
+   int x = 10;
+   String s = "Hello";
+
+   /* comment
+      over two lines */
+   void test() {
+      int y = x
+      -1;
+      Color c = new Color(10, 20, 30);
+      println(s + y);
+   }
+}
+`;
+
+function expectRelexingEqualsLexing(oldText: string, newText: string, message: string) {
+  let oldOutput = new Lexer().lex(oldText);
+  let relexed = new Lexer().relex(oldText, oldOutput, newText);
+  let lexed = new Lexer().lex(newText);
+
+  expect(relexed.tokens.toArray().map(t => [t.tt, t.value, t.range]), message + ": tokens").toStrictEqual(lexed.tokens.toArray().map(t => [t.tt, t.value, t.range]));
+  expect(relexed.errors.map(e => [e.id, e.range]), message + ": errors").toStrictEqual(lexed.errors.map(e => [e.id, e.range]));
+  expect(relexed.colorInformation, message + ": color information").toStrictEqual(lexed.colorInformation);
+  expect(relexed.bracketError, message + ": bracket error").toStrictEqual(lexed.bracketError);
+}
+
+test('Relexing changed region equals lexing whole text', () => {
+  expectRelexingEqualsLexing(program, program.replace("int x = 10", "int x = 1234"), "Change inside line");
+  expectRelexingEqualsLexing(program, program.replace("int y = x", "int y = x;\n      int z = 2;\n"), "Insert lines");
+  expectRelexingEqualsLexing(program, program.replace("   String s = \"Hello\";\n", ""), "Remove line");
+  expectRelexingEqualsLexing(program, program.replace("int x = 10;", "int x = 10; /*"), "Open multiline comment");
+  expectRelexingEqualsLexing(program, program.replace("over two lines */", "over two lines"), "Comment reaches end of file");
+  expectRelexingEqualsLexing(program, program.replace("\"Hello\"", "\"Hello"), "Unclosed string literal");
+  expectRelexingEqualsLexing(program, program.replace("int y = x", "int y = 5"), "Minus in next line");
+  expectRelexingEqualsLexing(program, program.replace("void test() {", "void test() "), "Bracket error");
+  expectRelexingEqualsLexing(program, program.replace("new Color(10, 20, 30)", "new Color(10, 20, 40)"), "Color information");
+  expectRelexingEqualsLexing(program, "// new first line\n" + program, "Change in first line");
+  expectRelexingEqualsLexing(program, program + "class Test2 {}\n", "Append text");
+  expectRelexingEqualsLexing(program, program, "Unchanged text");
+})
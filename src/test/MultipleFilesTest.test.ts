@@ -0,0 +1,59 @@
+import { expect, test } from 'vitest'
+
+import { CompilerFile } from '../compiler/common/module/CompilerFile';
+import { compileFiles, runMainProgram } from './TestHelpers';
+
+/**
+ * Compiles given files (one module per file, in given order) and runs main program.
+ */
+function compileAndRun(sources: { name: string, text: string }[], mainFileName: string): string {
+  let files = sources.map(source => {
+    let file = new CompilerFile(source.name);
+    file.setText(source.text);
+    return file;
+  });
+
+  return runMainProgram(compileFiles(files, files.find(file => file.name == mainFileName))).output;
+}
+
+let classA = `class A {
+   int a;
+
+   A(int a){
+      this.a = a;
+   }
+}
+`;
+
+// B and C have no explicit constructor, so they get copies of A(int a):
+let classB = `class B extends A {
+   int b = 5;
+}
+`;
+
+let classC = `class C extends B {
+   int c = 7;
+}
+`;
+
+let mainProgram = `C obj = new C(3);
+println(obj.a + " " + obj.b + " " + obj.c);
+`;
+
+test('Standard constructors of subclass in module preceding module of base class', () => {
+  // C's standard constructor has to call B's standard constructor (which initializes b), not A(int a),
+  // so B's module has to be processed first regardless of the order of files:
+  expect(compileAndRun([
+    { name: "C.java", text: classC },
+    { name: "B.java", text: classB },
+    { name: "A.java", text: classA },
+    { name: "Main.java", text: mainProgram }
+  ], "Main.java")).toBe("3 5 7\n");
+
+  expect(compileAndRun([
+    { name: "A.java", text: classA },
+    { name: "B.java", text: classB },
+    { name: "C.java", text: classC },
+    { name: "Main.java", text: mainProgram }
+  ], "Main.java")).toBe("3 5 7\n");
+})
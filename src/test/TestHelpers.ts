@@ -0,0 +1,68 @@
+import { expect } from 'vitest';
+import { Executable } from '../compiler/common/Executable';
+import { Interpreter } from '../compiler/common/interpreter/Interpreter';
+import { IPrintManager } from '../compiler/common/interpreter/IPrintManager';
+import { CompilerFile } from '../compiler/common/module/CompilerFile';
+import { JavaCompiler } from '../compiler/java/JavaCompiler';
+
+export class StoreOutputPrintManager implements IPrintManager {
+
+    output: string = "";
+
+    /**
+     * @param filter if given then only text for which filter returns true is stored
+     */
+    constructor(private filter?: (text: string | undefined) => boolean) {
+
+    }
+
+    print(text: string | undefined, withNewline: boolean, color: number | undefined): void {
+        if (this.filter && !this.filter(text)) return;
+        if (text) this.output += text;
+        if (withNewline) this.output += "\n";
+    }
+
+    flush(): void { }
+
+    clear(): void {
+        this.output = "";
+    }
+
+    printHtmlElement(htmlElement: HTMLElement): void { }
+
+    isTestPrintManager(): boolean {
+        return true;
+    }
+
+}
+
+/**
+ * Compiles all dirty modules and lets the test fail if there are compilation errors.
+ */
+export function compileWithoutErrors(compiler: JavaCompiler): Executable {
+    let executable = compiler.compileIfDirty()!;
+    expect(executable.getAllErrors().filter(error => error.level == "error").map(error => error.message)).toStrictEqual([]);
+    return executable;
+}
+
+/**
+ * Compiles given files (one module per file, in given order) with a new compiler.
+ */
+export function compileFiles(files: CompilerFile[], mainFile?: CompilerFile): Executable {
+    let compiler = new JavaCompiler();
+    compiler.setFiles(files);
+    if (mainFile) compiler.lastOpenedFile = mainFile;
+    return compileWithoutErrors(compiler);
+}
+
+/**
+ * Runs main program synchronously and returns its output together with the interpreter for
+ * further inspection.
+ */
+export function runMainProgram(executable: Executable): { output: string, interpreter: Interpreter } {
+    let printManager = new StoreOutputPrintManager();
+    let interpreter = new Interpreter(printManager);
+    interpreter.setExecutable(executable);
+    interpreter.runMainProgramSynchronously();
+    return { output: printManager.output, interpreter: interpreter };
+}
@@ -67,3 +67,25 @@ String a2String = a2;
 
 assertEquals("[Zahl: 0, Zahl: 1, Zahl: 2]", a1String, "Casting array of objects to string doesn't work.");
 assertEquals("[[Zahl: 0, Zahl: 1, Zahl: 2], [Zahl: 0, Zahl: 1, Zahl: 2]]", a2String, "Casting array of objects to string doesn't work.");
+
+/**::
+ * Arrays of numeric primitive types
+ */
+
+int[] ints = new int[3];
+assertEquals(0, ints[1], "Default value of int array");
+ints[0] = 2147483647;
+ints[0]++;
+assertEquals(-2147483648, ints[0], "int array element overflows like in java");
+
+byte[] bytes = {127, 1};
+bytes[0] += bytes[1];
+assertEquals(-128, bytes[0], "byte array element overflows like in java");
+
+double[][] matrix = new double[2][3];
+matrix[1][2] = 1.5;
+assertEquals(3, matrix[1].length, "Length of inner dimension");
+assertEquals("[[0, 0, 0], [0, 0, 1.5]]", "" + matrix, "Cast from two dimensional double array to string");
+
+int[] empty = {};
+assertEquals(0, empty.length, "Empty int array literal");
@@ -0,0 +1,73 @@
+/**::
+ * Hot method is executed as whole-method function over many time slices
+ */
+int total = 0;
+for(int k = 0; k < 3; k++){
+   total += Tier1.sumOfDigits(100000);
+}
+
+assertEquals(1350000, total, "Whole-method function loses local variables between time slices.");
+
+class Tier1 {
+   static int sumOfDigits(int n) {
+      int sum = 0;
+      int digit = 0;
+      for(int i = 0; i < n; i++){
+         digit = i % 10;
+         sum += digit;
+      }
+      return sum;
+   }
+}
+
+/**::
+ * Exception inside hot loop of whole-method function is caught by caller
+ * { "expectedOutput": "IndexOutOfBoundsException caught, sum so far: 0\nAfter catch: 2000 1\n" }
+ */
+int[] values = new int[2000];
+for(int i = 0; i < values.length; i++){
+   values[i] = 1;
+}
+
+int result = 0;
+int caught = 0;
+try {
+   result = Tier2.sumUntil(values, 2500);
+   println("This statement must not be reached.");
+} catch (IndexOutOfBoundsException ex) {
+   caught++;
+   println("IndexOutOfBoundsException caught, sum so far: " + result);
+}
+
+result = Tier2.sumUntil(values, values.length);
+println("After catch: " + result + " " + caught);
+
+class Tier2 {
+   static int sumUntil(int[] a, int n) {
+      int sum = 0;
+      for(int i = 0; i < n; i++){
+         sum += a[i];
+      }
+      return sum;
+   }
+}
+
+/**::
+ * Exceptions inside hot loop with try-catch-block
+ */
+int count = 0;
+int caught = 0;
+int lastIndex = -1;
+for(int i = 0; i < 3000; i++){
+   try {
+      if(i % 1000 == 999) throw new RuntimeException("Exception " + i);
+      count++;
+   } catch (RuntimeException ex) {
+      caught++;
+      lastIndex = i;
+   }
+}
+
+assertEquals(2997, count, "Wrong number of loop iterations without exception.");
+assertEquals(3, caught, "Wrong number of caught exceptions.");
+assertEquals(2999, lastIndex, "Local variable has wrong value after catch block.");
@@ -15,4 +15,67 @@ assertEquals(3, hm.size(), "HashMap.size");
 
 hm.forEach((k, v) -> {
       println(k + ": " + v);
-}); 
\ No newline at end of file
+}); 
+
+/**::
+ * HashMap with user-defined hashCode and equals
+ * { "expectedOutput": "2\n7\n"}
+ */
+
+HashMap<Point, Integer> map = new HashMap<>();
+
+map.put(new Point(1, 2), 5);
+map.put(new Point(1, 2), 7);
+map.put(new Point(2, 1), 3);      // same hash code as Point(1, 2)
+
+println(map.size());
+println(map.get(new Point(1, 2)));
+
+assertTrue(map.containsKey(new Point(2, 1)), "HashMap.containsKey");
+assertFalse(map.containsKey(new Point(3, 0)), "HashMap.containsKey");
+assertEquals(3, map.remove(new Point(2, 1)), "HashMap.remove");
+assertEquals(1, map.size(), "HashMap.remove");
+
+class Point {
+   int x;
+   int y;
+
+   Point(int x, int y) {
+      this.x = x;
+      this.y = y;
+   }
+
+   public int hashCode() {
+      return x + y;
+   }
+
+   public boolean equals(Object o) {
+      if (o instanceof Point) {
+         Point p = (Point) o;
+         return p.x == x && p.y == y;
+      }
+      return false;
+   }
+}
+
+/**::
+ * HashMap.merge, getOrDefault, putIfAbsent and entrySet
+ * { "expectedOutput": "a: 3\nc: 2\nb: 1\n"}
+ */
+
+HashMap<String, Integer> count = new HashMap<>();
+String[] words = {"a", "c", "a", "b", "c", "a"};
+
+for (String word : words) {
+   count.merge(word, 1, (x, y) -> x + y);
+}
+
+assertEquals(0, count.getOrDefault("d", 0), "HashMap.getOrDefault");
+assertEquals(2, count.getOrDefault("c", 0), "HashMap.getOrDefault");
+assertEquals(null, count.putIfAbsent("d", 4), "HashMap.putIfAbsent");
+assertEquals(4, count.putIfAbsent("d", 5), "HashMap.putIfAbsent");
+count.remove("d");
+
+for (Map.Entry<String, Integer> entry : count.entrySet()) {
+   println(entry.getKey() + ": " + entry.getValue());
+}
@@ -37,4 +37,41 @@ assertFalse(s.contains("Dennis"), "HashSet.remove");
 
 s.removeAll(list);
 assertTrue(s.contains("Berta"), "HashSet.removeAll");
-assertFalse(s.contains("Martin"), "HashSet.removeAll");
\ No newline at end of file
+assertFalse(s.contains("Martin"), "HashSet.removeAll");
+
+/**::
+ * HashSet with user-defined hashCode and equals
+ * { "expectedOutput": "2" }
+ */
+
+HashSet<Fraction> fractions = new HashSet<>();
+fractions.add(new Fraction(1, 2));
+fractions.add(new Fraction(2, 4));
+fractions.add(new Fraction(1, 3));
+
+print(fractions.size());
+assertTrue(fractions.contains(new Fraction(3, 6)), "HashSet.contains");
+assertTrue(fractions.remove(new Fraction(2, 6)), "HashSet.remove");
+assertFalse(fractions.contains(new Fraction(1, 3)), "HashSet.remove");
+
+class Fraction {
+   int numerator;
+   int denominator;
+
+   Fraction(int numerator, int denominator) {
+      this.numerator = numerator;
+      this.denominator = denominator;
+   }
+
+   public int hashCode() {
+      return 0;
+   }
+
+   public boolean equals(Object o) {
+      if (o instanceof Fraction) {
+         Fraction f = (Fraction) o;
+         return f.numerator * denominator == numerator * f.denominator;
+      }
+      return false;
+   }
+}
@@ -68,4 +68,43 @@ class B extends A {
       assertEquals(10, staticGetA(), "Accessing static field from non-static method of child class works.");
       assertEquals(10, a, "Accessing static field from static method of child class works.");
    }
-}
\ No newline at end of file
+}
+/**::
+ * Ellipsis with primitive types
+ * { "expectedOutput": "6 3\n2.5\n-46\n1 2 3 \n" }
+ */
+
+println(V.sum(1, 2, 3) + " " + V.count(5, 6, 7));
+println(V.average(1, 2.5, 4));
+println(V.firstPlus200((byte)10, (byte)20));
+V.printSorted(3, 1, 2);
+
+class V {
+   static int sum(int... values){
+      int sum = 0;
+      for(int v : values) sum += v;
+      return sum;
+   }
+
+   static int count(int... values){
+      return values.length;
+   }
+
+   static double average(double... values){
+      double sum = 0;
+      for(int i = 0; i < values.length; i++) sum += values[i];
+      return sum / values.length;
+   }
+
+   static int firstPlus200(byte... values){
+      values[0] += 200;
+      return values[0];
+   }
+
+   static void printSorted(int... values){
+      Arrays.sort(values);
+      String s = "";
+      for(int v : values) s += v + " ";
+      println(s);
+   }
+}
@@ -0,0 +1,85 @@
+/**::
+ * Thread.sleep advances program time without waiting in headless runs
+ */
+long start = System.nanoTime();
+Thread.sleep(60000);
+double elapsedMs = (System.nanoTime() - start) / 1e6;
+
+assertTrue(elapsedMs >= 60000, "Thread.sleep(60000) returned too early.");
+assertTrue(elapsedMs < 61000, "Thread.sleep(60000) took too long.");
+
+// Thread.sleep takes long like in Java:
+long millis = 2L * 60000;
+start = System.nanoTime();
+Thread.sleep(millis);
+elapsedMs = (System.nanoTime() - start) / 1e6;
+
+assertTrue(elapsedMs >= 120000, "Thread.sleep(long) returned too early.");
+assertTrue(elapsedMs < 121000, "Thread.sleep(long) took too long.");
+
+/**::
+ * Sleeping threads wake up in order of their wakeup time
+ * { "expectedOutput": "100 200 300 \n" }
+ */
+Thread t1 = new Thread(new Sleeper(300));
+Thread t2 = new Thread(new Sleeper(100));
+Thread t3 = new Thread(new Sleeper(200));
+t1.start();
+t2.start();
+t3.start();
+
+t1.join();
+t2.join();
+t3.join();
+
+println(Log.text);
+
+class Log {
+   static String text = "";
+}
+
+class Sleeper implements Runnable {
+   int ms;
+
+   Sleeper(int ms){
+      this.ms = ms;
+   }
+
+   public void run(){
+      Thread.sleep(ms);
+      Log.text += ms + " ";
+   }
+}
+
+/**::
+ * Timer fires while main thread sleeps
+ */
+Counter counter = new Counter();
+Timer.repeat(counter, 100);
+
+Thread.sleep(1050);
+
+assertEquals(10, counter.count, "Timer fired wrong number of times.");
+
+class Counter implements Runnable {
+   int count = 0;
+
+   public void run(){
+      count++;
+   }
+}
+
+/**::
+ * Object.wait(ms) returns after timeout if nobody calls notify
+ */
+Object lock = new Object();
+long start = System.nanoTime();
+
+synchronized(lock){
+   lock.wait(500);
+}
+
+double elapsedMs = (System.nanoTime() - start) / 1e6;
+
+assertTrue(elapsedMs >= 500, "wait(500) returned too early.");
+assertTrue(elapsedMs < 1500, "wait(500) took too long.");
@@ -0,0 +1,138 @@
+/**::
+ * LinkedList as queue: ring buffer wraps around and grows
+ * { "expectedOutput": "0 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16 17 18 19 \n" }
+ */
+
+LinkedList<Integer> queue = new LinkedList<>();
+
+for (int i = 0; i < 10; i++) {
+    queue.add(i + 10);
+    queue.addFirst(9 - i);
+}
+
+// head of ring buffer is now in the middle of it, so these additions wrap around
+for (int i = 0; i < 10; i++) {
+    queue.add(queue.removeFirst());
+}
+
+assertEquals(20, queue.size(), "LinkedList.size");
+
+String s = "";
+for (Integer i : queue) {
+    s += i + " ";
+}
+println(s);
+
+/**::
+ * Enhanced for loops over LinkedList and ArrayDeque access ring buffer by index
+ * { "expectedOutput": "a1 a2 b1 b2 \nempty\n1 2 3 \n" }
+ */
+
+LinkedList<String> letters = new LinkedList<>();
+letters.addFirst("b");
+letters.addFirst("a");
+
+LinkedList<Integer> numbers = new LinkedList<>();
+numbers.add(1);
+numbers.add(2);
+
+String s = "";
+for (String letter : letters) {
+    for (int n : numbers) {
+        s += letter + n + " ";
+    }
+}
+println(s);
+
+LinkedList<String> emptyList = new LinkedList<>();
+for (String e : emptyList) {
+    println("This statement must not be reached.");
+}
+println("empty");
+
+ArrayDeque<Integer> stack = new ArrayDeque<>();
+for (int i = 1; i <= 3; i++) stack.push(i);
+s = "";
+for (int i : stack) s += i + " ";
+println(s);
+
+/**::
+ * ArrayDeque as stack and queue
+ */
+
+ArrayDeque<String> deque = new ArrayDeque<>();
+deque.add("Bonny");
+deque.addFirst("Anton");
+deque.addLast("Charlie");
+deque.push("Dennis");
+
+assertEquals("[Anton, Bonny, Charlie, Dennis]", deque.toString(), "ArrayDeque.add/addFirst/addLast/push");
+assertEquals("Dennis", deque.pop(), "ArrayDeque.pop");
+assertEquals("Anton", deque.poll(), "ArrayDeque.poll");
+assertEquals("Bonny", deque.peek(), "ArrayDeque.peek");
+assertTrue(deque.remove("Charlie"), "ArrayDeque.remove");
+assertEquals(1, deque.size(), "ArrayDeque.size");
+
+Deque<String> d = deque;
+d.clear();
+assertTrue(d.isEmpty(), "ArrayDeque.clear");
+assertEquals(null, d.peekFirst(), "ArrayDeque.peekFirst");
+
+/**::
+ * PriorityQueue with natural ordering and with comparator
+ * { "expectedOutput": "1 2 3 5 8 9 \n9 8 5 3 2 1 \nAnna Bert Carl \n" }
+ */
+
+PriorityQueue<Integer> pq = new PriorityQueue<>();
+pq.add(5);
+pq.add(1);
+pq.offer(8);
+pq.add(3);
+pq.add(9);
+pq.add(2);
+
+assertEquals(1, pq.peek(), "PriorityQueue.peek");
+assertEquals(6, pq.size(), "PriorityQueue.size");
+
+String s1 = "";
+while (!pq.isEmpty()) {
+    s1 += pq.poll() + " ";
+}
+println(s1);
+
+PriorityQueue<Integer> pq2 = new PriorityQueue<>((a, b) -> b - a);
+pq2.add(5);
+pq2.add(1);
+pq2.add(8);
+pq2.add(3);
+pq2.add(9);
+pq2.add(2);
+
+String s2 = "";
+while (pq2.size() > 0) {
+    s2 += pq2.remove() + " ";
+}
+println(s2);
+
+PriorityQueue<Person> persons = new PriorityQueue<>();
+persons.add(new Person("Carl"));
+persons.add(new Person("Anna"));
+persons.add(new Person("Bert"));
+
+String s3 = "";
+while (persons.peek() != null) {
+    s3 += persons.poll().name + " ";
+}
+println(s3);
+
+class Person implements Comparable<Person> {
+    String name;
+
+    Person(String name) {
+        this.name = name;
+    }
+
+    public int compareTo(Person other) {
+        return name.compareTo(other.name);
+    }
+}
@@ -19,4 +19,171 @@ class StringComparator implements Comparator<String> {
 
 list.sort(new StringComparator());
 
-list.forEach((s) -> {print(s);})
\ No newline at end of file
+list.forEach((s) -> {print(s);})
+
+/**::
+ * Sorting is stable and uses the given comparator
+ * { "expectedOutput": "Anna 1, Carl 1, Bert 2, Dora 2, Emil 3, " }
+ */
+
+ArrayList<Person> persons = new ArrayList<>();
+persons.add(new Person("Emil", 3));
+persons.add(new Person("Bert", 2));
+persons.add(new Person("Anna", 1));
+persons.add(new Person("Dora", 2));
+persons.add(new Person("Carl", 1));
+
+Collections.sort(persons, (p1, p2) -> p1.name.compareTo(p2.name));
+Collections.sort(persons, (p1, p2) -> p1.group - p2.group);
+
+for (Person p : persons) {
+   print(p.name + " " + p.group + ", ");
+}
+
+class Person {
+   String name;
+   int group;
+
+   Person(String name, int group) {
+      this.name = name;
+      this.group = group;
+   }
+}
+
+/**::
+ * Sort many elements
+ */
+
+ArrayList<Integer> numbers = new ArrayList<>();
+for (int i = 0; i < 1000; i++) {
+   numbers.add((i * 7919) % 1000);
+}
+
+Collections.sort(numbers);
+
+boolean sorted = true;
+for (int i = 0; i < 1000; i++) {
+   if (numbers.get(i) != i) sorted = false;
+}
+assertTrue(sorted, "Collections.sort");
+
+/**::
+ * Arrays.sort
+ * { "expectedOutput": "-3 0 2 5 9 \n1.5 2.0 3.25 \nabc \nAnton Bert Zoe \nZoe Bert Anton \n" }
+ */
+
+int[] a = {5, -3, 9, 0, 2};
+Arrays.sort(a);
+String s = "";
+for (int i : a) s += i + " ";
+println(s);
+
+double[] d = {3.25, 1.5, 2.0};
+Arrays.sort(d);
+s = "";
+for (double x : d) s += x + " ";
+println(s);
+
+char[] c = {'c', 'a', 'b'};
+Arrays.sort(c);
+s = "";
+for (char x : c) s += x;
+println(s + " ");
+
+String[] names = {"Zoe", "Anton", "Bert"};
+Arrays.sort(names);
+s = "";
+for (String n : names) s += n + " ";
+println(s);
+
+Arrays.sort(names, (n1, n2) -> n2.compareTo(n1));
+s = "";
+for (String n : names) s += n + " ";
+println(s);
+
+/**::
+ * Exception inside comparator is caught by caller of sort
+ * { "expectedOutput": "RuntimeException caught: Compare 7\n1 2 3 4 5 \nNullPointerException caught\n" }
+ */
+
+ArrayList<Integer> list = new ArrayList<>();
+for (int i = 0; i < 10; i++) list.add(10 - i);
+
+try {
+   Collections.sort(list, (x, y) -> {
+      if (x == 7 || y == 7) throw new RuntimeException("Compare 7");
+      return x - y;
+   });
+   println("This statement must not be reached.");
+} catch (RuntimeException ex) {
+   println("RuntimeException caught: " + ex.getMessage());
+}
+
+Integer[] numbers = {5, 3, 1, 4, 2};
+Arrays.sort(numbers, (x, y) -> x - y);
+String s = "";
+for (int n : numbers) s += n + " ";
+println(s);
+
+int[] nullArray = null;
+try {
+   Arrays.sort(nullArray);
+} catch (NullPointerException ex) {
+   println("NullPointerException caught");
+}
+
+/**::
+ * Exceptions caught inside comparator don't affect sorting
+ * { "expectedOutput": "1 2 3 4 5 6 7 8 9 10 \nx y z 1 2 3 \n" }
+ */
+
+ArrayList<Integer> list = new ArrayList<>();
+for (int i = 0; i < 10; i++) list.add((i * 7) % 10 + 1);
+
+Collections.sort(list, (x, y) -> {
+   try {
+      if (x % 3 == 0) throw new RuntimeException("Multiple of 3");
+   } catch (RuntimeException ex) {
+      // ignore
+   }
+   return x - y;
+});
+
+String s = "";
+for (int n : list) s += n + " ";
+println(s);
+
+String[] values = {"3", "z", "1", "x", "2", "y"};
+LettersFirst lettersFirst = new LettersFirst();
+Arrays.sort(values, lettersFirst);
+assertTrue(lettersFirst.finallyCount > 0, "finally block inside comparator not executed.");
+s = "";
+for (String v : values) s += v + " ";
+println(s);
+
+class LettersFirst implements Comparator<String> {
+
+   int finallyCount = 0;
+
+   public int compare(String a, String b) {
+      int ka = key(a);
+      int kb = key(b);
+      if (ka != kb) return ka - kb;
+      return a.compareTo(b);
+   }
+
+   int key(String v) {
+      try {
+         return parse(v);
+      } catch (RuntimeException ex) {
+         return 0;
+      } finally {
+         finallyCount++;
+      }
+   }
+
+   int parse(String v) {
+      if (v.compareTo("a") >= 0) throw new RuntimeException("No digit: " + v);
+      return 1;
+   }
+}
@@ -28,3 +28,184 @@ for(int n = 0; n < 10; n++){
 }
 
 
+
+/**::
+ * synchronized is reentrant and wait() keeps lock depth
+ * { "expectedOutput": "depth 3\nwait notify resumed inner left outer left main \n" }
+ */
+Account account = new Account();
+println("depth " + account.a());
+
+Object lock = new Object();
+Thread waiter = new Thread(new Waiter(lock));
+waiter.start();
+Thread.sleep(10);
+
+synchronized(lock){
+   Log.text += "notify ";
+   lock.notify();
+}
+
+// waiter holds lock until it leaves outer synchronized block:
+synchronized(lock){
+   Log.text += "main ";
+}
+
+waiter.join();
+println(Log.text);
+
+class Log {
+   static String text = "";
+}
+
+class Account {
+   int depth = 0;
+
+   synchronized int a(){
+      depth++;
+      int d = b();
+      depth--;
+      return d;
+   }
+
+   synchronized int b(){
+      depth++;
+      int d = 0;
+      synchronized(this){
+         depth++;
+         d = depth;
+         depth--;
+      }
+      depth--;
+      return d;
+   }
+}
+
+class Waiter implements Runnable {
+   Object lock;
+
+   Waiter(Object lock){
+      this.lock = lock;
+   }
+
+   public void run(){
+      synchronized(lock){
+         synchronized(lock){
+            Log.text += "wait ";
+            lock.wait();
+            Log.text += "resumed ";
+         }
+         Log.text += "inner left ";
+         Thread.sleep(50);
+         Log.text += "outer left ";
+      }
+   }
+}
+
+/**::
+ * Threads are notified in order of their calls to wait()
+ * { "expectedOutput": "n w1 n w2 n w3 all w4 w5 w6 \n" }
+ */
+Object lock = new Object();
+
+for(int i = 1; i <= 3; i++){
+   new Thread(new Waiter(lock, "w" + i)).start();
+   Thread.sleep(10);
+}
+
+for(int i = 0; i < 3; i++){
+   synchronized(lock){
+      lock.notify();
+      // notified thread continues after this thread left synchronized block
+      Log.text += "n ";
+   }
+   Thread.sleep(10);
+}
+
+for(int i = 4; i <= 6; i++){
+   new Thread(new Waiter(lock, "w" + i)).start();
+   Thread.sleep(10);
+}
+
+synchronized(lock){
+   lock.notifyAll();
+   Log.text += "all ";
+}
+Thread.sleep(10);
+
+println(Log.text);
+
+class Log {
+   static String text = "";
+}
+
+class Waiter implements Runnable {
+   Object lock;
+   String name;
+
+   Waiter(Object lock, String name){
+      this.lock = lock;
+      this.name = name;
+   }
+
+   public void run(){
+      synchronized(lock){
+         lock.wait();
+         Log.text += name + " ";
+      }
+   }
+}
+
+/**::
+ * wait(ms) times out, but thread has to get the lock again before it continues
+ * { "expectedOutput": "main leaves timed out notified\n" }
+ */
+Object lock = new Object();
+
+// nobody calls notify: waiter times out after 100 ms while main holds the lock
+Thread waiter = new Thread(new TimedWaiter(lock, 100));
+waiter.start();
+Thread.sleep(10);
+synchronized(lock){
+   Thread.sleep(500);
+   Log.text += "main leaves ";
+}
+waiter.join();
+
+// notify before timeout
+waiter = new Thread(new TimedWaiter(lock, 10000));
+waiter.start();
+Thread.sleep(10);
+synchronized(lock){
+   lock.notify();
+}
+waiter.join();
+
+println(Log.text);
+
+class Log {
+   static String text = "";
+}
+
+class TimedWaiter implements Runnable {
+   Object lock;
+   int ms;
+
+   TimedWaiter(Object lock, int ms){
+      this.lock = lock;
+      this.ms = ms;
+   }
+
+   public void run(){
+      synchronized(lock){
+         long start = System.nanoTime();
+         lock.wait(ms);
+         double elapsedMs = (System.nanoTime() - start) / 1e6;
+         if(elapsedMs >= ms){
+            if(elapsedMs >= 490) Log.text += "timed out ";
+         } else {
+            Log.text += "notified";
+         }
+      }
+   }
+}
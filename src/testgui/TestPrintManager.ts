@@ -1,40 +1,144 @@
 import { IPrintManager } from "../compiler/common/interpreter/IPrintManager";
+import { OutputLine, OutputLineBuffer } from "../compiler/common/interpreter/OutputLineBuffer";
 import { DOM } from "../tools/DOM";
 
+/**
+ * Output is collected in an OutputLineBuffer and rendered at most once per animation frame.
+ * Only the rows inside the visible part of the output div (plus a few rows above and below)
+ * get DOM elements, so printing 100k lines neither stalls the browser nor grows the DOM.
+ */
 export class TestPrintManager implements IPrintManager {
-    
+
+    static rowHeight: number = 18;      // px
+    static overscanRows: number = 10;
+
+    private buffer: OutputLineBuffer;
+
+    private renderPending: boolean = false;
+    private renderedVersion: number = -1;
+
+    private outputDiv?: HTMLElement;
+    private spacerDiv?: HTMLDivElement;     // has height of all rows => scrollbar
+    private rowsDiv?: HTMLDivElement;       // contains rendered rows
+
+    constructor(scrollback?: number) {
+        this.buffer = new OutputLineBuffer(scrollback);
+    }
+
     printHtmlElement(htmlElement: HTMLElement): void {
-        let output = document.getElementById('output')!;
-        output.append(htmlElement);
+        let rowsDiv = this.getRowsDiv();
+
+        // html elements (e.g. exceptions) are measured once so that they can take part in virtual scrolling
+        rowsDiv.append(htmlElement);
+        let rows = Math.ceil(htmlElement.offsetHeight / TestPrintManager.rowHeight);
+        htmlElement.remove();
+
+        this.buffer.addHtmlElement(htmlElement, rows);
+        this.requestRender();
     }
 
     print(text: string | undefined, withNewline: boolean, color: number | undefined): void {
-        if(!text){
-            text = "";
-        }  else {
-            text = "" + text;
-        }
-        let output = document.getElementById('output')!;
-
-        if(withNewline){
-            DOM.makeDiv(output, 'output').textContent = text;
-        } else {
-            DOM.makeSpan(output, 'output').textContent = text;
-        }
+        this.buffer.print(text ? "" + text : "", withNewline, color);
+        this.requestRender();
     }
 
-    clear(){
-        let output = document.getElementById('output')!;
-        DOM.clear(output);
+    clear() {
+        this.buffer.clear();
+        this.requestRender();
     }
 
     flush(): void {
-        
+        this.requestRender();
     }
 
     isTestPrintManager(): boolean {
         return true;
     }
 
+    private requestRender() {
+        if (this.renderPending) return;
+        this.renderPending = true;
+        requestAnimationFrame(() => {
+            this.renderPending = false;
+            this.render(false);
+        });
+    }
+
+    private render(scrolled: boolean) {
+        let outputDiv = this.getOutputDiv();
+        if (!scrolled && this.renderedVersion == this.buffer.version) return;
+
+        let rowHeight = TestPrintManager.rowHeight;
+        let wasScrolledToBottom = outputDiv.scrollTop + outputDiv.clientHeight >= outputDiv.scrollHeight - rowHeight;
+
+        this.spacerDiv!.style.height = (this.buffer.getRowCount() * rowHeight) + "px";
+        if (wasScrolledToBottom && !scrolled) {
+            outputDiv.scrollTop = outputDiv.scrollHeight;
+        }
+
+        this.renderedVersion = this.buffer.version;
+
+        let rowsDiv = this.rowsDiv!;
+        DOM.clear(rowsDiv);
+
+        let firstRowOfBuffer = this.buffer.getFirstRow();
+        let firstRow = firstRowOfBuffer + Math.floor(outputDiv.scrollTop / rowHeight) - TestPrintManager.overscanRows;
+        let lastRow = firstRowOfBuffer + Math.ceil((outputDiv.scrollTop + outputDiv.clientHeight) / rowHeight) + TestPrintManager.overscanRows;
+
+        let index = this.buffer.findLineIndexAtRow(firstRow);
+        if (index < 0) return;
+
+        rowsDiv.style.top = ((this.buffer.getLine(index).firstRow - firstRowOfBuffer) * rowHeight) + "px";
+
+        let lineCount = this.buffer.getLineCount();
+        for (; index < lineCount; index++) {
+            let line = this.buffer.getLine(index);
+            if (line.firstRow > lastRow) break;
+            rowsDiv.append(this.renderLine(line));
+        }
+    }
+
+    private renderLine(line: OutputLine): HTMLElement {
+        let rowDiv = DOM.makeDiv(undefined, 'output', 'jo_output_row');
+        rowDiv.style.height = (line.rows * TestPrintManager.rowHeight) + "px";
+
+        if (line.htmlElement) {
+            rowDiv.append(line.htmlElement);
+            return rowDiv;
+        }
+
+        for (let segment of line.segments) {
+            let span = DOM.makeSpan(rowDiv);
+            span.textContent = segment.text;
+            if (segment.color !== undefined) {
+                span.style.color = "#" + segment.color.toString(16).padStart(6, "0");
+            }
+        }
+
+        return rowDiv;
+    }
+
+    private getOutputDiv(): HTMLElement {
+        if (!this.outputDiv) {
+            let outputDiv = document.getElementById('output')!;
+            DOM.clear(outputDiv);
+            outputDiv.style.position = "relative";
+
+            this.spacerDiv = DOM.makeDiv(outputDiv, 'jo_output_spacer');
+            this.rowsDiv = DOM.makeDiv(outputDiv, 'jo_output_rows');
+
+            outputDiv.addEventListener("scroll", () => {
+                this.render(true);
+            });
+
+            this.outputDiv = outputDiv;
+        }
+        return this.outputDiv;
+    }
+
+    private getRowsDiv(): HTMLDivElement {
+        this.getOutputDiv();
+        return this.rowsDiv!;
+    }
 
-}
\ No newline at end of file
+}